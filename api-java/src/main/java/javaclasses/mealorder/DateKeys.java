@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder;
+
+import io.spine.time.LocalDate;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The utility class for working with the packed integer keys of {@link LocalDate} values.
+ *
+ * <p>A date key is the {@code yyyymmdd} decimal number, e.g. {@code 20180316} for
+ * March 16, 2018. The keys preserve the chronological order of dates, so dates
+ * are compared as primitive {@code int} values without any intermediate allocations.
+ *
+ * <p>Callers are expected to encode a date once and then use the primitive
+ * helpers of this class for all the comparisons.
+ *
+ * @author agent
+ */
+public final class DateKeys {
+
+    private static final int YEAR_MULTIPLIER = 10_000;
+    private static final int MONTH_MULTIPLIER = 100;
+
+    /** Prevents instantiation of this utility class. */
+    private DateKeys() {
+    }
+
+    /**
+     * Encodes the date into the {@code yyyymmdd} key.
+     *
+     * @param date the date to encode
+     * @return the packed key of the date
+     */
+    public static int toKey(LocalDate date) {
+        checkNotNull(date);
+        return toKey(date.getYear(), date.getMonthValue(), date.getDay());
+    }
+
+    /**
+     * Encodes the date components into the {@code yyyymmdd} key.
+     *
+     * @param year  the year value
+     * @param month the number of the month, starting from {@code 1}
+     * @param day   the day of the month
+     * @return the packed key of the date
+     */
+    public static int toKey(int year, int month, int day) {
+        return year * YEAR_MULTIPLIER + month * MONTH_MULTIPLIER + day;
+    }
+
+    /**
+     * Obtains the key of the start date of the range.
+     *
+     * @param range the date range
+     * @return the packed key of the range start
+     */
+    public static int startKey(MenuDateRange range) {
+        checkNotNull(range);
+        return toKey(range.getRangeStart());
+    }
+
+    /**
+     * Obtains the key of the end date of the range.
+     *
+     * @param range the date range
+     * @return the packed key of the range end
+     */
+    public static int endKey(MenuDateRange range) {
+        checkNotNull(range);
+        return toKey(range.getRangeEnd());
+    }
+
+    /**
+     * Compares two date keys.
+     *
+     * @param key1 the first key to compare
+     * @param key2 the second key to compare
+     * @return a negative integer, zero, or a positive integer as the first date
+     * is less than, equal to, or greater than the second
+     */
+    public static int compare(int key1, int key2) {
+        return Integer.compare(key1, key2);
+    }
+
+    /**
+     * Checks whether the date key belongs to the range, including its bounds.
+     *
+     * @param key      the key of the date to check
+     * @param startKey the key of the range start
+     * @param endKey   the key of the range end
+     * @return {@code true} if the date belongs to the range
+     */
+    public static boolean isWithin(int key, int startKey, int endKey) {
+        return key >= startKey && key <= endKey;
+    }
+
+    /**
+     * Checks whether the date range includes the date.
+     *
+     * @param range the date range
+     * @param date  the date to check
+     * @return {@code true} if the date belongs to the range
+     */
+    public static boolean rangeIncludes(MenuDateRange range, LocalDate date) {
+        checkNotNull(range);
+        checkNotNull(date);
+        return isWithin(toKey(date), startKey(range), endKey(range));
+    }
+}
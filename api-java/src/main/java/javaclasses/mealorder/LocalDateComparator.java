@@ -24,9 +24,13 @@ import io.spine.time.LocalDate;
 
 import java.util.Comparator;
 
-import static java.lang.String.format;
+import static javaclasses.mealorder.DateKeys.toKey;
 
 /**
+ * Compares {@link LocalDate} values in the chronological order.
+ *
+ * <p>The dates are compared by their packed keys. See {@link DateKeys} for details.
+ *
  * @author Yurii Haidamaka
  */
 public class LocalDateComparator implements Comparator<LocalDate> {
@@ -46,11 +50,6 @@ public class LocalDateComparator implements Comparator<LocalDate> {
      */
     @Override
     public int compare(LocalDate o1, LocalDate o2) {
-        final String o1String =
-                format("%04d%02d%02d", o1.getYear(), o1.getMonth().getNumber(), o1.getDay());
-        final String o2String =
-                format("%04d%02d%02d", o2.getYear(), o2.getMonth().getNumber(), o2.getDay());
-
-        return o1String.compareTo(o2String);
+        return DateKeys.compare(toKey(o1), toKey(o2));
     }
 }
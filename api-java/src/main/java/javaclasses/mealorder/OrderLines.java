@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The utility class for working with the {@link OrderLine order lines}.
+ *
+ * <p>An order keeps a single line per dish with the number of times the dish was ordered.
+ * The orders stored before the order lines were introduced keep each ordered dish
+ * as a separate item of the deprecated {@code dish} field. This class folds such dishes
+ * into the order lines.
+ *
+ * @author agent
+ */
+@SuppressWarnings("deprecation") // Reads the deprecated dishes to migrate them.
+public final class OrderLines {
+
+    /** Prevents instantiation of this utility class. */
+    private OrderLines() {
+    }
+
+    /**
+     * Obtains the lines of the order.
+     *
+     * <p>The legacy dishes of the order, if any, are folded into the lines.
+     *
+     * @param order the order to get the lines from
+     * @return the order lines
+     */
+    public static List<OrderLine> linesOf(Order order) {
+        checkNotNull(order);
+        final List<OrderLine> result = merge(order.getLineList(), order.getDishList());
+        return result;
+    }
+
+    /**
+     * Folds the dishes into the order lines.
+     *
+     * <p>A dish having a line gets the line quantity increased. A line is added
+     * for each new dish after the existing lines in the order of the dishes.
+     *
+     * @param lines  the existing order lines
+     * @param dishes the dishes to fold
+     * @return the existing lines if there are no dishes to fold, the new lines otherwise
+     */
+    public static List<OrderLine> merge(List<OrderLine> lines, List<Dish> dishes) {
+        checkNotNull(lines);
+        checkNotNull(dishes);
+        if (dishes.isEmpty()) {
+            return lines;
+        }
+        final Map<DishId, OrderLine> merged = new LinkedHashMap<>();
+        for (OrderLine line : lines) {
+            merged.put(line.getDish()
+                           .getId(), line);
+        }
+        for (Dish dish : dishes) {
+            final OrderLine line = merged.get(dish.getId());
+            final OrderLine updated = line == null
+                                      ? lineOf(dish, 1)
+                                      : lineOf(line.getDish(), line.getQuantity() + 1);
+            merged.put(dish.getId(), updated);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Obtains the number of dishes in the order including the repeated ones.
+     *
+     * @param order the order to count the dishes of
+     * @return the total quantity of the order lines
+     */
+    public static int dishCount(Order order) {
+        checkNotNull(order);
+        int result = order.getDishCount();
+        for (OrderLine line : order.getLineList()) {
+            result += line.getQuantity();
+        }
+        return result;
+    }
+
+    /**
+     * Creates the order line.
+     *
+     * @param dish     the ordered dish
+     * @param quantity the number of times the dish was ordered
+     * @return the new order line
+     */
+    public static OrderLine lineOf(Dish dish, int quantity) {
+        checkNotNull(dish);
+        final OrderLine result = OrderLine.newBuilder()
+                                          .setDish(dish)
+                                          .setQuantity(quantity)
+                                          .build();
+        return result;
+    }
+}
@@ -27,7 +27,7 @@ import static io.spine.util.Exceptions.newIllegalStateException;
 /**
  * The utility class representing service factory.
  *
- * <p>Used by {@code PurchaseOrderAggregate} upon creation of
+ * <p>Used by {@code PurchaseOrderOutbox} upon delivery of
  * a purchase order.
  *
  * @author Yegor Udovchenko
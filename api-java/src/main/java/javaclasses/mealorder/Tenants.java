@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder;
+
+import io.spine.core.TenantId;
+import io.spine.server.tenant.TenantAwareFunction0;
+import io.spine.server.tenant.TenantAwareOperation;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The utility class for keying the in-memory state of a {@code BoundedContext} by tenant.
+ *
+ * @author agent
+ */
+public final class Tenants {
+
+    /** Prevents instantiation of this utility class. */
+    private Tenants() {
+    }
+
+    /**
+     * Obtains the key of the current tenant.
+     *
+     * <p>The single-tenant {@code BoundedContext} has no current tenant, so all of its
+     * state is kept under the default {@code TenantId}.
+     *
+     * @param multitenant whether the {@code BoundedContext} is multitenant
+     * @return the current tenant or the default instance for the single-tenant context
+     */
+    public static TenantId currentTenant(boolean multitenant) {
+        if (!multitenant) {
+            return TenantId.getDefaultInstance();
+        }
+        final TenantAwareFunction0<TenantId> function = new TenantAwareFunction0<TenantId>() {
+            @Override
+            public TenantId apply() {
+                return tenantId();
+            }
+        };
+        return function.execute();
+    }
+
+    /**
+     * Runs the operation on behalf of the tenant.
+     *
+     * <p>The operation for the default {@code TenantId}, which is the key of the single-tenant
+     * {@code BoundedContext}, is run as is.
+     *
+     * @param tenantId  the tenant obtained by {@link #currentTenant(boolean)}
+     * @param operation the operation to run
+     */
+    public static void runAs(TenantId tenantId, Runnable operation) {
+        checkNotNull(tenantId);
+        checkNotNull(operation);
+        if (tenantId.equals(TenantId.getDefaultInstance())) {
+            operation.run();
+            return;
+        }
+        final TenantAwareOperation tenantOperation = new TenantAwareOperation(tenantId) {
+            @Override
+            public void run() {
+                operation.run();
+            }
+        };
+        tenantOperation.execute();
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Parser;
+import io.spine.Identifier;
+import io.spine.server.aggregate.Aggregate;
+import io.spine.server.aggregate.AggregateEventRecord;
+import io.spine.server.aggregate.AggregateReadRequest;
+import io.spine.server.aggregate.AggregateStateRecord;
+import io.spine.server.aggregate.AggregateStorage;
+import io.spine.server.entity.LifecycleFlags;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The single-tenant {@link AggregateStorage} keeping the aggregate records in a database.
+ *
+ * <p>The {@code AggregateRepository} stores an aggregate by reading its event count,
+ * writing its new event records one by one and then writing the new event count.
+ * The event records are kept by the storing thread until the count is written and then
+ * inserted as a single JDBC batch in the same transaction with the count. So the events
+ * emitted by a command (e.g. the three events of {@code CreatePurchaseOrder}) take one round
+ * trip, which the MySQL driver sends as a multi-row {@code INSERT} when
+ * the {@code rewriteBatchedStatements} property is set by {@link JdbcDataSources}.
+ * Either all the events of a command are stored or none of them.
+ *
+ * <p>Each aggregate class has two tables named after the class:
+ * <ul>
+ *     <li>{@code <class>_events} — the event records in the order of writing;
+ *     <li>{@code <class>_aggregates} — the IDs, the event counts after the last snapshot
+ *         and the lifecycle flags of the aggregates.
+ * </ul>
+ *
+ * @param <I> the type of the aggregate IDs
+ * @author agent
+ */
+class BatchingJdbcAggregateStorage<I> extends AggregateStorage<I> {
+
+    /** The max length of the string representation of an aggregate ID. */
+    private static final int MAX_ID_LENGTH = 512;
+
+    private final DataSource dataSource;
+    private final String eventsTable;
+    private final String aggregatesTable;
+
+    /** The event records of the aggregate being stored by the current thread. */
+    private final ThreadLocal<PendingRecords<I>> pendingRecords = new ThreadLocal<>();
+
+    private BatchingJdbcAggregateStorage(DataSource dataSource, String tablePrefix) {
+        super(false);
+        this.dataSource = dataSource;
+        this.eventsTable = tablePrefix + "_events";
+        this.aggregatesTable = tablePrefix + "_aggregates";
+    }
+
+    /**
+     * Creates the storage of the aggregates of the specified class and its tables
+     * if they do not exist.
+     *
+     * @param dataSource     the data source of the database
+     * @param aggregateClass the class of the stored aggregates
+     * @param <I>            the type of the aggregate IDs
+     * @return the new storage
+     */
+    static <I> BatchingJdbcAggregateStorage<I> create(
+            DataSource dataSource, Class<? extends Aggregate<I, ?, ?>> aggregateClass) {
+        checkNotNull(dataSource);
+        checkNotNull(aggregateClass);
+        final BatchingJdbcAggregateStorage<I> result =
+                new BatchingJdbcAggregateStorage<>(dataSource, aggregateClass.getSimpleName());
+        result.createTables();
+        return result;
+    }
+
+    private void createTables() {
+        final String events =
+                "CREATE TABLE IF NOT EXISTS " + eventsTable + " ("
+                        + "seq BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                        + "aggregate_id VARCHAR(" + MAX_ID_LENGTH + ") NOT NULL, "
+                        + "record LONGBLOB NOT NULL, "
+                        + "UNIQUE (aggregate_id, seq))";
+        final String aggregates =
+                "CREATE TABLE IF NOT EXISTS " + aggregatesTable + " ("
+                        + "aggregate_id VARCHAR(" + MAX_ID_LENGTH + ") PRIMARY KEY, "
+                        + "id LONGBLOB NOT NULL, "
+                        + "event_count INT NOT NULL, "
+                        + "flags LONGBLOB)";
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(events);
+            statement.execute(aggregates);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to create the tables of " + eventsTable, e);
+        }
+    }
+
+    @Override
+    public void write(I id, AggregateStateRecord events) {
+        final PendingRecords<I> records = new PendingRecords<>(id);
+        pendingRecords.set(records);
+        try {
+            super.write(id, events);
+        } finally {
+            pendingRecords.remove();
+        }
+        inTransaction(connection -> {
+            insertEventRecords(connection, records);
+            if (!exists(connection, id)) {
+                insertAggregate(connection, id, 0, null);
+            }
+        });
+    }
+
+    @Override
+    protected void writeRecord(I id, AggregateEventRecord record) {
+        checkNotNull(id);
+        checkNotNull(record);
+        checkNotClosed();
+        PendingRecords<I> pending = pendingRecords.get();
+        if (pending == null || !pending.id.equals(id)) {
+            pending = new PendingRecords<>(id);
+            pendingRecords.set(pending);
+        }
+        pending.records.add(record);
+    }
+
+    /**
+     * Reads the event records of the aggregate from the newest to the oldest.
+     *
+     * <p>The records older than the last snapshot are not read.
+     */
+    @Override
+    protected Iterator<AggregateEventRecord> historyBackward(AggregateReadRequest<I> request) {
+        checkNotNull(request);
+        checkNotClosed();
+        final String sql = "SELECT record FROM " + eventsTable
+                + " WHERE aggregate_id = ? ORDER BY seq DESC";
+        final List<AggregateEventRecord> result = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, key(request.getRecordId()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                boolean snapshotRead = false;
+                while (!snapshotRead && resultSet.next()) {
+                    final AggregateEventRecord record =
+                            parse(AggregateEventRecord.parser(), resultSet.getBytes(1));
+                    result.add(record);
+                    snapshotRead = record.hasSnapshot();
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read the aggregate history.", e);
+        }
+        return result.iterator();
+    }
+
+    @Override
+    protected int readEventCountAfterLastSnapshot(I id) {
+        checkNotNull(id);
+        checkNotClosed();
+        // A new store begins, the records of the failed one are not written.
+        pendingRecords.remove();
+        final Integer count = readColumn(id, "event_count", resultSet -> resultSet.getInt(1));
+        return count == null
+               ? 0
+               : count;
+    }
+
+    @Override
+    protected void writeEventCountAfterLastSnapshot(I id, int eventCount) {
+        checkNotNull(id);
+        checkNotClosed();
+        final PendingRecords<I> pending = pendingRecords.get();
+        pendingRecords.remove();
+        inTransaction(connection -> {
+            if (pending != null && pending.id.equals(id)) {
+                insertEventRecords(connection, pending);
+            }
+            if (!update(connection, id, "event_count", eventCount)) {
+                insertAggregate(connection, id, eventCount, null);
+            }
+        });
+    }
+
+    @Override
+    protected Optional<LifecycleFlags> readLifecycleFlags(I id) {
+        checkNotNull(id);
+        checkNotClosed();
+        final byte[] flags = readColumn(id, "flags", resultSet -> resultSet.getBytes(1));
+        return flags == null
+               ? Optional.absent()
+               : Optional.of(parse(LifecycleFlags.parser(), flags));
+    }
+
+    @Override
+    protected void writeLifecycleFlags(I id, LifecycleFlags flags) {
+        checkNotNull(id);
+        checkNotNull(flags);
+        checkNotClosed();
+        final byte[] bytes = flags.toByteArray();
+        inTransaction(connection -> {
+            if (!update(connection, id, "flags", bytes)) {
+                insertAggregate(connection, id, 0, bytes);
+            }
+        });
+    }
+
+    @Override
+    public Iterator<I> index() {
+        checkNotClosed();
+        final List<I> result = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement =
+                     connection.prepareStatement("SELECT id FROM " + aggregatesTable);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                final I id = Identifier.unpack(parse(Any.parser(), resultSet.getBytes(1)));
+                result.add(id);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read the aggregate IDs.", e);
+        }
+        return result.iterator();
+    }
+
+    /**
+     * Inserts the event records as a single JDBC batch.
+     */
+    private void insertEventRecords(Connection connection, PendingRecords<I> pending)
+            throws SQLException {
+        if (pending.records.isEmpty()) {
+            return;
+        }
+        final String sql = "INSERT INTO " + eventsTable + " (aggregate_id, record) VALUES (?, ?)";
+        final String key = key(pending.id);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (AggregateEventRecord record : pending.records) {
+                statement.setString(1, key);
+                statement.setBytes(2, record.toByteArray());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private boolean exists(Connection connection, I id) throws SQLException {
+        final String sql = "SELECT 1 FROM " + aggregatesTable + " WHERE aggregate_id = ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, key(id));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    /**
+     * Updates the column of the aggregate row.
+     *
+     * @return {@code true} if the row exists, {@code false} otherwise
+     */
+    private boolean update(Connection connection, I id, String column, Object value)
+            throws SQLException {
+        final String sql = "UPDATE " + aggregatesTable + " SET " + column
+                + " = ? WHERE aggregate_id = ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, value);
+            statement.setString(2, key(id));
+            return statement.executeUpdate() > 0;
+        }
+    }
+
+    private void insertAggregate(Connection connection, I id, int eventCount, byte[] flags)
+            throws SQLException {
+        final String sql = "INSERT INTO " + aggregatesTable
+                + " (aggregate_id, id, event_count, flags) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, key(id));
+            statement.setBytes(2, Identifier.pack(id)
+                                            .toByteArray());
+            statement.setInt(3, eventCount);
+            statement.setBytes(4, flags);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Reads the column of the aggregate row.
+     *
+     * @return the column value or {@code null} if there is no row or the value is {@code null}
+     */
+    private <T> T readColumn(I id, String column, ColumnReader<T> reader) {
+        final String sql = "SELECT " + column + " FROM " + aggregatesTable
+                + " WHERE aggregate_id = ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, key(id));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next()
+                       ? reader.read(resultSet)
+                       : null;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read the aggregate " + column, e);
+        }
+    }
+
+    /**
+     * Runs the writes in a single transaction which is rolled back if any of them fails.
+     */
+    private void inTransaction(Writes writes) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                writes.apply(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to write the aggregate records.", e);
+        }
+    }
+
+    private static String key(Object id) {
+        return Identifier.toString(id);
+    }
+
+    private static <T> T parse(Parser<T> parser, byte[] bytes) {
+        try {
+            return parser.parseFrom(bytes);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Unable to parse the aggregate record.", e);
+        }
+    }
+
+    /**
+     * The writes of a transaction.
+     */
+    private interface Writes {
+
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * The reader of the single column of the query result.
+     */
+    private interface ColumnReader<T> {
+
+        T read(ResultSet resultSet) throws SQLException;
+    }
+
+    /**
+     * The event records of an aggregate which are not inserted yet.
+     */
+    private static class PendingRecords<I> {
+
+        private final I id;
+        private final List<AggregateEventRecord> records = new ArrayList<>();
+
+        private PendingRecords(I id) {
+            this.id = id;
+        }
+    }
+}
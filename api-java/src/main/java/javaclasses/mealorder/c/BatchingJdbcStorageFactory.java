@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c;
+
+import io.spine.server.aggregate.Aggregate;
+import io.spine.server.aggregate.AggregateStorage;
+import io.spine.server.entity.Entity;
+import io.spine.server.entity.storage.ColumnType;
+import io.spine.server.entity.storage.ColumnTypeRegistry;
+import io.spine.server.projection.Projection;
+import io.spine.server.projection.ProjectionStorage;
+import io.spine.server.stand.StandStorage;
+import io.spine.server.storage.RecordStorage;
+import io.spine.server.storage.StorageFactory;
+
+import javax.sql.DataSource;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The single-tenant {@link StorageFactory} storing the aggregates
+ * in the {@link BatchingJdbcAggregateStorage}.
+ *
+ * <p>The other storages are created by the wrapped JDBC storage factory.
+ *
+ * @author agent
+ */
+class BatchingJdbcStorageFactory implements StorageFactory {
+
+    private final DataSource dataSource;
+    private final StorageFactory jdbcFactory;
+
+    /**
+     * Creates the factory.
+     *
+     * @param dataSource  the data source of the database
+     * @param jdbcFactory the single-tenant factory of the storages other than the aggregate ones
+     */
+    BatchingJdbcStorageFactory(DataSource dataSource, StorageFactory jdbcFactory) {
+        checkNotNull(dataSource);
+        checkNotNull(jdbcFactory);
+        checkArgument(!jdbcFactory.isMultitenant(), "The storage factory must be single-tenant.");
+        this.dataSource = dataSource;
+        this.jdbcFactory = jdbcFactory;
+    }
+
+    @Override
+    public boolean isMultitenant() {
+        return false;
+    }
+
+    @Override
+    public ColumnTypeRegistry<? extends ColumnType> getTypeRegistry() {
+        return jdbcFactory.getTypeRegistry();
+    }
+
+    @Override
+    public StandStorage createStandStorage() {
+        return jdbcFactory.createStandStorage();
+    }
+
+    @Override
+    public <I> RecordStorage<I> createRecordStorage(Class<? extends Entity<I, ?>> entityClass) {
+        return jdbcFactory.createRecordStorage(entityClass);
+    }
+
+    @Override
+    public <I> AggregateStorage<I> createAggregateStorage(
+            Class<? extends Aggregate<I, ?, ?>> aggregateClass) {
+        return BatchingJdbcAggregateStorage.create(dataSource, aggregateClass);
+    }
+
+    @Override
+    public <I> ProjectionStorage<I> createProjectionStorage(
+            Class<? extends Projection<I, ?, ?>> projectionClass) {
+        return jdbcFactory.createProjectionStorage(projectionClass);
+    }
+
+    @Override
+    public StorageFactory toSingleTenant() {
+        return this;
+    }
+
+    @Override
+    public void close() throws Exception {
+        jdbcFactory.close();
+    }
+}
@@ -22,10 +22,27 @@ package javaclasses.mealorder.c;
 
 import io.spine.server.BoundedContext;
 import io.spine.server.storage.StorageFactory;
+import io.spine.server.storage.jdbc.JdbcStorageFactory;
 import io.spine.server.storage.memory.InMemoryStorageFactory;
 import javaclasses.mealorder.c.order.OrderRepository;
+import javaclasses.mealorder.c.po.PurchaseOrderOutbox;
 import javaclasses.mealorder.c.po.PurchaseOrderRepository;
+import javaclasses.mealorder.c.vendor.MenuAvailabilityIndex;
+import javaclasses.mealorder.c.vendor.VendorLookup;
 import javaclasses.mealorder.c.vendor.VendorRepository;
+import javaclasses.mealorder.q.FullMenuListViewRepository;
+import javaclasses.mealorder.q.MenuCalendarMonthViewRepository;
+import javaclasses.mealorder.q.MenuListViewRepository;
+import javaclasses.mealorder.q.MonthlySpendingsReportViewRepository;
+import javaclasses.mealorder.q.OrderListViewRepository;
+import javaclasses.mealorder.q.PurchaseOrderDetailsByDishViewRepository;
+import javaclasses.mealorder.q.PurchaseOrderDetailsByUserViewRepository;
+import javaclasses.mealorder.q.PurchaseOrderListViewRepository;
+import javaclasses.mealorder.q.PurchaseOrderStatusIndexRepository;
+import javaclasses.mealorder.q.VendorListViewRepository;
+import javaclasses.mealorder.q.VendorMenuRangeIndexRepository;
+
+import javax.sql.DataSource;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -42,6 +59,9 @@ public final class BoundedContexts {
     private static final StorageFactory IN_MEMORY_FACTORY =
             InMemoryStorageFactory.newInstance(BoundedContext.newName(NAME), false);
 
+    private static final StorageFactory MULTITENANT_IN_MEMORY_FACTORY =
+            InMemoryStorageFactory.newInstance(BoundedContext.newName(NAME), true);
+
     /**
      * Disable instantiation from outside.
      */
@@ -60,27 +80,169 @@ public final class BoundedContexts {
         return result;
     }
 
+    /**
+     * Creates the multitenant {@link BoundedContext} instance
+     * using {@code InMemoryStorageFactory}.
+     *
+     * <p>The commands, the aggregates and the views of each tenant are isolated
+     * by the tenant ID of the command.
+     *
+     * @return the multitenant {@link BoundedContext} instance
+     * @see #create(StorageFactory)
+     */
+    public static BoundedContext createMultitenant() {
+        final BoundedContext result = create(MULTITENANT_IN_MEMORY_FACTORY);
+        return result;
+    }
+
+    /**
+     * Creates a new instance of the {@link BoundedContext}
+     * storing the aggregates and the views in the specified database for a single tenant.
+     *
+     * <p>The data source is expected to be pooled, e.g. created
+     * by {@link JdbcDataSources#pooled(String, String, String, int)}.
+     *
+     * @param dataSource the data source of the database
+     * @return the bounded context created with the JDBC storage factory and repositories
+     * @see #create(StorageFactory)
+     */
+    public static BoundedContext createJdbc(DataSource dataSource) {
+        final BoundedContext result = create(jdbcStorageFactory(dataSource));
+        return result;
+    }
+
+    /**
+     * Creates the single-tenant {@link StorageFactory} storing the data
+     * in the specified database.
+     *
+     * <p>The events emitted by a command are inserted as a single batch
+     * by the {@link BatchingJdbcAggregateStorage}.
+     *
+     * @param dataSource the data source of the database
+     * @return the JDBC storage factory
+     */
+    public static StorageFactory jdbcStorageFactory(DataSource dataSource) {
+        checkNotNull(dataSource);
+        final StorageFactory jdbcFactory = JdbcStorageFactory.newBuilder()
+                                                             .setDataSource(dataSource)
+                                                             .setMultitenant(false)
+                                                             .build();
+        final StorageFactory result = new BatchingJdbcStorageFactory(dataSource, jdbcFactory);
+        return result;
+    }
+
     /**
      * Creates a new instance of the {@link BoundedContext}
      * using the specified {@link StorageFactory}.
      *
-     * Registers repository for vendor, order and purchase order aggregates.
+     * Registers repository for vendor, order and purchase order aggregates,
+     * the repositories of the views and the {@link MenuAvailabilityIndex} used
+     * by the order aggregates.
+     *
+     * <p>The purchase orders are sent by the new {@link PurchaseOrderOutbox} with
+     * the default retry policy.
+     *
+     * <p>The bounded context is multitenant if the storage factory is multitenant.
      *
      * @param storageFactory the storage factory to use
      * @return the bounded context created with the storage factory and repositories
      */
     public static BoundedContext create(StorageFactory storageFactory) {
+        final BoundedContext result = create(storageFactory, PurchaseOrderOutbox.newInstance());
+        return result;
+    }
+
+    /**
+     * Creates a new instance of the {@link BoundedContext}
+     * using the specified {@link StorageFactory}.
+     *
+     * Registers repository for vendor, order and purchase order aggregates,
+     * the repositories of the views, the {@link MenuAvailabilityIndex} used
+     * by the order aggregates and the specified {@link PurchaseOrderOutbox}.
+     *
+     * <p>Each bounded context has its own {@link VendorRepository}, which is
+     * the {@linkplain VendorLookup vendor lookup} of the {@code MenuAvailabilityIndex},
+     * so the bounded contexts do not share the vendors.
+     *
+     * <p>The outbox keeps its records in the storage of the bounded context, so it cannot be
+     * shared by the bounded contexts. The records left by the previous run of the bounded
+     * context are delivered upon its creation.
+     *
+     * @param storageFactory the storage factory to use
+     * @param outbox         the outbox to send the purchase orders
+     * @return the bounded context created with the storage factory and repositories
+     * @see #create(StorageFactory, PurchaseOrderOutbox, VendorLookup)
+     */
+    public static BoundedContext create(StorageFactory storageFactory,
+                                        PurchaseOrderOutbox outbox) {
         checkNotNull(storageFactory);
-        final VendorRepository vendorRepository = VendorRepository.getRepository();
+        checkNotNull(outbox);
+        final VendorRepository vendorRepository = new VendorRepository();
+        final BoundedContext result = create(storageFactory, outbox, vendorRepository,
+                                             vendorRepository);
+        return result;
+    }
 
-        final OrderRepository orderRepository = new OrderRepository();
+    /**
+     * Creates a new instance of the {@link BoundedContext}
+     * using the specified {@link StorageFactory} and the {@link VendorLookup}.
+     *
+     * <p>Registers the same repositories and the outbox as
+     * {@link #create(StorageFactory, PurchaseOrderOutbox)}, but the {@link MenuAvailabilityIndex}
+     * loads the menus of the vendors from the specified lookup, e.g. the one querying
+     * the vendors kept by another process.
+     *
+     * <p>The index loads the menus of a vendor once and then applies the vendor events
+     * of this bounded context. The menus changed by the vendor commands handled elsewhere
+     * are not seen by the index after the first load of the vendor.
+     *
+     * @param storageFactory the storage factory to use
+     * @param outbox         the outbox to send the purchase orders
+     * @param vendorLookup   the lookup of the vendors for the order aggregates
+     * @return the bounded context created with the storage factory and repositories
+     */
+    public static BoundedContext create(StorageFactory storageFactory,
+                                        PurchaseOrderOutbox outbox,
+                                        VendorLookup vendorLookup) {
+        checkNotNull(storageFactory);
+        checkNotNull(outbox);
+        checkNotNull(vendorLookup);
+        final BoundedContext result = create(storageFactory, outbox, new VendorRepository(),
+                                             vendorLookup);
+        return result;
+    }
+
+    private static BoundedContext create(StorageFactory storageFactory,
+                                         PurchaseOrderOutbox outbox,
+                                         VendorRepository vendorRepository,
+                                         VendorLookup vendorLookup) {
+        final MenuAvailabilityIndex menuAvailabilityIndex =
+                new MenuAvailabilityIndex(vendorLookup, storageFactory.isMultitenant());
+        final OrderRepository orderRepository = new OrderRepository(menuAvailabilityIndex);
         final PurchaseOrderRepository purchaseOrderRepository = new PurchaseOrderRepository();
+        final VendorMenuRangeIndexRepository vendorMenuRanges =
+                new VendorMenuRangeIndexRepository();
 
         final BoundedContext boundedContext = createBoundedContext(storageFactory);
 
         boundedContext.register(vendorRepository);
         boundedContext.register(orderRepository);
         boundedContext.register(purchaseOrderRepository);
+        boundedContext.register(vendorMenuRanges);
+        boundedContext.register(new MenuListViewRepository(vendorMenuRanges));
+        boundedContext.register(new MenuCalendarMonthViewRepository());
+        boundedContext.register(new OrderListViewRepository());
+        boundedContext.register(new PurchaseOrderDetailsByDishViewRepository());
+        boundedContext.register(new PurchaseOrderDetailsByUserViewRepository());
+        boundedContext.register(new MonthlySpendingsReportViewRepository());
+        boundedContext.register(new VendorListViewRepository());
+        boundedContext.register(new FullMenuListViewRepository());
+        boundedContext.register(new PurchaseOrderListViewRepository());
+        boundedContext.register(new PurchaseOrderStatusIndexRepository());
+        boundedContext.register(outbox);
+        boundedContext.getEventBus()
+                      .register(menuAvailabilityIndex);
+        outbox.resumePending();
         return boundedContext;
     }
 
@@ -88,6 +250,8 @@ public final class BoundedContexts {
      * Creates a new instance of the {@link BoundedContext}
      * using the specified {@link StorageFactory}.
      *
+     * <p>The bounded context is multitenant if the storage factory is multitenant.
+     *
      * @param storageFactory the storage factory to use
      * @return the bounded context created with the storage factory
      */
@@ -96,6 +260,7 @@ public final class BoundedContexts {
         return BoundedContext.newBuilder()
                              .setStorageFactorySupplier(() -> storageFactory)
                              .setName(NAME)
+                             .setMultitenant(storageFactory.isMultitenant())
                              .build();
     }
 }
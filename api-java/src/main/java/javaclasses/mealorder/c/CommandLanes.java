@@ -0,0 +1,300 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.Message;
+import io.grpc.stub.StreamObserver;
+import io.spine.core.Ack;
+import io.spine.core.Command;
+import io.spine.server.commandbus.CommandBus;
+import javaclasses.mealorder.c.command.AddDishToOrder;
+import javaclasses.mealorder.c.command.AddVendor;
+import javaclasses.mealorder.c.command.CancelOrder;
+import javaclasses.mealorder.c.command.CancelPurchaseOrder;
+import javaclasses.mealorder.c.command.CreateOrder;
+import javaclasses.mealorder.c.command.CreatePurchaseOrder;
+import javaclasses.mealorder.c.command.ImportMenu;
+import javaclasses.mealorder.c.command.MarkPurchaseOrderAsDelivered;
+import javaclasses.mealorder.c.command.MarkPurchaseOrderAsValid;
+import javaclasses.mealorder.c.command.RemoveDishFromOrder;
+import javaclasses.mealorder.c.command.SetDateRangeForMenu;
+import javaclasses.mealorder.c.command.UpdateVendor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.protobuf.AnyPacker.unpack;
+
+/**
+ * Posts the commands to the {@link CommandBus} in the lanes, each running in a single thread.
+ *
+ * <p>The lane of a command is chosen by the hash of its target aggregate ID, such as
+ * {@code OrderId}, {@code PurchaseOrderId} or {@code VendorId}. So the commands targeting
+ * the same aggregate are handled one by one in the order of posting, while the commands
+ * targeting different aggregates are handled in parallel without contending for the same
+ * aggregate.
+ *
+ * <p>The target aggregate ID is obtained by the {@linkplain #route(Class, LaneRoute) route}
+ * of the command class. The routes of the commands of the MealOrder bounded context are set
+ * upon creation. A command without a route is rejected.
+ *
+ * <p>Each lane queues a bounded number of the commands. When the queue of a lane is full,
+ * posting waits until the lane takes the next command, so a fast producer is slowed down
+ * instead of exhausting the memory.
+ *
+ * <p>The lanes report the number of the queued commands, so a lane overloaded
+ * by a hot aggregate can be spotted.
+ *
+ * @author agent
+ */
+public class CommandLanes {
+
+    /** The default max number of the queued commands of a lane. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final CommandBus commandBus;
+    private final ThreadPoolExecutor[] lanes;
+    private final ConcurrentMap<Class<? extends Message>, LaneRoute<?>> routes =
+            new ConcurrentHashMap<>();
+
+    /** The highest number of the queued commands of each lane. */
+    private final AtomicIntegerArray maxQueueDepths;
+
+    /**
+     * Creates new lanes with the {@linkplain #DEFAULT_QUEUE_CAPACITY default queue capacity}.
+     *
+     * @param commandBus the bus to post the commands to
+     * @param laneCount  the number of the lanes
+     */
+    public CommandLanes(CommandBus commandBus, int laneCount) {
+        this(commandBus, laneCount, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates new lanes.
+     *
+     * @param commandBus    the bus to post the commands to
+     * @param laneCount     the number of the lanes
+     * @param queueCapacity the max number of the queued commands of a lane
+     */
+    public CommandLanes(CommandBus commandBus, int laneCount, int queueCapacity) {
+        checkArgument(laneCount > 0, "The lane count must be positive.");
+        checkArgument(queueCapacity > 0, "The queue capacity must be positive.");
+        this.commandBus = checkNotNull(commandBus);
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                    .setNameFormat("command-lane-" + i + "-%d")
+                    .setDaemon(true)
+                    .build();
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                                              new ArrayBlockingQueue<>(queueCapacity),
+                                              threadFactory,
+                                              CommandLanes::awaitQueueSpace);
+        }
+        this.maxQueueDepths = new AtomicIntegerArray(laneCount);
+        setUpMealOrderRoutes();
+    }
+
+    /**
+     * Sets the route obtaining the target aggregate ID of the commands of the specified class.
+     *
+     * <p>Replaces the route set for the class before.
+     *
+     * @param commandClass the class of the command messages
+     * @param route        the route of the commands
+     * @param <M>          the type of the command messages
+     * @return this instance
+     */
+    public <M extends Message> CommandLanes route(Class<M> commandClass, LaneRoute<M> route) {
+        checkNotNull(commandClass);
+        checkNotNull(route);
+        routes.put(commandClass, route);
+        return this;
+    }
+
+    /**
+     * Posts the command in the lane of its target aggregate.
+     *
+     * <p>Waits if the queue of the lane is full.
+     *
+     * @param command  the command to post
+     * @param observer the observer receiving the acknowledgement of the command
+     *                 in the lane thread
+     * @throws IllegalArgumentException   if there is no route for the command
+     * @throws RejectedExecutionException if the lanes are shut down or the thread is
+     *                                    interrupted while waiting
+     */
+    public void post(Command command, StreamObserver<Ack> observer) {
+        checkNotNull(command);
+        checkNotNull(observer);
+        final int index = laneOf(command);
+        final ThreadPoolExecutor lane = lanes[index];
+        lane.execute(() -> commandBus.post(command, observer));
+        updateMaxQueueDepth(index, lane.getQueue()
+                                       .size());
+    }
+
+    /**
+     * Obtains the number of the lanes.
+     */
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Obtains the number of the commands waiting in the lane.
+     *
+     * @param lane the index of the lane
+     */
+    public int getQueueDepth(int lane) {
+        return lanes[lane].getQueue()
+                          .size();
+    }
+
+    /**
+     * Obtains the highest number of the commands waited in the lane at once.
+     *
+     * @param lane the index of the lane
+     */
+    public int getMaxQueueDepth(int lane) {
+        return maxQueueDepths.get(lane);
+    }
+
+    /**
+     * Obtains the number of the commands handled in the lane.
+     *
+     * @param lane the index of the lane
+     */
+    public long getHandledCount(int lane) {
+        return lanes[lane].getCompletedTaskCount();
+    }
+
+    /**
+     * Stops the lanes after the commands already posted are handled.
+     */
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    /**
+     * Waits until the lanes are stopped.
+     *
+     * @param timeout the max time to wait for each lane
+     * @param unit    the unit of the timeout
+     * @return {@code true} if all the lanes stopped, {@code false} otherwise
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        boolean result = true;
+        for (ThreadPoolExecutor lane : lanes) {
+            result &= lane.awaitTermination(timeout, unit);
+        }
+        return result;
+    }
+
+    private int laneOf(Command command) {
+        final Message message = unpack(command.getMessage());
+        final Object targetId = targetIdOf(message);
+        return Math.floorMod(targetId.hashCode(), lanes.length);
+    }
+
+    private <M extends Message> Object targetIdOf(M message) {
+        final Class<? extends Message> commandClass = message.getClass();
+        @SuppressWarnings("unchecked") // The routes are set for the class of their messages.
+        final LaneRoute<M> route = (LaneRoute<M>) routes.get(commandClass);
+        checkArgument(route != null, "No lane route for the command %s.", commandClass.getName());
+        return checkNotNull(route.apply(message));
+    }
+
+    private void setUpMealOrderRoutes() {
+        route(AddVendor.class, AddVendor::getVendorId);
+        route(UpdateVendor.class, UpdateVendor::getVendorId);
+        route(ImportMenu.class, ImportMenu::getVendorId);
+        route(SetDateRangeForMenu.class, SetDateRangeForMenu::getVendorId);
+        route(CreateOrder.class, CreateOrder::getOrderId);
+        route(AddDishToOrder.class, AddDishToOrder::getOrderId);
+        route(RemoveDishFromOrder.class, RemoveDishFromOrder::getOrderId);
+        route(CancelOrder.class, CancelOrder::getOrderId);
+        route(CreatePurchaseOrder.class, CreatePurchaseOrder::getId);
+        route(MarkPurchaseOrderAsDelivered.class, MarkPurchaseOrderAsDelivered::getId);
+        route(MarkPurchaseOrderAsValid.class, MarkPurchaseOrderAsValid::getId);
+        route(CancelPurchaseOrder.class, CancelPurchaseOrder::getId);
+    }
+
+    /**
+     * Waits until the queue of the lane has space for the command.
+     *
+     * <p>Is called by the lane when its queue is full.
+     */
+    private static void awaitQueueSpace(Runnable task, ThreadPoolExecutor lane) {
+        if (lane.isShutdown()) {
+            throw new RejectedExecutionException("The lanes are shut down.");
+        }
+        try {
+            lane.getQueue()
+                .put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the lane.", e);
+        }
+        // The lane may have stopped while waiting, then the command would never be handled.
+        if (lane.isShutdown() && lane.remove(task)) {
+            throw new RejectedExecutionException("The lanes are shut down.");
+        }
+    }
+
+    private void updateMaxQueueDepth(int lane, int depth) {
+        int max = maxQueueDepths.get(lane);
+        while (depth > max && !maxQueueDepths.compareAndSet(lane, max, depth)) {
+            max = maxQueueDepths.get(lane);
+        }
+    }
+
+    /**
+     * Obtains the ID of the aggregate targeted by a command.
+     *
+     * @param <M> the type of the command messages
+     */
+    @FunctionalInterface
+    public interface LaneRoute<M extends Message> {
+
+        /**
+         * Obtains the target aggregate ID of the command.
+         *
+         * @param message the command message
+         * @return the ID of the target aggregate
+         */
+        Object apply(M message);
+    }
+}
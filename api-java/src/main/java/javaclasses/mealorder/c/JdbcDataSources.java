@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Utilities for creation the pooled {@link DataSource} instances
+ * used by the JDBC-backed {@code BoundedContext}.
+ *
+ * @author agent
+ */
+public final class JdbcDataSources {
+
+    /** The prefix of the MySQL JDBC URLs. */
+    private static final String MYSQL_URL_PREFIX = "jdbc:mysql:";
+
+    /**
+     * The MySQL Connector/J properties of the pooled data source.
+     *
+     * <p>{@code rewriteBatchedStatements} makes the driver send a JDBC batch of inserts
+     * as a single multi-row {@code INSERT}, so the events emitted by a command and inserted
+     * as a batch by the {@link BatchingJdbcAggregateStorage} take a single round trip.
+     * The prepared statement cache saves parsing the statements the storages repeat
+     * for each record.
+     */
+    private static final String[][] MYSQL_PROPERTIES = {
+            {"rewriteBatchedStatements", "true"},
+            {"cachePrepStmts", "true"},
+            {"prepStmtCacheSize", "250"},
+            {"prepStmtCacheSqlLimit", "2048"},
+            {"useServerPrepStmts", "true"}
+    };
+
+    /**
+     * Disable instantiation from outside.
+     */
+    private JdbcDataSources() {
+    }
+
+    /**
+     * Creates the pooled {@link DataSource} connected to the specified database.
+     *
+     * <p>The batch rewriting and statement caching properties are set only for MySQL,
+     * as other drivers (e.g. H2 used in tests) reject the unknown properties.
+     *
+     * @param jdbcUrl     the JDBC URL of the database
+     * @param username    the name of the database user
+     * @param password    the password of the database user
+     * @param maxPoolSize the maximum number of the pooled connections
+     * @return the new pooled data source
+     */
+    public static DataSource pooled(String jdbcUrl,
+                                    String username,
+                                    String password,
+                                    int maxPoolSize) {
+        checkNotNull(jdbcUrl);
+        checkNotNull(username);
+        checkNotNull(password);
+        checkArgument(maxPoolSize > 0, "The pool size must be positive.");
+
+        final HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maxPoolSize);
+        if (jdbcUrl.startsWith(MYSQL_URL_PREFIX)) {
+            for (String[] property : MYSQL_PROPERTIES) {
+                config.addDataSourceProperty(property[0], property[1]);
+            }
+        }
+        final DataSource result = new HikariDataSource(config);
+        return result;
+    }
+}
@@ -29,6 +29,7 @@ import javaclasses.mealorder.DishId;
 import javaclasses.mealorder.MenuId;
 import javaclasses.mealorder.Order;
 import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.OrderLine;
 import javaclasses.mealorder.OrderStatus;
 import javaclasses.mealorder.OrderVBuilder;
 import javaclasses.mealorder.UserId;
@@ -51,11 +52,16 @@ import javaclasses.mealorder.c.rejection.CannotRemoveMissingDish;
 import javaclasses.mealorder.c.rejection.DishVendorMismatch;
 import javaclasses.mealorder.c.rejection.MenuNotAvailable;
 import javaclasses.mealorder.c.rejection.OrderAlreadyExists;
+import javaclasses.mealorder.c.vendor.MenuAvailabilityIndex;
 
 import java.util.List;
-import java.util.stream.IntStream;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static io.spine.time.Time.getCurrentTime;
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.OrderLines.linesOf;
+import static javaclasses.mealorder.OrderLines.merge;
 import static javaclasses.mealorder.OrderStatus.ORDER_ACTIVE;
 import static javaclasses.mealorder.OrderStatus.ORDER_CANCELED;
 import static javaclasses.mealorder.OrderStatus.ORDER_PROCESSED;
@@ -79,6 +85,13 @@ public class OrderAggregate extends Aggregate<OrderId,
         Order,
         OrderVBuilder> {
 
+    /**
+     * The index used to check the menu availability upon the order creation.
+     *
+     * <p>Is set by the {@link OrderRepository} when the aggregate is created.
+     */
+    private MenuAvailabilityIndex menuAvailabilityIndex;
+
     /**
      * {@inheritDoc}
      */
@@ -86,12 +99,17 @@ public class OrderAggregate extends Aggregate<OrderId,
         super(id);
     }
 
+    void setMenuAvailabilityIndex(MenuAvailabilityIndex menuAvailabilityIndex) {
+        this.menuAvailabilityIndex = checkNotNull(menuAvailabilityIndex);
+    }
+
     @Assign
     OrderCreated handle(CreateOrder cmd) throws OrderAlreadyExists, MenuNotAvailable {
         final OrderId orderId = cmd.getOrderId();
         final MenuId menuId = cmd.getMenuId();
 
-        checkMenuAvailability(cmd);
+        checkState(menuAvailabilityIndex != null, "The menu availability index is not set.");
+        checkMenuAvailability(cmd, menuAvailabilityIndex);
         final OrderStatus orderStatus = getState().getStatus();
         if (orderStatus != ORDER_UNDEFINED && orderStatus != ORDER_CANCELED) {
             throw orderAlreadyExists(cmd);
@@ -133,15 +151,13 @@ public class OrderAggregate extends Aggregate<OrderId,
     DishRemovedFromOrder handle(RemoveDishFromOrder cmd) throws CannotRemoveMissingDish,
                                                                 CannotRemoveDishFromNotActiveOrder {
         final OrderId orderId = cmd.getOrderId();
-        final DishId dishId = cmd.getDishId();
 
         if (getState().getStatus() != ORDER_ACTIVE) {
             throw cannotRemoveDishFromNotActiveOrder(cmd, getState().getStatus());
         }
 
-        final List<Dish> dishesList = getState().getDishList();
-
-        final Dish dish = getDishFromOrder(cmd, dishId, dishesList);
+        final List<OrderLine> lines = linesOf(getState());
+        final Dish dish = getDishFromOrder(cmd, lines, getLinePositions(lines));
         DishRemovedFromOrder result = DishRemovedFromOrder.newBuilder()
                                                           .setOrderId(orderId)
                                                           .setDish(dish)
@@ -180,9 +196,11 @@ public class OrderAggregate extends Aggregate<OrderId,
      * @param event is {@code OrderCreated} event that was occurred
      */
     @Apply
+    @SuppressWarnings("deprecation") // Clears the deprecated dishes of a legacy order.
     void orderCreated(OrderCreated event) {
         if (getBuilder().getStatus() == ORDER_CANCELED) {
             getBuilder().clearDish()
+                        .clearLine()
                         .build();
         }
 
@@ -191,23 +209,60 @@ public class OrderAggregate extends Aggregate<OrderId,
                     .build();
     }
 
+    /**
+     * Applies the {@link DishAddedToOrder} event.
+     *
+     * <p>Increases the quantity of the dish line or adds a new line
+     * if the dish was not ordered yet.
+     *
+     * @param event is {@code DishAddedToOrder} event that was occurred
+     */
     @Apply
     void dishAddedToOrder(DishAddedToOrder event) {
-        getBuilder().addDish(event.getDish())
+        migrateLegacyDishes();
+        final Dish dish = event.getDish();
+        final List<OrderLine> lines = getBuilder().getLine();
+        final int position = positionOf(lines, dish.getId());
+        if (position < 0) {
+            getBuilder().addLine(lineOf(dish, 1))
+                        .build();
+            return;
+        }
+        final OrderLine line = lines.get(position);
+        getBuilder().setLine(position, lineOf(line.getDish(), line.getQuantity() + 1))
                     .build();
     }
 
+    /**
+     * Applies the {@link DishRemovedFromOrder} event.
+     *
+     * <p>Decreases the quantity of the dish line. The line with the last dish is replaced
+     * by the last line of the order, so the positions of other lines do not change.
+     *
+     * @param event is {@code DishRemovedFromOrder} event that was occurred
+     */
     @Apply
     void dishRemovedFromOrder(DishRemovedFromOrder event) {
-        final List<Dish> dishes = getBuilder().getDish();
-        final Dish eventDish = event.getDish();
-        final int index = IntStream.range(0, dishes.size())
-                                   .filter(i -> dishes.get(i)
-                                                      .equals(eventDish))
-                                   .findFirst()
-                                   .getAsInt();
-
-        getBuilder().removeDish(index)
+        migrateLegacyDishes();
+        final DishId dishId = event.getDish()
+                                   .getId();
+        final List<OrderLine> lines = getBuilder().getLine();
+        final int position = positionOf(lines, dishId);
+        if (position < 0) {
+            return;
+        }
+        final OrderLine line = lines.get(position);
+        if (line.getQuantity() > 1) {
+            getBuilder().setLine(position, lineOf(line.getDish(), line.getQuantity() - 1))
+                        .build();
+            return;
+        }
+        final int lastPosition = lines.size() - 1;
+        if (position != lastPosition) {
+            final OrderLine lastLine = lines.get(lastPosition);
+            getBuilder().setLine(position, lastLine);
+        }
+        getBuilder().removeLine(lastPosition)
                     .build();
     }
 
@@ -243,4 +298,43 @@ public class OrderAggregate extends Aggregate<OrderId,
                             .setWhenCanceled(getCurrentTime())
                             .build();
     }
+
+    /**
+     * Obtains the position of the order line of the dish.
+     *
+     * <p>The lines are scanned on each lookup, so the appliers keep no state besides
+     * the aggregate state, which is rolled back if a command fails.
+     *
+     * @param lines  the current order lines
+     * @param dishId the identifier of the dish
+     * @return the position of the line or {@code -1} if the dish is not ordered
+     */
+    private static int positionOf(List<OrderLine> lines, DishId dishId) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i)
+                     .getDish()
+                     .getId()
+                     .equals(dishId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Folds the dishes of the order stored before the order lines were introduced
+     * into the order lines.
+     */
+    @SuppressWarnings("deprecation") // Migrates the deprecated dishes.
+    private void migrateLegacyDishes() {
+        final List<Dish> legacyDishes = getBuilder().getDish();
+        if (legacyDishes.isEmpty()) {
+            return;
+        }
+        final List<OrderLine> lines = merge(getBuilder().getLine(), legacyDishes);
+        getBuilder().clearDish()
+                    .clearLine()
+                    .addAllLine(lines)
+                    .build();
+    }
 }
@@ -21,28 +21,79 @@
 package javaclasses.mealorder.c.order;
 
 import com.google.protobuf.Message;
+import io.spine.core.TenantId;
 import io.spine.server.aggregate.AggregateRepository;
 import io.spine.server.route.EventRoute;
 import javaclasses.mealorder.Order;
 import javaclasses.mealorder.OrderId;
 import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
 import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.vendor.MenuAvailabilityIndex;
 
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+import static javaclasses.mealorder.Tenants.currentTenant;
+
 /**
  * Repository for the {@link OrderAggregate}.
  *
+ * <p>Keeps the IDs of the stored orders in memory to route the purchase order events
+ * to the existing orders only. The IDs of a tenant are read from the storage index once,
+ * upon the first check for this tenant, and then each stored order is added to them.
+ * So the check costs a lookup in memory per order of a purchase order event.
+ *
  * @author Vlad Kozachenko
  */
 public class OrderRepository extends AggregateRepository<OrderId, OrderAggregate> {
 
-    public OrderRepository() {
+    private final MenuAvailabilityIndex menuAvailabilityIndex;
+
+    /** The IDs of the stored orders, keyed by the tenant. */
+    private final ConcurrentMap<TenantId, Set<OrderId>> existingOrders =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new repository.
+     *
+     * @param menuAvailabilityIndex the index to check the menu availability
+     *                              upon the order creation
+     */
+    public OrderRepository(MenuAvailabilityIndex menuAvailabilityIndex) {
+        super();
+        this.menuAvailabilityIndex = checkNotNull(menuAvailabilityIndex);
         setUpEventRouting();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Passes the {@link MenuAvailabilityIndex} to the created aggregate.
+     */
+    @Override
+    public OrderAggregate create(OrderId id) {
+        final OrderAggregate aggregate = super.create(id);
+        aggregate.setMenuAvailabilityIndex(menuAvailabilityIndex);
+        return aggregate;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Remembers the ID of the stored order as existing.
+     */
+    @Override
+    public void store(OrderAggregate aggregate) {
+        super.store(aggregate);
+        existingOrders().add(aggregate.getId());
+    }
+
     /**
      * Route events to aggregate instances with correct IDs.
      *
@@ -68,17 +119,70 @@ public class OrderRepository extends AggregateRepository<OrderId, OrderAggregate
     /**
      * Extracts {@code OrderId} values from list of orders.
      *
-     * <p>Checks each order whether it is in repository.
+     * <p>Keeps only the IDs of the orders which are in repository.
      *
      * @param orderList list of orders where IDs may be extracted.
      * @return set of found IDs.
      */
     private Set<OrderId> filterOrderIds(List<Order> orderList) {
-        final Set<OrderId> orderIdSet =
-                orderList.stream()
-                         .filter(d -> find(d.getId()).isPresent())
-                         .map(Order::getId)
-                         .collect(Collectors.toSet());
-        return orderIdSet;
+        final Set<OrderId> orderIds = orderList.stream()
+                                               .map(Order::getId)
+                                               .collect(Collectors.toSet());
+        final Set<OrderId> result = findExisting(orderIds);
+        return result;
+    }
+
+    /**
+     * Selects the IDs of the orders which are in repository.
+     *
+     * <p>The IDs are checked against the stored orders of the current tenant kept in memory,
+     * so the storage is not read except for the first check of the tenant.
+     *
+     * @param orderIds the IDs to check
+     * @return the IDs of the stored orders
+     */
+    public Set<OrderId> findExisting(Set<OrderId> orderIds) {
+        checkNotNull(orderIds);
+        final Set<OrderId> result = new HashSet<>(orderIds.size());
+        if (orderIds.isEmpty()) {
+            return result;
+        }
+        final Set<OrderId> existing = existingOrders();
+        for (OrderId id : orderIds) {
+            if (existing.contains(id)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Obtains the IDs of the stored orders of the current tenant.
+     *
+     * <p>The IDs are read from the storage upon the first call for the tenant.
+     */
+    private Set<OrderId> existingOrders() {
+        return existingOrders.computeIfAbsent(currentTenant(isMultitenantContext()),
+                                              tenant -> loadExistingOrders());
+    }
+
+    private Set<OrderId> loadExistingOrders() {
+        final Set<OrderId> result = ConcurrentHashMap.newKeySet();
+        final Iterator<OrderId> index = readStoredOrders();
+        while (index.hasNext()) {
+            result.add(index.next());
+        }
+        return result;
+    }
+
+    /**
+     * Reads the IDs of the stored orders of the current tenant from the storage index.
+     */
+    Iterator<OrderId> readStoredOrders() {
+        return aggregateStorage().index();
+    }
+
+    private boolean isMultitenantContext() {
+        return getBoundedContext().isMultitenant();
     }
 }
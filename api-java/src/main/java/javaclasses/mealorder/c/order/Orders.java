@@ -24,22 +24,20 @@ import com.google.common.base.Optional;
 import io.spine.time.LocalDate;
 import javaclasses.mealorder.Dish;
 import javaclasses.mealorder.DishId;
-import javaclasses.mealorder.LocalDateComparator;
-import javaclasses.mealorder.Menu;
 import javaclasses.mealorder.MenuDateRange;
-import javaclasses.mealorder.MenuId;
 import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.OrderLine;
 import javaclasses.mealorder.c.command.CreateOrder;
 import javaclasses.mealorder.c.command.RemoveDishFromOrder;
 import javaclasses.mealorder.c.rejection.CannotRemoveMissingDish;
 import javaclasses.mealorder.c.rejection.MenuNotAvailable;
-import javaclasses.mealorder.c.vendor.VendorAggregate;
-import javaclasses.mealorder.c.vendor.VendorRepository;
+import javaclasses.mealorder.c.vendor.MenuAvailabilityIndex;
 
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static javaclasses.mealorder.DateKeys.rangeIncludes;
 import static javaclasses.mealorder.c.order.OrderAggregateRejections.CreateOrderRejections.menuNotAvailable;
 import static javaclasses.mealorder.c.order.OrderAggregateRejections.RemoveDishFromOrderRejections.cannotRemoveMissingDish;
 
@@ -66,69 +64,50 @@ class Orders {
     static boolean checkRangeIncludesDate(MenuDateRange range, LocalDate orderDate) {
         checkNotNull(range);
         checkNotNull(orderDate);
-        final Comparator<LocalDate> comparator = new LocalDateComparator();
-
-        return comparator.compare(range.getRangeStart(), orderDate) <= 0 &&
-                comparator.compare(range.getRangeEnd(), orderDate) >= 0;
-    }
-
-    /**
-     * Finds vendor for order.
-     *
-     * @param orderId ID of the order for which vendor have to be found.
-     * @return Optional of {@code Vendor}.
-     */
-    static Optional<VendorAggregate> getVendorAggregateForOrder(OrderId orderId) throws
-                                                                                 MenuNotAvailable {
-        checkNotNull(orderId);
-        final VendorRepository vendorRepository = VendorRepository.getRepository();
-
-        final Optional<VendorAggregate> vendor = vendorRepository.find(orderId.getVendorId());
-
-        return vendor;
+        return rangeIncludes(range, orderDate);
     }
 
     /**
      * Checks whether the menu is available on the date of the order.
      *
-     * @param cmd command that contains order ID and menu ID that may be checked.
+     * <p>The menu date range is looked up in the {@link MenuAvailabilityIndex}, so the vendor
+     * aggregate is not loaded for each created order.
+     *
+     * @param cmd   command that contains order ID and menu ID that may be checked.
+     * @param index the index of the vendor menu date ranges
      * @throws MenuNotAvailable if vendor or menu doesn't exist or
      *                          if the menu date range doesn't include order date.
      */
-    static void checkMenuAvailability(CreateOrder cmd) throws MenuNotAvailable {
+    static void checkMenuAvailability(CreateOrder cmd,
+                                      MenuAvailabilityIndex index) throws MenuNotAvailable {
         checkNotNull(cmd);
+        checkNotNull(index);
         final OrderId orderId = cmd.getOrderId();
-        final MenuId menuId = cmd.getMenuId();
-        final Optional<VendorAggregate> vendor = getVendorAggregateForOrder(orderId);
-        if (!vendor.isPresent()) {
-            throw menuNotAvailable(cmd);
-        }
-        final VendorAggregate vendorAggregateForOrder = vendor.get();
-        final List<Menu> menus = vendorAggregateForOrder.getState()
-                                                        .getMenuList();
-
-        final java.util.Optional<Menu> menu = menus.stream()
-                                                   .filter(m -> menuId.equals(m.getId()))
-                                                   .findFirst();
+        final Optional<MenuDateRange> range = index.findDateRange(orderId.getVendorId(),
+                                                                  cmd.getMenuId());
 
         final LocalDate orderDate = orderId.getOrderDate();
-        if (!menu.isPresent() || !checkRangeIncludesDate(menu.get()
-                                                             .getMenuDateRange(),
-                                                         orderDate)) {
+        if (!range.isPresent() || !checkRangeIncludesDate(range.get(), orderDate)) {
             throw menuNotAvailable(cmd);
         }
     }
 
-    static Dish getDishFromOrder(RemoveDishFromOrder cmd, DishId dishId,
-                                 List<Dish> dishesList) throws CannotRemoveMissingDish {
-        java.util.Optional<Dish> dish = dishesList.stream()
-                                                  .filter(d -> d.getId()
-                                                                .equals(dishId))
-                                                  .findFirst();
-
-        if (!dish.isPresent()) {
+    /**
+     * Obtains the dish to remove from the order.
+     *
+     * @param cmd       command that contains the identifier of the dish to remove
+     * @param lines     the order lines
+     * @param positions the positions of the order lines by the dish identifiers
+     * @return the dish of the order line
+     * @throws CannotRemoveMissingDish if the order has no such dish
+     */
+    static Dish getDishFromOrder(RemoveDishFromOrder cmd, List<OrderLine> lines,
+                                 Map<DishId, Integer> positions) throws CannotRemoveMissingDish {
+        final Integer position = positions.get(cmd.getDishId());
+        if (position == null) {
             throw cannotRemoveMissingDish(cmd);
         }
-        return dish.get();
+        return lines.get(position)
+                    .getDish();
     }
 }
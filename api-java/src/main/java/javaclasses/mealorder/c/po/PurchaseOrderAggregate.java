@@ -34,7 +34,6 @@ import javaclasses.mealorder.PurchaseOrder;
 import javaclasses.mealorder.PurchaseOrderId;
 import javaclasses.mealorder.PurchaseOrderStatus;
 import javaclasses.mealorder.PurchaseOrderVBuilder;
-import javaclasses.mealorder.ServiceFactory;
 import javaclasses.mealorder.c.command.CancelPurchaseOrder;
 import javaclasses.mealorder.c.command.CreatePurchaseOrder;
 import javaclasses.mealorder.c.command.MarkPurchaseOrderAsDelivered;
@@ -53,6 +52,7 @@ import javaclasses.mealorder.c.rejection.CannotOverruleValidationOfNotInvalidPO;
 
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static javaclasses.mealorder.PurchaseOrderStatus.CANCELED;
 import static javaclasses.mealorder.PurchaseOrderStatus.CREATED;
 import static javaclasses.mealorder.PurchaseOrderStatus.DELIVERED;
@@ -71,9 +71,6 @@ import static javaclasses.mealorder.c.po.PurchaseOrders.createPOValidationFailed
 import static javaclasses.mealorder.c.po.PurchaseOrders.createPOValidationOverruledEvent;
 import static javaclasses.mealorder.c.po.PurchaseOrders.createPOValidationPassedEvent;
 import static javaclasses.mealorder.c.po.PurchaseOrders.createPurchaseOrderInstance;
-import static javaclasses.mealorder.c.po.PurchaseOrders.findInvalidOrders;
-import static javaclasses.mealorder.c.po.PurchaseOrders.hasInvalidOrders;
-import static javaclasses.mealorder.c.po.PurchaseOrders.isAllowedPurchaseOrderCreation;
 import static javaclasses.mealorder.c.po.PurchaseOrders.isAllowedToCancel;
 import static javaclasses.mealorder.c.po.PurchaseOrders.isAllowedToMarkAsDelivered;
 import static javaclasses.mealorder.c.po.PurchaseOrders.isAllowedToMarkAsValid;
@@ -81,6 +78,9 @@ import static javaclasses.mealorder.c.po.PurchaseOrders.isAllowedToMarkAsValid;
 /**
  * The aggregate managing the state of a {@link PurchaseOrder}.
  *
+ * <p>The aggregate does not send the purchase order to the vendor itself.
+ * The emitted {@link PurchaseOrderSent} event is delivered by the {@link PurchaseOrderOutbox}.
+ *
  * @author Yegor Udovchenko
  */
 @SuppressWarnings({"OverlyCoupledClass",  /* As each method needs dependencies  necessary to
@@ -90,10 +90,21 @@ import static javaclasses.mealorder.c.po.PurchaseOrders.isAllowedToMarkAsValid;
 public class PurchaseOrderAggregate extends Aggregate<PurchaseOrderId,
         PurchaseOrder, PurchaseOrderVBuilder> {
 
+    /**
+     * The validator of the orders of the created purchase order.
+     *
+     * <p>Is replaced by the {@link PurchaseOrderRepository} when the aggregate is created.
+     */
+    private PurchaseOrderValidator validator = PurchaseOrderValidator.getDefault();
+
     PurchaseOrderAggregate(PurchaseOrderId id) {
         super(id);
     }
 
+    void setValidator(PurchaseOrderValidator validator) {
+        this.validator = checkNotNull(validator);
+    }
+
     // TODO 2/26/2018[yegor.udovchenko]: find out how to create returning type triplet
     @Assign
     Triplet<PurchaseOrderCreated,
@@ -102,24 +113,23 @@ public class PurchaseOrderAggregate extends Aggregate<PurchaseOrderId,
             Optional<PurchaseOrderSent>> handle(CreatePurchaseOrder cmd) throws
                                                                          CannotCreatePurchaseOrder {
 
-        if (!isAllowedPurchaseOrderCreation(cmd)) {
+        final PurchaseOrderValidation validation = validator.validate(cmd.getId(),
+                                                                      cmd.getOrderList());
+        if (!validation.isCreationAllowed()) {
             throw cannotCreatePurchaseOrder(cmd);
         }
 
         Triplet result;
         final PurchaseOrderCreated poCreatedEvent = createPOCreatedEvent(cmd);
-        final List<Order> orderList = cmd.getOrderList();
+        final List<Order> invalidOrders = validation.getInvalidOrders();
 
-        if (!hasInvalidOrders(orderList)) {
+        if (invalidOrders.isEmpty()) {
             final PurchaseOrderValidationPassed passedEvent = createPOValidationPassedEvent(cmd);
             final PurchaseOrder purchaseOrder = createPurchaseOrderInstance(cmd);
             final EmailAddress senderEmail = cmd.getWhoCreates()
                                                 .getEmail();
             final EmailAddress vendorEmail = cmd.getVendorEmail();
 
-            ServiceFactory.getPurchaseOrderSender()
-                          .send(purchaseOrder, senderEmail, vendorEmail);
-
             final PurchaseOrderSent poSentEvent = createPOSentEvent(purchaseOrder,
                                                                     senderEmail,
                                                                     vendorEmail);
@@ -127,7 +137,6 @@ public class PurchaseOrderAggregate extends Aggregate<PurchaseOrderId,
             return result;
         }
 
-        final List<Order> invalidOrders = findInvalidOrders(orderList);
         final PurchaseOrderValidationFailed validationFailedEvent =
                 createPOValidationFailedEvent(cmd, invalidOrders);
         result = Triplet.withNullable(poCreatedEvent, validationFailedEvent, null);
@@ -148,8 +157,6 @@ public class PurchaseOrderAggregate extends Aggregate<PurchaseOrderId,
         final EmailAddress senderEmail = cmd.getUserId()
                                             .getEmail();
         final EmailAddress vendorEmail = cmd.getVendorEmail();
-        ServiceFactory.getPurchaseOrderSender()
-                      .send(getState(), senderEmail, vendorEmail);
 
         final PurchaseOrderSent poSentEvent = createPOSentEvent(getState(),
                                                                 senderEmail,
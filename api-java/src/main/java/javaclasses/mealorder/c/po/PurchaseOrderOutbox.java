@@ -0,0 +1,382 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c.po;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.spine.core.TenantId;
+import io.spine.server.entity.EntityRecord;
+import io.spine.server.entity.LifecycleFlags;
+import io.spine.server.projection.ProjectionRepository;
+import io.spine.server.projection.ProjectionStorage;
+import io.spine.server.storage.RecordReadRequest;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.PurchaseOrderOutboxRecord;
+import javaclasses.mealorder.PurchaseOrderSender;
+import javaclasses.mealorder.ServiceFactory;
+import javaclasses.mealorder.StoredTenants;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.protobuf.AnyPacker.pack;
+import static io.spine.protobuf.AnyPacker.unpack;
+import static javaclasses.mealorder.Tenants.currentTenant;
+import static javaclasses.mealorder.Tenants.runAs;
+
+/**
+ * The outbox of the purchase orders to be sent to the vendors.
+ *
+ * <p>Each {@link PurchaseOrderSent} event is recorded in the outbox table and then delivered
+ * by the {@link PurchaseOrderSender} on one of the outbox workers. So the command handling
+ * does not wait for the sender.
+ *
+ * <p>The outbox table is the storage of the {@linkplain PurchaseOrderOutboxRecordProjection
+ * outbox records} created by the {@code StorageFactory} of the {@code BoundedContext}, so
+ * each bounded context and each tenant has its own table. The record is marked as
+ * {@linkplain PurchaseOrderOutboxRecord#getDelivered() delivered} once the purchase order
+ * is delivered and is kept in the table. The records left pending by the previous run
+ * are delivered upon {@link #resumePending()}.
+ *
+ * <p>The records are keyed by the {@link PurchaseOrderId}, so a purchase order is sent once
+ * even if the event is delivered to the outbox several times, including after the purchase
+ * order is delivered. For the same reason the catch-up of the outbox does not send
+ * the delivered purchase orders again.
+ *
+ * <p>The failed delivery is retried with the exponential backoff until the maximum number of
+ * attempts is reached. After that the record is {@linkplain LifecycleFlags#getArchived()
+ * archived} and is reported as {@link DeliveryStatus#FAILED}.
+ *
+ * @author agent
+ */
+public class PurchaseOrderOutbox extends ProjectionRepository<PurchaseOrderId,
+        PurchaseOrderOutboxRecordProjection,
+        PurchaseOrderOutboxRecord> {
+
+    private static final int DEFAULT_WORKER_COUNT = 2;
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 500;
+
+    /** The maximum backoff between the delivery attempts. */
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /** The time given to the deliveries in progress to complete upon {@link #close()}. */
+    private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private static final LifecycleFlags FAILED_FLAGS = LifecycleFlags.newBuilder()
+                                                                     .setArchived(true)
+                                                                     .build();
+
+    /** The purchase orders being delivered by the workers, keyed by the tenant. */
+    private final ConcurrentMap<TenantId, Set<PurchaseOrderId>> inDelivery =
+            new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService workers;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+
+    /**
+     * Creates a new outbox.
+     *
+     * @param workerCount          the number of threads delivering the purchase orders
+     * @param maxAttempts          the maximum number of delivery attempts of a purchase order
+     * @param initialBackoffMillis the delay before the second delivery attempt in milliseconds,
+     *                             which is doubled for each next attempt
+     */
+    public PurchaseOrderOutbox(int workerCount, int maxAttempts, long initialBackoffMillis) {
+        super();
+        checkArgument(workerCount > 0, "The worker count must be positive.");
+        checkArgument(maxAttempts > 0, "The maximum number of attempts must be positive.");
+        checkArgument(initialBackoffMillis >= 0, "The backoff must not be negative.");
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("purchase-order-outbox-%d")
+                .setDaemon(true)
+                .build();
+        final ScheduledThreadPoolExecutor executor =
+                new ScheduledThreadPoolExecutor(workerCount, threadFactory);
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.workers = executor;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        setUpEventRouting();
+    }
+
+    /**
+     * Creates a new outbox with the default number of workers and the default retry policy.
+     *
+     * @return the new outbox
+     */
+    public static PurchaseOrderOutbox newInstance() {
+        return new PurchaseOrderOutbox(DEFAULT_WORKER_COUNT,
+                                       DEFAULT_MAX_ATTEMPTS,
+                                       DEFAULT_INITIAL_BACKOFF_MILLIS);
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(PurchaseOrderSent.class,
+                                (message, context) -> ImmutableSet.of(message.getPurchaseOrder()
+                                                                             .getId()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Passes the stored record to the workers unless it is delivered already.
+     */
+    @Override
+    public void store(PurchaseOrderOutboxRecordProjection projection) {
+        super.store(projection);
+        final PurchaseOrderOutboxRecord record = projection.getState();
+        if (!record.getDelivered()) {
+            schedule(currentTenant(isMultitenantContext()), record);
+        }
+    }
+
+    /**
+     * Passes the records left pending in the outbox table by the previous run to the workers.
+     *
+     * <p>The delivered and the failed records are not delivered again. Should be called once
+     * the outbox is registered in the {@code BoundedContext}.
+     *
+     * <p>The tenant index of the {@code BoundedContext} may be kept in memory and be empty
+     * after the restart, so the tenants known to the outbox table are resumed as well
+     * if its storage is {@link StoredTenants}.
+     */
+    public void resumePending() {
+        if (!isMultitenantContext()) {
+            resumePending(TenantId.getDefaultInstance());
+            return;
+        }
+        final Set<TenantId> tenants = new HashSet<>(getBoundedContext().getTenantIndex()
+                                                                       .getAll());
+        final ProjectionStorage<PurchaseOrderId> storage = projectionStorage();
+        if (storage instanceof StoredTenants) {
+            tenants.addAll(((StoredTenants) storage).getStoredTenants());
+        }
+        for (TenantId tenantId : tenants) {
+            resumePending(tenantId);
+        }
+    }
+
+    private void resumePending(TenantId tenantId) {
+        runAs(tenantId, () -> {
+            final Iterator<PurchaseOrderId> ids = recordStorage().index();
+            while (ids.hasNext()) {
+                final PurchaseOrderId id = ids.next();
+                if (isFailed(id)) {
+                    continue;
+                }
+                final Optional<PurchaseOrderOutboxRecordProjection> record = find(id);
+                if (record.isPresent() && !record.get()
+                                                 .getState()
+                                                 .getDelivered()) {
+                    schedule(tenantId, record.get()
+                                             .getState());
+                }
+            }
+        });
+    }
+
+    /**
+     * Obtains the delivery status of the purchase order of the current tenant.
+     *
+     * @param id the identifier of the purchase order
+     * @return the delivery status or {@code Optional.absent()} if the purchase order
+     * is not in the outbox, i.e. was not sent at all
+     */
+    public Optional<DeliveryStatus> getDeliveryStatus(PurchaseOrderId id) {
+        checkNotNull(id);
+        if (isFailed(id)) {
+            return Optional.of(DeliveryStatus.FAILED);
+        }
+        final Optional<PurchaseOrderOutboxRecordProjection> record = find(id);
+        if (!record.isPresent()) {
+            return Optional.absent();
+        }
+        if (record.get()
+                  .getState()
+                  .getDelivered()) {
+            return Optional.of(DeliveryStatus.DELIVERED);
+        }
+        return Optional.of(DeliveryStatus.PENDING);
+    }
+
+    /**
+     * Stops the outbox workers.
+     *
+     * <p>The pending records stay in the outbox table and are delivered
+     * upon the next {@link #resumePending()}.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Stops the outbox workers before closing the storage. The deliveries in progress
+     * are given some time to complete, while the scheduled retries are dropped. The records
+     * which are not delivered stay pending and are delivered upon the next
+     * {@link #resumePending()}.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread()
+                  .interrupt();
+        }
+        super.close();
+    }
+
+    /**
+     * Passes the record to the workers unless it is being delivered already.
+     *
+     * @param tenantId the tenant of the record
+     * @param record   the record to deliver
+     */
+    void schedule(TenantId tenantId, PurchaseOrderOutboxRecord record) {
+        final Set<PurchaseOrderId> tenantInDelivery =
+                inDelivery.computeIfAbsent(tenantId, tenant -> ConcurrentHashMap.newKeySet());
+        if (!tenantInDelivery.add(record.getId())) {
+            return;
+        }
+        try {
+            workers.execute(() -> deliver(tenantId, record, 1));
+        } catch (RejectedExecutionException ignored) {
+            // The outbox is closed, the record stays pending until the next run.
+            tenantInDelivery.remove(record.getId());
+        }
+    }
+
+    private void deliver(TenantId tenantId, PurchaseOrderOutboxRecord record, int attempt) {
+        final PurchaseOrderId id = record.getId();
+        try {
+            ServiceFactory.getPurchaseOrderSender()
+                          .send(record.getPurchaseOrder(),
+                                record.getSenderEmail(),
+                                record.getVendorEmail());
+        } catch (RuntimeException ignored) {
+            if (attempt >= maxAttempts) {
+                runAs(tenantId, () -> recordStorage().writeLifecycleFlags(id, FAILED_FLAGS));
+                inDelivery.get(tenantId)
+                          .remove(id);
+                return;
+            }
+            retry(tenantId, record, attempt);
+            return;
+        }
+        runAs(tenantId, () -> markDelivered(id));
+        inDelivery.get(tenantId)
+                  .remove(id);
+    }
+
+    private void retry(TenantId tenantId, PurchaseOrderOutboxRecord record, int attempt) {
+        try {
+            workers.schedule(() -> deliver(tenantId, record, attempt + 1),
+                             backoffMillis(attempt),
+                             TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // The outbox is closed, the record stays pending until the next run.
+            inDelivery.get(tenantId)
+                      .remove(record.getId());
+        }
+    }
+
+    /**
+     * Marks the stored record as delivered.
+     *
+     * <p>The record is kept, so the purchase order is not sent again if
+     * the {@link PurchaseOrderSent} event is delivered to the outbox once more.
+     */
+    private void markDelivered(PurchaseOrderId id) {
+        final Optional<EntityRecord> stored = recordStorage().read(new RecordReadRequest<>(id));
+        if (!stored.isPresent()) {
+            return;
+        }
+        final PurchaseOrderOutboxRecord state = unpack(stored.get()
+                                                             .getState());
+        final PurchaseOrderOutboxRecord delivered = state.toBuilder()
+                                                         .setDelivered(true)
+                                                         .build();
+        final EntityRecord record = stored.get()
+                                          .toBuilder()
+                                          .setState(pack(delivered))
+                                          .build();
+        recordStorage().write(id, record);
+    }
+
+    private boolean isFailed(PurchaseOrderId id) {
+        final Optional<LifecycleFlags> flags = recordStorage().readLifecycleFlags(id);
+        return flags.isPresent() && flags.get()
+                                         .getArchived();
+    }
+
+    private boolean isMultitenantContext() {
+        return getBoundedContext().isMultitenant();
+    }
+
+    /**
+     * Obtains the delay before the next delivery attempt.
+     *
+     * @param attempts the number of the attempts made
+     * @return the delay in milliseconds
+     */
+    private long backoffMillis(int attempts) {
+        final int shift = attempts - 1;
+        if (shift >= Long.SIZE - 1 || initialBackoffMillis > MAX_BACKOFF_MILLIS >> shift) {
+            return MAX_BACKOFF_MILLIS;
+        }
+        return initialBackoffMillis << shift;
+    }
+
+    /**
+     * The delivery status of a purchase order recorded in the outbox.
+     */
+    public enum DeliveryStatus {
+
+        /** The purchase order is waiting for the delivery or for the next attempt. */
+        PENDING,
+
+        /** The purchase order is delivered to the vendor. */
+        DELIVERED,
+
+        /** All the delivery attempts failed. */
+        FAILED
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c.po;
+
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.PurchaseOrderOutboxRecord;
+import javaclasses.mealorder.PurchaseOrderOutboxRecordVBuilder;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+
+/**
+ * The record of the {@link PurchaseOrderOutbox}.
+ *
+ * <p>Keeps the purchase order to be sent until the outbox delivers it.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class PurchaseOrderOutboxRecordProjection extends Projection<PurchaseOrderId,
+        PurchaseOrderOutboxRecord,
+        PurchaseOrderOutboxRecordVBuilder> {
+
+    public PurchaseOrderOutboxRecordProjection(PurchaseOrderId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderSent event) {
+        getBuilder().setId(getId())
+                    .setPurchaseOrder(event.getPurchaseOrder())
+                    .setSenderEmail(event.getSenderEmail())
+                    .setVendorEmail(event.getVendorEmail());
+    }
+}
@@ -23,10 +23,44 @@ package javaclasses.mealorder.c.po;
 import io.spine.server.aggregate.AggregateRepository;
 import javaclasses.mealorder.PurchaseOrderId;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Repository for the {@link PurchaseOrderAggregate}.
  *
  * @author Yegor Udovchenko
  */
 public class PurchaseOrderRepository extends AggregateRepository<PurchaseOrderId, PurchaseOrderAggregate> {
+
+    private final PurchaseOrderValidator validator;
+
+    /**
+     * Creates a new repository using the {@linkplain PurchaseOrderValidator#getDefault()
+     * default validator}.
+     */
+    public PurchaseOrderRepository() {
+        this(PurchaseOrderValidator.getDefault());
+    }
+
+    /**
+     * Creates a new repository.
+     *
+     * @param validator the validator of the orders of the created purchase orders
+     */
+    public PurchaseOrderRepository(PurchaseOrderValidator validator) {
+        super();
+        this.validator = checkNotNull(validator);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Passes the {@link PurchaseOrderValidator} to the created aggregate.
+     */
+    @Override
+    public PurchaseOrderAggregate create(PurchaseOrderId id) {
+        final PurchaseOrderAggregate aggregate = super.create(id);
+        aggregate.setValidator(validator);
+        return aggregate;
+    }
 }
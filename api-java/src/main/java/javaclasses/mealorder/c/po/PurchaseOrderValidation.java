@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c.po;
+
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The result of the validation of the orders of a purchase order.
+ *
+ * <p>Keeps the failures of each order in the order of the orders in the purchase order.
+ *
+ * @author agent
+ */
+public final class PurchaseOrderValidation {
+
+    private final List<Order> orders;
+
+    /** The bit masks of the {@link OrderFailure failures} by the order index. */
+    private final int[] failures;
+
+    PurchaseOrderValidation(List<Order> orders, int[] failures) {
+        this.orders = checkNotNull(orders);
+        this.failures = checkNotNull(failures);
+    }
+
+    /**
+     * Checks whether the purchase order can be created from the orders.
+     *
+     * @return {@code true} if there are orders and none of them has a
+     * {@linkplain OrderFailure#rejectsCreation() failure rejecting the creation}
+     */
+    public boolean isCreationAllowed() {
+        if (orders.isEmpty()) {
+            return false;
+        }
+        for (int failure : failures) {
+            if ((failure & OrderFailure.CREATION_REJECTING_MASK) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Obtains the orders which contain too many equal dishes.
+     *
+     * @return the invalid orders in the order of the purchase order
+     */
+    public List<Order> getInvalidOrders() {
+        List<Order> result = null;
+        for (int i = 0; i < failures.length; i++) {
+            if ((failures[i] & OrderFailure.TOO_MANY_EQUAL_DISHES.bit()) != 0) {
+                if (result == null) {
+                    result = new ArrayList<>();
+                }
+                result.add(orders.get(i));
+            }
+        }
+        return result == null
+               ? Collections.emptyList()
+               : result;
+    }
+
+    /**
+     * Obtains the failures of the order.
+     *
+     * @param index the index of the order in the purchase order
+     * @return the failures of the order, empty if the order is valid
+     */
+    public Set<OrderFailure> getFailures(int index) {
+        checkElementIndex(index, failures.length);
+        return OrderFailure.fromMask(failures[index]);
+    }
+
+    /**
+     * Obtains the failures of all the failed orders.
+     *
+     * @return the failures by the order identifier in the order of the purchase order
+     */
+    public Map<OrderId, Set<OrderFailure>> getFailedOrders() {
+        final Map<OrderId, Set<OrderFailure>> result = new LinkedHashMap<>();
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] != 0) {
+                result.put(orders.get(i)
+                                 .getId(), OrderFailure.fromMask(failures[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The reason of an order to fail the validation.
+     */
+    public enum OrderFailure {
+
+        /** The order is not active. */
+        NOT_ACTIVE(true),
+
+        /** The order date differs from the purchase order date. */
+        DATE_MISMATCH(true),
+
+        /** The order has no dishes. */
+        EMPTY(true),
+
+        /** The order vendor differs from the purchase order vendor. */
+        VENDOR_MISMATCH(true),
+
+        /** The order contains too many equal dishes. */
+        TOO_MANY_EQUAL_DISHES(false);
+
+        /** The bits of the failures rejecting the purchase order creation. */
+        private static final int CREATION_REJECTING_MASK = rejectingMask();
+
+        private final boolean rejectsCreation;
+
+        OrderFailure(boolean rejectsCreation) {
+            this.rejectsCreation = rejectsCreation;
+        }
+
+        /**
+         * Checks whether the failure rejects the purchase order creation.
+         *
+         * <p>The purchase order with the orders having other failures is created,
+         * but does not pass the validation.
+         */
+        public boolean rejectsCreation() {
+            return rejectsCreation;
+        }
+
+        int bit() {
+            return 1 << ordinal();
+        }
+
+        private static Set<OrderFailure> fromMask(int mask) {
+            final Set<OrderFailure> result = EnumSet.noneOf(OrderFailure.class);
+            for (OrderFailure failure : values()) {
+                if ((mask & failure.bit()) != 0) {
+                    result.add(failure);
+                }
+            }
+            return result;
+        }
+
+        private static int rejectingMask() {
+            int result = 0;
+            for (OrderFailure failure : values()) {
+                if (failure.rejectsCreation) {
+                    result |= failure.bit();
+                }
+            }
+            return result;
+        }
+    }
+}
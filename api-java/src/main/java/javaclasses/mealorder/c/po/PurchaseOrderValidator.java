@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c.po;
+
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.PurchaseOrderId;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static javaclasses.mealorder.c.po.PurchaseOrders.checkOrder;
+
+/**
+ * Validates the orders of a purchase order.
+ *
+ * <p>The order lists not shorter than the threshold are split between the tasks
+ * of the {@link ForkJoinPool}, a few tasks per a pool thread. Shorter lists are validated
+ * sequentially in the calling thread.
+ *
+ * <p>The failures of each order are stored by the order index, so the result
+ * does not depend on the order of the task completion.
+ *
+ * @author agent
+ */
+public final class PurchaseOrderValidator {
+
+    /**
+     * The default number of orders starting from which the validation is parallel.
+     *
+     * <p>Is chosen according to the {@code PurchaseOrderValidatorBenchmark} results.
+     */
+    public static final int DEFAULT_THRESHOLD = 2048;
+
+    /** The minimum number of orders validated by a single task. */
+    private static final int MIN_TASK_SIZE = 64;
+
+    /** The number of tasks per a thread of the pool to balance the load. */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private static final PurchaseOrderValidator DEFAULT =
+            new PurchaseOrderValidator(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * Creates a new validator.
+     *
+     * @param pool      the pool to perform the parallel validation
+     * @param threshold the number of orders starting from which the validation is parallel
+     */
+    public PurchaseOrderValidator(ForkJoinPool pool, int threshold) {
+        checkNotNull(pool);
+        checkArgument(threshold > 0, "The threshold must be positive.");
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Obtains the validator using the common {@link ForkJoinPool} and
+     * the {@linkplain #DEFAULT_THRESHOLD default threshold}.
+     */
+    public static PurchaseOrderValidator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Validates the orders of the purchase order.
+     *
+     * @param purchaseOrderId the identifier of the purchase order
+     * @param orders          the orders to validate
+     * @return the validation result
+     */
+    public PurchaseOrderValidation validate(PurchaseOrderId purchaseOrderId,
+                                            List<Order> orders) {
+        checkNotNull(purchaseOrderId);
+        checkNotNull(orders);
+        final int[] failures = new int[orders.size()];
+        final int taskSize = Math.max(MIN_TASK_SIZE,
+                                      orders.size() / (pool.getParallelism() * TASKS_PER_THREAD));
+        final ValidationTask task = new ValidationTask(purchaseOrderId, orders, failures,
+                                                       taskSize, 0, orders.size());
+        if (orders.size() < threshold) {
+            task.validateSequentially();
+        } else {
+            pool.invoke(task);
+        }
+        return new PurchaseOrderValidation(orders, failures);
+    }
+
+    /**
+     * The task validating the range of the orders.
+     */
+    private static final class ValidationTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 0L;
+
+        private final PurchaseOrderId purchaseOrderId;
+        private final List<Order> orders;
+        private final int[] failures;
+        private final int taskSize;
+        private final int from;
+        private final int to;
+
+        private ValidationTask(PurchaseOrderId purchaseOrderId, List<Order> orders,
+                               int[] failures, int taskSize, int from, int to) {
+            super();
+            this.purchaseOrderId = purchaseOrderId;
+            this.orders = orders;
+            this.failures = failures;
+            this.taskSize = taskSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= taskSize) {
+                validateSequentially();
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new ValidationTask(purchaseOrderId, orders, failures, taskSize,
+                                         from, middle),
+                      new ValidationTask(purchaseOrderId, orders, failures, taskSize,
+                                         middle, to));
+        }
+
+        private void validateSequentially() {
+            for (int i = from; i < to; i++) {
+                failures[i] = checkOrder(purchaseOrderId, orders.get(i));
+            }
+        }
+    }
+}
@@ -22,7 +22,11 @@ package javaclasses.mealorder.c.po;
 
 import io.spine.net.EmailAddress;
 import io.spine.time.LocalDate;
+import javaclasses.mealorder.Dish;
+import javaclasses.mealorder.DishId;
+import javaclasses.mealorder.MenuId;
 import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderLine;
 import javaclasses.mealorder.PurchaseOrder;
 import javaclasses.mealorder.PurchaseOrderId;
 import javaclasses.mealorder.PurchaseOrderStatus;
@@ -39,12 +43,14 @@ import javaclasses.mealorder.c.event.PurchaseOrderSent;
 import javaclasses.mealorder.c.event.PurchaseOrderValidationFailed;
 import javaclasses.mealorder.c.event.PurchaseOrderValidationOverruled;
 import javaclasses.mealorder.c.event.PurchaseOrderValidationPassed;
+import javaclasses.mealorder.c.po.PurchaseOrderValidation.OrderFailure;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static io.spine.time.Time.getCurrentTime;
+import static javaclasses.mealorder.OrderLines.dishCount;
+import static javaclasses.mealorder.OrderLines.linesOf;
 import static javaclasses.mealorder.OrderStatus.ORDER_ACTIVE;
 import static javaclasses.mealorder.PurchaseOrderStatus.DELIVERED;
 import static javaclasses.mealorder.PurchaseOrderStatus.INVALID;
@@ -72,6 +78,12 @@ class PurchaseOrders {
      */
     private static final int MAX_SINGLE_DISH_COUNT = 20;
 
+    /**
+     * The max sequential number of a dish counted in a primitive array
+     * by the legacy order validation.
+     */
+    private static final int MAX_COUNTED_SEQUENTIAL_NUMBER = 1024;
+
     /** Prevents instantiation of this utility class. */
     private PurchaseOrders() {
     }
@@ -99,37 +111,6 @@ class PurchaseOrders {
         return orderListNotEmpty && ordersFitToPO;
     }
 
-    /**
-     * Finds orders which contain more than {@code MAX_SINGLE_DISH_COUNT}
-     * equal dishes.
-     *
-     * <p> Those orders are considered invalid and returned as result.
-     *
-     * @param orders the list to check
-     * @return list of invalid orders, empty if all orders are valid
-     */
-    static List<Order> findInvalidOrders(List<Order> orders) {
-        checkNotNull(orders);
-        final List<Order> invalidOrders = orders.stream()
-                                                .filter(o -> !isOrderValid(o))
-                                                .collect(Collectors.toList());
-        return invalidOrders;
-    }
-
-    /**
-     * Checks order list for those which contain more than {@code MAX_SINGLE_DISH_COUNT}
-     * equal dishes.
-     *
-     * @param orders the list to check
-     * @return {@code true} if any invalid order was found.
-     */
-    static boolean hasInvalidOrders(List<Order> orders) {
-        checkNotNull(orders);
-        final boolean result = orders.stream()
-                                     .anyMatch(o -> !isOrderValid(o));
-        return result;
-    }
-
     /**
      * Creates {@code PurchaseOrderCreated} instance.
      *
@@ -331,6 +312,36 @@ class PurchaseOrders {
         return status != DELIVERED;
     }
 
+    /**
+     * Checks the order included into the purchase order.
+     *
+     * <p>Performs the checks of {@link #isAllowedPurchaseOrderCreation(CreatePurchaseOrder)}
+     * and checks the order for more than {@code MAX_SINGLE_DISH_COUNT} equal dishes.
+     *
+     * @param purchaseOrderId the identifier of the purchase order
+     * @param order           the order to check
+     * @return the bit mask of the {@link OrderFailure failures}, {@code 0} if the order is valid
+     */
+    static int checkOrder(PurchaseOrderId purchaseOrderId, Order order) {
+        int result = 0;
+        if (!checkOrderIsActive(order)) {
+            result |= OrderFailure.NOT_ACTIVE.bit();
+        }
+        if (!checkOrderingDatesMatch(order, purchaseOrderId.getPoDate())) {
+            result |= OrderFailure.DATE_MISMATCH.bit();
+        }
+        if (!checkOrderNotEmpty(order)) {
+            result |= OrderFailure.EMPTY.bit();
+        }
+        if (!checkVendorsMatch(order, purchaseOrderId.getVendorId())) {
+            result |= OrderFailure.VENDOR_MISMATCH.bit();
+        }
+        if (!isOrderValid(order)) {
+            result |= OrderFailure.TOO_MANY_EQUAL_DISHES.bit();
+        }
+        return result;
+    }
+
     @SuppressWarnings("OverlyComplexBooleanExpression")
     private static boolean doesOrderFitToPO(PurchaseOrderId purchaseOrderId, Order order) {
         final VendorId purchaseOrderVendorId = purchaseOrderId.getVendorId();
@@ -340,15 +351,82 @@ class PurchaseOrders {
                 checkOrderNotEmpty(order) && checkVendorsMatch(order, purchaseOrderVendorId);
     }
 
+    @SuppressWarnings("deprecation") // Checks the deprecated dishes of the legacy orders.
     private static boolean isOrderValid(Order order) {
-        final boolean result = order.getDishList()
-                                    .stream()
-                                    .collect(Collectors.groupingBy(d -> d,
-                                                                   Collectors.counting()))
-                                    .entrySet()
-                                    .stream()
-                                    .noneMatch(p -> p.getValue() > MAX_SINGLE_DISH_COUNT);
-        return result;
+        if (order.getDishCount() != 0) {
+            return isLegacyOrderValid(order);
+        }
+        for (int i = 0; i < order.getLineCount(); i++) {
+            if (order.getLine(i)
+                     .getQuantity() > MAX_SINGLE_DISH_COUNT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the order stored before the order lines were introduced.
+     *
+     * <p>The dishes are counted by the sequential number in a primitive array if all of them
+     * belong to the same menu. The counting stops as soon as any count exceeds
+     * {@code MAX_SINGLE_DISH_COUNT}. The dishes from several menus are folded into
+     * the order lines instead.
+     */
+    @SuppressWarnings("deprecation") // Checks the deprecated dishes of the legacy orders.
+    private static boolean isLegacyOrderValid(Order order) {
+        final MenuId menuId = order.getDish(0)
+                                   .getId()
+                                   .getMenuId();
+        int maxNumber = 0;
+        for (OrderLine line : order.getLineList()) {
+            final DishId dishId = line.getDish()
+                                      .getId();
+            if (!isCountable(dishId, menuId)) {
+                return areLinesValid(linesOf(order));
+            }
+            maxNumber = Math.max(maxNumber, dishId.getSequentialNumber());
+        }
+        for (Dish dish : order.getDishList()) {
+            final DishId dishId = dish.getId();
+            if (!isCountable(dishId, menuId)) {
+                return areLinesValid(linesOf(order));
+            }
+            maxNumber = Math.max(maxNumber, dishId.getSequentialNumber());
+        }
+        final int[] counts = new int[maxNumber + 1];
+        for (OrderLine line : order.getLineList()) {
+            final int number = line.getDish()
+                                   .getId()
+                                   .getSequentialNumber();
+            counts[number] += line.getQuantity();
+            if (counts[number] > MAX_SINGLE_DISH_COUNT) {
+                return false;
+            }
+        }
+        for (Dish dish : order.getDishList()) {
+            final int number = dish.getId()
+                                   .getSequentialNumber();
+            if (++counts[number] > MAX_SINGLE_DISH_COUNT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCountable(DishId dishId, MenuId menuId) {
+        final int number = dishId.getSequentialNumber();
+        return number >= 0 && number <= MAX_COUNTED_SEQUENTIAL_NUMBER
+                && menuId.equals(dishId.getMenuId());
+    }
+
+    private static boolean areLinesValid(List<OrderLine> lines) {
+        for (OrderLine line : lines) {
+            if (line.getQuantity() > MAX_SINGLE_DISH_COUNT) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private static boolean checkOrderingDatesMatch(Order order, LocalDate poDate) {
@@ -358,7 +436,7 @@ class PurchaseOrders {
     }
 
     private static boolean checkOrderNotEmpty(Order order) {
-        final int dishCount = order.getDishCount();
+        final int dishCount = dishCount(order);
         return dishCount != 0;
     }
 
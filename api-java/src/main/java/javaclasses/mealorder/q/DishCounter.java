@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import javaclasses.mealorder.Dish;
+import javaclasses.mealorder.DishId;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderLine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static javaclasses.mealorder.OrderLines.linesOf;
+import static javaclasses.mealorder.q.DishItems.toDishItem;
+
+/**
+ * Counts the quantities of the ordered dishes.
+ *
+ * <p>The dishes of the menu of the first counted dish are counted in the arrays indexed by
+ * the dish sequential number, so counting such a dish is a primitive array access without
+ * any allocation. The dishes of the other menus and the dishes with the sequential numbers
+ * greater than {@code MAX_INDEXED_SEQUENTIAL_NUMBER} are counted in a hash map.
+ *
+ * @author agent
+ */
+final class DishCounter {
+
+    /** The max sequential number of a dish counted in the arrays. */
+    private static final int MAX_INDEXED_SEQUENTIAL_NUMBER = 1024;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The menu of the dishes counted in the arrays, {@code null} until the first dish. */
+    private MenuId menuId;
+
+    /** The quantities of the dishes of the menu by the sequential number. */
+    private int[] quantities = new int[INITIAL_CAPACITY];
+
+    /** The counted dishes of the menu by the sequential number. */
+    private Dish[] dishes = new Dish[INITIAL_CAPACITY];
+
+    /** The dishes not counted in the arrays, is created upon the first such dish. */
+    private Map<DishId, DishItem.Builder> otherDishes;
+
+    /**
+     * Counts the dishes of the order.
+     *
+     * @param order the order to count the dishes of
+     */
+    void addAll(Order order) {
+        checkNotNull(order);
+        for (OrderLine line : linesOf(order)) {
+            add(line.getDish(), line.getQuantity());
+        }
+    }
+
+    /**
+     * Counts the dish.
+     *
+     * @param dish     the dish to count
+     * @param quantity the number of the dishes to count
+     */
+    void add(Dish dish, int quantity) {
+        checkNotNull(dish);
+        checkArgument(quantity >= 0);
+        final DishId dishId = dish.getId();
+        if (menuId == null) {
+            menuId = dishId.getMenuId();
+        }
+        final int number = dishId.getSequentialNumber();
+        if (number < 0 || number > MAX_INDEXED_SEQUENTIAL_NUMBER
+                || !menuId.equals(dishId.getMenuId())) {
+            addOther(dish, quantity);
+            return;
+        }
+        ensureCapacity(number + 1);
+        if (dishes[number] == null) {
+            dishes[number] = dish;
+        }
+        quantities[number] += quantity;
+    }
+
+    private void addOther(Dish dish, int quantity) {
+        if (otherDishes == null) {
+            otherDishes = new LinkedHashMap<>();
+        }
+        final DishItem.Builder item = otherDishes.computeIfAbsent(
+                dish.getId(), id -> DishItem.newBuilder(toDishItem(dish)));
+        item.setQuantity(item.getQuantity() + quantity);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= quantities.length) {
+            return;
+        }
+        final int newLength = Math.min(Math.max(capacity, quantities.length * 2),
+                                       MAX_INDEXED_SEQUENTIAL_NUMBER + 1);
+        quantities = Arrays.copyOf(quantities, newLength);
+        dishes = Arrays.copyOf(dishes, newLength);
+    }
+
+    /**
+     * Obtains the counted dishes with their quantities.
+     *
+     * <p>The dishes of the first counted menu go first in the order of their sequential numbers.
+     * The other dishes follow in the order they were counted.
+     *
+     * @return the dish items with the quantities, a single item per dish
+     */
+    List<DishItem> toDishItems() {
+        final List<DishItem> result = new ArrayList<>();
+        for (int i = 0; i < dishes.length; i++) {
+            if (dishes[i] != null) {
+                result.add(DishItem.newBuilder(toDishItem(dishes[i]))
+                                   .setQuantity(quantities[i])
+                                   .build());
+            }
+        }
+        if (otherDishes != null) {
+            for (DishItem.Builder item : otherDishes.values()) {
+                result.add(item.build());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import javaclasses.mealorder.Dish;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Utilities for converting the dishes into the {@link DishItem} values of the views.
+ *
+ * @author agent
+ */
+final class DishItems {
+
+    /** Prevents instantiation of this utility class. */
+    private DishItems() {
+    }
+
+    /**
+     * Converts the dish into the view item.
+     *
+     * @param dish the dish to convert
+     * @return the dish item
+     */
+    static DishItem toDishItem(Dish dish) {
+        checkNotNull(dish);
+        final DishItem result = DishItem.newBuilder()
+                                        .setId(dish.getId())
+                                        .setName(dish.getName())
+                                        .setCategory(dish.getCategory())
+                                        .setPrice(dish.getPrice())
+                                        .build();
+        return result;
+    }
+
+    /**
+     * Converts the dishes into the view items keeping their order.
+     *
+     * @param dishes the dishes to convert
+     * @return the dish items
+     */
+    static List<DishItem> toDishItems(List<Dish> dishes) {
+        checkNotNull(dishes);
+        final List<DishItem> result = new ArrayList<>(dishes.size());
+        for (Dish dish : dishes) {
+            result.add(toDishItem(dish));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.FullMenuListId;
+import javaclasses.mealorder.MenuDateRange;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.c.event.DateRangeForMenuSet;
+import javaclasses.mealorder.c.event.MenuImported;
+import javaclasses.mealorder.q.projection.FullMenuListView;
+import javaclasses.mealorder.q.projection.FullMenuListViewVBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static javaclasses.mealorder.DateKeys.compare;
+import static javaclasses.mealorder.DateKeys.endKey;
+import static javaclasses.mealorder.DateKeys.startKey;
+import static javaclasses.mealorder.q.DishItems.toDishItems;
+
+/**
+ * The projection of the list of all the menus.
+ *
+ * <p>The menus having the date range are sorted by the date range. The menus without
+ * the date range follow them in the order of the import. A menu is moved to its place
+ * when its date range is set, so the list is never sorted as a whole. The dishes of a menu
+ * are taken from the {@link MenuImported} event, which precedes the date range changes.
+ *
+ * <p>Each applied event increases the version of the list.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class FullMenuListViewProjection extends Projection<FullMenuListId,
+        FullMenuListView,
+        FullMenuListViewVBuilder> {
+
+    public FullMenuListViewProjection(FullMenuListId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(MenuImported event) {
+        if (indexOf(getBuilder().getMenu(), event.getMenuId()) < 0) {
+            final FullMenuItem menu = FullMenuItem.newBuilder()
+                                                  .setMenuId(event.getMenuId())
+                                                  .addAllDish(toDishItems(event.getDishList()))
+                                                  .build();
+            getBuilder().addMenu(menu);
+        }
+        increaseVersion();
+    }
+
+    @Subscribe
+    public void on(DateRangeForMenuSet event) {
+        final List<FullMenuItem> menus = new ArrayList<>(getBuilder().getMenu());
+        final int index = indexOf(menus, event.getMenuId());
+        final FullMenuItem.Builder menu = index >= 0
+                                          ? menus.remove(index)
+                                                 .toBuilder()
+                                          : FullMenuItem.newBuilder()
+                                                        .setMenuId(event.getMenuId());
+        final MenuDateRange range = event.getMenuDateRange();
+        menu.setMenuDateRange(range);
+        menus.add(insertionIndexOf(menus, range), menu.build());
+        getBuilder().clearMenu()
+                    .addAllMenu(menus);
+        increaseVersion();
+    }
+
+    private static int indexOf(List<FullMenuItem> menus, MenuId menuId) {
+        for (int i = 0; i < menus.size(); i++) {
+            if (menus.get(i)
+                     .getMenuId()
+                     .equals(menuId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Obtains the index to insert the menu with the date range keeping the menus sorted.
+     *
+     * <p>The menu follows the menus with the same date range.
+     */
+    private static int insertionIndexOf(List<FullMenuItem> menus, MenuDateRange range) {
+        final int startKey = startKey(range);
+        final int endKey = endKey(range);
+        for (int i = 0; i < menus.size(); i++) {
+            final FullMenuItem menu = menus.get(i);
+            if (!menu.hasMenuDateRange()) {
+                return i;
+            }
+            final MenuDateRange menuRange = menu.getMenuDateRange();
+            int comparison = compare(startKey(menuRange), startKey);
+            if (comparison == 0) {
+                comparison = compare(endKey(menuRange), endKey);
+            }
+            if (comparison > 0) {
+                return i;
+            }
+        }
+        return menus.size();
+    }
+
+    private void increaseVersion() {
+        getBuilder().setVersion(getBuilder().getVersion() + 1);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import io.spine.core.TenantId;
+import io.spine.server.projection.ProjectionRepository;
+import javaclasses.mealorder.Tenants;
+import javaclasses.mealorder.FullMenuListId;
+import javaclasses.mealorder.c.event.DateRangeForMenuSet;
+import javaclasses.mealorder.c.event.MenuImported;
+import javaclasses.mealorder.q.projection.FullMenuListView;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Repository for the {@link FullMenuListViewProjection}.
+ *
+ * <p>Keeps the latest state of the full menu list of each tenant as a snapshot. The snapshot
+ * is replaced atomically each time the projection is stored after an event, so the readers
+ * never lock and never wait for the events being applied.
+ *
+ * @author agent
+ */
+public class FullMenuListViewRepository extends ProjectionRepository<FullMenuListId,
+        FullMenuListViewProjection,
+        FullMenuListView> {
+
+    /** The identifier of the single full menu list. */
+    static final FullMenuListId ID = FullMenuListId.newBuilder()
+                                                   .setValue("FullMenuListView")
+                                                   .build();
+
+    /** The latest stored state of the list by tenant, absent until it is first read or stored. */
+    private final ConcurrentMap<TenantId, FullMenuListView> snapshots = new ConcurrentHashMap<>();
+
+    public FullMenuListViewRepository() {
+        super();
+        setUpEventRouting();
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(MenuImported.class,
+                                (message, context) -> ImmutableSet.of(ID));
+        getEventRouting().route(DateRangeForMenuSet.class,
+                                (message, context) -> ImmutableSet.of(ID));
+    }
+
+    @Override
+    public void store(FullMenuListViewProjection projection) {
+        super.store(projection);
+        snapshots.put(currentTenant(), projection.getState());
+    }
+
+    /**
+     * Obtains the full menu list.
+     *
+     * @return the latest stored state of the list
+     */
+    public FullMenuListView getView() {
+        final TenantId tenantId = currentTenant();
+        final FullMenuListView current = snapshots.get(tenantId);
+        if (current != null) {
+            return current;
+        }
+        final Optional<FullMenuListViewProjection> projection = find(ID);
+        final FullMenuListView stored = projection.isPresent()
+                                        ? projection.get()
+                                                    .getState()
+                                        : FullMenuListView.getDefaultInstance();
+        // Does not replace the snapshot stored by the events meanwhile.
+        snapshots.putIfAbsent(tenantId, stored);
+        return snapshots.get(tenantId);
+    }
+
+    /**
+     * Obtains the full menu list if it was changed since the version known to the client.
+     *
+     * @param knownVersion the version of the list the client has
+     * @return the list or {@code Optional.absent()} if the list is still of the known version
+     */
+    public Optional<FullMenuListView> getViewIfChanged(long knownVersion) {
+        final FullMenuListView view = getView();
+        if (view.getVersion() == knownVersion) {
+            return Optional.absent();
+        }
+        return Optional.of(view);
+    }
+
+    private TenantId currentTenant() {
+        return Tenants.currentTenant(getBoundedContext().isMultitenant());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.LocalMonth;
+import javaclasses.mealorder.MenuCalendarMonthId;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.c.event.DateRangeForMenuSet;
+import javaclasses.mealorder.q.projection.MenuCalendarMonthView;
+import javaclasses.mealorder.q.projection.MenuCalendarMonthViewVBuilder;
+
+import java.util.List;
+
+import static javaclasses.mealorder.q.MenuCalendars.dayMask;
+
+/**
+ * The projection of the days of a month having menus.
+ *
+ * <p>A vendor has no menus with the overlapping date ranges, so the days of the previous date
+ * range of a menu are cleared from the mask of its vendor before the days of the new date range
+ * are set. The mask of the month is the union of the masks of all the vendors.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class MenuCalendarMonthViewProjection extends Projection<MenuCalendarMonthId,
+        MenuCalendarMonthView,
+        MenuCalendarMonthViewVBuilder> {
+
+    public MenuCalendarMonthViewProjection(MenuCalendarMonthId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(DateRangeForMenuSet event) {
+        final LocalMonth month = getId().getMonth();
+        final VendorId vendorId = event.getVendorId();
+        final List<VendorMenuDays> vendorDays = getBuilder().getVendorDays();
+        final int position = findVendor(vendorId);
+
+        int vendorMask = position >= 0
+                         ? vendorDays.get(position)
+                                     .getDayMask()
+                         : 0;
+        if (event.hasPreviousMenuDateRange()) {
+            vendorMask &= ~dayMask(event.getPreviousMenuDateRange(), month);
+        }
+        vendorMask |= dayMask(event.getMenuDateRange(), month);
+
+        final VendorMenuDays days = VendorMenuDays.newBuilder()
+                                                  .setVendorId(vendorId)
+                                                  .setDayMask(vendorMask)
+                                                  .build();
+        if (position < 0) {
+            if (vendorMask != 0) {
+                getBuilder().addVendorDays(days);
+            }
+        } else if (vendorMask == 0) {
+            getBuilder().removeVendorDays(position);
+        } else {
+            getBuilder().setVendorDays(position, days);
+        }
+
+        int monthMask = 0;
+        for (VendorMenuDays vendor : getBuilder().getVendorDays()) {
+            monthMask |= vendor.getDayMask();
+        }
+        getBuilder().setId(getId())
+                    .setDayMask(monthMask);
+    }
+
+    /**
+     * Finds the position of the vendor days in the list.
+     *
+     * @param vendorId the identifier of the vendor to find
+     * @return the position of the vendor days or {@code -1} if the vendor has no menus
+     * in the month
+     */
+    private int findVendor(VendorId vendorId) {
+        final List<VendorMenuDays> vendorDays = getBuilder().getVendorDays();
+        for (int i = 0; i < vendorDays.size(); i++) {
+            if (vendorId.equals(vendorDays.get(i)
+                                          .getVendorId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import io.spine.server.projection.ProjectionRepository;
+import io.spine.time.LocalDate;
+import javaclasses.mealorder.MenuCalendarMonthId;
+import javaclasses.mealorder.c.event.DateRangeForMenuSet;
+import javaclasses.mealorder.q.projection.MenuCalendarMonthView;
+import javaclasses.mealorder.q.projection.MenuCalendarView;
+
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.time.LocalDates.addDays;
+import static io.spine.time.LocalDates.now;
+import static javaclasses.mealorder.q.MenuCalendars.CALENDAR_DAYS;
+import static javaclasses.mealorder.q.MenuCalendars.hasDay;
+import static javaclasses.mealorder.q.MenuCalendars.monthIdOf;
+
+/**
+ * Repository for the {@link MenuCalendarMonthViewProjection}.
+ *
+ * <p>Builds the {@link MenuCalendarView} from the stored calendar months upon each read,
+ * so a month is stored as a few bytes instead of an item per day.
+ *
+ * @author agent
+ */
+public class MenuCalendarMonthViewRepository extends ProjectionRepository<MenuCalendarMonthId,
+        MenuCalendarMonthViewProjection,
+        MenuCalendarMonthView> {
+
+    public MenuCalendarMonthViewRepository() {
+        super();
+        getEventRouting().route(DateRangeForMenuSet.class,
+                                (message, context) -> monthIdsOf(message));
+    }
+
+    /**
+     * Obtains the menu calendar from today to the same day next week.
+     *
+     * @return the menu calendar view
+     */
+    public MenuCalendarView getCalendarView() {
+        return getCalendarView(now());
+    }
+
+    /**
+     * Obtains the menu calendar from the date to the same day next week.
+     *
+     * <p>Loads each of the covered calendar months once.
+     *
+     * @param from the first date of the calendar
+     * @return the menu calendar view
+     */
+    public MenuCalendarView getCalendarView(LocalDate from) {
+        checkNotNull(from);
+        final MenuCalendarView.Builder result = MenuCalendarView.newBuilder();
+        MenuCalendarMonthId loadedMonth = null;
+        int dayMask = 0;
+        LocalDate date = from;
+        for (int i = 0; i < CALENDAR_DAYS; i++) {
+            final MenuCalendarMonthId month = monthIdOf(date);
+            if (!month.equals(loadedMonth)) {
+                dayMask = findDayMask(month);
+                loadedMonth = month;
+            }
+            final MenuCalendarItem item = MenuCalendarItem.newBuilder()
+                                                          .setDate(date)
+                                                          .setHasMenu(hasDay(dayMask,
+                                                                             date.getDay()))
+                                                          .build();
+            result.addCalendarItem(item);
+            date = addDays(date, 1);
+        }
+        return result.build();
+    }
+
+    private int findDayMask(MenuCalendarMonthId month) {
+        final Optional<MenuCalendarMonthViewProjection> projection = find(month);
+        if (!projection.isPresent()) {
+            return 0;
+        }
+        return projection.get()
+                         .getState()
+                         .getDayMask();
+    }
+
+    /**
+     * Obtains the identifiers of the calendar months covered by the new
+     * and the previous date ranges of the menu.
+     */
+    private static Set<MenuCalendarMonthId> monthIdsOf(DateRangeForMenuSet event) {
+        final ImmutableSet.Builder<MenuCalendarMonthId> result = ImmutableSet.builder();
+        result.addAll(MenuCalendars.monthIdsOf(event.getMenuDateRange()));
+        if (event.hasPreviousMenuDateRange()) {
+            result.addAll(MenuCalendars.monthIdsOf(event.getPreviousMenuDateRange()));
+        }
+        return result.build();
+    }
+}
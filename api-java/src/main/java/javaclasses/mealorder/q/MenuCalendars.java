@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.collect.ImmutableSet;
+import io.spine.time.LocalDate;
+import io.spine.time.MonthOfYear;
+import javaclasses.mealorder.LocalMonth;
+import javaclasses.mealorder.MenuCalendarMonthId;
+import javaclasses.mealorder.MenuDateRange;
+
+import java.time.YearMonth;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static javaclasses.mealorder.DateKeys.endKey;
+import static javaclasses.mealorder.DateKeys.startKey;
+import static javaclasses.mealorder.DateKeys.toKey;
+
+/**
+ * Utilities for the day masks of the menu calendar months.
+ *
+ * <p>A day mask keeps a single bit per day of a month. The lowest bit stands for the first day.
+ *
+ * @author agent
+ */
+final class MenuCalendars {
+
+    /** The number of the dates in the menu calendar, from today to the same day next week. */
+    static final int CALENDAR_DAYS = 8;
+
+    private static final int MAX_DAYS_IN_MONTH = 31;
+    private static final int MONTHS_IN_YEAR = 12;
+    private static final int DAY_DIVISOR = 100;
+
+    /** Prevents instantiation of this utility class. */
+    private MenuCalendars() {
+    }
+
+    /**
+     * Obtains the identifier of the calendar month of the date.
+     *
+     * @param date the date of the month
+     * @return the calendar month identifier
+     */
+    static MenuCalendarMonthId monthIdOf(LocalDate date) {
+        checkNotNull(date);
+        return monthIdOf(date.getYear(), date.getMonthValue());
+    }
+
+    private static MenuCalendarMonthId monthIdOf(int year, int month) {
+        final LocalMonth localMonth = LocalMonth.newBuilder()
+                                                .setYear(year)
+                                                .setMonth(MonthOfYear.forNumber(month))
+                                                .build();
+        return MenuCalendarMonthId.newBuilder()
+                                  .setMonth(localMonth)
+                                  .build();
+    }
+
+    /**
+     * Obtains the identifiers of all the calendar months the date range covers.
+     *
+     * @param range the date range
+     * @return the calendar month identifiers
+     */
+    static Set<MenuCalendarMonthId> monthIdsOf(MenuDateRange range) {
+        checkNotNull(range);
+        final LocalDate start = range.getRangeStart();
+        final LocalDate end = range.getRangeEnd();
+        final ImmutableSet.Builder<MenuCalendarMonthId> result = ImmutableSet.builder();
+        int year = start.getYear();
+        int month = start.getMonthValue();
+        while (year < end.getYear() || year == end.getYear() && month <= end.getMonthValue()) {
+            result.add(monthIdOf(year, month));
+            month++;
+            if (month > MONTHS_IN_YEAR) {
+                month = 1;
+                year++;
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * Obtains the mask of the days of the month covered by the date range.
+     *
+     * @param range the date range
+     * @param month the month
+     * @return the day mask, {@code 0} if the range does not cover the month
+     */
+    static int dayMask(MenuDateRange range, LocalMonth month) {
+        checkNotNull(range);
+        checkNotNull(month);
+        final int year = month.getYear();
+        final int monthValue = month.getMonthValue();
+        final int monthStart = toKey(year, monthValue, 1);
+        final int monthEnd = toKey(year, monthValue, YearMonth.of(year, monthValue)
+                                                             .lengthOfMonth());
+        final int from = Math.max(startKey(range), monthStart);
+        final int to = Math.min(endKey(range), monthEnd);
+        if (from > to) {
+            return 0;
+        }
+        final int firstDay = from % DAY_DIVISOR;
+        final int lastDay = to % DAY_DIVISOR;
+        final long result = ((1L << lastDay) - 1) & ~((1L << (firstDay - 1)) - 1);
+        return (int) result;
+    }
+
+    /**
+     * Checks whether the day is set in the mask.
+     *
+     * @param dayMask the day mask
+     * @param day     the day of the month, starting from {@code 1}
+     * @return {@code true} if the day is set
+     */
+    static boolean hasDay(int dayMask, int day) {
+        checkArgument(day > 0 && day <= MAX_DAYS_IN_MONTH);
+        return (dayMask & (1 << (day - 1))) != 0;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.MenuListId;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.VendorName;
+import javaclasses.mealorder.c.event.DateRangeForMenuSet;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.VendorUpdated;
+import javaclasses.mealorder.q.projection.MenuListView;
+import javaclasses.mealorder.q.projection.MenuListViewVBuilder;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static javaclasses.mealorder.DateKeys.rangeIncludes;
+
+/**
+ * The projection of the menus available on a single date.
+ *
+ * <p>The {@link MenuListViewRepository} delivers a {@link DateRangeForMenuSet} event to the
+ * views of all the dates of both the new and the previous date range of the menu. So each view
+ * either lists the menu or drops it, and the menus for a date are read as a single view.
+ *
+ * <p>The event carries only the date ranges. The vendor name and the dishes of the listed menu
+ * are looked up in the {@link VendorMenuRangeIndexRepository}, which is set by the repository
+ * when the projection is created.
+ *
+ * <p>All the event handlers are idempotent, so the views may be safely rebuilt by replaying
+ * the events which were already delivered.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class MenuListViewProjection extends Projection<MenuListId,
+        MenuListView,
+        MenuListViewVBuilder> {
+
+    /**
+     * The index to look the menus up, is set by the {@link MenuListViewRepository}
+     * when the projection is created.
+     */
+    private VendorMenuRangeIndexRepository menuLookup;
+
+    public MenuListViewProjection(MenuListId id) {
+        super(id);
+    }
+
+    void setMenuLookup(VendorMenuRangeIndexRepository menuLookup) {
+        this.menuLookup = checkNotNull(menuLookup);
+    }
+
+    @Subscribe
+    public void on(DateRangeForMenuSet event) {
+        final MenuId menuId = event.getMenuId();
+        final int position = findMenu(menuId);
+        final boolean available = rangeIncludes(event.getMenuDateRange(), getId().getDate());
+
+        if (!available) {
+            if (position >= 0) {
+                getBuilder().removeMenu(position);
+            }
+            return;
+        }
+
+        checkState(menuLookup != null, "The menu lookup is not set.");
+        final Optional<MenuItem> imported = menuLookup.findMenu(menuId);
+        final MenuItem menu = imported.isPresent()
+                              ? imported.get()
+                              : MenuItem.newBuilder()
+                                        .setMenuId(menuId)
+                                        .build();
+        if (position >= 0) {
+            getBuilder().setMenu(position, menu);
+            return;
+        }
+        getBuilder().setListId(getId())
+                    .addMenu(menu);
+    }
+
+    /**
+     * Drops the menus of the vendor as the purchase order for the date is already created,
+     * so the menus are not actual anymore.
+     */
+    @Subscribe
+    public void on(PurchaseOrderCreated event) {
+        final VendorId vendorId = event.getId()
+                                       .getVendorId();
+        final List<MenuItem> menus = getBuilder().getMenu();
+        for (int i = menus.size() - 1; i >= 0; i--) {
+            if (isMenuOf(menus.get(i), vendorId)) {
+                getBuilder().removeMenu(i);
+            }
+        }
+    }
+
+    @Subscribe
+    public void on(VendorUpdated event) {
+        final VendorId vendorId = event.getVendorId();
+        final VendorName vendorName = event.getVendorChange()
+                                           .getNewVendorName();
+        final List<MenuItem> menus = getBuilder().getMenu();
+        for (int i = 0; i < menus.size(); i++) {
+            final MenuItem menu = menus.get(i);
+            if (isMenuOf(menu, vendorId) && !vendorName.equals(menu.getVendorName())) {
+                getBuilder().setMenu(i, MenuItem.newBuilder(menu)
+                                                .setVendorName(vendorName)
+                                                .build());
+            }
+        }
+    }
+
+    /**
+     * Finds the position of the menu in the list.
+     *
+     * @param menuId the identifier of the menu to find
+     * @return the position of the menu or {@code -1} if the menu is not listed
+     */
+    private int findMenu(MenuId menuId) {
+        final List<MenuItem> menus = getBuilder().getMenu();
+        for (int i = 0; i < menus.size(); i++) {
+            if (menuId.equals(menus.get(i)
+                                   .getMenuId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isMenuOf(MenuItem menu, VendorId vendorId) {
+        return vendorId.equals(menu.getMenuId()
+                                   .getVendorId());
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.collect.ImmutableSet;
+import io.spine.server.projection.ProjectionRepository;
+import io.spine.time.LocalDate;
+import javaclasses.mealorder.MenuDateRange;
+import javaclasses.mealorder.MenuListId;
+import javaclasses.mealorder.c.event.DateRangeForMenuSet;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.VendorUpdated;
+import javaclasses.mealorder.c.vendor.VendorAggregate;
+import javaclasses.mealorder.q.projection.MenuListView;
+
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.spine.time.LocalDates.addDays;
+import static javaclasses.mealorder.DateKeys.endKey;
+import static javaclasses.mealorder.DateKeys.toKey;
+
+/**
+ * Repository for the {@link MenuListViewProjection}.
+ *
+ * <p>Fans each {@link DateRangeForMenuSet} event out to the views of all the dates
+ * of the new and the previous date ranges of the menu. A date range is not longer than
+ * {@link VendorAggregate#MAX_MENU_DATE_RANGE_DAYS}, so an event updates at most twice as many
+ * views.
+ *
+ * <p>A {@link VendorUpdated} event is delivered to the views of the dates of the current
+ * date ranges of the vendor menus, which are found in the {@link VendorMenuRangeIndexRepository}.
+ * The menus of the vendor are listed only on these dates. A vendor update is delivered
+ * to the views of the ranges of all the vendor menus, so its fan-out grows with the number
+ * of the menus having the date range.
+ *
+ * <p>The same index provides the vendor name and the dishes of the menus to the created
+ * projections.
+ *
+ * @author agent
+ */
+public class MenuListViewRepository extends ProjectionRepository<MenuListId,
+        MenuListViewProjection,
+        MenuListView> {
+
+    private final VendorMenuRangeIndexRepository vendorMenuRanges;
+
+    /**
+     * Creates the repository.
+     *
+     * @param vendorMenuRanges the index of the menu date ranges of the vendors, which must be
+     *                         registered in the same bounded context
+     */
+    public MenuListViewRepository(VendorMenuRangeIndexRepository vendorMenuRanges) {
+        super();
+        this.vendorMenuRanges = checkNotNull(vendorMenuRanges);
+        setUpEventRouting();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Passes the index of the vendor menus to the created projection.
+     */
+    @Override
+    public MenuListViewProjection create(MenuListId id) {
+        final MenuListViewProjection projection = super.create(id);
+        projection.setMenuLookup(vendorMenuRanges);
+        return projection;
+    }
+
+    /**
+     * Rebuilds the menu lists from the events stored in the {@code EventStore}
+     * of the bounded context.
+     *
+     * <p>Replays the events which were not yet delivered to the views,
+     * so for an empty storage builds all the menu lists from scratch.
+     *
+     * <p>The index of the menu date ranges of the vendors is caught up first, so the vendor
+     * updates are delivered to the views of the actual date ranges of the vendor menus.
+     */
+    public void rebuild() {
+        vendorMenuRanges.catchUp();
+        catchUp();
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(DateRangeForMenuSet.class,
+                                (message, context) -> listIdsOf(message));
+        getEventRouting().route(PurchaseOrderCreated.class,
+                                (message, context) -> ImmutableSet.of(
+                                        listIdOf(message.getId()
+                                                        .getPoDate())));
+        getEventRouting().route(VendorUpdated.class,
+                                (message, context) -> listIdsOf(
+                                        vendorMenuRanges.findMenuDateRanges(
+                                                message.getVendorId())));
+    }
+
+    /**
+     * Obtains the identifiers of the menu lists for all the dates of the new
+     * and the previous date ranges of the menu.
+     *
+     * @param event the event setting the date range of the menu
+     * @return the identifiers of the menu lists affected by the event
+     */
+    static Set<MenuListId> listIdsOf(DateRangeForMenuSet event) {
+        checkNotNull(event);
+        final ImmutableSet.Builder<MenuListId> result = ImmutableSet.builder();
+        addListIds(event.getMenuDateRange(), result);
+        if (event.hasPreviousMenuDateRange()) {
+            addListIds(event.getPreviousMenuDateRange(), result);
+        }
+        return result.build();
+    }
+
+    /**
+     * Obtains the identifiers of the menu lists for all the dates of the date ranges.
+     *
+     * @param ranges the date ranges of the menus
+     * @return the identifiers of the menu lists of the dates
+     */
+    static Set<MenuListId> listIdsOf(Iterable<MenuDateRange> ranges) {
+        checkNotNull(ranges);
+        final ImmutableSet.Builder<MenuListId> result = ImmutableSet.builder();
+        for (MenuDateRange range : ranges) {
+            addListIds(range, result);
+        }
+        return result.build();
+    }
+
+    private static void addListIds(MenuDateRange range, ImmutableSet.Builder<MenuListId> ids) {
+        final int endKey = endKey(range);
+        for (LocalDate date = range.getRangeStart(); toKey(date) <= endKey;
+             date = addDays(date, 1)) {
+            ids.add(listIdOf(date));
+        }
+    }
+
+    private static MenuListId listIdOf(LocalDate date) {
+        return MenuListId.newBuilder()
+                         .setDate(date)
+                         .build();
+    }
+}
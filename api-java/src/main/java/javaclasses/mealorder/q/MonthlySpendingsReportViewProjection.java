@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.Identifier;
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.MonthlySpendingsReportId;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.UserId;
+import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.q.projection.MonthlySpendingsReportView;
+import javaclasses.mealorder.q.projection.MonthlySpendingsReportViewVBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static javaclasses.mealorder.q.SpendingsCounter.sum;
+
+/**
+ * The projection of the spendings of the users during a month.
+ *
+ * <p>The spendings are updated when a purchase order of the month is delivered, so the report
+ * is always up to date and never needs to be calculated from all the orders of the month.
+ * Only the spendings of the users who made the orders of the delivered purchase order
+ * are updated.
+ *
+ * <p>The spendings of a created purchase order are kept until it is delivered or canceled.
+ * They are counted upon the delivery, so the {@link PurchaseOrderDelivered} event does not
+ * need to repeat the orders of the purchase order.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class MonthlySpendingsReportViewProjection extends Projection<MonthlySpendingsReportId,
+        MonthlySpendingsReportView,
+        MonthlySpendingsReportViewVBuilder> {
+
+    public MonthlySpendingsReportViewProjection(MonthlySpendingsReportId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderCreated event) {
+        final PurchaseOrderId purchaseOrderId = event.getId();
+        final String key = pendingKey(purchaseOrderId);
+        if (getBuilder().getPendingSpending()
+                        .containsKey(key)) {
+            return;
+        }
+        final PurchaseOrderSpendings pending =
+                PurchaseOrderSpendings.newBuilder()
+                                      .setId(purchaseOrderId)
+                                      .addAllUserSpending(count(event.getOrderList()))
+                                      .build();
+        getBuilder().setReportId(getId())
+                    .putPendingSpending(key, pending);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderDelivered event) {
+        final String key = pendingKey(event.getId());
+        final PurchaseOrderSpendings pending = getBuilder().getPendingSpending()
+                                                           .get(key);
+        if (pending == null) {
+            return;
+        }
+        getBuilder().setReportId(getId());
+        addSpendings(pending.getUserSpendingList());
+        getBuilder().removePendingSpending(key);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderCanceled event) {
+        final String key = pendingKey(event.getId());
+        if (getBuilder().getPendingSpending()
+                        .containsKey(key)) {
+            getBuilder().removePendingSpending(key);
+        }
+    }
+
+    /**
+     * Adds the spendings to the spendings of the same users in the report.
+     *
+     * <p>The spendings of the other users are not changed.
+     *
+     * @param spendings the spendings to add, a single item per user
+     */
+    private void addSpendings(List<UserSpendings> spendings) {
+        final Map<UserId, UserSpendings> added = new LinkedHashMap<>(spendings.size());
+        for (UserSpendings userSpendings : spendings) {
+            added.put(userSpendings.getId(), userSpendings);
+        }
+        final List<UserSpendings> current = getBuilder().getUserSpending();
+        for (int i = 0; i < current.size() && !added.isEmpty(); i++) {
+            final UserSpendings existing = current.get(i);
+            final UserSpendings addition = added.remove(existing.getId());
+            if (addition != null) {
+                getBuilder().setUserSpending(i, sum(existing, addition));
+            }
+        }
+        getBuilder().addAllUserSpending(added.values());
+    }
+
+    /**
+     * Obtains the key of the pending spendings of the purchase order.
+     *
+     * @param purchaseOrderId the identifier of the purchase order
+     * @return the string representation of the identifier
+     */
+    private static String pendingKey(PurchaseOrderId purchaseOrderId) {
+        return Identifier.toString(purchaseOrderId);
+    }
+
+    private static List<UserSpendings> count(List<Order> orders) {
+        final SpendingsCounter counter = new SpendingsCounter();
+        for (Order order : orders) {
+            counter.addAll(order);
+        }
+        return counter.toUserSpendings();
+    }
+}
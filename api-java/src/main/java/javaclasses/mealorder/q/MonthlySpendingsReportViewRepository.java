@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.collect.ImmutableSet;
+import io.spine.server.projection.ProjectionRepository;
+import io.spine.time.LocalDate;
+import javaclasses.mealorder.LocalMonth;
+import javaclasses.mealorder.MonthlySpendingsReportId;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.q.projection.MonthlySpendingsReportView;
+
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Repository for the {@link MonthlySpendingsReportViewProjection}.
+ *
+ * <p>The events of a purchase order are routed to the report of the month of the purchase
+ * order date.
+ *
+ * @author agent
+ */
+public class MonthlySpendingsReportViewRepository
+        extends ProjectionRepository<MonthlySpendingsReportId,
+        MonthlySpendingsReportViewProjection,
+        MonthlySpendingsReportView> {
+
+    public MonthlySpendingsReportViewRepository() {
+        super();
+        setUpEventRouting();
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(PurchaseOrderCreated.class,
+                                (message, context) -> reportIdsOf(message.getId()));
+        getEventRouting().route(PurchaseOrderDelivered.class,
+                                (message, context) -> reportIdsOf(message.getId()));
+        getEventRouting().route(PurchaseOrderCanceled.class,
+                                (message, context) -> reportIdsOf(message.getId()));
+    }
+
+    private static Set<MonthlySpendingsReportId> reportIdsOf(PurchaseOrderId purchaseOrderId) {
+        return ImmutableSet.of(reportIdOf(purchaseOrderId.getPoDate()));
+    }
+
+    /**
+     * Obtains the identifier of the report of the month of the date.
+     *
+     * @param date the date of the month
+     * @return the report identifier
+     */
+    static MonthlySpendingsReportId reportIdOf(LocalDate date) {
+        checkNotNull(date);
+        final LocalMonth month = LocalMonth.newBuilder()
+                                           .setYear(date.getYear())
+                                           .setMonth(date.getMonth())
+                                           .build();
+        return MonthlySpendingsReportId.newBuilder()
+                                       .setMonth(month)
+                                       .build();
+    }
+
+    /**
+     * Rebuilds the reports from the events stored in the {@code EventStore}.
+     *
+     * <p>Is used to fill the reports for the months delivered before the reports were introduced.
+     * The events are streamed one by one and each of them updates the report of its month only,
+     * so the memory used does not depend on the number of the months or purchase orders.
+     *
+     * <p>The {@code PurchaseOrderDelivered} events stored before the orders were added to them
+     * are counted by the orders of the {@code PurchaseOrderCreated} event of the same
+     * purchase order.
+     */
+    public void rebuild() {
+        catchUp();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.Dish;
+import javaclasses.mealorder.DishId;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.OrderListId;
+import javaclasses.mealorder.c.event.DishAddedToOrder;
+import javaclasses.mealorder.c.event.DishRemovedFromOrder;
+import javaclasses.mealorder.c.event.OrderCanceled;
+import javaclasses.mealorder.c.event.OrderCreated;
+import javaclasses.mealorder.c.event.OrderProcessed;
+import javaclasses.mealorder.q.projection.OrderListView;
+import javaclasses.mealorder.q.projection.OrderListViewVBuilder;
+
+import java.util.List;
+
+import static javaclasses.mealorder.q.DishItems.toDishItem;
+
+/**
+ * The projection of the orders of a user for a date.
+ *
+ * <p>Each event changes only the item of its order. A dish change updates only
+ * the quantity of the single dish item.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class OrderListViewProjection extends Projection<OrderListId,
+        OrderListView,
+        OrderListViewVBuilder> {
+
+    public OrderListViewProjection(OrderListId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(OrderCreated event) {
+        final OrderId orderId = event.getOrderId();
+        if (findOrder(orderId) >= 0) {
+            return;
+        }
+        getBuilder().setListId(getId())
+                    .addOrder(OrderItem.newBuilder()
+                                       .setId(orderId)
+                                       .build());
+    }
+
+    @Subscribe
+    public void on(DishAddedToOrder event) {
+        changeQuantity(event.getOrderId(), event.getDish(), 1);
+    }
+
+    @Subscribe
+    public void on(DishRemovedFromOrder event) {
+        changeQuantity(event.getOrderId(), event.getDish(), -1);
+    }
+
+    @Subscribe
+    public void on(OrderCanceled event) {
+        final int position = findOrder(event.getOrderId());
+        if (position >= 0) {
+            getBuilder().removeOrder(position);
+        }
+    }
+
+    @Subscribe
+    public void on(OrderProcessed event) {
+        final int position = findOrder(event.getOrder()
+                                            .getId());
+        if (position >= 0) {
+            final OrderItem order = getBuilder().getOrder()
+                                                .get(position);
+            getBuilder().setOrder(position, OrderItem.newBuilder(order)
+                                                     .setIsProcessed(true)
+                                                     .build());
+        }
+    }
+
+    /**
+     * Changes the quantity of the dish in the order.
+     *
+     * <p>The dish item is added upon the first addition of the dish
+     * and removed when its quantity drops to zero.
+     *
+     * @param orderId the identifier of the changed order
+     * @param dish    the added or removed dish
+     * @param delta   the change of the dish quantity
+     */
+    private void changeQuantity(OrderId orderId, Dish dish, int delta) {
+        final int position = findOrder(orderId);
+        if (position < 0) {
+            return;
+        }
+        final OrderItem order = getBuilder().getOrder()
+                                            .get(position);
+        final OrderItem.Builder changedOrder = OrderItem.newBuilder(order);
+        final int dishPosition = findDish(order.getDishList(), dish.getId());
+        if (dishPosition < 0) {
+            if (delta > 0) {
+                changedOrder.addDish(DishItem.newBuilder(toDishItem(dish))
+                                             .setQuantity(delta));
+            }
+        } else {
+            final DishItem dishItem = order.getDish(dishPosition);
+            final int quantity = dishItem.getQuantity() + delta;
+            if (quantity > 0) {
+                changedOrder.setDish(dishPosition, DishItem.newBuilder(dishItem)
+                                                           .setQuantity(quantity));
+            } else {
+                changedOrder.removeDish(dishPosition);
+            }
+        }
+        getBuilder().setOrder(position, changedOrder.build());
+    }
+
+    /**
+     * Finds the position of the order in the list.
+     *
+     * @param orderId the identifier of the order to find
+     * @return the position of the order or {@code -1} if the order is not listed
+     */
+    private int findOrder(OrderId orderId) {
+        final List<OrderItem> orders = getBuilder().getOrder();
+        for (int i = 0; i < orders.size(); i++) {
+            if (orderId.equals(orders.get(i)
+                                     .getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int findDish(List<DishItem> dishes, DishId dishId) {
+        for (int i = 0; i < dishes.size(); i++) {
+            if (dishId.equals(dishes.get(i)
+                                    .getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
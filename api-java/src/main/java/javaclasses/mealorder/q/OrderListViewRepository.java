@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.collect.ImmutableSet;
+import io.spine.server.projection.ProjectionRepository;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.OrderListId;
+import javaclasses.mealorder.c.event.DishAddedToOrder;
+import javaclasses.mealorder.c.event.DishRemovedFromOrder;
+import javaclasses.mealorder.c.event.OrderCanceled;
+import javaclasses.mealorder.c.event.OrderCreated;
+import javaclasses.mealorder.c.event.OrderProcessed;
+import javaclasses.mealorder.q.projection.OrderListView;
+
+import java.util.Set;
+
+/**
+ * Repository for the {@link OrderListViewProjection}.
+ *
+ * <p>Routes the events of an order to the order list of its user and date.
+ *
+ * @author agent
+ */
+public class OrderListViewRepository extends ProjectionRepository<OrderListId,
+        OrderListViewProjection,
+        OrderListView> {
+
+    public OrderListViewRepository() {
+        super();
+        setUpEventRouting();
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(OrderCreated.class,
+                                (message, context) -> listIdOf(message.getOrderId()));
+        getEventRouting().route(DishAddedToOrder.class,
+                                (message, context) -> listIdOf(message.getOrderId()));
+        getEventRouting().route(DishRemovedFromOrder.class,
+                                (message, context) -> listIdOf(message.getOrderId()));
+        getEventRouting().route(OrderCanceled.class,
+                                (message, context) -> listIdOf(message.getOrderId()));
+        getEventRouting().route(OrderProcessed.class,
+                                (message, context) -> listIdOf(message.getOrder()
+                                                                      .getId()));
+    }
+
+    private static Set<OrderListId> listIdOf(OrderId orderId) {
+        final OrderListId listId = OrderListId.newBuilder()
+                                              .setOrderDate(orderId.getOrderDate())
+                                              .setUserId(orderId.getUserId())
+                                              .build();
+        return ImmutableSet.of(listId);
+    }
+}
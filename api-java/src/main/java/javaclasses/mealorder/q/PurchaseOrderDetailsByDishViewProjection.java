@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationFailed;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationOverruled;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationPassed;
+import javaclasses.mealorder.q.projection.PurchaseOrderDetailsByDishView;
+import javaclasses.mealorder.q.projection.PurchaseOrderDetailsByDishViewVBuilder;
+
+import static javaclasses.mealorder.PurchaseOrderStatus.CANCELED;
+import static javaclasses.mealorder.PurchaseOrderStatus.CREATED;
+import static javaclasses.mealorder.PurchaseOrderStatus.DELIVERED;
+import static javaclasses.mealorder.PurchaseOrderStatus.INVALID;
+import static javaclasses.mealorder.PurchaseOrderStatus.SENT;
+import static javaclasses.mealorder.PurchaseOrderStatus.VALID;
+
+/**
+ * The projection of the dishes of a purchase order with their quantities.
+ *
+ * <p>The dishes are counted once, when the purchase order is created. The other events only
+ * change the status, so the view is served without iterating the orders.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class PurchaseOrderDetailsByDishViewProjection extends Projection<PurchaseOrderId,
+        PurchaseOrderDetailsByDishView,
+        PurchaseOrderDetailsByDishViewVBuilder> {
+
+    public PurchaseOrderDetailsByDishViewProjection(PurchaseOrderId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderCreated event) {
+        final DishCounter counter = new DishCounter();
+        for (Order order : event.getOrderList()) {
+            counter.addAll(order);
+        }
+        getBuilder().setId(event.getId())
+                    .setPurchaseOrderStatus(CREATED)
+                    .clearDish()
+                    .addAllDish(counter.toDishItems());
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationPassed event) {
+        getBuilder().setPurchaseOrderStatus(VALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationFailed event) {
+        getBuilder().setPurchaseOrderStatus(INVALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationOverruled event) {
+        getBuilder().setPurchaseOrderStatus(VALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderSent event) {
+        getBuilder().setPurchaseOrderStatus(SENT);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderDelivered event) {
+        getBuilder().setPurchaseOrderStatus(DELIVERED);
+    }
+
+    /**
+     * Clears the dishes as there is nothing to cook for the canceled purchase order.
+     */
+    @Subscribe
+    public void on(PurchaseOrderCanceled event) {
+        getBuilder().setPurchaseOrderStatus(CANCELED)
+                    .clearDish();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.collect.ImmutableSet;
+import io.spine.server.projection.ProjectionRepository;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationFailed;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationOverruled;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationPassed;
+import javaclasses.mealorder.q.projection.PurchaseOrderDetailsByDishView;
+
+/**
+ * Repository for the {@link PurchaseOrderDetailsByDishViewProjection}.
+ *
+ * @author agent
+ */
+public class PurchaseOrderDetailsByDishViewRepository
+        extends ProjectionRepository<PurchaseOrderId,
+        PurchaseOrderDetailsByDishViewProjection,
+        PurchaseOrderDetailsByDishView> {
+
+    public PurchaseOrderDetailsByDishViewRepository() {
+        super();
+        setUpEventRouting();
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(PurchaseOrderCreated.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+        getEventRouting().route(PurchaseOrderValidationPassed.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+        getEventRouting().route(PurchaseOrderValidationFailed.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+        getEventRouting().route(PurchaseOrderValidationOverruled.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+        getEventRouting().route(PurchaseOrderSent.class,
+                                (message, context) -> ImmutableSet.of(message.getPurchaseOrder()
+                                                                             .getId()));
+        getEventRouting().route(PurchaseOrderDelivered.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+        getEventRouting().route(PurchaseOrderCanceled.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderLine;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.UserId;
+import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationFailed;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationOverruled;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationPassed;
+import javaclasses.mealorder.q.projection.PurchaseOrderDetailsByUserView;
+import javaclasses.mealorder.q.projection.PurchaseOrderDetailsByUserViewVBuilder;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static javaclasses.mealorder.OrderLines.linesOf;
+import static javaclasses.mealorder.PurchaseOrderStatus.CANCELED;
+import static javaclasses.mealorder.PurchaseOrderStatus.CREATED;
+import static javaclasses.mealorder.PurchaseOrderStatus.DELIVERED;
+import static javaclasses.mealorder.PurchaseOrderStatus.INVALID;
+import static javaclasses.mealorder.PurchaseOrderStatus.SENT;
+import static javaclasses.mealorder.PurchaseOrderStatus.VALID;
+import static javaclasses.mealorder.q.DishItems.toDishItem;
+
+/**
+ * The projection of the orders of a purchase order grouped by user.
+ *
+ * <p>The orders are valid when the purchase order is created. The orders listed in
+ * the {@link PurchaseOrderValidationFailed} event are marked invalid once, so the orders
+ * are never validated again upon a read.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class PurchaseOrderDetailsByUserViewProjection extends Projection<PurchaseOrderId,
+        PurchaseOrderDetailsByUserView,
+        PurchaseOrderDetailsByUserViewVBuilder> {
+
+    public PurchaseOrderDetailsByUserViewProjection(PurchaseOrderId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderCreated event) {
+        getBuilder().setId(event.getId())
+                    .setPurchaseOrderStatus(CREATED)
+                    .clearOrder();
+        for (Order order : event.getOrderList()) {
+            getBuilder().addOrder(toUserOrderDetails(order));
+        }
+        getBuilder().setTotalOrderCount(event.getOrderCount());
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationFailed event) {
+        final Set<UserId> invalidUsers = new HashSet<>(event.getFailureOrderCount());
+        for (Order order : event.getFailureOrderList()) {
+            invalidUsers.add(order.getId()
+                                  .getUserId());
+        }
+        final List<UserOrderDetails> orders = getBuilder().getOrder();
+        for (int i = 0; i < orders.size(); i++) {
+            final UserOrderDetails order = orders.get(i);
+            if (invalidUsers.contains(order.getId())) {
+                getBuilder().setOrder(i, UserOrderDetails.newBuilder(order)
+                                                         .setIsValid(false)
+                                                         .build());
+            }
+        }
+        getBuilder().setPurchaseOrderStatus(INVALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationPassed event) {
+        getBuilder().setPurchaseOrderStatus(VALID);
+    }
+
+    /**
+     * Keeps the orders marked invalid, so the overruled orders are still seen.
+     */
+    @Subscribe
+    public void on(PurchaseOrderValidationOverruled event) {
+        getBuilder().setPurchaseOrderStatus(VALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderSent event) {
+        getBuilder().setPurchaseOrderStatus(SENT);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderDelivered event) {
+        getBuilder().setPurchaseOrderStatus(DELIVERED);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderCanceled event) {
+        getBuilder().setPurchaseOrderStatus(CANCELED);
+    }
+
+    private static UserOrderDetails toUserOrderDetails(Order order) {
+        final UserOrderDetails.Builder result = UserOrderDetails.newBuilder()
+                                                                .setId(order.getId()
+                                                                            .getUserId())
+                                                                .setIsValid(true);
+        for (OrderLine line : linesOf(order)) {
+            result.addDish(DishItem.newBuilder(toDishItem(line.getDish()))
+                                   .setQuantity(line.getQuantity()));
+        }
+        return result.build();
+    }
+}
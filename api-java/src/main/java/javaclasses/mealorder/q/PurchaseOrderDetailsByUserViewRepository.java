@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import io.spine.server.projection.ProjectionRepository;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationFailed;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationOverruled;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationPassed;
+import javaclasses.mealorder.q.projection.PurchaseOrderDetailsByUserView;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Repository for the {@link PurchaseOrderDetailsByUserViewProjection}.
+ *
+ * <p>Allows to read the orders of a large purchase order page by page.
+ *
+ * @author agent
+ */
+public class PurchaseOrderDetailsByUserViewRepository
+        extends ProjectionRepository<PurchaseOrderId,
+        PurchaseOrderDetailsByUserViewProjection,
+        PurchaseOrderDetailsByUserView> {
+
+    public PurchaseOrderDetailsByUserViewRepository() {
+        super();
+        setUpEventRouting();
+    }
+
+    /**
+     * Reads a single page of the orders of the purchase order.
+     *
+     * <p>The returned view contains only the orders of the page. The total number of orders
+     * is kept in the {@code total_order_count} field.
+     *
+     * @param id        the identifier of the purchase order
+     * @param pageIndex the index of the page, starting from {@code 0}
+     * @param pageSize  the max number of orders in the page
+     * @return the view with the orders of the page or {@code Optional.absent()}
+     * if there is no such purchase order
+     */
+    public Optional<PurchaseOrderDetailsByUserView> readPage(PurchaseOrderId id,
+                                                             int pageIndex,
+                                                             int pageSize) {
+        checkNotNull(id);
+        checkArgument(pageIndex >= 0, "The page index must not be negative.");
+        checkArgument(pageSize > 0, "The page size must be positive.");
+        final Optional<PurchaseOrderDetailsByUserViewProjection> projection = find(id);
+        if (!projection.isPresent()) {
+            return Optional.absent();
+        }
+        final PurchaseOrderDetailsByUserView view = projection.get()
+                                                              .getState();
+        final int orderCount = view.getOrderCount();
+        final long from = Math.min((long) pageIndex * pageSize, orderCount);
+        final long to = Math.min(from + pageSize, orderCount);
+        final PurchaseOrderDetailsByUserView result =
+                PurchaseOrderDetailsByUserView.newBuilder(view)
+                                              .clearOrder()
+                                              .addAllOrder(view.getOrderList()
+                                                               .subList((int) from, (int) to))
+                                              .build();
+        return Optional.of(result);
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(PurchaseOrderCreated.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+        getEventRouting().route(PurchaseOrderValidationPassed.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+        getEventRouting().route(PurchaseOrderValidationFailed.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+        getEventRouting().route(PurchaseOrderValidationOverruled.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+        getEventRouting().route(PurchaseOrderSent.class,
+                                (message, context) -> ImmutableSet.of(message.getPurchaseOrder()
+                                                                             .getId()));
+        getEventRouting().route(PurchaseOrderDelivered.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+        getEventRouting().route(PurchaseOrderCanceled.class,
+                                (message, context) -> ImmutableSet.of(message.getId()));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.PurchaseOrderListId;
+import javaclasses.mealorder.PurchaseOrderStatus;
+import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationFailed;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationOverruled;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationPassed;
+import javaclasses.mealorder.q.projection.PurchaseOrderListView;
+import javaclasses.mealorder.q.projection.PurchaseOrderListViewVBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static javaclasses.mealorder.DateKeys.toKey;
+import static javaclasses.mealorder.PurchaseOrderStatus.CANCELED;
+import static javaclasses.mealorder.PurchaseOrderStatus.CREATED;
+import static javaclasses.mealorder.PurchaseOrderStatus.DELIVERED;
+import static javaclasses.mealorder.PurchaseOrderStatus.INVALID;
+import static javaclasses.mealorder.PurchaseOrderStatus.SENT;
+import static javaclasses.mealorder.PurchaseOrderStatus.VALID;
+
+/**
+ * The projection of the purchase orders of a month sorted by date.
+ *
+ * <p>The purchase orders of the same date follow in the order of creation.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class PurchaseOrderListViewProjection extends Projection<PurchaseOrderListId,
+        PurchaseOrderListView,
+        PurchaseOrderListViewVBuilder> {
+
+    public PurchaseOrderListViewProjection(PurchaseOrderListId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderCreated event) {
+        final PurchaseOrderId id = event.getId();
+        if (indexOf(id) >= 0) {
+            return;
+        }
+        final List<PurchaseOrderItem> items = new ArrayList<>(getBuilder().getPurchaseOrder());
+        final PurchaseOrderItem item = PurchaseOrderItem.newBuilder()
+                                                        .setId(id)
+                                                        .setPurchaseOrderStatus(CREATED)
+                                                        .build();
+        items.add(insertionIndexOf(items, id), item);
+        getBuilder().setListId(getId())
+                    .clearPurchaseOrder()
+                    .addAllPurchaseOrder(items);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationPassed event) {
+        setStatus(event.getId(), VALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationFailed event) {
+        setStatus(event.getId(), INVALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationOverruled event) {
+        setStatus(event.getId(), VALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderSent event) {
+        setStatus(event.getPurchaseOrder()
+                       .getId(), SENT);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderDelivered event) {
+        setStatus(event.getId(), DELIVERED);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderCanceled event) {
+        setStatus(event.getId(), CANCELED);
+    }
+
+    private void setStatus(PurchaseOrderId id, PurchaseOrderStatus status) {
+        final int index = indexOf(id);
+        if (index < 0) {
+            return;
+        }
+        final PurchaseOrderItem item = getBuilder().getPurchaseOrder()
+                                                   .get(index)
+                                                   .toBuilder()
+                                                   .setPurchaseOrderStatus(status)
+                                                   .build();
+        getBuilder().setPurchaseOrder(index, item);
+    }
+
+    private int indexOf(PurchaseOrderId id) {
+        final List<PurchaseOrderItem> items = getBuilder().getPurchaseOrder();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i)
+                     .getId()
+                     .equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Obtains the index to insert the purchase order after all the purchase orders
+     * of the same or earlier dates.
+     */
+    private static int insertionIndexOf(List<PurchaseOrderItem> items, PurchaseOrderId id) {
+        final int dateKey = toKey(id.getPoDate());
+        int result = items.size();
+        while (result > 0 && toKey(items.get(result - 1)
+                                         .getId()
+                                         .getPoDate()) > dateKey) {
+            result--;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.collect.ImmutableSet;
+import io.spine.server.projection.ProjectionRepository;
+import io.spine.time.LocalDate;
+import javaclasses.mealorder.LocalMonth;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.PurchaseOrderListId;
+import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationFailed;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationOverruled;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationPassed;
+import javaclasses.mealorder.q.projection.PurchaseOrderListView;
+
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Repository for the {@link PurchaseOrderListViewProjection}.
+ *
+ * <p>The purchase orders are listed by the month of the purchase order date, so a status
+ * change rewrites the list of a single month only.
+ *
+ * @author agent
+ */
+public class PurchaseOrderListViewRepository extends ProjectionRepository<PurchaseOrderListId,
+        PurchaseOrderListViewProjection,
+        PurchaseOrderListView> {
+
+    public PurchaseOrderListViewRepository() {
+        super();
+        setUpEventRouting();
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(PurchaseOrderCreated.class,
+                                (message, context) -> listIdsOf(message.getId()));
+        getEventRouting().route(PurchaseOrderValidationPassed.class,
+                                (message, context) -> listIdsOf(message.getId()));
+        getEventRouting().route(PurchaseOrderValidationFailed.class,
+                                (message, context) -> listIdsOf(message.getId()));
+        getEventRouting().route(PurchaseOrderValidationOverruled.class,
+                                (message, context) -> listIdsOf(message.getId()));
+        getEventRouting().route(PurchaseOrderSent.class,
+                                (message, context) -> listIdsOf(message.getPurchaseOrder()
+                                                                       .getId()));
+        getEventRouting().route(PurchaseOrderDelivered.class,
+                                (message, context) -> listIdsOf(message.getId()));
+        getEventRouting().route(PurchaseOrderCanceled.class,
+                                (message, context) -> listIdsOf(message.getId()));
+    }
+
+    private static Set<PurchaseOrderListId> listIdsOf(PurchaseOrderId purchaseOrderId) {
+        return ImmutableSet.of(listIdOf(purchaseOrderId.getPoDate()));
+    }
+
+    /**
+     * Obtains the identifier of the purchase order list of the month of the date.
+     *
+     * @param date the date of the month
+     * @return the purchase order list identifier
+     */
+    static PurchaseOrderListId listIdOf(LocalDate date) {
+        checkNotNull(date);
+        final LocalMonth month = LocalMonth.newBuilder()
+                                           .setYear(date.getYear())
+                                           .setMonth(date.getMonth())
+                                           .build();
+        return PurchaseOrderListId.newBuilder()
+                                  .setMonth(month)
+                                  .build();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.PurchaseOrderStatus;
+import javaclasses.mealorder.PurchaseOrderStatusIndexId;
+import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationFailed;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationOverruled;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationPassed;
+import javaclasses.mealorder.q.projection.PurchaseOrderStatusIndexView;
+import javaclasses.mealorder.q.projection.PurchaseOrderStatusIndexViewVBuilder;
+
+import static javaclasses.mealorder.PurchaseOrderStatus.CANCELED;
+import static javaclasses.mealorder.PurchaseOrderStatus.CREATED;
+import static javaclasses.mealorder.PurchaseOrderStatus.DELIVERED;
+import static javaclasses.mealorder.PurchaseOrderStatus.INVALID;
+import static javaclasses.mealorder.PurchaseOrderStatus.SENT;
+import static javaclasses.mealorder.PurchaseOrderStatus.VALID;
+
+/**
+ * The projection of the purchase orders having a status.
+ *
+ * <p>The {@link PurchaseOrderStatusIndexRepository} delivers an event changing the purchase order
+ * status to the index of the new status and to the indexes of the statuses the purchase order
+ * may leave upon the event. The purchase order is added to the index of the new status and
+ * removed from the others.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class PurchaseOrderStatusIndexProjection extends Projection<PurchaseOrderStatusIndexId,
+        PurchaseOrderStatusIndexView,
+        PurchaseOrderStatusIndexViewVBuilder> {
+
+    public PurchaseOrderStatusIndexProjection(PurchaseOrderStatusIndexId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderCreated event) {
+        setStatus(event.getId(), CREATED);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationPassed event) {
+        setStatus(event.getId(), VALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationFailed event) {
+        setStatus(event.getId(), INVALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderValidationOverruled event) {
+        setStatus(event.getId(), VALID);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderSent event) {
+        setStatus(event.getPurchaseOrder()
+                       .getId(), SENT);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderDelivered event) {
+        setStatus(event.getId(), DELIVERED);
+    }
+
+    @Subscribe
+    public void on(PurchaseOrderCanceled event) {
+        setStatus(event.getId(), CANCELED);
+    }
+
+    private void setStatus(PurchaseOrderId purchaseOrderId, PurchaseOrderStatus status) {
+        final int index = getBuilder().getPurchaseOrderId()
+                                      .indexOf(purchaseOrderId);
+        final boolean indexed = getId().getStatus() == status;
+        if (indexed && index < 0) {
+            getBuilder().setId(getId())
+                        .addPurchaseOrderId(purchaseOrderId);
+        } else if (!indexed && index >= 0) {
+            getBuilder().removePurchaseOrderId(index);
+        }
+    }
+}
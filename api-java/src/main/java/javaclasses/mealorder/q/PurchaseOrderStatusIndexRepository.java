@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.spine.server.projection.ProjectionRepository;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.PurchaseOrderStatus;
+import javaclasses.mealorder.PurchaseOrderStatusIndexId;
+import javaclasses.mealorder.c.event.PurchaseOrderCanceled;
+import javaclasses.mealorder.c.event.PurchaseOrderCreated;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationFailed;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationOverruled;
+import javaclasses.mealorder.c.event.PurchaseOrderValidationPassed;
+import javaclasses.mealorder.q.projection.PurchaseOrderStatusIndexView;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static javaclasses.mealorder.PurchaseOrderStatus.CREATED;
+import static javaclasses.mealorder.PurchaseOrderStatus.INVALID;
+import static javaclasses.mealorder.PurchaseOrderStatus.SENT;
+import static javaclasses.mealorder.PurchaseOrderStatus.VALID;
+
+/**
+ * Repository for the {@link PurchaseOrderStatusIndexProjection}.
+ *
+ * <p>Routes an event to the index of the status the purchase order gets and to the indexes
+ * of the statuses the purchase order may have before the event. The final {@code DELIVERED}
+ * and {@code CANCELED} statuses are not indexed.
+ *
+ * @author agent
+ */
+public class PurchaseOrderStatusIndexRepository
+        extends ProjectionRepository<PurchaseOrderStatusIndexId,
+        PurchaseOrderStatusIndexProjection,
+        PurchaseOrderStatusIndexView> {
+
+    private static final ImmutableSet<PurchaseOrderStatus> INDEXED_STATUSES =
+            ImmutableSet.of(CREATED, VALID, INVALID, SENT);
+
+    public PurchaseOrderStatusIndexRepository() {
+        super();
+        setUpEventRouting();
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(PurchaseOrderCreated.class,
+                                (message, context) -> indexIdsOf(CREATED));
+        getEventRouting().route(PurchaseOrderValidationPassed.class,
+                                (message, context) -> indexIdsOf(CREATED, VALID));
+        getEventRouting().route(PurchaseOrderValidationFailed.class,
+                                (message, context) -> indexIdsOf(CREATED, INVALID));
+        getEventRouting().route(PurchaseOrderValidationOverruled.class,
+                                (message, context) -> indexIdsOf(INVALID, VALID));
+        getEventRouting().route(PurchaseOrderSent.class,
+                                (message, context) -> indexIdsOf(VALID, SENT));
+        getEventRouting().route(PurchaseOrderDelivered.class,
+                                (message, context) -> indexIdsOf(SENT));
+        getEventRouting().route(PurchaseOrderCanceled.class,
+                                (message, context) -> indexIdsOf(CREATED, VALID, INVALID, SENT));
+    }
+
+    /**
+     * Obtains the purchase orders having the status.
+     *
+     * @param status the status of the purchase orders, must not be a final status
+     * @return the identifiers of the purchase orders in the order they got the status
+     */
+    public List<PurchaseOrderId> findPurchaseOrders(PurchaseOrderStatus status) {
+        checkNotNull(status);
+        checkArgument(INDEXED_STATUSES.contains(status),
+                      "The purchase orders with the %s status are not indexed.", status);
+        final Optional<PurchaseOrderStatusIndexProjection> index = find(indexIdOf(status));
+        if (!index.isPresent()) {
+            return ImmutableList.of();
+        }
+        return index.get()
+                    .getState()
+                    .getPurchaseOrderIdList();
+    }
+
+    private static Set<PurchaseOrderStatusIndexId> indexIdsOf(PurchaseOrderStatus... statuses) {
+        final ImmutableSet.Builder<PurchaseOrderStatusIndexId> result = ImmutableSet.builder();
+        for (PurchaseOrderStatus status : statuses) {
+            result.add(indexIdOf(status));
+        }
+        return result.build();
+    }
+
+    private static PurchaseOrderStatusIndexId indexIdOf(PurchaseOrderStatus status) {
+        return PurchaseOrderStatusIndexId.newBuilder()
+                                         .setStatus(status)
+                                         .build();
+    }
+}
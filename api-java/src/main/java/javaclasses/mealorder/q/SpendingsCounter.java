@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.money.Currency;
+import io.spine.money.Money;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderLine;
+import javaclasses.mealorder.UserId;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static javaclasses.mealorder.OrderLines.linesOf;
+
+/**
+ * Sums the spendings of the users.
+ *
+ * <p>The spendings are summed as {@code long} amounts in the minor currency units, so adding
+ * a dish price is exact and needs no {@code BigDecimal} arithmetic. The amounts overflowing
+ * {@code long} cause {@code ArithmeticException} instead of silently wrapping.
+ *
+ * @author agent
+ */
+final class SpendingsCounter {
+
+    /** The summed amounts by the user in the order the users were first counted. */
+    private final Map<UserId, long[]> amounts = new LinkedHashMap<>();
+
+    /** The currency of the spendings, {@code null} until the first priced dish. */
+    private Currency currency;
+
+    /**
+     * Adds the prices of the dishes of the order to the spendings of the user who made it.
+     *
+     * @param order the order to count
+     */
+    void addAll(Order order) {
+        checkNotNull(order);
+        final UserId userId = order.getId()
+                                   .getUserId();
+        for (OrderLine line : linesOf(order)) {
+            add(userId, line.getDish()
+                            .getPrice(), line.getQuantity());
+        }
+    }
+
+    private void add(UserId userId, Money price, int quantity) {
+        long[] amount = amounts.get(userId);
+        if (amount == null) {
+            amount = new long[1];
+            amounts.put(userId, amount);
+        }
+        if (price.getAmount() == 0) {
+            return;
+        }
+        if (currency == null) {
+            currency = price.getCurrency();
+        }
+        checkState(currency == price.getCurrency(),
+                   "Cannot sum %s and %s spendings.", currency, price.getCurrency());
+        amount[0] = Math.addExact(amount[0], Math.multiplyExact(price.getAmount(), quantity));
+    }
+
+    /**
+     * Sums the spendings of the same user.
+     *
+     * @param first  the spendings of the user
+     * @param second the other spendings of the same user
+     * @return the sum of the spendings
+     * @throws IllegalStateException if the spendings are in different currencies
+     * @throws ArithmeticException   if the sum overflows {@code long}
+     */
+    static UserSpendings sum(UserSpendings first, UserSpendings second) {
+        checkNotNull(first);
+        checkNotNull(second);
+        checkArgument(first.getId()
+                           .equals(second.getId()),
+                      "Cannot sum the spendings of different users.");
+        final Money firstAmount = first.getAmount();
+        final Money secondAmount = second.getAmount();
+        if (secondAmount.getAmount() == 0) {
+            return first;
+        }
+        if (firstAmount.getAmount() == 0) {
+            return second;
+        }
+        checkState(firstAmount.getCurrency() == secondAmount.getCurrency(),
+                   "Cannot sum %s and %s spendings.",
+                   firstAmount.getCurrency(), secondAmount.getCurrency());
+        final long amount = Math.addExact(firstAmount.getAmount(), secondAmount.getAmount());
+        return UserSpendings.newBuilder(first)
+                            .setAmount(Money.newBuilder(firstAmount)
+                                            .setAmount(amount))
+                            .build();
+    }
+
+    /**
+     * Obtains the counted spendings.
+     *
+     * @return the spendings of the users in the order they were first counted
+     */
+    List<UserSpendings> toUserSpendings() {
+        final Money.Builder amount = Money.newBuilder();
+        if (currency != null) {
+            amount.setCurrency(currency);
+        }
+        final List<UserSpendings> result = new ArrayList<>(amounts.size());
+        for (Map.Entry<UserId, long[]> entry : amounts.entrySet()) {
+            amount.setAmount(entry.getValue()[0]);
+            result.add(UserSpendings.newBuilder()
+                                    .setId(entry.getKey())
+                                    .setAmount(amount.build())
+                                    .build());
+        }
+        return result;
+    }
+}
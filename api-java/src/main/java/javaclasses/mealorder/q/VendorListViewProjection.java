@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.VendorChange;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.VendorListId;
+import javaclasses.mealorder.c.event.VendorAdded;
+import javaclasses.mealorder.c.event.VendorUpdated;
+import javaclasses.mealorder.q.projection.VendorListView;
+import javaclasses.mealorder.q.projection.VendorListViewVBuilder;
+
+import java.util.List;
+
+/**
+ * The projection of the list of all the vendors.
+ *
+ * <p>Each applied event increases the version of the list.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class VendorListViewProjection extends Projection<VendorListId,
+        VendorListView,
+        VendorListViewVBuilder> {
+
+    public VendorListViewProjection(VendorListId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(VendorAdded event) {
+        final VendorItem vendor = VendorItem.newBuilder()
+                                            .setId(event.getVendorId())
+                                            .setVendorName(event.getVendorName())
+                                            .setEmail(event.getEmail())
+                                            .addAllPhoneNumber(event.getPhoneNumberList())
+                                            .setPoDailyDeadline(event.getPoDailyDeadline())
+                                            .build();
+        getBuilder().addVendor(vendor);
+        increaseVersion();
+    }
+
+    @Subscribe
+    public void on(VendorUpdated event) {
+        final int index = indexOf(event.getVendorId());
+        if (index < 0) {
+            return;
+        }
+        final VendorChange change = event.getVendorChange();
+        final VendorItem vendor = getBuilder().getVendor()
+                                              .get(index)
+                                              .toBuilder()
+                                              .setVendorName(change.getNewVendorName())
+                                              .setEmail(change.getNewEmail())
+                                              .clearPhoneNumber()
+                                              .addAllPhoneNumber(change.getNewPhoneNumberList())
+                                              .setPoDailyDeadline(change.getNewPoDailyDeadline())
+                                              .build();
+        getBuilder().setVendor(index, vendor);
+        increaseVersion();
+    }
+
+    private int indexOf(VendorId vendorId) {
+        final List<VendorItem> vendors = getBuilder().getVendor();
+        for (int i = 0; i < vendors.size(); i++) {
+            if (vendors.get(i)
+                       .getId()
+                       .equals(vendorId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void increaseVersion() {
+        getBuilder().setVersion(getBuilder().getVersion() + 1);
+    }
+}
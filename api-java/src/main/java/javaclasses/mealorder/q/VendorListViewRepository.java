@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import io.spine.core.TenantId;
+import io.spine.server.projection.ProjectionRepository;
+import javaclasses.mealorder.Tenants;
+import javaclasses.mealorder.VendorListId;
+import javaclasses.mealorder.c.event.VendorAdded;
+import javaclasses.mealorder.c.event.VendorUpdated;
+import javaclasses.mealorder.q.projection.VendorListView;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Repository for the {@link VendorListViewProjection}.
+ *
+ * <p>Keeps the latest state of the vendor list of each tenant as a snapshot. The snapshot
+ * is replaced atomically each time the projection is stored after an event, so the readers
+ * never lock and never wait for the events being applied.
+ *
+ * @author agent
+ */
+public class VendorListViewRepository extends ProjectionRepository<VendorListId,
+        VendorListViewProjection,
+        VendorListView> {
+
+    /** The identifier of the single vendor list. */
+    static final VendorListId ID = VendorListId.newBuilder()
+                                               .setValue("VendorListView")
+                                               .build();
+
+    /** The latest stored state of the list by tenant, absent until it is first read or stored. */
+    private final ConcurrentMap<TenantId, VendorListView> snapshots = new ConcurrentHashMap<>();
+
+    public VendorListViewRepository() {
+        super();
+        setUpEventRouting();
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(VendorAdded.class,
+                                (message, context) -> ImmutableSet.of(ID));
+        getEventRouting().route(VendorUpdated.class,
+                                (message, context) -> ImmutableSet.of(ID));
+    }
+
+    @Override
+    public void store(VendorListViewProjection projection) {
+        super.store(projection);
+        snapshots.put(currentTenant(), projection.getState());
+    }
+
+    /**
+     * Obtains the vendor list.
+     *
+     * @return the latest stored state of the list
+     */
+    public VendorListView getView() {
+        final TenantId tenantId = currentTenant();
+        final VendorListView current = snapshots.get(tenantId);
+        if (current != null) {
+            return current;
+        }
+        final Optional<VendorListViewProjection> projection = find(ID);
+        final VendorListView stored = projection.isPresent()
+                                      ? projection.get()
+                                                  .getState()
+                                      : VendorListView.getDefaultInstance();
+        // Does not replace the snapshot stored by the events meanwhile.
+        snapshots.putIfAbsent(tenantId, stored);
+        return snapshots.get(tenantId);
+    }
+
+    /**
+     * Obtains the vendor list if it was changed since the version known to the client.
+     *
+     * @param knownVersion the version of the list the client has
+     * @return the list or {@code Optional.absent()} if the list is still of the known version
+     */
+    public Optional<VendorListView> getViewIfChanged(long knownVersion) {
+        final VendorListView view = getView();
+        if (view.getVersion() == knownVersion) {
+            return Optional.absent();
+        }
+        return Optional.of(view);
+    }
+
+    private TenantId currentTenant() {
+        return Tenants.currentTenant(getBoundedContext().isMultitenant());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.core.Subscribe;
+import io.spine.server.projection.Projection;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.VendorMenuRangeIndexId;
+import javaclasses.mealorder.c.event.DateRangeForMenuSet;
+import javaclasses.mealorder.c.event.MenuImported;
+import javaclasses.mealorder.c.event.VendorAdded;
+import javaclasses.mealorder.c.event.VendorUpdated;
+import javaclasses.mealorder.q.projection.VendorMenuRangeIndexView;
+import javaclasses.mealorder.q.projection.VendorMenuRangeIndexViewVBuilder;
+
+import java.util.List;
+
+import static javaclasses.mealorder.q.DishItems.toDishItems;
+
+/**
+ * The projection of the menus of a vendor and their date ranges.
+ *
+ * <p>The {@link MenuListViewRepository} delivers a vendor update only to the menu lists
+ * of the dates of these ranges.
+ *
+ * <p>The name of the vendor and the dishes of the imported menus are kept as well, so
+ * the {@link MenuListViewProjection} looks the menu up upon a date range change.
+ *
+ * <p>All the event handlers are idempotent, so the index may be caught up by replaying
+ * the events which were already delivered.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unused") // Methods annotated with {@code Subscribe} are called using reflection.
+public class VendorMenuRangeIndexProjection extends Projection<VendorMenuRangeIndexId,
+        VendorMenuRangeIndexView,
+        VendorMenuRangeIndexViewVBuilder> {
+
+    public VendorMenuRangeIndexProjection(VendorMenuRangeIndexId id) {
+        super(id);
+    }
+
+    @Subscribe
+    public void on(VendorAdded event) {
+        getBuilder().setId(getId())
+                    .setVendorName(event.getVendorName());
+    }
+
+    @Subscribe
+    public void on(VendorUpdated event) {
+        getBuilder().setId(getId())
+                    .setVendorName(event.getVendorChange()
+                                        .getNewVendorName());
+    }
+
+    @Subscribe
+    public void on(MenuImported event) {
+        final MenuId menuId = event.getMenuId();
+        final MenuItem menu = MenuItem.newBuilder()
+                                      .setMenuId(menuId)
+                                      .addAllDish(toDishItems(event.getDishList()))
+                                      .build();
+        final List<MenuItem> menus = getBuilder().getMenu();
+        for (int i = 0; i < menus.size(); i++) {
+            if (menuId.equals(menus.get(i)
+                                   .getMenuId())) {
+                getBuilder().setMenu(i, menu);
+                return;
+            }
+        }
+        getBuilder().setId(getId())
+                    .addMenu(menu);
+    }
+
+    @Subscribe
+    public void on(DateRangeForMenuSet event) {
+        final MenuId menuId = event.getMenuId();
+        final MenuRangeItem range = MenuRangeItem.newBuilder()
+                                                 .setMenuId(menuId)
+                                                 .setMenuDateRange(event.getMenuDateRange())
+                                                 .build();
+        final List<MenuRangeItem> ranges = getBuilder().getMenuRange();
+        for (int i = 0; i < ranges.size(); i++) {
+            if (menuId.equals(ranges.get(i)
+                                    .getMenuId())) {
+                getBuilder().setMenuRange(i, range);
+                return;
+            }
+        }
+        getBuilder().setId(getId())
+                    .addMenuRange(range);
+    }
+}
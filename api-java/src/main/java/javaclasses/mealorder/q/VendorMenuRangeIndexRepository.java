@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.spine.server.projection.ProjectionRepository;
+import javaclasses.mealorder.MenuDateRange;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.VendorMenuRangeIndexId;
+import javaclasses.mealorder.c.event.DateRangeForMenuSet;
+import javaclasses.mealorder.c.event.MenuImported;
+import javaclasses.mealorder.c.event.VendorAdded;
+import javaclasses.mealorder.c.event.VendorUpdated;
+import javaclasses.mealorder.q.projection.VendorMenuRangeIndexView;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Repository for the {@link VendorMenuRangeIndexProjection}.
+ *
+ * <p>Routes the vendor and the menu events to the index of the vendor.
+ *
+ * @author agent
+ */
+public class VendorMenuRangeIndexRepository
+        extends ProjectionRepository<VendorMenuRangeIndexId,
+        VendorMenuRangeIndexProjection,
+        VendorMenuRangeIndexView> {
+
+    public VendorMenuRangeIndexRepository() {
+        super();
+        setUpEventRouting();
+    }
+
+    private void setUpEventRouting() {
+        getEventRouting().route(VendorAdded.class,
+                                (message, context) -> ImmutableSet.of(
+                                        indexIdOf(message.getVendorId())));
+        getEventRouting().route(VendorUpdated.class,
+                                (message, context) -> ImmutableSet.of(
+                                        indexIdOf(message.getVendorId())));
+        getEventRouting().route(MenuImported.class,
+                                (message, context) -> ImmutableSet.of(
+                                        indexIdOf(message.getVendorId())));
+        getEventRouting().route(DateRangeForMenuSet.class,
+                                (message, context) -> ImmutableSet.of(
+                                        indexIdOf(message.getVendorId())));
+    }
+
+    /**
+     * Finds the imported menu.
+     *
+     * @param menuId the identifier of the menu
+     * @return the menu with the current name of its vendor or {@code Optional.absent()}
+     *         if the menu was not imported
+     */
+    public Optional<MenuItem> findMenu(MenuId menuId) {
+        checkNotNull(menuId);
+        final Optional<VendorMenuRangeIndexProjection> index =
+                find(indexIdOf(menuId.getVendorId()));
+        if (!index.isPresent()) {
+            return Optional.absent();
+        }
+        final VendorMenuRangeIndexView view = index.get()
+                                                   .getState();
+        for (MenuItem menu : view.getMenuList()) {
+            if (menuId.equals(menu.getMenuId())) {
+                return Optional.of(MenuItem.newBuilder(menu)
+                                           .setVendorName(view.getVendorName())
+                                           .build());
+            }
+        }
+        return Optional.absent();
+    }
+
+    /**
+     * Obtains the last date ranges set for the menus of the vendor.
+     *
+     * @param vendorId the identifier of the vendor
+     * @return the date ranges of the menus or an empty list if no date range is set
+     *         for the menus of the vendor
+     */
+    public List<MenuDateRange> findMenuDateRanges(VendorId vendorId) {
+        checkNotNull(vendorId);
+        final Optional<VendorMenuRangeIndexProjection> index = find(indexIdOf(vendorId));
+        if (!index.isPresent()) {
+            return ImmutableList.of();
+        }
+        final ImmutableList.Builder<MenuDateRange> result = ImmutableList.builder();
+        for (MenuRangeItem item : index.get()
+                                       .getState()
+                                       .getMenuRangeList()) {
+            result.add(item.getMenuDateRange());
+        }
+        return result.build();
+    }
+
+    private static VendorMenuRangeIndexId indexIdOf(VendorId vendorId) {
+        return VendorMenuRangeIndexId.newBuilder()
+                                     .setVendorId(vendorId)
+                                     .build();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder;
+
+import io.spine.test.Tests;
+import io.spine.time.LocalDate;
+import io.spine.time.MonthOfYear;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.spine.test.Tests.assertHasPrivateParameterlessCtor;
+import static javaclasses.mealorder.DateKeys.compare;
+import static javaclasses.mealorder.DateKeys.isWithin;
+import static javaclasses.mealorder.DateKeys.rangeIncludes;
+import static javaclasses.mealorder.DateKeys.toKey;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`DateKeys` should")
+class DateKeysTest {
+
+    private static final LocalDate MARCH_16 = LocalDate.newBuilder()
+                                                       .setYear(2018)
+                                                       .setMonth(MonthOfYear.MARCH)
+                                                       .setDay(16)
+                                                       .build();
+
+    private static final LocalDate APRIL_2 = LocalDate.newBuilder()
+                                                      .setYear(2018)
+                                                      .setMonth(MonthOfYear.APRIL)
+                                                      .setDay(2)
+                                                      .build();
+
+    private static final LocalDate DECEMBER_31 = LocalDate.newBuilder()
+                                                          .setYear(2017)
+                                                          .setMonth(MonthOfYear.DECEMBER)
+                                                          .setDay(31)
+                                                          .build();
+
+    @Test
+    @DisplayName("have the private constructor")
+    void havePrivateConstructor() {
+        assertHasPrivateParameterlessCtor(DateKeys.class);
+    }
+
+    @Test
+    @DisplayName("encode date as `yyyymmdd` number")
+    void encodeDate() {
+        assertEquals(20180316, toKey(MARCH_16));
+        assertEquals(20171231, toKey(DECEMBER_31));
+        assertEquals(20180402, toKey(2018, 4, 2));
+    }
+
+    @Test
+    @DisplayName("preserve chronological order of dates")
+    void preserveOrder() {
+        assertTrue(compare(toKey(DECEMBER_31), toKey(MARCH_16)) < 0);
+        assertTrue(compare(toKey(APRIL_2), toKey(MARCH_16)) > 0);
+        assertEquals(0, compare(toKey(MARCH_16), toKey(2018, 3, 16)));
+    }
+
+    @Test
+    @DisplayName("check that date belongs to range including its bounds")
+    void checkDateWithinRange() {
+        final int start = toKey(MARCH_16);
+        final int end = toKey(APRIL_2);
+
+        assertTrue(isWithin(start, start, end));
+        assertTrue(isWithin(end, start, end));
+        assertTrue(isWithin(toKey(2018, 3, 31), start, end));
+        assertFalse(isWithin(toKey(DECEMBER_31), start, end));
+        assertFalse(isWithin(toKey(2018, 4, 3), start, end));
+    }
+
+    @Test
+    @DisplayName("check that menu date range includes date")
+    void checkRangeIncludesDate() {
+        final MenuDateRange range = MenuDateRange.newBuilder()
+                                                 .setRangeStart(DECEMBER_31)
+                                                 .setRangeEnd(MARCH_16)
+                                                 .build();
+
+        assertTrue(rangeIncludes(range, DECEMBER_31));
+        assertTrue(rangeIncludes(range, MARCH_16));
+        assertFalse(rangeIncludes(range, APRIL_2));
+    }
+
+    @Test
+    @DisplayName("not encode `null` date")
+    void notEncodeNull() {
+        assertThrows(NullPointerException.class, () -> toKey(Tests.<LocalDate>nullRef()));
+    }
+}
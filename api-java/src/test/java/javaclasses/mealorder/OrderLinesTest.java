@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder;
+
+import com.google.common.collect.ImmutableList;
+import io.spine.test.Tests;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.spine.test.Tests.assertHasPrivateParameterlessCtor;
+import static javaclasses.mealorder.OrderLines.dishCount;
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.OrderLines.linesOf;
+import static javaclasses.mealorder.OrderLines.merge;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author agent
+ */
+@DisplayName("`OrderLines` should")
+@SuppressWarnings("deprecation") // Builds the legacy orders with the deprecated dishes.
+class OrderLinesTest {
+
+    @Test
+    @DisplayName("have the private constructor")
+    void havePrivateConstructor() {
+        assertHasPrivateParameterlessCtor(OrderLines.class);
+    }
+
+    @Test
+    @DisplayName("not accept null arguments")
+    void notAcceptNulls() {
+        assertThrows(NullPointerException.class, () -> linesOf(Tests.nullRef()));
+        assertThrows(NullPointerException.class, () -> dishCount(Tests.nullRef()));
+        assertThrows(NullPointerException.class, () -> lineOf(Tests.nullRef(), 1));
+        assertThrows(NullPointerException.class,
+                     () -> merge(Tests.nullRef(), ImmutableList.of()));
+        assertThrows(NullPointerException.class,
+                     () -> merge(ImmutableList.of(), Tests.nullRef()));
+    }
+
+    @Test
+    @DisplayName("return the existing lines if there are no legacy dishes")
+    void returnExistingLines() {
+        final List<OrderLine> lines = ImmutableList.of(lineOf(DISH1, 2));
+        assertSame(lines, merge(lines, ImmutableList.of()));
+    }
+
+    @Test
+    @DisplayName("fold the legacy dishes into the order lines")
+    void foldLegacyDishes() {
+        final Order order = Order.newBuilder()
+                                 .setId(ORDER_ID)
+                                 .addLine(lineOf(DISH2, 1))
+                                 .addDish(DISH1)
+                                 .addDish(DISH2)
+                                 .addDish(DISH1)
+                                 .build();
+
+        final List<OrderLine> expected = ImmutableList.of(lineOf(DISH2, 2), lineOf(DISH1, 2));
+        assertEquals(expected, linesOf(order));
+    }
+
+    @Test
+    @DisplayName("count the dishes of the order lines and the legacy dishes")
+    void countDishes() {
+        final Order order = Order.newBuilder()
+                                 .setId(ORDER_ID)
+                                 .addLine(lineOf(DISH1, 3))
+                                 .addLine(lineOf(DISH2, 1))
+                                 .addDish(DISH1)
+                                 .build();
+
+        assertEquals(5, dishCount(order));
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import io.spine.core.Event;
+import io.spine.server.aggregate.AggregateEventRecord;
+import io.spine.server.aggregate.AggregateReadRequest;
+import io.spine.server.aggregate.AggregateStateRecord;
+import io.spine.server.command.TestEventFactory;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.c.event.VendorAdded;
+import javaclasses.mealorder.c.event.VendorUpdated;
+import javaclasses.mealorder.c.vendor.VendorAggregate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author agent
+ */
+@DisplayName("`BatchingJdbcAggregateStorage` should")
+class BatchingJdbcAggregateStorageTest {
+
+    private final TestEventFactory eventFactory = TestEventFactory.newInstance(getClass());
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        final String url = "jdbc:h2:mem:" + getClass().getSimpleName()
+                + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        dataSource = JdbcDataSources.pooled(url, "sa", "", 2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ((Closeable) dataSource).close();
+    }
+
+    @Test
+    @DisplayName("restore all the events of a write")
+    void restoreWrittenEvents() {
+        create().write(VENDOR_ID, stateRecord(vendorAdded(), vendorUpdated()));
+
+        final BatchingJdbcAggregateStorage<VendorId> restarted = create();
+        assertEquals(2, eventCount(restarted));
+        assertEquals(ImmutableList.of(VENDOR_ID), ImmutableList.copyOf(restarted.index()));
+    }
+
+    @Test
+    @DisplayName("insert the event records of a store with the event count")
+    void insertRecordsWithCount() {
+        final BatchingJdbcAggregateStorage<VendorId> storage = create();
+        storage.readEventCountAfterLastSnapshot(VENDOR_ID);
+        storage.writeRecord(VENDOR_ID, eventRecord(vendorAdded()));
+        storage.writeRecord(VENDOR_ID, eventRecord(vendorUpdated()));
+        assertEquals(0, eventCount(storage));
+
+        storage.writeEventCountAfterLastSnapshot(VENDOR_ID, 2);
+        assertEquals(2, eventCount(storage));
+        assertEquals(2, storage.readEventCountAfterLastSnapshot(VENDOR_ID));
+    }
+
+    @Test
+    @DisplayName("discard the event records of a failed store")
+    void discardFailedStore() {
+        final BatchingJdbcAggregateStorage<VendorId> storage = create();
+        storage.readEventCountAfterLastSnapshot(VENDOR_ID);
+        storage.writeRecord(VENDOR_ID, eventRecord(vendorAdded()));
+
+        storage.readEventCountAfterLastSnapshot(VENDOR_ID);
+        storage.writeRecord(VENDOR_ID, eventRecord(vendorUpdated()));
+        storage.writeEventCountAfterLastSnapshot(VENDOR_ID, 1);
+
+        assertEquals(1, eventCount(storage));
+    }
+
+    private BatchingJdbcAggregateStorage<VendorId> create() {
+        return BatchingJdbcAggregateStorage.create(dataSource, VendorAggregate.class);
+    }
+
+    private static AggregateStateRecord stateRecord(Event... events) {
+        final AggregateStateRecord.Builder result = AggregateStateRecord.newBuilder();
+        for (Event event : events) {
+            result.addEvent(event);
+        }
+        return result.build();
+    }
+
+    private static AggregateEventRecord eventRecord(Event event) {
+        return AggregateEventRecord.newBuilder()
+                                   .setTimestamp(event.getContext()
+                                                      .getTimestamp())
+                                   .setEvent(event)
+                                   .build();
+    }
+
+    private Event vendorAdded() {
+        return eventFactory.createEvent(VendorAdded.newBuilder()
+                                                   .setVendorId(VENDOR_ID)
+                                                   .build());
+    }
+
+    private Event vendorUpdated() {
+        return eventFactory.createEvent(VendorUpdated.newBuilder()
+                                                     .setVendorId(VENDOR_ID)
+                                                     .build());
+    }
+
+    private static int eventCount(BatchingJdbcAggregateStorage<VendorId> storage) {
+        final Optional<AggregateStateRecord> record =
+                storage.read(new AggregateReadRequest<>(VENDOR_ID, Integer.MAX_VALUE));
+        return record.isPresent()
+               ? record.get()
+                       .getEventCount()
+               : 0;
+    }
+}
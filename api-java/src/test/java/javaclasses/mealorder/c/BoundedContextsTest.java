@@ -21,6 +21,8 @@
 package javaclasses.mealorder.c;
 
 import com.google.common.base.Optional;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
 import io.spine.server.BoundedContext;
 import io.spine.server.entity.Repository;
 import io.spine.server.storage.StorageFactory;
@@ -29,12 +31,23 @@ import io.spine.test.Tests;
 import javaclasses.mealorder.Order;
 import javaclasses.mealorder.PurchaseOrder;
 import javaclasses.mealorder.Vendor;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.c.po.PurchaseOrderOutbox;
+import javaclasses.mealorder.c.vendor.VendorLookup;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
 import static io.spine.test.Tests.assertHasPrivateParameterlessCtor;
 import static javaclasses.mealorder.c.BoundedContexts.createBoundedContext;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.createOrderInstance;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -44,6 +57,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 @DisplayName("`BoundedContexts` should")
 class BoundedContextsTest {
 
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
     @Test
     @DisplayName("have the private parameterless constructor")
     void havePrivateCtor() {
@@ -65,6 +81,16 @@ class BoundedContextsTest {
                                                                  .getClass());
     }
 
+    @Test
+    @DisplayName("create multitenant `BoundedContext`")
+    void createMultitenantBoundedContext() {
+        final BoundedContext boundedContext = BoundedContexts.createMultitenant();
+
+        assertTrue(boundedContext.isMultitenant());
+        assertTrue(boundedContext.getStorageFactory()
+                                 .isMultitenant());
+    }
+
     @Test
     @DisplayName("create `BoundedContext` with a given `StorageFactory` ")
     void createBoundedContextWithStorageFactory() {
@@ -95,4 +121,46 @@ class BoundedContextsTest {
         assertTrue(poRepository.isPresent());
         assertTrue(orderRepository.isPresent());
     }
+
+    @Test
+    @DisplayName("not share the vendors between the bounded contexts")
+    void notShareVendors() {
+        final BoundedContext first = BoundedContexts.create(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName("First"), false));
+        final BoundedContext second = BoundedContexts.create(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName("Second"), false));
+
+        first.getCommandBus()
+             .post(requestFactory.command()
+                                 .create(addVendorInstance()), noOpObserver());
+
+        assertTrue(vendorLookupOf(first).findVendor(VENDOR_ID)
+                                        .isPresent());
+        assertFalse(vendorLookupOf(second).findVendor(VENDOR_ID)
+                                          .isPresent());
+    }
+
+    @Test
+    @DisplayName("check the menus with the specified vendor lookup")
+    void useVendorLookup() {
+        final List<VendorId> lookedUp = new ArrayList<>();
+        final VendorLookup vendorLookup = vendorId -> {
+            lookedUp.add(vendorId);
+            return Optional.absent();
+        };
+        final BoundedContext boundedContext = BoundedContexts.create(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName("Remote"), false),
+                PurchaseOrderOutbox.newInstance(), vendorLookup);
+
+        boundedContext.getCommandBus()
+                      .post(requestFactory.command()
+                                          .create(createOrderInstance()), noOpObserver());
+
+        assertTrue(lookedUp.contains(VENDOR_ID));
+    }
+
+    private static VendorLookup vendorLookupOf(BoundedContext boundedContext) {
+        return (VendorLookup) boundedContext.findRepository(Vendor.class)
+                                            .get();
+    }
 }
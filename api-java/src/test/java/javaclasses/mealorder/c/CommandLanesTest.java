@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.StringValue;
+import com.google.protobuf.Timestamp;
+import io.grpc.stub.StreamObserver;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.core.Ack;
+import io.spine.core.Command;
+import io.spine.core.Status;
+import io.spine.server.BoundedContext;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`CommandLanes` should")
+class CommandLanesTest {
+
+    private static final int LANE_COUNT = 4;
+    private static final int MENU_COUNT = 50;
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private final List<Ack> acks = new CopyOnWriteArrayList<>();
+
+    private BoundedContext boundedContext;
+    private CommandLanes lanes;
+
+    @BeforeEach
+    void setUp() {
+        boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new VendorRepository());
+        lanes = new CommandLanes(boundedContext.getCommandBus(), LANE_COUNT);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        boundedContext.close();
+    }
+
+    @Test
+    @DisplayName("not accept non-positive lane count")
+    void notAcceptNonPositiveLaneCount() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new CommandLanes(boundedContext.getCommandBus(), 0));
+    }
+
+    @Test
+    @DisplayName("handle the commands of the same aggregate in the order of posting")
+    void handleInOrder() throws InterruptedException {
+        post(addVendorInstance());
+        for (int i = 0; i < MENU_COUNT; i++) {
+            post(importMenuInstance(VENDOR_ID, USER_ID, menuId(i), DISH1, DISH2));
+        }
+        awaitHandled();
+
+        assertEquals(MENU_COUNT + 1, acks.size());
+        for (Ack ack : acks) {
+            assertEquals(Status.StatusCase.OK, ack.getStatus()
+                                                  .getStatusCase());
+        }
+    }
+
+    @Test
+    @DisplayName("handle the commands of the same aggregate in a single lane")
+    void handleInSingleLane() throws InterruptedException {
+        post(addVendorInstance());
+        for (int i = 0; i < MENU_COUNT; i++) {
+            post(importMenuInstance(VENDOR_ID, USER_ID, menuId(i), DISH1, DISH2));
+        }
+        awaitHandled();
+
+        int busyLanes = 0;
+        for (int lane = 0; lane < lanes.getLaneCount(); lane++) {
+            final long handled = lanes.getHandledCount(lane);
+            if (handled > 0) {
+                busyLanes++;
+                assertEquals(MENU_COUNT + 1, handled);
+                assertTrue(lanes.getMaxQueueDepth(lane) <= MENU_COUNT);
+            }
+            assertEquals(0, lanes.getQueueDepth(lane));
+        }
+        assertEquals(1, busyLanes);
+    }
+
+    @Test
+    @DisplayName("wait for the space in the full lane queue")
+    void waitForQueueSpace() throws InterruptedException {
+        lanes = new CommandLanes(boundedContext.getCommandBus(), 1, 1);
+        post(addVendorInstance());
+        for (int i = 0; i < MENU_COUNT; i++) {
+            post(importMenuInstance(VENDOR_ID, USER_ID, menuId(i), DISH1, DISH2));
+        }
+        awaitHandled();
+
+        assertEquals(MENU_COUNT + 1, acks.size());
+        assertTrue(lanes.getMaxQueueDepth(0) <= 1);
+    }
+
+    @Test
+    @DisplayName("reject the command without a route")
+    void rejectUnroutedCommand() {
+        final Command command = requestFactory.command()
+                                              .create(StringValue.newBuilder()
+                                                                 .setValue("unrouted")
+                                                                 .build());
+        assertThrows(IllegalArgumentException.class, () -> lanes.post(command, noOpObserver()));
+    }
+
+    @Test
+    @DisplayName("handle the commands in the named daemon threads")
+    void handleInNamedDaemonThreads() throws InterruptedException {
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        lanes.post(requestFactory.command()
+                                 .create(addVendorInstance()), new StreamObserver<Ack>() {
+            @Override
+            public void onNext(Ack ack) {
+                threads.add(Thread.currentThread());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new IllegalStateException(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                // Only the thread is checked.
+            }
+        });
+        awaitHandled();
+
+        assertEquals(1, threads.size());
+        final Thread thread = threads.get(0);
+        assertTrue(thread.isDaemon());
+        assertTrue(thread.getName()
+                         .startsWith("command-lane-"));
+    }
+
+    private void post(Message commandMessage) {
+        lanes.post(requestFactory.command()
+                                 .create(commandMessage), new StreamObserver<Ack>() {
+            @Override
+            public void onNext(Ack ack) {
+                acks.add(ack);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new IllegalStateException(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                // Only the acknowledgement is checked.
+            }
+        });
+    }
+
+    private void awaitHandled() throws InterruptedException {
+        lanes.shutdown();
+        assertTrue(lanes.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static MenuId menuId(int index) {
+        return MenuId.newBuilder()
+                     .setVendorId(VENDOR_ID)
+                     .setWhenImported(Timestamp.newBuilder()
+                                               .setSeconds(index + 1))
+                     .build();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Message;
+import io.grpc.stub.StreamObserver;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.core.Ack;
+import io.spine.core.Status;
+import io.spine.server.BoundedContext;
+import io.spine.server.storage.StorageFactory;
+import io.spine.test.Tests;
+import javaclasses.mealorder.c.vendor.VendorAggregate;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import javaclasses.mealorder.q.VendorListViewRepository;
+import javaclasses.mealorder.q.projection.VendorListView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.c.BoundedContexts.createBoundedContext;
+import static javaclasses.mealorder.c.BoundedContexts.jdbcStorageFactory;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.addDishToOrderInstance;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.createOrderInstance;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_NAME;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the {@code BoundedContext} backed by the embedded H2 database.
+ *
+ * @author agent
+ */
+@DisplayName("JDBC-backed `BoundedContext` should")
+class JdbcBoundedContextTest {
+
+    private static final String DB_USER = "sa";
+    private static final String DB_PASSWORD = "";
+    private static final int POOL_SIZE = 4;
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        final String url = "jdbc:h2:mem:" + getClass().getSimpleName()
+                + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        dataSource = JdbcDataSources.pooled(url, DB_USER, DB_PASSWORD, POOL_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ((Closeable) dataSource).close();
+    }
+
+    @Test
+    @DisplayName("not be created without a `DataSource`")
+    void notCreateWithoutDataSource() {
+        assertThrows(NullPointerException.class,
+                     () -> BoundedContexts.createJdbc(Tests.nullRef()));
+    }
+
+    @Test
+    @DisplayName("keep the vendor after the restart")
+    void keepVendorAfterRestart() {
+        final BoundedContext before = createVendorContext(new VendorRepository());
+        post(before, addVendorInstance());
+
+        final VendorRepository restartedRepository = new VendorRepository();
+        createVendorContext(restartedRepository);
+
+        final Optional<VendorAggregate> vendor = restartedRepository.find(VENDOR_ID);
+        assertTrue(vendor.isPresent());
+        assertEquals(VENDOR_NAME, vendor.get()
+                                        .getState()
+                                        .getVendorName());
+    }
+
+    @Test
+    @DisplayName("handle the commands by all the repositories")
+    void handleCommands() {
+        final BoundedContext boundedContext = BoundedContexts.createJdbc(dataSource);
+        assertAcknowledged(boundedContext, addVendorInstance());
+        assertAcknowledged(boundedContext, importMenuInstance());
+        assertAcknowledged(boundedContext, setDateRangeForMenuInstance());
+        assertAcknowledged(boundedContext, createOrderInstance());
+        assertAcknowledged(boundedContext, addDishToOrderInstance(ORDER_ID, DISH1));
+
+        // The restarted bounded context finds the tables and the outbox records created before.
+        BoundedContexts.createJdbc(dataSource);
+        final VendorListViewRepository vendorList = new VendorListViewRepository();
+        createBoundedContext(jdbcStorageFactory(dataSource)).register(vendorList);
+
+        final VendorListView view = vendorList.getView();
+        assertEquals(1, view.getVendorCount());
+        assertEquals(VENDOR_NAME, view.getVendor(0)
+                                      .getVendorName());
+    }
+
+    private BoundedContext createVendorContext(VendorRepository vendorRepository) {
+        final StorageFactory storageFactory = jdbcStorageFactory(dataSource);
+        final BoundedContext boundedContext = createBoundedContext(storageFactory);
+        boundedContext.register(vendorRepository);
+        return boundedContext;
+    }
+
+    /**
+     * Posts the command and checks that it is acknowledged without an error or a rejection.
+     */
+    private void assertAcknowledged(BoundedContext boundedContext, Message commandMessage) {
+        final List<Ack> acks = new ArrayList<>();
+        boundedContext.getCommandBus()
+                      .post(requestFactory.command()
+                                          .create(commandMessage),
+                            new StreamObserver<Ack>() {
+                                @Override
+                                public void onNext(Ack ack) {
+                                    acks.add(ack);
+                                }
+
+                                @Override
+                                public void onError(Throwable t) {
+                                    throw new IllegalStateException(t);
+                                }
+
+                                @Override
+                                public void onCompleted() {
+                                    // Only the acknowledgement is checked.
+                                }
+                            });
+        assertEquals(1, acks.size());
+        assertEquals(Status.StatusCase.OK, acks.get(0)
+                                               .getStatus()
+                                               .getStatusCase());
+    }
+
+    private void post(BoundedContext boundedContext, Message commandMessage) {
+        boundedContext.getCommandBus()
+                      .post(requestFactory.command()
+                                          .create(commandMessage), noOpObserver());
+    }
+}
@@ -111,7 +111,33 @@ public class AddDishToOrderTest extends OrderCommandTest {
 
         assertEquals(ORDER_ACTIVE, order.getStatus());
         assertEquals(addDishToOrder.getOrderId(), order.getId());
-        assertEquals(addDishToOrder.getDish(), order.getDish(0));
+        assertEquals(addDishToOrder.getDish(), order.getLine(0)
+                                                    .getDish());
+    }
+
+    @Test
+    @DisplayName("keep a single order line for the repeated dish")
+    void keepSingleLineForRepeatedDish() {
+        final AddDishToOrder addDishToOrder = addDishToOrderInstance();
+
+        final Command addDishToOrderCommand = requestFactory.command()
+                                                            .create(addDishToOrder);
+
+        commandBus.post(addDishToOrderCommand, noOpObserver());
+        commandBus.post(addDishToOrderCommand, noOpObserver());
+
+        final OrderRepository orderRepository =
+                (OrderRepository) boundedContext.findRepository(Order.class)
+                                                .get();
+        final Order order = orderRepository.find(ORDER_ID)
+                                           .get()
+                                           .getState();
+
+        assertEquals(1, order.getLineCount());
+        assertEquals(addDishToOrder.getDish(), order.getLine(0)
+                                                    .getDish());
+        assertTrue(order.getLine(0)
+                        .getQuantity() >= 2);
     }
 
     @Test
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c.order;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.Message;
+import io.spine.server.BoundedContext;
+import io.spine.server.entity.Repository;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import io.spine.test.Tests;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.vendor.MenuAvailabilityIndex;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.createOrderInstance;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID_WITH_INVALID_VENDOR;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`OrderRepository` should")
+class OrderRepositoryTest extends OrderCommandTest {
+
+    private OrderRepository repository;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        commandBus.post(requestFactory.command()
+                                      .create(createOrderInstance()), noOpObserver());
+        final Repository found = boundedContext.findRepository(Order.class)
+                                               .get();
+        repository = (OrderRepository) found;
+    }
+
+    @Test
+    @DisplayName("find only the existing orders")
+    void findExisting() {
+        final Set<OrderId> ids = ImmutableSet.of(ORDER_ID, ORDER_ID_WITH_INVALID_VENDOR);
+
+        assertEquals(ImmutableSet.of(ORDER_ID), repository.findExisting(ids));
+        assertTrue(repository.findExisting(ImmutableSet.of())
+                             .isEmpty());
+    }
+
+    @Test
+    @DisplayName("read the stored orders once and remember the created ones")
+    void readStoredOrdersOnce() {
+        final BoundedContext countingContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        final VendorRepository vendorRepository = new VendorRepository();
+        final MenuAvailabilityIndex menuAvailabilityIndex =
+                new MenuAvailabilityIndex(vendorRepository);
+        final CountingOrderRepository countingRepository =
+                new CountingOrderRepository(menuAvailabilityIndex);
+        countingContext.register(vendorRepository);
+        countingContext.register(countingRepository);
+        countingContext.getEventBus()
+                       .register(menuAvailabilityIndex);
+        final Set<OrderId> ids = ImmutableSet.of(ORDER_ID, ORDER_ID_WITH_INVALID_VENDOR);
+
+        assertTrue(countingRepository.findExisting(ids)
+                                     .isEmpty());
+        post(countingContext, addVendorInstance());
+        post(countingContext, importMenuInstance());
+        post(countingContext, setDateRangeForMenuInstance());
+        post(countingContext, createOrderInstance());
+
+        assertEquals(ImmutableSet.of(ORDER_ID), countingRepository.findExisting(ids));
+        assertEquals(ImmutableSet.of(ORDER_ID), countingRepository.findExisting(ids));
+        assertEquals(1, countingRepository.storageReads);
+    }
+
+    @Test
+    @DisplayName("not accept null IDs")
+    void notAcceptNull() {
+        assertThrows(NullPointerException.class, () -> repository.findExisting(Tests.nullRef()));
+    }
+
+    private void post(BoundedContext context, Message commandMessage) {
+        context.getCommandBus()
+               .post(requestFactory.command()
+                                   .create(commandMessage), noOpObserver());
+    }
+
+    /**
+     * The repository counting the reads of the stored order IDs from the storage.
+     */
+    private static class CountingOrderRepository extends OrderRepository {
+
+        private int storageReads;
+
+        private CountingOrderRepository(MenuAvailabilityIndex menuAvailabilityIndex) {
+            super(menuAvailabilityIndex);
+        }
+
+        @Override
+        Iterator<OrderId> readStoredOrders() {
+            storageReads++;
+            return super.readStoredOrders();
+        }
+    }
+}
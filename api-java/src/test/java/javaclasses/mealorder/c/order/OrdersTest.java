@@ -24,13 +24,15 @@ import io.spine.test.Tests;
 import io.spine.time.LocalDate;
 import javaclasses.mealorder.MenuDateRange;
 import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.c.command.CreateOrder;
+import javaclasses.mealorder.c.vendor.MenuAvailabilityIndex;
+import javaclasses.mealorder.c.vendor.VendorRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import static io.spine.test.Tests.assertHasPrivateParameterlessCtor;
 import static javaclasses.mealorder.c.order.Orders.checkMenuAvailability;
 import static javaclasses.mealorder.c.order.Orders.checkRangeIncludesDate;
-import static javaclasses.mealorder.c.order.Orders.getVendorAggregateForOrder;
 import static javaclasses.mealorder.testdata.TestValues.FAR_PAST;
 import static javaclasses.mealorder.testdata.TestValues.FAR_FUTURE;
 import static javaclasses.mealorder.testdata.TestValues.WEEK_FROM_TOMORROW;
@@ -89,17 +91,16 @@ class OrdersTest {
                      () -> checkRangeIncludesDate(Tests.nullRef(), LocalDate.getDefaultInstance()));
     }
 
-    @Test
-    @DisplayName("throw `NullPointerException` if `getVendorAggregateForOrder` " +
-            "was called with null as argument")
-    void throwNullPointerOnGetVendorAggregateForOrder() {
-        assertThrows(NullPointerException.class, () -> getVendorAggregateForOrder(Tests.nullRef()));
-    }
-
     @Test
     @DisplayName("throw `NullPointerException` if `checkMenuAvailability` " +
-            "was called with null as argument")
+            "was called with null as any of arguments")
     void throwNullPointerOnCheckMenuAvailability() {
-        assertThrows(NullPointerException.class, () -> checkMenuAvailability(Tests.nullRef()));
+        final MenuAvailabilityIndex index =
+                new MenuAvailabilityIndex(new VendorRepository());
+        assertThrows(NullPointerException.class,
+                     () -> checkMenuAvailability(Tests.nullRef(), index));
+        assertThrows(NullPointerException.class,
+                     () -> checkMenuAvailability(CreateOrder.getDefaultInstance(),
+                                                 Tests.nullRef()));
     }
 }
@@ -117,7 +117,7 @@ public class RemoveDishFromOrderTest extends OrderCommandTest {
 
         assertEquals(ORDER_ACTIVE, order.getStatus());
         assertEquals(addDishToOrder.getOrderId(), order.getId());
-        assertEquals(0, order.getDishCount());
+        assertEquals(0, order.getLineCount());
     }
 
     @Test
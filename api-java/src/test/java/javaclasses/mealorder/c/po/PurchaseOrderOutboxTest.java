@@ -0,0 +1,314 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c.po;
+
+import com.google.common.base.Optional;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.core.Command;
+import io.spine.core.TenantId;
+import io.spine.server.BoundedContext;
+import io.spine.server.command.TestEventFactory;
+import io.spine.server.storage.StorageFactory;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import io.spine.test.Tests;
+import javaclasses.mealorder.PurchaseOrder;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.PurchaseOrderOutboxRecord;
+import javaclasses.mealorder.ServiceFactory;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.JdbcDataSources;
+import javaclasses.mealorder.c.event.PurchaseOrderSent;
+import javaclasses.mealorder.c.po.PurchaseOrderOutbox.DeliveryStatus;
+import javaclasses.mealorder.testdata.FakeSmtpPurchaseOrderSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.c.BoundedContexts.jdbcStorageFactory;
+import static javaclasses.mealorder.c.po.PurchaseOrderOutbox.DeliveryStatus.DELIVERED;
+import static javaclasses.mealorder.c.po.PurchaseOrderOutbox.DeliveryStatus.FAILED;
+import static javaclasses.mealorder.c.po.PurchaseOrderOutbox.DeliveryStatus.PENDING;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderInstance;
+import static javaclasses.mealorder.testdata.TestValues.EMAIL;
+import static javaclasses.mealorder.testdata.TestValues.PURCHASE_ORDER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`PurchaseOrderOutbox` should")
+class PurchaseOrderOutboxTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+    private static final long NEVER_RETRY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private PurchaseOrderOutbox outbox;
+
+    @AfterEach
+    void tearDown() {
+        if (outbox != null) {
+            outbox.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("not accept invalid arguments")
+    void notAcceptInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new PurchaseOrderOutbox(0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PurchaseOrderOutbox(1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PurchaseOrderOutbox(1, 1, -1));
+        outbox = PurchaseOrderOutbox.newInstance();
+        assertThrows(NullPointerException.class,
+                     () -> outbox.getDeliveryStatus(Tests.nullRef()));
+    }
+
+    @Test
+    @DisplayName("send the purchase order and mark its record as delivered")
+    void sendAndMarkDelivered() throws InterruptedException {
+        final FakeSmtpPurchaseOrderSender sender = new FakeSmtpPurchaseOrderSender(0, 0);
+        ServiceFactory.setPoSenderInstance(sender);
+        outbox = new PurchaseOrderOutbox(2, 1, 0);
+        final BoundedContext boundedContext = createBoundedContext(inMemoryFactory(), outbox);
+
+        postCreatePurchaseOrder(boundedContext);
+
+        assertTrue(sender.awaitSent(1, TIMEOUT_MILLIS));
+        assertEquals(DELIVERED, awaitStatus(PURCHASE_ORDER_ID, DELIVERED));
+        assertEquals(1, sender.getAttempts());
+        assertEquals(PURCHASE_ORDER_ID, sender.getSent()
+                                              .get(0)
+                                              .getId());
+    }
+
+    @Test
+    @DisplayName("send the purchase order being delivered once")
+    void sendOnce() throws InterruptedException {
+        final FakeSmtpPurchaseOrderSender sender = new FakeSmtpPurchaseOrderSender(200, 0);
+        ServiceFactory.setPoSenderInstance(sender);
+        outbox = new PurchaseOrderOutbox(2, 1, 0);
+        createBoundedContext(inMemoryFactory(), outbox);
+
+        final PurchaseOrderOutboxRecord record = record(PURCHASE_ORDER_ID);
+        outbox.schedule(TenantId.getDefaultInstance(), record);
+        outbox.schedule(TenantId.getDefaultInstance(), record);
+
+        assertTrue(sender.awaitSent(1, TIMEOUT_MILLIS));
+        assertEquals(1, sender.getAttempts());
+    }
+
+    @Test
+    @DisplayName("not send the delivered purchase order again")
+    void notSendDeliveredAgain() throws InterruptedException {
+        final FakeSmtpPurchaseOrderSender sender = new FakeSmtpPurchaseOrderSender(0, 0);
+        ServiceFactory.setPoSenderInstance(sender);
+        outbox = new PurchaseOrderOutbox(2, 1, 0);
+        final BoundedContext boundedContext = createBoundedContext(inMemoryFactory(), outbox);
+        postCreatePurchaseOrder(boundedContext);
+        assertEquals(DELIVERED, awaitStatus(PURCHASE_ORDER_ID, DELIVERED));
+
+        final PurchaseOrderSent redelivered = PurchaseOrderSent.newBuilder()
+                                                               .setPurchaseOrder(sender.getSent()
+                                                                                       .get(0))
+                                                               .setSenderEmail(EMAIL)
+                                                               .setVendorEmail(EMAIL)
+                                                               .build();
+        boundedContext.getEventBus()
+                      .post(TestEventFactory.newInstance(getClass())
+                                            .createEvent(redelivered), noOpObserver());
+
+        assertFalse(sender.awaitSent(2, 200));
+        assertEquals(1, sender.getAttempts());
+        assertEquals(DELIVERED, outbox.getDeliveryStatus(PURCHASE_ORDER_ID)
+                                      .orNull());
+    }
+
+    @Test
+    @DisplayName("complete the delivery in progress and stop the workers upon close")
+    void completeDeliveryUponClose() throws InterruptedException {
+        final FakeSmtpPurchaseOrderSender sender = new FakeSmtpPurchaseOrderSender(200, 0);
+        ServiceFactory.setPoSenderInstance(sender);
+        outbox = new PurchaseOrderOutbox(1, 1, 0);
+        createBoundedContext(inMemoryFactory(), outbox);
+        outbox.schedule(TenantId.getDefaultInstance(), record(PURCHASE_ORDER_ID));
+        assertTrue(awaitAttempts(sender, 1));
+
+        outbox.close();
+
+        assertEquals(1, sender.getSent()
+                              .size());
+        outbox.schedule(TenantId.getDefaultInstance(), record(PURCHASE_ORDER_ID));
+        assertFalse(sender.awaitSent(2, 200));
+        assertEquals(1, sender.getAttempts());
+    }
+
+    @Test
+    @DisplayName("retry the failed sending")
+    void retryFailedSending() throws InterruptedException {
+        final FakeSmtpPurchaseOrderSender sender = new FakeSmtpPurchaseOrderSender(0, 2);
+        ServiceFactory.setPoSenderInstance(sender);
+        outbox = new PurchaseOrderOutbox(1, 3, 10);
+        final BoundedContext boundedContext = createBoundedContext(inMemoryFactory(), outbox);
+
+        postCreatePurchaseOrder(boundedContext);
+
+        assertTrue(sender.awaitSent(1, TIMEOUT_MILLIS));
+        assertEquals(DELIVERED, awaitStatus(PURCHASE_ORDER_ID, DELIVERED));
+        assertEquals(3, sender.getAttempts());
+    }
+
+    @Test
+    @DisplayName("mark the purchase order as failed after the last attempt")
+    void markAsFailed() throws InterruptedException {
+        final FakeSmtpPurchaseOrderSender sender = new FakeSmtpPurchaseOrderSender(0, 5);
+        ServiceFactory.setPoSenderInstance(sender);
+        outbox = new PurchaseOrderOutbox(1, 2, 10);
+        final BoundedContext boundedContext = createBoundedContext(inMemoryFactory(), outbox);
+
+        postCreatePurchaseOrder(boundedContext);
+
+        assertEquals(FAILED, awaitStatus(PURCHASE_ORDER_ID, FAILED));
+        assertEquals(2, sender.getAttempts());
+        assertTrue(sender.getSent()
+                         .isEmpty());
+    }
+
+    @Test
+    @DisplayName("not know the purchase order which was not sent")
+    void notKnowMissingPurchaseOrder() {
+        outbox = PurchaseOrderOutbox.newInstance();
+        createBoundedContext(inMemoryFactory(), outbox);
+
+        assertFalse(outbox.getDeliveryStatus(PURCHASE_ORDER_ID)
+                          .isPresent());
+    }
+
+    @Test
+    @DisplayName("deliver the purchase order left pending before the restart")
+    void deliverAfterRestart() throws InterruptedException, IOException {
+        final String url = "jdbc:h2:mem:" + getClass().getSimpleName()
+                + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        final DataSource dataSource = JdbcDataSources.pooled(url, "sa", "", 4);
+        try {
+            final FakeSmtpPurchaseOrderSender unavailable =
+                    new FakeSmtpPurchaseOrderSender(0, Integer.MAX_VALUE);
+            ServiceFactory.setPoSenderInstance(unavailable);
+            final PurchaseOrderOutbox stopped = new PurchaseOrderOutbox(1, 2, NEVER_RETRY_MILLIS);
+            final BoundedContext beforeRestart =
+                    createBoundedContext(jdbcStorageFactory(dataSource), stopped);
+            postCreatePurchaseOrder(beforeRestart);
+            assertTrue(awaitAttempts(unavailable, 1));
+            stopped.shutdown();
+            assertEquals(PENDING, stopped.getDeliveryStatus(PURCHASE_ORDER_ID)
+                                         .orNull());
+
+            final FakeSmtpPurchaseOrderSender sender = new FakeSmtpPurchaseOrderSender(0, 0);
+            ServiceFactory.setPoSenderInstance(sender);
+            outbox = new PurchaseOrderOutbox(1, 1, 0);
+            createBoundedContext(jdbcStorageFactory(dataSource), outbox);
+
+            assertTrue(sender.awaitSent(1, TIMEOUT_MILLIS));
+            assertEquals(DELIVERED, awaitStatus(PURCHASE_ORDER_ID, DELIVERED));
+        } finally {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+    @Test
+    @DisplayName("not make the command handling wait for the sender")
+    void notBlockCommandHandling() throws InterruptedException {
+        final long senderLatencyMillis = 2000;
+        final FakeSmtpPurchaseOrderSender sender =
+                new FakeSmtpPurchaseOrderSender(senderLatencyMillis, 0);
+        ServiceFactory.setPoSenderInstance(sender);
+        outbox = new PurchaseOrderOutbox(1, 1, 0);
+        final BoundedContext boundedContext = createBoundedContext(inMemoryFactory(), outbox);
+
+        final long start = System.nanoTime();
+        postCreatePurchaseOrder(boundedContext);
+        final long handlingMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(handlingMillis < senderLatencyMillis,
+                   "The command handling took " + handlingMillis + " ms.");
+        assertTrue(sender.awaitSent(1, senderLatencyMillis + TIMEOUT_MILLIS));
+    }
+
+    private StorageFactory inMemoryFactory() {
+        return InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                  false);
+    }
+
+    private static BoundedContext createBoundedContext(StorageFactory storageFactory,
+                                                       PurchaseOrderOutbox outbox) {
+        return BoundedContexts.create(storageFactory, outbox);
+    }
+
+    private void postCreatePurchaseOrder(BoundedContext boundedContext) {
+        final Command createPurchaseOrder =
+                TestActorRequestFactory.newInstance(getClass())
+                                       .command()
+                                       .create(createPurchaseOrderInstance());
+        boundedContext.getCommandBus()
+                      .post(createPurchaseOrder, noOpObserver());
+    }
+
+    private DeliveryStatus awaitStatus(PurchaseOrderId id, DeliveryStatus expected)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        Optional<DeliveryStatus> status = outbox.getDeliveryStatus(id);
+        while (!(status.isPresent() && status.get() == expected)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = outbox.getDeliveryStatus(id);
+        }
+        return status.orNull();
+    }
+
+    private static boolean awaitAttempts(FakeSmtpPurchaseOrderSender sender, int attempts)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (sender.getAttempts() < attempts) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private static PurchaseOrderOutboxRecord record(PurchaseOrderId id) {
+        final PurchaseOrder purchaseOrder = PurchaseOrder.newBuilder()
+                                                         .setId(id)
+                                                         .build();
+        return PurchaseOrderOutboxRecord.newBuilder()
+                                        .setId(id)
+                                        .setPurchaseOrder(purchaseOrder)
+                                        .build();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c.po;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.spine.net.EmailAddress;
+import io.spine.test.Tests;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.UserId;
+import javaclasses.mealorder.c.po.PurchaseOrderValidation.OrderFailure;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.OrderStatus.ORDER_CANCELED;
+import static javaclasses.mealorder.c.po.PurchaseOrderValidation.OrderFailure.NOT_ACTIVE;
+import static javaclasses.mealorder.c.po.PurchaseOrderValidation.OrderFailure.TOO_MANY_EQUAL_DISHES;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.ORDER;
+import static javaclasses.mealorder.testdata.TestValues.PURCHASE_ORDER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`PurchaseOrderValidator` should")
+class PurchaseOrderValidatorTest {
+
+    private static final int ORDER_COUNT = 5000;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("not accept invalid arguments")
+    void notAcceptInvalidArguments() {
+        assertThrows(NullPointerException.class,
+                     () -> new PurchaseOrderValidator(Tests.nullRef(), 1));
+        assertThrows(IllegalArgumentException.class, () -> new PurchaseOrderValidator(pool, 0));
+        final PurchaseOrderValidator validator = PurchaseOrderValidator.getDefault();
+        assertThrows(NullPointerException.class,
+                     () -> validator.validate(Tests.nullRef(), ImmutableList.of()));
+        assertThrows(NullPointerException.class,
+                     () -> validator.validate(PURCHASE_ORDER_ID, Tests.nullRef()));
+    }
+
+    @Test
+    @DisplayName("not allow the creation without orders")
+    void notAllowEmptyPurchaseOrder() {
+        final PurchaseOrderValidation validation =
+                PurchaseOrderValidator.getDefault()
+                                      .validate(PURCHASE_ORDER_ID, ImmutableList.of());
+        assertFalse(validation.isCreationAllowed());
+    }
+
+    @Test
+    @DisplayName("collect the failures of each order")
+    void collectFailures() {
+        final Order canceledOrder = Order.newBuilder(ORDER)
+                                         .setId(orderId(1))
+                                         .setStatus(ORDER_CANCELED)
+                                         .setLine(0, lineOf(DISH1, 21))
+                                         .build();
+        final Order invalidOrder = Order.newBuilder(ORDER)
+                                        .setId(orderId(2))
+                                        .setLine(0, lineOf(DISH1, 21))
+                                        .build();
+        final List<Order> orders = ImmutableList.of(ORDER, canceledOrder, invalidOrder);
+
+        final PurchaseOrderValidation validation =
+                PurchaseOrderValidator.getDefault()
+                                      .validate(PURCHASE_ORDER_ID, orders);
+
+        assertFalse(validation.isCreationAllowed());
+        assertTrue(validation.getFailures(0)
+                             .isEmpty());
+        assertEquals(ImmutableSet.of(NOT_ACTIVE, TOO_MANY_EQUAL_DISHES),
+                     validation.getFailures(1));
+        assertEquals(ImmutableList.of(canceledOrder, invalidOrder),
+                     validation.getInvalidOrders());
+        final Map<OrderId, Set<OrderFailure>> failedOrders = validation.getFailedOrders();
+        assertEquals(ImmutableList.of(canceledOrder.getId(), invalidOrder.getId()),
+                     ImmutableList.copyOf(failedOrders.keySet()));
+    }
+
+    @Test
+    @DisplayName("produce the same result in parallel as sequentially")
+    void validateInParallel() {
+        final List<Order> orders = new ArrayList<>(ORDER_COUNT);
+        final List<Order> invalidOrders = new ArrayList<>();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            final int quantity = i % 97 == 0 ? 21 : 1;
+            final Order order = Order.newBuilder(ORDER)
+                                     .setId(orderId(i))
+                                     .setLine(0, lineOf(DISH1, quantity))
+                                     .build();
+            orders.add(order);
+            if (quantity > 1) {
+                invalidOrders.add(order);
+            }
+        }
+        final PurchaseOrderValidation sequential =
+                new PurchaseOrderValidator(pool, Integer.MAX_VALUE).validate(PURCHASE_ORDER_ID,
+                                                                             orders);
+        final PurchaseOrderValidation parallel =
+                new PurchaseOrderValidator(pool, 1).validate(PURCHASE_ORDER_ID, orders);
+
+        assertTrue(parallel.isCreationAllowed());
+        assertEquals(sequential.isCreationAllowed(), parallel.isCreationAllowed());
+        assertEquals(sequential.getInvalidOrders(), parallel.getInvalidOrders());
+        assertEquals(sequential.getFailedOrders(), parallel.getFailedOrders());
+        assertEquals(invalidOrders, parallel.getInvalidOrders());
+    }
+
+    private static OrderId orderId(int index) {
+        return OrderId.newBuilder(ORDER.getId())
+                      .setUserId(UserId.newBuilder()
+                                       .setEmail(EmailAddress.newBuilder()
+                                                             .setValue("user" + index +
+                                                                               "@example.com")))
+                      .build();
+    }
+}
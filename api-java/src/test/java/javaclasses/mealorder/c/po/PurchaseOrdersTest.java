@@ -21,14 +21,25 @@
 package javaclasses.mealorder.c.po;
 
 import io.spine.test.Tests;
+import javaclasses.mealorder.Dish;
+import javaclasses.mealorder.DishId;
+import javaclasses.mealorder.Order;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import static io.spine.test.Tests.assertHasPrivateParameterlessCtor;
-import static javaclasses.mealorder.c.po.PurchaseOrders.findInvalidOrders;
-import static javaclasses.mealorder.c.po.PurchaseOrders.hasInvalidOrders;
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.c.po.PurchaseOrderValidation.OrderFailure.TOO_MANY_EQUAL_DISHES;
+import static javaclasses.mealorder.c.po.PurchaseOrders.checkOrder;
 import static javaclasses.mealorder.c.po.PurchaseOrders.isAllowedPurchaseOrderCreation;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.NONEXISTENT_MENU_ID;
+import static javaclasses.mealorder.testdata.TestValues.ORDER;
+import static javaclasses.mealorder.testdata.TestValues.PURCHASE_ORDER_ID;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author Yegor Udovchenko
@@ -50,14 +61,57 @@ class PurchaseOrdersTest {
     }
 
     @Test
-    @DisplayName("throw `NPE` for null order list passed to find invalid orders")
-    void doNotFindInvalidOrdersWithoutOrders() {
-        assertThrows(NullPointerException.class, () -> findInvalidOrders(Tests.nullRef()));
+    @DisplayName("find the orders with too many equal dishes")
+    void findInvalidOrderLines() {
+        final Order invalidOrder = Order.newBuilder(ORDER)
+                                        .setLine(0, lineOf(DISH1, 21))
+                                        .build();
+
+        assertTrue(hasTooManyEqualDishes(invalidOrder));
+        assertFalse(hasTooManyEqualDishes(ORDER));
+    }
+
+    @Test
+    @DisplayName("count the dishes of the legacy orders")
+    @SuppressWarnings("deprecation") // Builds the legacy orders with the deprecated dishes.
+    void findInvalidLegacyOrders() {
+        final Order.Builder validOrder = Order.newBuilder(ORDER)
+                                              .setLine(0, lineOf(DISH1, 10));
+        final Order.Builder invalidOrder = Order.newBuilder(ORDER)
+                                                .setLine(0, lineOf(DISH1, 10));
+        for (int i = 0; i < 10; i++) {
+            validOrder.addDish(DISH1)
+                      .addDish(DISH2);
+            invalidOrder.addDish(DISH1);
+        }
+        invalidOrder.addDish(DISH1);
+
+        assertFalse(hasTooManyEqualDishes(validOrder.build()));
+        assertTrue(hasTooManyEqualDishes(invalidOrder.build()));
     }
 
     @Test
-    @DisplayName("throw `NPE` for null order list passed to check has invalid orders")
-    void doNotCheckInvalidOrdersWithoutOrders() {
-        assertThrows(NullPointerException.class, () -> hasInvalidOrders(Tests.nullRef()));
+    @DisplayName("not mix the equally numbered dishes of different menus")
+    @SuppressWarnings("deprecation") // Builds the legacy orders with the deprecated dishes.
+    void notMixDishesOfDifferentMenus() {
+        final Dish otherMenuDish = Dish.newBuilder(DISH1)
+                                       .setId(DishId.newBuilder(DISH1.getId())
+                                                    .setMenuId(NONEXISTENT_MENU_ID))
+                                       .build();
+        final Order.Builder order = Order.newBuilder(ORDER)
+                                         .clearLine();
+        for (int i = 0; i < 20; i++) {
+            order.addDish(DISH1)
+                 .addDish(otherMenuDish);
+        }
+
+        assertFalse(hasTooManyEqualDishes(order.build()));
+        order.addDish(otherMenuDish);
+        assertTrue(hasTooManyEqualDishes(order.build()));
+    }
+
+    private static boolean hasTooManyEqualDishes(Order order) {
+        final int failures = checkOrder(PURCHASE_ORDER_ID, order);
+        return (failures & TOO_MANY_EQUAL_DISHES.bit()) != 0;
     }
 }
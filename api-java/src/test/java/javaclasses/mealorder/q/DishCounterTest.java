@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.protobuf.Timestamp;
+import javaclasses.mealorder.Dish;
+import javaclasses.mealorder.DishId;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.Order;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.MENU_ID;
+import static javaclasses.mealorder.testdata.TestValues.ORDER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`DishCounter` should")
+class DishCounterTest {
+
+    @Test
+    @DisplayName("count nothing without dishes")
+    void countNothing() {
+        assertTrue(new DishCounter().toDishItems()
+                                    .isEmpty());
+    }
+
+    @Test
+    @DisplayName("sum the quantities of the order lines by dish")
+    void sumQuantities() {
+        final Order order = Order.newBuilder(ORDER)
+                                 .clearLine()
+                                 .addLine(lineOf(DISH2, 3))
+                                 .addLine(lineOf(DISH1, 2))
+                                 .build();
+        final DishCounter counter = new DishCounter();
+        counter.addAll(ORDER);
+        counter.addAll(order);
+
+        final List<DishItem> dishes = counter.toDishItems();
+
+        assertEquals(2, dishes.size());
+        assertEquals(DISH1.getId(), dishes.get(0)
+                                          .getId());
+        assertEquals(3, dishes.get(0)
+                              .getQuantity());
+        assertEquals(DISH2.getName(), dishes.get(1)
+                                            .getName());
+        assertEquals(3, dishes.get(1)
+                              .getQuantity());
+    }
+
+    @Test
+    @DisplayName("count the dishes of other menus and with large sequential numbers")
+    void countOtherDishes() {
+        final MenuId otherMenuId = MenuId.newBuilder(MENU_ID)
+                                         .setWhenImported(Timestamp.newBuilder()
+                                                                   .setSeconds(42))
+                                         .build();
+        final Dish otherMenuDish = dishOf(otherMenuId, 1);
+        final Dish largeNumberDish = dishOf(MENU_ID, 100_000);
+        final DishCounter counter = new DishCounter();
+        counter.add(DISH1, 1);
+        counter.add(otherMenuDish, 2);
+        counter.add(largeNumberDish, 1);
+        counter.add(otherMenuDish, 1);
+
+        final List<DishItem> dishes = counter.toDishItems();
+
+        assertEquals(3, dishes.size());
+        assertEquals(DISH1.getId(), dishes.get(0)
+                                          .getId());
+        assertEquals(otherMenuDish.getId(), dishes.get(1)
+                                                  .getId());
+        assertEquals(3, dishes.get(1)
+                              .getQuantity());
+        assertEquals(largeNumberDish.getId(), dishes.get(2)
+                                                    .getId());
+        assertEquals(1, dishes.get(2)
+                              .getQuantity());
+    }
+
+    private static Dish dishOf(MenuId menuId, int sequentialNumber) {
+        return Dish.newBuilder(DISH1)
+                   .setId(DishId.newBuilder()
+                                .setMenuId(menuId)
+                                .setSequentialNumber(sequentialNumber))
+                   .build();
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.core.TenantId;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.MenuDateRange;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.Tenants;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import javaclasses.mealorder.q.projection.FullMenuListView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static io.spine.time.LocalDates.addDays;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.MENU_ID;
+import static javaclasses.mealorder.testdata.TestValues.TOMORROW;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestValues.WEEK_FROM_TOMORROW;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * @author agent
+ */
+@DisplayName("`FullMenuListViewProjection` should")
+class FullMenuListViewProjectionTest {
+
+    private static final MenuId OTHER_MENU_ID =
+            MenuId.newBuilder(MENU_ID)
+                  .setWhenImported(Timestamp.newBuilder()
+                                            .setSeconds(MENU_ID.getWhenImported()
+                                                               .getSeconds() + 1))
+                  .build();
+
+    private static final MenuDateRange NEXT_WEEK =
+            MenuDateRange.newBuilder()
+                         .setRangeStart(addDays(TOMORROW, 8))
+                         .setRangeEnd(addDays(TOMORROW, 14))
+                         .build();
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private CommandBus commandBus;
+    private FullMenuListViewRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new VendorRepository());
+        repository = new FullMenuListViewRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+        post(addVendorInstance());
+    }
+
+    @Test
+    @DisplayName("list the imported menus in the order of the import")
+    void listImportedMenus() {
+        post(importMenuInstance());
+        post(importMenuInstance(VENDOR_ID, USER_ID, OTHER_MENU_ID, DISH1, DISH2));
+
+        final FullMenuListView view = repository.getView();
+        assertEquals(2, view.getVersion());
+        assertEquals(MENU_ID, view.getMenu(0)
+                                  .getMenuId());
+        assertFalse(view.getMenu(0)
+                        .hasMenuDateRange());
+        assertEquals(DISH2.getName(), view.getMenu(0)
+                                          .getDish(1)
+                                          .getName());
+        assertEquals(OTHER_MENU_ID, view.getMenu(1)
+                                        .getMenuId());
+    }
+
+    @Test
+    @DisplayName("sort the menus by the date range")
+    void sortByDateRange() {
+        post(importMenuInstance());
+        post(importMenuInstance(VENDOR_ID, USER_ID, OTHER_MENU_ID, DISH1, DISH2));
+        post(setDateRangeForMenuInstance(VENDOR_ID, OTHER_MENU_ID, USER_ID, NEXT_WEEK));
+
+        final FullMenuListView withOneRange = repository.getView();
+        assertEquals(OTHER_MENU_ID, withOneRange.getMenu(0)
+                                                .getMenuId());
+        assertEquals(MENU_ID, withOneRange.getMenu(1)
+                                          .getMenuId());
+
+        post(setDateRangeForMenuInstance(VENDOR_ID, MENU_ID, USER_ID, WEEK_FROM_TOMORROW));
+
+        final FullMenuListView view = repository.getView();
+        assertEquals(4, view.getVersion());
+        assertEquals(2, view.getMenuCount());
+        assertEquals(WEEK_FROM_TOMORROW, view.getMenu(0)
+                                             .getMenuDateRange());
+        assertEquals(NEXT_WEEK, view.getMenu(1)
+                                    .getMenuDateRange());
+    }
+
+    @Test
+    @DisplayName("keep the snapshots of the tenants apart")
+    void keepTenantSnapshotsApart() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   true));
+        boundedContext.register(new VendorRepository());
+        final FullMenuListViewRepository multitenantRepository = new FullMenuListViewRepository();
+        boundedContext.register(multitenantRepository);
+        final TenantId firstTenant = tenantId("first");
+        final TenantId secondTenant = tenantId("second");
+        final ActorRequestFactory firstRequestFactory =
+                TestActorRequestFactory.newInstance(getClass(), firstTenant);
+        final CommandBus multitenantCommandBus = boundedContext.getCommandBus();
+        multitenantCommandBus.post(firstRequestFactory.command()
+                                                      .create(addVendorInstance()),
+                                   noOpObserver());
+        multitenantCommandBus.post(firstRequestFactory.command()
+                                                      .create(importMenuInstance()),
+                                   noOpObserver());
+
+        assertEquals(1, viewOf(multitenantRepository, firstTenant).getMenuCount());
+        assertEquals(0, viewOf(multitenantRepository, secondTenant).getMenuCount());
+    }
+
+    private static FullMenuListView viewOf(FullMenuListViewRepository repository,
+                                           TenantId tenantId) {
+        final List<FullMenuListView> views = new ArrayList<>(1);
+        Tenants.runAs(tenantId, () -> views.add(repository.getView()));
+        return views.get(0);
+    }
+
+    private static TenantId tenantId(String value) {
+        return TenantId.newBuilder()
+                       .setValue(value)
+                       .build();
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import io.spine.time.LocalDate;
+import javaclasses.mealorder.MenuDateRange;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.VendorName;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import javaclasses.mealorder.q.projection.MenuCalendarView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static io.spine.time.LocalDates.addDays;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.EMAIL;
+import static javaclasses.mealorder.testdata.TestValues.MENU_ID;
+import static javaclasses.mealorder.testdata.TestValues.PHONE_NUMBER1;
+import static javaclasses.mealorder.testdata.TestValues.PHONE_NUMBER2;
+import static javaclasses.mealorder.testdata.TestValues.PO_DAILY_DEADLINE;
+import static javaclasses.mealorder.testdata.TestValues.TOMORROW;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestValues.WEEK_FROM_TOMORROW;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`MenuCalendarMonthViewProjection` should")
+class MenuCalendarMonthViewProjectionTest {
+
+    private static final VendorId OTHER_VENDOR_ID = VendorId.newBuilder()
+                                                            .setValue("vendor:other")
+                                                            .build();
+
+    private static final MenuId OTHER_MENU_ID = MenuId.newBuilder()
+                                                      .setVendorId(OTHER_VENDOR_ID)
+                                                      .setWhenImported(Timestamp.newBuilder()
+                                                                                .setSeconds(1))
+                                                      .build();
+
+    /** The date range starting after the {@code WEEK_FROM_TOMORROW} range. */
+    private static final MenuDateRange NEXT_WEEK = MenuDateRange.newBuilder()
+                                                                .setRangeStart(addDays(TOMORROW, 8))
+                                                                .setRangeEnd(addDays(TOMORROW, 14))
+                                                                .build();
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private CommandBus commandBus;
+    private MenuCalendarMonthViewRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new VendorRepository());
+        repository = new MenuCalendarMonthViewRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+    }
+
+    @Test
+    @DisplayName("show no menus in the empty calendar")
+    void showNoMenus() {
+        final MenuCalendarView calendar = repository.getCalendarView(TOMORROW);
+
+        assertEquals(MenuCalendars.CALENDAR_DAYS, calendar.getCalendarItemCount());
+        assertEquals(TOMORROW, calendar.getCalendarItem(0)
+                                       .getDate());
+        assertFalse(calendar.getCalendarItem(0)
+                            .getHasMenu());
+    }
+
+    @Test
+    @DisplayName("show the days of the menu date range")
+    void showMenuDays() {
+        addVendorWithMenu(VENDOR_ID, MENU_ID);
+        post(setDateRangeForMenuInstance(VENDOR_ID, MENU_ID, USER_ID, WEEK_FROM_TOMORROW));
+
+        assertHasMenus(repository.getCalendarView(TOMORROW), true);
+        final MenuCalendarView fromToday = repository.getCalendarView();
+        assertFalse(fromToday.getCalendarItem(0)
+                             .getHasMenu());
+        assertTrue(fromToday.getCalendarItem(1)
+                            .getHasMenu());
+    }
+
+    @Test
+    @DisplayName("clear the days of the previous menu date range")
+    void clearPreviousDays() {
+        addVendorWithMenu(VENDOR_ID, MENU_ID);
+        post(setDateRangeForMenuInstance(VENDOR_ID, MENU_ID, USER_ID, WEEK_FROM_TOMORROW));
+        post(setDateRangeForMenuInstance(VENDOR_ID, MENU_ID, USER_ID, NEXT_WEEK));
+
+        assertHasMenus(repository.getCalendarView(TOMORROW), false);
+        assertTrue(repository.getCalendarView(NEXT_WEEK.getRangeStart())
+                             .getCalendarItem(0)
+                             .getHasMenu());
+    }
+
+    @Test
+    @DisplayName("keep the days of the menus of other vendors")
+    void keepOtherVendorDays() {
+        addVendorWithMenu(VENDOR_ID, MENU_ID);
+        addVendorWithMenu(OTHER_VENDOR_ID, OTHER_MENU_ID);
+        post(setDateRangeForMenuInstance(VENDOR_ID, MENU_ID, USER_ID, WEEK_FROM_TOMORROW));
+        post(setDateRangeForMenuInstance(OTHER_VENDOR_ID, OTHER_MENU_ID, USER_ID,
+                                         WEEK_FROM_TOMORROW));
+        post(setDateRangeForMenuInstance(VENDOR_ID, MENU_ID, USER_ID, NEXT_WEEK));
+
+        assertHasMenus(repository.getCalendarView(TOMORROW), true);
+    }
+
+    private static void assertHasMenus(MenuCalendarView calendar, boolean expected) {
+        assertEquals(MenuCalendars.CALENDAR_DAYS, calendar.getCalendarItemCount());
+        for (int i = 0; i < calendar.getCalendarItemCount(); i++) {
+            final LocalDate date = calendar.getCalendarItem(i)
+                                           .getDate();
+            assertEquals(expected, calendar.getCalendarItem(i)
+                                           .getHasMenu(), "Unexpected menus on " + date);
+        }
+    }
+
+    private void addVendorWithMenu(VendorId vendorId, MenuId menuId) {
+        final VendorName vendorName = VendorName.newBuilder()
+                                                .setValue(vendorId.getValue())
+                                                .build();
+        post(addVendorInstance(vendorId, USER_ID, vendorName, EMAIL, PO_DAILY_DEADLINE,
+                               PHONE_NUMBER1, PHONE_NUMBER2));
+        post(importMenuInstance(vendorId, USER_ID, menuId, DISH1, DISH2));
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
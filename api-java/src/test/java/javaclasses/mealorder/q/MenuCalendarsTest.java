@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.time.LocalDate;
+import io.spine.time.MonthOfYear;
+import javaclasses.mealorder.LocalMonth;
+import javaclasses.mealorder.MenuCalendarMonthId;
+import javaclasses.mealorder.MenuDateRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import static io.spine.test.Tests.assertHasPrivateParameterlessCtor;
+import static javaclasses.mealorder.q.MenuCalendars.dayMask;
+import static javaclasses.mealorder.q.MenuCalendars.hasDay;
+import static javaclasses.mealorder.q.MenuCalendars.monthIdOf;
+import static javaclasses.mealorder.q.MenuCalendars.monthIdsOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`MenuCalendars` should")
+class MenuCalendarsTest {
+
+    @Test
+    @DisplayName("have the private constructor")
+    void havePrivateConstructor() {
+        assertHasPrivateParameterlessCtor(MenuCalendars.class);
+    }
+
+    @Test
+    @DisplayName("set the days of the range within the month")
+    void setDaysWithinMonth() {
+        final MenuDateRange range = rangeOf(date(2018, MonthOfYear.MARCH, 5),
+                                            date(2018, MonthOfYear.MARCH, 7));
+
+        final int mask = dayMask(range, monthOf(2018, MonthOfYear.MARCH));
+
+        assertEquals(0b111_0000, mask);
+        assertEquals(0, dayMask(range, monthOf(2018, MonthOfYear.APRIL)));
+    }
+
+    @Test
+    @DisplayName("clip the range to the month")
+    void clipRange() {
+        final MenuDateRange range = rangeOf(date(2018, MonthOfYear.JANUARY, 30),
+                                            date(2018, MonthOfYear.MARCH, 1));
+
+        assertEquals(0b11 << 29, dayMask(range, monthOf(2018, MonthOfYear.JANUARY)));
+        assertEquals((1 << 28) - 1, dayMask(range, monthOf(2018, MonthOfYear.FEBRUARY)));
+        assertEquals(1, dayMask(range, monthOf(2018, MonthOfYear.MARCH)));
+    }
+
+    @Test
+    @DisplayName("obtain the months of the range crossing the year")
+    void obtainMonths() {
+        final MenuDateRange range = rangeOf(date(2018, MonthOfYear.DECEMBER, 30),
+                                            date(2019, MonthOfYear.JANUARY, 2));
+
+        final Set<MenuCalendarMonthId> months = monthIdsOf(range);
+
+        assertEquals(2, months.size());
+        final Iterator<MenuCalendarMonthId> iterator = months.iterator();
+        assertEquals(monthIdOf(date(2018, MonthOfYear.DECEMBER, 1)), iterator.next());
+        assertEquals(monthIdOf(date(2019, MonthOfYear.JANUARY, 1)), iterator.next());
+    }
+
+    @Test
+    @DisplayName("check the day in the mask")
+    void checkDay() {
+        final int mask = 0b101;
+
+        assertTrue(hasDay(mask, 1));
+        assertFalse(hasDay(mask, 2));
+        assertTrue(hasDay(mask, 3));
+        assertFalse(hasDay(mask, 31));
+    }
+
+    private static LocalMonth monthOf(int year, MonthOfYear month) {
+        return monthIdOf(date(year, month, 1)).getMonth();
+    }
+
+    private static MenuDateRange rangeOf(LocalDate start, LocalDate end) {
+        return MenuDateRange.newBuilder()
+                            .setRangeStart(start)
+                            .setRangeEnd(end)
+                            .build();
+    }
+
+    private static LocalDate date(int year, MonthOfYear month, int day) {
+        return LocalDate.newBuilder()
+                        .setYear(year)
+                        .setMonth(month)
+                        .setDay(day)
+                        .build();
+    }
+}
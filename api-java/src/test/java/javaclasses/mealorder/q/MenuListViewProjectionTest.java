@@ -0,0 +1,243 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import io.spine.time.LocalDate;
+import javaclasses.mealorder.MenuDateRange;
+import javaclasses.mealorder.MenuListId;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.event.DateRangeForMenuSet;
+import javaclasses.mealorder.c.po.PurchaseOrderRepository;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import javaclasses.mealorder.q.projection.MenuListView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static io.spine.time.LocalDates.addDays;
+import static javaclasses.mealorder.c.vendor.VendorAggregate.MAX_MENU_DATE_RANGE_DAYS;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderInstance;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.MENU_ID;
+import static javaclasses.mealorder.testdata.TestValues.NEW_VENDOR_NAME;
+import static javaclasses.mealorder.testdata.TestValues.TOMORROW;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_NAME;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.updateVendorInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`MenuListViewProjection` should")
+class MenuListViewProjectionTest {
+
+    /** The last date of the {@code WEEK_FROM_TOMORROW} menu date range. */
+    private static final LocalDate WEEK_END = addDays(TOMORROW, 7);
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private BoundedContext boundedContext;
+    private CommandBus commandBus;
+    private VendorMenuRangeIndexRepository vendorMenuRanges;
+    private MenuListViewRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new VendorRepository());
+        boundedContext.register(new PurchaseOrderRepository());
+        vendorMenuRanges = new VendorMenuRangeIndexRepository();
+        boundedContext.register(vendorMenuRanges);
+        commandBus = boundedContext.getCommandBus();
+        repository = new MenuListViewRepository(vendorMenuRanges);
+    }
+
+    @Test
+    @DisplayName("list the menu on each date of its date range")
+    void listMenuOnEachDate() {
+        boundedContext.register(repository);
+        addVendorWithMenu();
+
+        for (LocalDate date = TOMORROW; !date.equals(addDays(WEEK_END, 1));
+             date = addDays(date, 1)) {
+            final MenuListView view = menuList(date);
+            assertEquals(1, view.getMenuCount());
+            final MenuItem menu = view.getMenu(0);
+            assertEquals(MENU_ID, menu.getMenuId());
+            assertEquals(VENDOR_NAME, menu.getVendorName());
+            assertEquals(DISH1.getName(), menu.getDish(0)
+                                              .getName());
+            assertEquals(DISH2.getId(), menu.getDish(1)
+                                            .getId());
+        }
+        assertFalse(repository.find(listIdOf(addDays(WEEK_END, 1)))
+                              .isPresent());
+    }
+
+    @Test
+    @DisplayName("move the menu to the dates of the new date range")
+    void moveMenu() {
+        boundedContext.register(repository);
+        addVendorWithMenu();
+
+        final MenuDateRange nextWeek = MenuDateRange.newBuilder()
+                                                    .setRangeStart(addDays(WEEK_END, 1))
+                                                    .setRangeEnd(addDays(WEEK_END, 7))
+                                                    .build();
+        post(setDateRangeForMenuInstance(VENDOR_ID, MENU_ID, USER_ID, nextWeek));
+
+        assertEquals(0, menuList(TOMORROW).getMenuCount());
+        assertEquals(0, menuList(WEEK_END).getMenuCount());
+        assertEquals(MENU_ID, menuList(addDays(WEEK_END, 1)).getMenu(0)
+                                                            .getMenuId());
+        assertEquals(MENU_ID, menuList(addDays(WEEK_END, 7)).getMenu(0)
+                                                            .getMenuId());
+    }
+
+    @Test
+    @DisplayName("rename the vendor of the listed menus")
+    void renameVendor() {
+        boundedContext.register(repository);
+        addVendorWithMenu();
+
+        post(updateVendorInstance());
+
+        assertEquals(NEW_VENDOR_NAME, menuList(TOMORROW).getMenu(0)
+                                                        .getVendorName());
+        assertEquals(NEW_VENDOR_NAME, menuList(WEEK_END).getMenu(0)
+                                                        .getVendorName());
+    }
+
+    @Test
+    @DisplayName("route the vendor update to the lists of the dates of the vendor menus")
+    void routeVendorUpdateByMenuDates() {
+        boundedContext.register(repository);
+        addVendorWithMenu();
+        final MenuDateRange nextWeek = MenuDateRange.newBuilder()
+                                                    .setRangeStart(addDays(WEEK_END, 1))
+                                                    .setRangeEnd(addDays(WEEK_END, 7))
+                                                    .build();
+        post(setDateRangeForMenuInstance(VENDOR_ID, MENU_ID, USER_ID, nextWeek));
+
+        final Set<MenuListId> listIds =
+                MenuListViewRepository.listIdsOf(vendorMenuRanges.findMenuDateRanges(VENDOR_ID));
+
+        assertEquals(7, listIds.size());
+        assertFalse(listIds.contains(listIdOf(WEEK_END)));
+        assertTrue(listIds.contains(listIdOf(addDays(WEEK_END, 1))));
+        assertTrue(listIds.contains(listIdOf(addDays(WEEK_END, 7))));
+    }
+
+    @Test
+    @DisplayName("update at most the views of two longest date ranges upon a date range change")
+    void boundFanOut() {
+        final MenuDateRange longest = rangeOf(TOMORROW, MAX_MENU_DATE_RANGE_DAYS);
+        final MenuDateRange nextLongest =
+                rangeOf(addDays(TOMORROW, MAX_MENU_DATE_RANGE_DAYS), MAX_MENU_DATE_RANGE_DAYS);
+        final DateRangeForMenuSet event = DateRangeForMenuSet.newBuilder()
+                                                             .setVendorId(VENDOR_ID)
+                                                             .setMenuId(MENU_ID)
+                                                             .setMenuDateRange(nextLongest)
+                                                             .setPreviousMenuDateRange(longest)
+                                                             .build();
+
+        assertEquals(2 * MAX_MENU_DATE_RANGE_DAYS, MenuListViewRepository.listIdsOf(event)
+                                                                         .size());
+    }
+
+    @Test
+    @DisplayName("drop the menu of the vendor after the purchase order is created")
+    void dropMenuAfterPurchaseOrderCreated() {
+        boundedContext.register(repository);
+        addVendorWithMenu();
+
+        post(createPurchaseOrderInstance());
+
+        assertEquals(0, menuList(TOMORROW).getMenuCount());
+        assertEquals(1, menuList(WEEK_END).getMenuCount());
+    }
+
+    @Test
+    @DisplayName("be rebuilt from the event store")
+    void rebuild() {
+        addVendorWithMenu();
+        boundedContext.register(repository);
+
+        repository.rebuild();
+
+        assertEquals(MENU_ID, menuList(TOMORROW).getMenu(0)
+                                                .getMenuId());
+        assertEquals(MENU_ID, menuList(WEEK_END).getMenu(0)
+                                                .getMenuId());
+    }
+
+    private static MenuDateRange rangeOf(LocalDate start, int days) {
+        return MenuDateRange.newBuilder()
+                            .setRangeStart(start)
+                            .setRangeEnd(addDays(start, days - 1))
+                            .build();
+    }
+
+    private void addVendorWithMenu() {
+        post(addVendorInstance());
+        post(importMenuInstance());
+        post(setDateRangeForMenuInstance());
+    }
+
+    private MenuListView menuList(LocalDate date) {
+        final Optional<MenuListViewProjection> projection = repository.find(listIdOf(date));
+        assertTrue(projection.isPresent());
+        return projection.get()
+                         .getState();
+    }
+
+    private static MenuListId listIdOf(LocalDate date) {
+        return MenuListId.newBuilder()
+                         .setDate(date)
+                         .build();
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
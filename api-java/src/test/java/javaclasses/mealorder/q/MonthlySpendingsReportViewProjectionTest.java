@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.money.Currency;
+import io.spine.money.Money;
+import io.spine.server.BoundedContext;
+import io.spine.server.command.TestEventFactory;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.event.EventBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.Dish;
+import javaclasses.mealorder.MonthlySpendingsReportId;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.command.CreatePurchaseOrder;
+import javaclasses.mealorder.c.event.PurchaseOrderDelivered;
+import javaclasses.mealorder.c.po.PurchaseOrderRepository;
+import javaclasses.mealorder.q.projection.MonthlySpendingsReportView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static io.spine.time.Time.getCurrentTime;
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.q.MonthlySpendingsReportViewRepository.reportIdOf;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.cancelPOWithCustomReasonInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.markPurchaseOrderAsDeliveredInstance;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.ORDER;
+import static javaclasses.mealorder.testdata.TestValues.PURCHASE_ORDER_ID;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`MonthlySpendingsReportViewProjection` should")
+class MonthlySpendingsReportViewProjectionTest {
+
+    private static final long PRICE = 1_250;
+    private static final int QUANTITY = 2;
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private final TestEventFactory eventFactory = TestEventFactory.newInstance(getClass());
+
+    private CommandBus commandBus;
+    private EventBus eventBus;
+    private MonthlySpendingsReportViewRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new PurchaseOrderRepository());
+        repository = new MonthlySpendingsReportViewRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+        eventBus = boundedContext.getEventBus();
+    }
+
+    @Test
+    @DisplayName("count the spendings of the delivered purchase order")
+    void countDelivered() {
+        post(createPricedPurchaseOrder());
+        post(markPurchaseOrderAsDeliveredInstance());
+
+        final MonthlySpendingsReportId reportId = reportIdOf(PURCHASE_ORDER_ID.getPoDate());
+        final Optional<MonthlySpendingsReportViewProjection> projection =
+                repository.find(reportId);
+        assertTrue(projection.isPresent());
+        final MonthlySpendingsReportView view = projection.get()
+                                                          .getState();
+        assertEquals(reportId, view.getReportId());
+        assertEquals(1, view.getUserSpendingCount());
+        final UserSpendings spendings = view.getUserSpending(0);
+        assertEquals(USER_ID, spendings.getId());
+        assertEquals(PRICE * QUANTITY, spendings.getAmount()
+                                                .getAmount());
+    }
+
+    @Test
+    @DisplayName("not count the spendings of the canceled purchase order")
+    void notCountCanceled() {
+        post(createPricedPurchaseOrder());
+        post(cancelPOWithCustomReasonInstance());
+
+        final MonthlySpendingsReportView view = report();
+        assertEquals(0, view.getUserSpendingCount());
+        assertEquals(0, view.getPendingSpendingCount());
+    }
+
+    @Test
+    @DisplayName("count the spendings of the delivered purchase order once")
+    void countDeliveredOnce() {
+        post(createPricedPurchaseOrder());
+        final PurchaseOrderDelivered delivered =
+                PurchaseOrderDelivered.newBuilder()
+                                      .setId(PURCHASE_ORDER_ID)
+                                      .setWhoMarkedAsDelivered(USER_ID)
+                                      .setWhenDelievered(getCurrentTime())
+                                      .build();
+        eventBus.post(eventFactory.createEvent(delivered), noOpObserver());
+        eventBus.post(eventFactory.createEvent(delivered), noOpObserver());
+
+        final MonthlySpendingsReportView view = report();
+        assertEquals(1, view.getUserSpendingCount());
+        assertEquals(PRICE * QUANTITY, view.getUserSpending(0)
+                                           .getAmount()
+                                           .getAmount());
+        assertEquals(0, view.getPendingSpendingCount());
+    }
+
+    private MonthlySpendingsReportView report() {
+        final Optional<MonthlySpendingsReportViewProjection> projection =
+                repository.find(reportIdOf(PURCHASE_ORDER_ID.getPoDate()));
+        assertTrue(projection.isPresent());
+        return projection.get()
+                         .getState();
+    }
+
+    private static CreatePurchaseOrder createPricedPurchaseOrder() {
+        final Money price = Money.newBuilder()
+                                 .setCurrency(Currency.USD)
+                                 .setAmount(PRICE)
+                                 .build();
+        final Dish dish = Dish.newBuilder(DISH1)
+                              .setPrice(price)
+                              .build();
+        final Order order = Order.newBuilder(ORDER)
+                                 .clearLine()
+                                 .addLine(lineOf(dish, QUANTITY))
+                                 .build();
+        return CreatePurchaseOrder.newBuilder(createPurchaseOrderInstance())
+                                  .clearOrder()
+                                  .addOrder(order)
+                                  .build();
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.OrderListId;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.order.OrderRepository;
+import javaclasses.mealorder.c.po.PurchaseOrderRepository;
+import javaclasses.mealorder.c.vendor.MenuAvailabilityIndex;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import javaclasses.mealorder.q.projection.OrderListView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.addDishToOrderInstance;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.cancelOrderInstance;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.createOrderInstance;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.removeDishFromOrderInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderInstance;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`OrderListViewProjection` should")
+class OrderListViewProjectionTest {
+
+    private static final OrderListId LIST_ID = OrderListId.newBuilder()
+                                                          .setOrderDate(ORDER_ID.getOrderDate())
+                                                          .setUserId(ORDER_ID.getUserId())
+                                                          .build();
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private CommandBus commandBus;
+    private OrderListViewRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        final VendorRepository vendorRepository = new VendorRepository();
+        final MenuAvailabilityIndex menuAvailabilityIndex =
+                new MenuAvailabilityIndex(vendorRepository);
+        boundedContext.register(vendorRepository);
+        boundedContext.register(new OrderRepository(menuAvailabilityIndex));
+        boundedContext.register(new PurchaseOrderRepository());
+        boundedContext.getEventBus()
+                      .register(menuAvailabilityIndex);
+        repository = new OrderListViewRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+
+        post(addVendorInstance());
+        post(importMenuInstance());
+        post(setDateRangeForMenuInstance());
+        post(createOrderInstance());
+    }
+
+    @Test
+    @DisplayName("list the created order")
+    void listCreatedOrder() {
+        final OrderListView view = orderList();
+
+        assertEquals(LIST_ID, view.getListId());
+        assertEquals(1, view.getOrderCount());
+        final OrderItem order = view.getOrder(0);
+        assertEquals(ORDER_ID, order.getId());
+        assertEquals(0, order.getDishCount());
+        assertFalse(order.getIsProcessed());
+    }
+
+    @Test
+    @DisplayName("count the added and the removed dishes")
+    void countDishes() {
+        post(addDishToOrderInstance(ORDER_ID, DISH1));
+        post(addDishToOrderInstance(ORDER_ID, DISH2));
+        post(addDishToOrderInstance(ORDER_ID, DISH1));
+
+        final OrderItem order = orderList().getOrder(0);
+        assertEquals(2, order.getDishCount());
+        assertEquals(DISH1.getId(), order.getDish(0)
+                                         .getId());
+        assertEquals(2, order.getDish(0)
+                             .getQuantity());
+        assertEquals(1, order.getDish(1)
+                             .getQuantity());
+
+        post(removeDishFromOrderInstance(ORDER_ID, DISH1.getId()));
+        post(removeDishFromOrderInstance(ORDER_ID, DISH2.getId()));
+
+        final OrderItem changedOrder = orderList().getOrder(0);
+        assertEquals(1, changedOrder.getDishCount());
+        assertEquals(DISH1.getName(), changedOrder.getDish(0)
+                                                  .getName());
+        assertEquals(1, changedOrder.getDish(0)
+                                    .getQuantity());
+    }
+
+    @Test
+    @DisplayName("remove the canceled order")
+    void removeCanceledOrder() {
+        post(cancelOrderInstance(ORDER_ID));
+
+        assertEquals(0, orderList().getOrderCount());
+    }
+
+    @Test
+    @DisplayName("mark the order processed after the purchase order is created")
+    void markProcessedOrder() {
+        post(addDishToOrderInstance(ORDER_ID, DISH1));
+        post(createPurchaseOrderInstance());
+
+        assertTrue(orderList().getOrder(0)
+                              .getIsProcessed());
+    }
+
+    private OrderListView orderList() {
+        final Optional<OrderListViewProjection> projection = repository.find(LIST_ID);
+        assertTrue(projection.isPresent());
+        return projection.get()
+                         .getState();
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
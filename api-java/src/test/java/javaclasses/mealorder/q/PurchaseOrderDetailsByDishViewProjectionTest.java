@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.net.EmailAddress;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.UserId;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.command.CreatePurchaseOrder;
+import javaclasses.mealorder.c.po.PurchaseOrderRepository;
+import javaclasses.mealorder.q.projection.PurchaseOrderDetailsByDishView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.PurchaseOrderStatus.CANCELED;
+import static javaclasses.mealorder.PurchaseOrderStatus.DELIVERED;
+import static javaclasses.mealorder.PurchaseOrderStatus.INVALID;
+import static javaclasses.mealorder.PurchaseOrderStatus.SENT;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.cancelPOWithCustomReasonInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderWithInvalidOrdersInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.markPurchaseOrderAsDeliveredInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.markPurchaseOrderAsValidInstance;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.ORDER;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID;
+import static javaclasses.mealorder.testdata.TestValues.PURCHASE_ORDER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`PurchaseOrderDetailsByDishViewProjection` should")
+class PurchaseOrderDetailsByDishViewProjectionTest {
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private CommandBus commandBus;
+    private PurchaseOrderDetailsByDishViewRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new PurchaseOrderRepository());
+        repository = new PurchaseOrderDetailsByDishViewRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+    }
+
+    @Test
+    @DisplayName("count the dishes of all the orders")
+    void countDishes() {
+        final Order otherOrder = Order.newBuilder(ORDER)
+                                      .setId(OrderId.newBuilder(ORDER_ID)
+                                                    .setUserId(otherUserId()))
+                                      .clearLine()
+                                      .addLine(lineOf(DISH1, 2))
+                                      .addLine(lineOf(DISH2, 1))
+                                      .build();
+        final CreatePurchaseOrder cmd = CreatePurchaseOrder.newBuilder(
+                createPurchaseOrderInstance())
+                                                           .addOrder(otherOrder)
+                                                           .build();
+        post(cmd);
+
+        final PurchaseOrderDetailsByDishView view = view();
+        assertEquals(PURCHASE_ORDER_ID, view.getId());
+        assertEquals(SENT, view.getPurchaseOrderStatus());
+        assertEquals(2, view.getDishCount());
+        assertEquals(DISH1.getId(), view.getDish(0)
+                                        .getId());
+        assertEquals(3, view.getDish(0)
+                            .getQuantity());
+        assertEquals(DISH2.getId(), view.getDish(1)
+                                        .getId());
+        assertEquals(1, view.getDish(1)
+                            .getQuantity());
+    }
+
+    @Test
+    @DisplayName("follow the status of the invalid purchase order")
+    void followInvalidStatus() {
+        post(createPurchaseOrderWithInvalidOrdersInstance());
+        assertEquals(INVALID, view().getPurchaseOrderStatus());
+
+        post(markPurchaseOrderAsValidInstance());
+        assertEquals(SENT, view().getPurchaseOrderStatus());
+
+        post(markPurchaseOrderAsDeliveredInstance());
+        assertEquals(DELIVERED, view().getPurchaseOrderStatus());
+    }
+
+    @Test
+    @DisplayName("clear the dishes of the canceled purchase order")
+    void clearCanceled() {
+        post(createPurchaseOrderInstance());
+        post(cancelPOWithCustomReasonInstance());
+
+        final PurchaseOrderDetailsByDishView view = view();
+        assertEquals(CANCELED, view.getPurchaseOrderStatus());
+        assertEquals(0, view.getDishCount());
+    }
+
+    private PurchaseOrderDetailsByDishView view() {
+        final Optional<PurchaseOrderDetailsByDishViewProjection> projection =
+                repository.find(PURCHASE_ORDER_ID);
+        assertTrue(projection.isPresent());
+        return projection.get()
+                         .getState();
+    }
+
+    private static UserId otherUserId() {
+        return UserId.newBuilder()
+                     .setEmail(EmailAddress.newBuilder()
+                                           .setValue("other@example.com"))
+                     .build();
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
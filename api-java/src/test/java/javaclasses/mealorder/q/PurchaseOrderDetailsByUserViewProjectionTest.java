@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.net.EmailAddress;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.UserId;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.command.CreatePurchaseOrder;
+import javaclasses.mealorder.c.po.PurchaseOrderRepository;
+import javaclasses.mealorder.q.projection.PurchaseOrderDetailsByUserView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.PurchaseOrderStatus.INVALID;
+import static javaclasses.mealorder.PurchaseOrderStatus.SENT;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.markPurchaseOrderAsValidInstance;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.ORDER;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID;
+import static javaclasses.mealorder.testdata.TestValues.PURCHASE_ORDER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`PurchaseOrderDetailsByUserViewProjection` should")
+class PurchaseOrderDetailsByUserViewProjectionTest {
+
+    private static final int ORDER_COUNT = 5;
+    private static final int INVALID_ORDER_INDEX = 3;
+    private static final int INVALID_QUANTITY = 101;
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private CommandBus commandBus;
+    private PurchaseOrderDetailsByUserViewRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new PurchaseOrderRepository());
+        repository = new PurchaseOrderDetailsByUserViewRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+    }
+
+    @Test
+    @DisplayName("list the dishes of each user")
+    void listUserDishes() {
+        post(createPurchaseOrderInstance());
+
+        final PurchaseOrderDetailsByUserView view = readPage(0, ORDER_COUNT);
+        assertEquals(SENT, view.getPurchaseOrderStatus());
+        assertEquals(1, view.getTotalOrderCount());
+        final UserOrderDetails order = view.getOrder(0);
+        assertEquals(ORDER_ID.getUserId(), order.getId());
+        assertTrue(order.getIsValid());
+        assertEquals(DISH1.getId(), order.getDish(0)
+                                         .getId());
+        assertEquals(1, order.getDish(0)
+                             .getQuantity());
+    }
+
+    @Test
+    @DisplayName("mark the orders failed the validation")
+    void markInvalidOrders() {
+        post(createPurchaseOrderWithInvalidOrder());
+
+        final PurchaseOrderDetailsByUserView view = readPage(0, ORDER_COUNT);
+        assertEquals(INVALID, view.getPurchaseOrderStatus());
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            assertEquals(i != INVALID_ORDER_INDEX, view.getOrder(i)
+                                                       .getIsValid());
+        }
+
+        post(markPurchaseOrderAsValidInstance());
+
+        final PurchaseOrderDetailsByUserView overruled = readPage(0, ORDER_COUNT);
+        assertEquals(SENT, overruled.getPurchaseOrderStatus());
+        assertFalse(overruled.getOrder(INVALID_ORDER_INDEX)
+                             .getIsValid());
+    }
+
+    @Test
+    @DisplayName("read the orders page by page")
+    void readPages() {
+        post(createPurchaseOrderWithInvalidOrder());
+
+        assertEquals(2, readPage(0, 2).getOrderCount());
+        assertEquals(2, readPage(1, 2).getOrderCount());
+        final PurchaseOrderDetailsByUserView lastPage = readPage(2, 2);
+        assertEquals(1, lastPage.getOrderCount());
+        assertEquals(userId(ORDER_COUNT - 1), lastPage.getOrder(0)
+                                                      .getId());
+        assertEquals(ORDER_COUNT, lastPage.getTotalOrderCount());
+        assertEquals(0, readPage(3, 2).getOrderCount());
+    }
+
+    @Test
+    @DisplayName("not read the page of the missing purchase order")
+    void notReadMissing() {
+        assertFalse(repository.readPage(PURCHASE_ORDER_ID, 0, 1)
+                              .isPresent());
+    }
+
+    @Test
+    @DisplayName("not accept invalid page")
+    void notAcceptInvalidPage() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> repository.readPage(PURCHASE_ORDER_ID, -1, 1));
+        assertThrows(IllegalArgumentException.class,
+                     () -> repository.readPage(PURCHASE_ORDER_ID, 0, 0));
+    }
+
+    private static CreatePurchaseOrder createPurchaseOrderWithInvalidOrder() {
+        final CreatePurchaseOrder.Builder result =
+                CreatePurchaseOrder.newBuilder(createPurchaseOrderInstance())
+                                   .clearOrder();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            final int quantity = i == INVALID_ORDER_INDEX ? INVALID_QUANTITY : 1;
+            result.addOrder(Order.newBuilder(ORDER)
+                                 .setId(OrderId.newBuilder(ORDER_ID)
+                                               .setUserId(userId(i)))
+                                 .setLine(0, lineOf(DISH1, quantity)));
+        }
+        return result.build();
+    }
+
+    private PurchaseOrderDetailsByUserView readPage(int pageIndex, int pageSize) {
+        final Optional<PurchaseOrderDetailsByUserView> page =
+                repository.readPage(PURCHASE_ORDER_ID, pageIndex, pageSize);
+        assertTrue(page.isPresent());
+        return page.get();
+    }
+
+    private static UserId userId(int index) {
+        return UserId.newBuilder()
+                     .setEmail(EmailAddress.newBuilder()
+                                           .setValue("user" + index + "@example.com"))
+                     .build();
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import io.spine.time.LocalDate;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.PurchaseOrderListId;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.command.CreatePurchaseOrder;
+import javaclasses.mealorder.c.po.PurchaseOrderRepository;
+import javaclasses.mealorder.q.projection.PurchaseOrderListView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static io.spine.time.LocalDates.addDays;
+import static io.spine.time.LocalDates.subtractDays;
+import static javaclasses.mealorder.PurchaseOrderStatus.DELIVERED;
+import static javaclasses.mealorder.PurchaseOrderStatus.SENT;
+import static javaclasses.mealorder.q.PurchaseOrderListViewRepository.listIdOf;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.markPurchaseOrderAsDeliveredInstance;
+import static javaclasses.mealorder.testdata.TestValues.PURCHASE_ORDER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`PurchaseOrderListViewProjection` should")
+class PurchaseOrderListViewProjectionTest {
+
+    private static final int LAST_DAY_OF_SHORTEST_MONTH = 28;
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private CommandBus commandBus;
+    private PurchaseOrderListViewRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new PurchaseOrderRepository());
+        repository = new PurchaseOrderListViewRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+    }
+
+    @Test
+    @DisplayName("list the purchase order in the list of its month")
+    void listPurchaseOrder() {
+        post(createPurchaseOrderInstance());
+
+        final PurchaseOrderListView view = listOf(PURCHASE_ORDER_ID);
+        assertEquals(listIdOf(PURCHASE_ORDER_ID.getPoDate()), view.getListId());
+        assertEquals(1, view.getPurchaseOrderCount());
+        final PurchaseOrderItem item = view.getPurchaseOrder(0);
+        assertEquals(PURCHASE_ORDER_ID, item.getId());
+        assertEquals(SENT, item.getPurchaseOrderStatus());
+    }
+
+    @Test
+    @DisplayName("update the status of the listed purchase order")
+    void updateStatus() {
+        post(createPurchaseOrderInstance());
+        post(markPurchaseOrderAsDeliveredInstance());
+
+        assertEquals(DELIVERED, listOf(PURCHASE_ORDER_ID).getPurchaseOrder(0)
+                                                         .getPurchaseOrderStatus());
+    }
+
+    @Test
+    @DisplayName("sort the purchase orders by date")
+    void sortByDate() {
+        final LocalDate date = PURCHASE_ORDER_ID.getPoDate();
+        final LocalDate otherDate = date.getDay() < LAST_DAY_OF_SHORTEST_MONTH
+                                    ? addDays(date, 1)
+                                    : subtractDays(date, 1);
+        final CreatePurchaseOrder other = createPurchaseOrderOn(otherDate);
+        final boolean otherIsLater = otherDate.getDay() > date.getDay();
+        if (otherIsLater) {
+            post(other);
+            post(createPurchaseOrderInstance());
+        } else {
+            post(createPurchaseOrderInstance());
+            post(other);
+        }
+
+        final PurchaseOrderListView view = listOf(PURCHASE_ORDER_ID);
+        assertEquals(2, view.getPurchaseOrderCount());
+        final int index = otherIsLater ? 0 : 1;
+        assertEquals(PURCHASE_ORDER_ID, view.getPurchaseOrder(index)
+                                            .getId());
+        assertEquals(other.getId(), view.getPurchaseOrder(1 - index)
+                                        .getId());
+    }
+
+    private static CreatePurchaseOrder createPurchaseOrderOn(LocalDate date) {
+        final CreatePurchaseOrder command = createPurchaseOrderInstance();
+        final PurchaseOrderId id = PurchaseOrderId.newBuilder(command.getId())
+                                                  .setPoDate(date)
+                                                  .build();
+        final Order order = command.getOrder(0);
+        final Order orderOnDate = Order.newBuilder(order)
+                                       .setId(OrderId.newBuilder(order.getId())
+                                                     .setOrderDate(date))
+                                       .build();
+        return CreatePurchaseOrder.newBuilder(command)
+                                  .setId(id)
+                                  .setOrder(0, orderOnDate)
+                                  .build();
+    }
+
+    private PurchaseOrderListView listOf(PurchaseOrderId purchaseOrderId) {
+        final PurchaseOrderListId listId = listIdOf(purchaseOrderId.getPoDate());
+        final Optional<PurchaseOrderListViewProjection> projection = repository.find(listId);
+        assertTrue(projection.isPresent());
+        return projection.get()
+                         .getState();
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
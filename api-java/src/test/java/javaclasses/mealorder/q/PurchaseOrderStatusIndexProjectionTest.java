@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.po.PurchaseOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.PurchaseOrderStatus.CREATED;
+import static javaclasses.mealorder.PurchaseOrderStatus.DELIVERED;
+import static javaclasses.mealorder.PurchaseOrderStatus.INVALID;
+import static javaclasses.mealorder.PurchaseOrderStatus.SENT;
+import static javaclasses.mealorder.PurchaseOrderStatus.VALID;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.cancelPOWithCustomReasonInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderWithInvalidOrdersInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.markPurchaseOrderAsDeliveredInstance;
+import static javaclasses.mealorder.testdata.TestValues.PURCHASE_ORDER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`PurchaseOrderStatusIndexProjection` should")
+class PurchaseOrderStatusIndexProjectionTest {
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private CommandBus commandBus;
+    private PurchaseOrderStatusIndexRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new PurchaseOrderRepository());
+        repository = new PurchaseOrderStatusIndexRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+    }
+
+    @Test
+    @DisplayName("index the sent purchase order by its status only")
+    void indexSent() {
+        post(createPurchaseOrderInstance());
+
+        assertEquals(PURCHASE_ORDER_ID, repository.findPurchaseOrders(SENT)
+                                                  .get(0));
+        assertTrue(repository.findPurchaseOrders(CREATED)
+                             .isEmpty());
+        assertTrue(repository.findPurchaseOrders(VALID)
+                             .isEmpty());
+    }
+
+    @Test
+    @DisplayName("index the invalid purchase order")
+    void indexInvalid() {
+        post(createPurchaseOrderWithInvalidOrdersInstance());
+
+        assertEquals(1, repository.findPurchaseOrders(INVALID)
+                                  .size());
+        assertTrue(repository.findPurchaseOrders(CREATED)
+                             .isEmpty());
+    }
+
+    @Test
+    @DisplayName("drop the delivered purchase order")
+    void dropDelivered() {
+        post(createPurchaseOrderInstance());
+        post(markPurchaseOrderAsDeliveredInstance());
+
+        assertTrue(repository.findPurchaseOrders(SENT)
+                             .isEmpty());
+    }
+
+    @Test
+    @DisplayName("drop the canceled purchase order")
+    void dropCanceled() {
+        post(createPurchaseOrderWithInvalidOrdersInstance());
+        post(cancelPOWithCustomReasonInstance());
+
+        assertTrue(repository.findPurchaseOrders(INVALID)
+                             .isEmpty());
+    }
+
+    @Test
+    @DisplayName("not look up the final statuses")
+    void notLookUpFinalStatuses() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> repository.findPurchaseOrders(DELIVERED));
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
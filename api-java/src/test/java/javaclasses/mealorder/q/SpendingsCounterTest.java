@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import io.spine.money.Currency;
+import io.spine.money.Money;
+import javaclasses.mealorder.Dish;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.UserId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.ORDER;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`SpendingsCounter` should")
+class SpendingsCounterTest {
+
+    @Test
+    @DisplayName("count nothing without orders")
+    void countNothing() {
+        assertTrue(new SpendingsCounter().toUserSpendings()
+                                         .isEmpty());
+    }
+
+    @Test
+    @DisplayName("sum the prices of the ordered dishes by user")
+    void sumPrices() {
+        final UserId otherUser = UserId.newBuilder()
+                                       .setEmail(USER_ID.getEmail()
+                                                        .toBuilder()
+                                                        .setValue("other@example.com"))
+                                       .build();
+        final SpendingsCounter counter = new SpendingsCounter();
+        counter.addAll(order(USER_ID, dish(DISH1, Currency.USD, 250), 2));
+        counter.addAll(order(otherUser, dish(DISH2, Currency.USD, 1_000), 1));
+        counter.addAll(order(USER_ID, dish(DISH2, Currency.USD, 1_000), 3));
+
+        final List<UserSpendings> spendings = counter.toUserSpendings();
+
+        assertEquals(2, spendings.size());
+        assertEquals(USER_ID, spendings.get(0)
+                                       .getId());
+        assertEquals(3_500, spendings.get(0)
+                                     .getAmount()
+                                     .getAmount());
+        assertEquals(Currency.USD, spendings.get(0)
+                                            .getAmount()
+                                            .getCurrency());
+        assertEquals(1_000, spendings.get(1)
+                                     .getAmount()
+                                     .getAmount());
+    }
+
+    @Test
+    @DisplayName("not sum the spendings in different currencies")
+    void notSumDifferentCurrencies() {
+        final SpendingsCounter counter = new SpendingsCounter();
+        counter.addAll(order(USER_ID, dish(DISH1, Currency.USD, 250), 1));
+        final Order order = order(USER_ID, dish(DISH2, Currency.EUR, 250), 1);
+
+        assertThrows(IllegalStateException.class, () -> counter.addAll(order));
+    }
+
+    @Test
+    @DisplayName("not overflow the spendings")
+    void notOverflow() {
+        final SpendingsCounter counter = new SpendingsCounter();
+        final Order order = order(USER_ID, dish(DISH1, Currency.USD, Long.MAX_VALUE / 2), 3);
+
+        assertThrows(ArithmeticException.class, () -> counter.addAll(order));
+    }
+
+    @Test
+    @DisplayName("sum the spendings of the user")
+    void sumSpendings() {
+        final SpendingsCounter counter = new SpendingsCounter();
+        counter.addAll(order(USER_ID, dish(DISH1, Currency.USD, 250), 2));
+        final UserSpendings spendings = counter.toUserSpendings()
+                                               .get(0);
+
+        final UserSpendings sum = SpendingsCounter.sum(spendings, spendings);
+
+        assertEquals(USER_ID, sum.getId());
+        assertEquals(1_000, sum.getAmount()
+                               .getAmount());
+        assertEquals(Currency.USD, sum.getAmount()
+                                      .getCurrency());
+    }
+
+    private static Dish dish(Dish dish, Currency currency, long amount) {
+        final Money price = Money.newBuilder()
+                                 .setCurrency(currency)
+                                 .setAmount(amount)
+                                 .build();
+        return Dish.newBuilder(dish)
+                   .setPrice(price)
+                   .build();
+    }
+
+    private static Order order(UserId userId, Dish dish, int quantity) {
+        return Order.newBuilder(ORDER)
+                    .setId(OrderId.newBuilder(ORDER_ID)
+                                  .setUserId(userId))
+                    .clearLine()
+                    .addLine(lineOf(dish, quantity))
+                    .build();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.core.TenantId;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.Tenants;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import javaclasses.mealorder.q.projection.VendorListView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.testdata.TestValues.EMAIL;
+import static javaclasses.mealorder.testdata.TestValues.NEW_VENDOR_NAME;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_NAME;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.updateVendorInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`VendorListViewProjection` should")
+class VendorListViewProjectionTest {
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private CommandBus commandBus;
+    private VendorListViewRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new VendorRepository());
+        repository = new VendorListViewRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+    }
+
+    @Test
+    @DisplayName("be empty without vendors")
+    void beEmpty() {
+        final VendorListView view = repository.getView();
+
+        assertEquals(0, view.getVendorCount());
+        assertEquals(0, view.getVersion());
+    }
+
+    @Test
+    @DisplayName("list the added vendor")
+    void listAddedVendor() {
+        post(addVendorInstance());
+
+        final VendorListView view = repository.getView();
+        assertEquals(1, view.getVersion());
+        final VendorItem vendor = view.getVendor(0);
+        assertEquals(VENDOR_ID, vendor.getId());
+        assertEquals(VENDOR_NAME, vendor.getVendorName());
+        assertEquals(EMAIL, vendor.getEmail());
+    }
+
+    @Test
+    @DisplayName("update the vendor")
+    void updateVendor() {
+        post(addVendorInstance());
+        post(updateVendorInstance());
+
+        final VendorListView view = repository.getView();
+        assertEquals(2, view.getVersion());
+        assertEquals(1, view.getVendorCount());
+        assertEquals(NEW_VENDOR_NAME, view.getVendor(0)
+                                          .getVendorName());
+    }
+
+    @Test
+    @DisplayName("publish the same snapshot until the next event")
+    void publishSnapshot() {
+        post(addVendorInstance());
+
+        final VendorListView view = repository.getView();
+        assertSame(view, repository.getView());
+        assertFalse(repository.getViewIfChanged(view.getVersion())
+                              .isPresent());
+
+        post(updateVendorInstance());
+
+        assertTrue(repository.getViewIfChanged(view.getVersion())
+                             .isPresent());
+    }
+
+    @Test
+    @DisplayName("keep the snapshots of the tenants apart")
+    void keepTenantSnapshotsApart() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   true));
+        boundedContext.register(new VendorRepository());
+        final VendorListViewRepository multitenantRepository = new VendorListViewRepository();
+        boundedContext.register(multitenantRepository);
+        final TenantId firstTenant = tenantId("first");
+        final TenantId secondTenant = tenantId("second");
+        boundedContext.getCommandBus()
+                      .post(TestActorRequestFactory.newInstance(getClass(), firstTenant)
+                                                   .command()
+                                                   .create(addVendorInstance()),
+                            noOpObserver());
+
+        assertEquals(1, viewOf(multitenantRepository, firstTenant).getVendorCount());
+        assertEquals(0, viewOf(multitenantRepository, secondTenant).getVendorCount());
+    }
+
+    private static VendorListView viewOf(VendorListViewRepository repository,
+                                         TenantId tenantId) {
+        final List<VendorListView> views = new ArrayList<>(1);
+        Tenants.runAs(tenantId, () -> views.add(repository.getView()));
+        return views.get(0);
+    }
+
+    private static TenantId tenantId(String value) {
+        return TenantId.newBuilder()
+                       .setValue(value)
+                       .build();
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.MenuDateRange;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static io.spine.time.LocalDates.addDays;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.INVALID_VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestValues.MENU_ID;
+import static javaclasses.mealorder.testdata.TestValues.NEW_VENDOR_NAME;
+import static javaclasses.mealorder.testdata.TestValues.TOMORROW;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestValues.WEEK_FROM_TOMORROW;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.updateVendorInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`VendorMenuRangeIndexProjection` should")
+class VendorMenuRangeIndexProjectionTest {
+
+    private static final MenuDateRange NEXT_WEEK =
+            MenuDateRange.newBuilder()
+                         .setRangeStart(addDays(TOMORROW, 8))
+                         .setRangeEnd(addDays(TOMORROW, 15))
+                         .build();
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private CommandBus commandBus;
+    private VendorMenuRangeIndexRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new VendorRepository());
+        repository = new VendorMenuRangeIndexRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+        post(addVendorInstance());
+        post(importMenuInstance());
+    }
+
+    @Test
+    @DisplayName("keep the last date range of the menu")
+    void keepLastRange() {
+        post(setDateRangeForMenuInstance());
+        post(setDateRangeForMenuInstance(VENDOR_ID, MENU_ID, USER_ID, NEXT_WEEK));
+
+        assertEquals(ImmutableList.of(NEXT_WEEK), repository.findMenuDateRanges(VENDOR_ID));
+    }
+
+    @Test
+    @DisplayName("keep the date ranges of all the menus of the vendor")
+    void keepRangesOfAllMenus() {
+        final MenuId secondMenuId = MenuId.newBuilder()
+                                          .setVendorId(VENDOR_ID)
+                                          .setWhenImported(Timestamp.newBuilder()
+                                                                    .setSeconds(1))
+                                          .build();
+        post(importMenuInstance(VENDOR_ID, USER_ID, secondMenuId, DISH1, DISH2));
+        post(setDateRangeForMenuInstance());
+        post(setDateRangeForMenuInstance(VENDOR_ID, secondMenuId, USER_ID, NEXT_WEEK));
+
+        assertEquals(ImmutableList.of(WEEK_FROM_TOMORROW, NEXT_WEEK),
+                     repository.findMenuDateRanges(VENDOR_ID));
+    }
+
+    @Test
+    @DisplayName("find the imported menu with the current vendor name")
+    void findMenu() {
+        post(updateVendorInstance());
+
+        final Optional<MenuItem> menu = repository.findMenu(MENU_ID);
+
+        assertTrue(menu.isPresent());
+        assertEquals(NEW_VENDOR_NAME, menu.get()
+                                          .getVendorName());
+        assertEquals(DISH1.getId(), menu.get()
+                                        .getDish(0)
+                                        .getId());
+        final MenuId missingMenuId = MenuId.newBuilder()
+                                           .setVendorId(INVALID_VENDOR_ID)
+                                           .build();
+        assertFalse(repository.findMenu(missingMenuId)
+                              .isPresent());
+    }
+
+    @Test
+    @DisplayName("find no date ranges for the vendor without them")
+    void findNoRanges() {
+        assertTrue(repository.findMenuDateRanges(VENDOR_ID)
+                             .isEmpty());
+        assertTrue(repository.findMenuDateRanges(INVALID_VENDOR_ID)
+                             .isEmpty());
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
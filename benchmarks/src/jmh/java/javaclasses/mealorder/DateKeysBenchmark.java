@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder;
+
+import io.spine.time.LocalDate;
+import io.spine.time.MonthOfYear;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static javaclasses.mealorder.DateKeys.rangeIncludes;
+
+/**
+ * Measures the date comparisons performed upon {@code CreateOrder}
+ * and {@code SetDateRangeForMenu} commands handling.
+ *
+ * <p>Run with the {@code gc} profiler: the {@code gc.alloc.rate.norm} metric
+ * of each benchmark is expected to be close to {@code 0 B/op}.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateKeysBenchmark {
+
+    private final LocalDateComparator comparator = new LocalDateComparator();
+
+    private final LocalDate start = LocalDate.newBuilder()
+                                             .setYear(2018)
+                                             .setMonth(MonthOfYear.MARCH)
+                                             .setDay(12)
+                                             .build();
+
+    private final LocalDate end = LocalDate.newBuilder()
+                                           .setYear(2018)
+                                           .setMonth(MonthOfYear.MARCH)
+                                           .setDay(18)
+                                           .build();
+
+    private final LocalDate orderDate = LocalDate.newBuilder()
+                                                 .setYear(2018)
+                                                 .setMonth(MonthOfYear.MARCH)
+                                                 .setDay(16)
+                                                 .build();
+
+    private final MenuDateRange range = MenuDateRange.newBuilder()
+                                                     .setRangeStart(start)
+                                                     .setRangeEnd(end)
+                                                     .build();
+
+    @Benchmark
+    public int compareWithComparator() {
+        return comparator.compare(start, end);
+    }
+
+    @Benchmark
+    public int encodeKey() {
+        return DateKeys.toKey(orderDate);
+    }
+
+    @Benchmark
+    public boolean checkRangeIncludesDate() {
+        return rangeIncludes(range, orderDate);
+    }
+}
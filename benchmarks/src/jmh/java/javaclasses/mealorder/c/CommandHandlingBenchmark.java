@@ -0,0 +1,324 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.net.EmailAddress;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import io.spine.time.LocalDate;
+import javaclasses.mealorder.Dish;
+import javaclasses.mealorder.DishId;
+import javaclasses.mealorder.MenuDateRange;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.UserId;
+import javaclasses.mealorder.c.command.CreatePurchaseOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static io.spine.time.LocalDates.addDays;
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.addDishToOrderInstance;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.createOrderInstance;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.removeDishFromOrderInstance;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderInstance;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.MENU_ID;
+import static javaclasses.mealorder.testdata.TestValues.ORDER;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID;
+import static javaclasses.mealorder.testdata.TestValues.TOMORROW;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+
+/**
+ * Measures the handling of the commands posted to the {@link BoundedContext}
+ * created by {@link BoundedContexts}.
+ *
+ * <p>Each benchmark uses a single state, so each state has its own {@code BoundedContext}
+ * with the in-memory storage. The context is created anew for each iteration.
+ *
+ * <p>The commands changing an aggregate target a new aggregate upon each invocation,
+ * so the event stream of the measured aggregate does not grow during the measurement.
+ * The only exception is {@code setDateRangeForMenu}: a vendor with hundreds of menus is too
+ * expensive to set up for each invocation. Its menu date range is toggled between two values,
+ * so the number of menus stays the same, and the vendor snapshots bound the replayed events.
+ *
+ * <p>The results are written in JSON to {@code build/reports/jmh/results.json}, so the results
+ * of different releases can be compared.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandHandlingBenchmark {
+
+    /** The number of days between the starts of the neighbour menu date ranges. */
+    private static final int DAYS_PER_MENU = 8;
+
+    /** The duration of a menu date range in days. */
+    private static final int MENU_DAYS = 7;
+
+    /** The sequential number of the first dish filling the order before the measurement. */
+    private static final int FILLER_DISH_NUMBER = 100;
+
+    @Benchmark
+    public void createOrder(VendorState state) {
+        final OrderId orderId = OrderId.newBuilder(ORDER_ID)
+                                       .setUserId(userId(state.nextUser++))
+                                       .build();
+        state.post(createOrderInstance(orderId, MENU_ID));
+    }
+
+    @Benchmark
+    public void setDateRangeForMenu(VendorState state) {
+        state.toggle = !state.toggle;
+        final MenuDateRange range = state.toggle
+                                    ? state.firstToggleRange
+                                    : state.secondToggleRange;
+        state.post(setDateRangeForMenuInstance(VENDOR_ID, state.toggleMenuId, USER_ID, range));
+    }
+
+    @Benchmark
+    public void addDishToOrder(OrderState state) {
+        state.post(addDishToOrderInstance(state.orderId, DISH1));
+    }
+
+    @Benchmark
+    public void removeDishFromOrder(DishToRemoveState state) {
+        state.post(removeDishFromOrderInstance(state.orderId, DISH2.getId()));
+    }
+
+    @Benchmark
+    public void createPurchaseOrder(PurchaseOrderState state) {
+        state.post(state.createPurchaseOrder);
+    }
+
+    /**
+     * The base of the benchmark states holding the {@code BoundedContext}.
+     */
+    @State(Scope.Thread)
+    public abstract static class ContextState {
+
+        private final ActorRequestFactory requestFactory =
+                TestActorRequestFactory.newInstance(CommandHandlingBenchmark.class);
+
+        private CommandBus commandBus;
+
+        @Setup(Level.Iteration)
+        public void setUpContext() {
+            final BoundedContext boundedContext = BoundedContexts.create(
+                    InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                       false));
+            commandBus = boundedContext.getCommandBus();
+        }
+
+        void post(Message commandMessage) {
+            commandBus.post(requestFactory.command()
+                                          .create(commandMessage), noOpObserver());
+        }
+
+        /**
+         * Adds the vendor with the menus.
+         *
+         * <p>The first menu is {@code MENU_ID} available for the week from tomorrow.
+         * The other menus are available for the consecutive weeks after it.
+         *
+         * @param menuCount the number of the menus with the date ranges
+         */
+        void addVendor(int menuCount) {
+            post(addVendorInstance());
+            post(importMenuInstance());
+            post(setDateRangeForMenuInstance());
+            for (int i = 1; i < menuCount; i++) {
+                final MenuId menuId = menuId(i);
+                post(importMenuInstance(VENDOR_ID, USER_ID, menuId, DISH1, DISH2));
+                post(setDateRangeForMenuInstance(VENDOR_ID, menuId, USER_ID, weekRange(i)));
+            }
+        }
+    }
+
+    /**
+     * The state with the vendor having the parameterized number of menus.
+     */
+    public static class VendorState extends ContextState {
+
+        @Param({"1", "50", "500"})
+        private int menuCount;
+
+        private MenuId toggleMenuId;
+        private MenuDateRange firstToggleRange;
+        private MenuDateRange secondToggleRange;
+        private boolean toggle;
+        private int nextUser;
+
+        @Setup(Level.Iteration)
+        public void setUpVendor() {
+            addVendor(menuCount);
+            toggleMenuId = menuId(menuCount);
+            firstToggleRange = weekRange(menuCount);
+            secondToggleRange = weekRange(menuCount + 1);
+            post(importMenuInstance(VENDOR_ID, USER_ID, toggleMenuId, DISH1, DISH2));
+        }
+    }
+
+    /**
+     * The state creating the order having the parameterized number of dishes
+     * before each invocation.
+     *
+     * <p>Posting the commands takes much more than a millisecond, so the invocation level
+     * setup does not distort the measurement.
+     */
+    public static class OrderState extends ContextState {
+
+        @Param({"1", "10", "50"})
+        private int dishesPerOrder;
+
+        private OrderId orderId;
+        private int nextUser;
+
+        @Setup(Level.Iteration)
+        public void setUpVendor() {
+            addVendor(1);
+        }
+
+        @Setup(Level.Invocation)
+        public void setUpOrder() {
+            orderId = OrderId.newBuilder(ORDER_ID)
+                             .setUserId(userId(nextUser++))
+                             .build();
+            post(createOrderInstance(orderId, MENU_ID));
+            for (int i = 0; i < dishesPerOrder; i++) {
+                final Dish dish = Dish.newBuilder(DISH1)
+                                      .setId(DishId.newBuilder(DISH1.getId())
+                                                   .setSequentialNumber(FILLER_DISH_NUMBER + i))
+                                      .build();
+                post(addDishToOrderInstance(orderId, dish));
+            }
+            fillOrder(orderId);
+        }
+
+        /**
+         * Adds the dishes specific for the benchmark to the created order.
+         *
+         * @param orderId the identifier of the order
+         */
+        void fillOrder(OrderId orderId) {
+            // No specific dishes by default.
+        }
+    }
+
+    /**
+     * The state adding the dish to the created order to be removed.
+     */
+    public static class DishToRemoveState extends OrderState {
+
+        @Override
+        void fillOrder(OrderId orderId) {
+            post(addDishToOrderInstance(orderId, DISH2));
+        }
+    }
+
+    /**
+     * The state with the purchase order having the parameterized number of orders.
+     *
+     * <p>A new purchase order is created on each invocation. The purchase orders differ only
+     * in the date, which is also the date of their orders.
+     */
+    public static class PurchaseOrderState extends ContextState {
+
+        @Param({"10", "100", "1000"})
+        private int ordersPerPo;
+
+        private CreatePurchaseOrder createPurchaseOrder;
+        private int nextDay;
+
+        @Setup(Level.Invocation)
+        public void setUpPurchaseOrder() {
+            final LocalDate poDate = addDays(TOMORROW, nextDay++);
+            final CreatePurchaseOrder template = createPurchaseOrderInstance();
+            final CreatePurchaseOrder.Builder builder =
+                    CreatePurchaseOrder.newBuilder(template)
+                                       .setId(PurchaseOrderId.newBuilder(template.getId())
+                                                             .setPoDate(poDate))
+                                       .clearOrder();
+            for (int i = 0; i < ordersPerPo; i++) {
+                final Order order = Order.newBuilder(ORDER)
+                                         .setId(OrderId.newBuilder(ORDER_ID)
+                                                       .setUserId(userId(i))
+                                                       .setOrderDate(poDate))
+                                         .setLine(0, lineOf(DISH1, 1 + i % 3))
+                                         .build();
+                builder.addOrder(order);
+            }
+            createPurchaseOrder = builder.build();
+        }
+    }
+
+    private static UserId userId(int index) {
+        return UserId.newBuilder()
+                     .setEmail(EmailAddress.newBuilder()
+                                           .setValue("user" + index + "@example.com"))
+                     .build();
+    }
+
+    private static MenuId menuId(int index) {
+        return MenuId.newBuilder()
+                     .setVendorId(VENDOR_ID)
+                     .setWhenImported(Timestamp.newBuilder()
+                                               .setSeconds(index))
+                     .build();
+    }
+
+    private static MenuDateRange weekRange(int index) {
+        final LocalDate start = addDays(TOMORROW, index * DAYS_PER_MENU);
+        return MenuDateRange.newBuilder()
+                            .setRangeStart(start)
+                            .setRangeEnd(addDays(start, MENU_DAYS))
+                            .build();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c;
+
+import com.google.protobuf.Message;
+import io.grpc.stub.StreamObserver;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.core.Ack;
+import io.spine.net.EmailAddress;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.UserId;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.addDishToOrderInstance;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.createOrderInstance;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.MENU_ID;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+
+/**
+ * Measures the scaling of the command throughput with the number of the {@link CommandLanes}.
+ *
+ * <p>Each invocation creates a batch of the orders of different users and adds a dish to each
+ * of them, so the two commands of an order are serialized in its lane, while the orders
+ * are spread over the lanes.
+ *
+ * <p>The highest lane queue depth of the trial is reported as the {@code maxQueueDepth}
+ * secondary result.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandLanesBenchmark {
+
+    /** The number of the orders created per invocation. */
+    private static final int ORDERS_PER_BATCH = 256;
+
+    /** The number of the commands posted per order. */
+    private static final int COMMANDS_PER_ORDER = 2;
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_BATCH * COMMANDS_PER_ORDER)
+    public void postOrders(LanesState state, QueueDepth queueDepth) throws InterruptedException {
+        final CountDownLatch handled = new CountDownLatch(ORDERS_PER_BATCH * COMMANDS_PER_ORDER);
+        final StreamObserver<Ack> observer = new CountingObserver(handled);
+        for (int i = 0; i < ORDERS_PER_BATCH; i++) {
+            final OrderId orderId = OrderId.newBuilder(ORDER_ID)
+                                           .setUserId(userId(state.nextUser++))
+                                           .build();
+            state.post(createOrderInstance(orderId, MENU_ID), observer);
+            state.post(addDishToOrderInstance(orderId, DISH1), observer);
+        }
+        handled.await();
+        queueDepth.maxQueueDepth = state.maxQueueDepth();
+    }
+
+    /**
+     * The state with the {@code BoundedContext} and the parameterized number of the lanes.
+     */
+    @State(Scope.Benchmark)
+    public static class LanesState {
+
+        @Param({"1", "2", "4", "8", "16"})
+        private int laneCount;
+
+        private final ActorRequestFactory requestFactory =
+                TestActorRequestFactory.newInstance(CommandLanesBenchmark.class);
+
+        private BoundedContext boundedContext;
+        private CommandLanes lanes;
+        private int nextUser;
+
+        @Setup(Level.Trial)
+        public void setUpLanes() {
+            boundedContext = BoundedContexts.create(
+                    InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                       false));
+            final CommandBus commandBus = boundedContext.getCommandBus();
+            for (Message commandMessage : new Message[]{addVendorInstance(),
+                                                        importMenuInstance(),
+                                                        setDateRangeForMenuInstance()}) {
+                commandBus.post(requestFactory.command()
+                                              .create(commandMessage), noOpObserver());
+            }
+            lanes = new CommandLanes(commandBus, laneCount);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownLanes() throws Exception {
+            lanes.shutdown();
+            lanes.awaitTermination(1, TimeUnit.MINUTES);
+            boundedContext.close();
+        }
+
+        void post(Message commandMessage, StreamObserver<Ack> observer) {
+            lanes.post(requestFactory.command()
+                                     .create(commandMessage), observer);
+        }
+
+        int maxQueueDepth() {
+            int result = 0;
+            for (int lane = 0; lane < lanes.getLaneCount(); lane++) {
+                result = Math.max(result, lanes.getMaxQueueDepth(lane));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The secondary result reporting the highest lane queue depth.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class QueueDepth {
+
+        public int maxQueueDepth;
+    }
+
+    /**
+     * Counts down the latch upon each acknowledgement.
+     */
+    private static class CountingObserver implements StreamObserver<Ack> {
+
+        private final CountDownLatch handled;
+
+        private CountingObserver(CountDownLatch handled) {
+            this.handled = handled;
+        }
+
+        @Override
+        public void onNext(Ack ack) {
+            handled.countDown();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            handled.countDown();
+        }
+
+        @Override
+        public void onCompleted() {
+            // The command is counted upon its acknowledgement.
+        }
+    }
+
+    private static UserId userId(int index) {
+        return UserId.newBuilder()
+                     .setEmail(EmailAddress.newBuilder()
+                                           .setValue("user" + index + "@example.com"))
+                     .build();
+    }
+}
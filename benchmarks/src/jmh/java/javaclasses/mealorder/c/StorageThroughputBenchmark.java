@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c;
+
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.VendorId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.testdata.TestValues.EMAIL;
+import static javaclasses.mealorder.testdata.TestValues.PHONE_NUMBER1;
+import static javaclasses.mealorder.testdata.TestValues.PHONE_NUMBER2;
+import static javaclasses.mealorder.testdata.TestValues.PO_DAILY_DEADLINE;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_NAME;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+
+/**
+ * Compares the command throughput of the {@link BoundedContext} with the in-memory storage
+ * and the one with the JDBC storage.
+ *
+ * <p>The JDBC storage uses the embedded H2 database, so the results show the cost
+ * of the JDBC storage itself rather than of the network round trips to a database server.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageThroughputBenchmark {
+
+    private static final String IN_MEMORY = "in-memory";
+    private static final String JDBC_H2 = "jdbc-h2";
+
+    private static final int POOL_SIZE = 4;
+
+    /**
+     * Adds a new vendor, which stores the new aggregate events and updates the vendor views.
+     */
+    @Benchmark
+    public void addVendor(StorageState state) {
+        final VendorId vendorId = VendorId.newBuilder()
+                                          .setValue("vendor:" + state.nextVendor++)
+                                          .build();
+        state.post(addVendorInstance(vendorId, USER_ID, VENDOR_NAME, EMAIL, PO_DAILY_DEADLINE,
+                                     PHONE_NUMBER1, PHONE_NUMBER2));
+    }
+
+    /**
+     * The state with the {@code BoundedContext} using the parameterized storage.
+     */
+    @State(Scope.Thread)
+    public static class StorageState {
+
+        @Param({IN_MEMORY, JDBC_H2})
+        private String storage;
+
+        private final ActorRequestFactory requestFactory =
+                TestActorRequestFactory.newInstance(StorageThroughputBenchmark.class);
+
+        private DataSource dataSource;
+        private BoundedContext boundedContext;
+        private CommandBus commandBus;
+        private int nextVendor;
+
+        @Setup(Level.Trial)
+        public void setUpContext() {
+            if (JDBC_H2.equals(storage)) {
+                final String url = "jdbc:h2:mem:" + getClass().getSimpleName()
+                        + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+                dataSource = JdbcDataSources.pooled(url, "sa", "", POOL_SIZE);
+                boundedContext = BoundedContexts.createJdbc(dataSource);
+            } else {
+                boundedContext = BoundedContexts.create(
+                        InMemoryStorageFactory.newInstance(
+                                BoundedContext.newName(getClass().getName()), false));
+            }
+            commandBus = boundedContext.getCommandBus();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownContext() throws Exception {
+            boundedContext.close();
+            if (dataSource != null) {
+                ((Closeable) dataSource).close();
+            }
+        }
+
+        void post(Message commandMessage) {
+            commandBus.post(requestFactory.command()
+                                          .create(commandMessage), noOpObserver());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c.po;
+
+import io.spine.net.EmailAddress;
+import javaclasses.mealorder.Dish;
+import javaclasses.mealorder.DishId;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.UserId;
+import javaclasses.mealorder.VendorId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.OrderStatus.ORDER_ACTIVE;
+
+/**
+ * Measures the duplicate dish validation of the orders of a purchase order.
+ *
+ * <p>The {@code groupingBaseline} benchmark reproduces the previous validation, which grouped
+ * the dishes of each order into a map with the boxed counts. Compare its
+ * {@code gc.alloc.rate.norm} with the one of {@code validate}, which runs the sequential
+ * {@link PurchaseOrderValidator} used for such order lists upon the purchase order creation.
+ * The baseline only reads the legacy dishes, so it is meaningful for the {@code legacy} orders.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("deprecation") // Builds the legacy orders with the deprecated dishes.
+public class InvalidOrdersBenchmark {
+
+    private static final int DISHES_PER_MENU = 12;
+    private static final int DISHES_PER_ORDER = 6;
+    private static final int MAX_SINGLE_DISH_COUNT = 20;
+
+    /** Every such order has too many equal dishes. */
+    private static final int INVALID_ORDER_PERIOD = 100;
+
+    @Param({"50", "500", "5000"})
+    private int orderCount;
+
+    /** Whether the orders keep the dishes in the deprecated field. */
+    @Param({"false", "true"})
+    private boolean legacy;
+
+    private final PurchaseOrderValidator validator =
+            new PurchaseOrderValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    private PurchaseOrderId purchaseOrderId;
+    private List<Order> orders;
+
+    @Setup
+    public void setUp() {
+        final VendorId vendorId = VendorId.newBuilder()
+                                          .setValue("vendor:benchmark")
+                                          .build();
+        final MenuId menuId = MenuId.newBuilder()
+                                    .setVendorId(vendorId)
+                                    .build();
+        purchaseOrderId = PurchaseOrderId.newBuilder()
+                                         .setVendorId(vendorId)
+                                         .build();
+        final List<Dish> menu = new ArrayList<>(DISHES_PER_MENU);
+        for (int i = 0; i < DISHES_PER_MENU; i++) {
+            menu.add(Dish.newBuilder()
+                         .setId(DishId.newBuilder()
+                                      .setMenuId(menuId)
+                                      .setSequentialNumber(i))
+                         .setName("dish" + i)
+                         .setCategory("category")
+                         .build());
+        }
+        orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            final Order.Builder order = Order.newBuilder()
+                                             .setId(OrderId.newBuilder()
+                                                           .setVendorId(vendorId)
+                                                           .setUserId(UserId.newBuilder()
+                                                                            .setEmail(email(i))))
+                                             .setStatus(ORDER_ACTIVE);
+            final int quantity = i % INVALID_ORDER_PERIOD == 0
+                                 ? MAX_SINGLE_DISH_COUNT + 1
+                                 : 2;
+            for (int j = 0; j < DISHES_PER_ORDER; j++) {
+                final Dish dish = menu.get((i + j) % DISHES_PER_MENU);
+                if (legacy) {
+                    for (int k = 0; k < quantity; k++) {
+                        order.addDish(dish);
+                    }
+                } else {
+                    order.addLine(lineOf(dish, quantity));
+                }
+            }
+            orders.add(order.build());
+        }
+    }
+
+    @Benchmark
+    public List<Order> validate() {
+        return validator.validate(purchaseOrderId, orders)
+                        .getInvalidOrders();
+    }
+
+    @Benchmark
+    public List<Order> groupingBaseline() {
+        return orders.stream()
+                     .filter(o -> !o.getDishList()
+                                    .stream()
+                                    .collect(Collectors.groupingBy(d -> d,
+                                                                   Collectors.counting()))
+                                    .entrySet()
+                                    .stream()
+                                    .noneMatch(e -> e.getValue() > MAX_SINGLE_DISH_COUNT))
+                     .collect(Collectors.toList());
+    }
+
+    private static EmailAddress email(int index) {
+        return EmailAddress.newBuilder()
+                           .setValue("user" + index + "@example.com")
+                           .build();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.c.po;
+
+import io.spine.net.EmailAddress;
+import io.spine.time.LocalDate;
+import io.spine.time.MonthOfYear;
+import javaclasses.mealorder.Dish;
+import javaclasses.mealorder.DishId;
+import javaclasses.mealorder.MenuId;
+import javaclasses.mealorder.Order;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.PurchaseOrderId;
+import javaclasses.mealorder.UserId;
+import javaclasses.mealorder.VendorId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static javaclasses.mealorder.OrderLines.lineOf;
+import static javaclasses.mealorder.OrderStatus.ORDER_ACTIVE;
+
+/**
+ * Compares the sequential and the parallel validation of the purchase order orders.
+ *
+ * <p>The order count at which the {@code parallel} benchmark becomes faster than
+ * the {@code sequential} one is the crossover point used to choose
+ * {@link PurchaseOrderValidator#DEFAULT_THRESHOLD}.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchaseOrderValidatorBenchmark {
+
+    private static final int DISHES_PER_ORDER = 6;
+
+    @Param({"100", "500", "1000", "2000", "5000", "10000", "50000"})
+    private int orderCount;
+
+    /** The parallelism of the pool used by the parallel validation. */
+    @Param({"4"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private PurchaseOrderValidator sequentialValidator;
+    private PurchaseOrderValidator parallelValidator;
+    private PurchaseOrderId purchaseOrderId;
+    private List<Order> orders;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        sequentialValidator = new PurchaseOrderValidator(pool, Integer.MAX_VALUE);
+        parallelValidator = new PurchaseOrderValidator(pool, 1);
+
+        final VendorId vendorId = VendorId.newBuilder()
+                                          .setValue("vendor:benchmark")
+                                          .build();
+        final LocalDate poDate = LocalDate.newBuilder()
+                                          .setYear(2018)
+                                          .setMonth(MonthOfYear.MARCH)
+                                          .setDay(16)
+                                          .build();
+        purchaseOrderId = PurchaseOrderId.newBuilder()
+                                         .setVendorId(vendorId)
+                                         .setPoDate(poDate)
+                                         .build();
+        final MenuId menuId = MenuId.newBuilder()
+                                    .setVendorId(vendorId)
+                                    .build();
+        orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            final UserId userId = UserId.newBuilder()
+                                        .setEmail(EmailAddress.newBuilder()
+                                                              .setValue("user" + i +
+                                                                                "@example.com"))
+                                        .build();
+            final Order.Builder order = Order.newBuilder()
+                                             .setId(OrderId.newBuilder()
+                                                           .setVendorId(vendorId)
+                                                           .setOrderDate(poDate)
+                                                           .setUserId(userId))
+                                             .setStatus(ORDER_ACTIVE);
+            for (int j = 0; j < DISHES_PER_ORDER; j++) {
+                final Dish dish = Dish.newBuilder()
+                                      .setId(DishId.newBuilder()
+                                                   .setMenuId(menuId)
+                                                   .setSequentialNumber(j))
+                                      .setName("dish" + j)
+                                      .build();
+                order.addLine(lineOf(dish, 1 + (i + j) % 3));
+            }
+            orders.add(order.build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public PurchaseOrderValidation sequential() {
+        return sequentialValidator.validate(purchaseOrderId, orders);
+    }
+
+    @Benchmark
+    public PurchaseOrderValidation parallel() {
+        return parallelValidator.validate(purchaseOrderId, orders);
+    }
+}
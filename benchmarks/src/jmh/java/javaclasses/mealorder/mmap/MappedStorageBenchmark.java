@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.StorageFactory;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.c.vendor.VendorAggregate;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.c.BoundedContexts.createBoundedContext;
+import static javaclasses.mealorder.testdata.TestValues.EMAIL;
+import static javaclasses.mealorder.testdata.TestValues.PHONE_NUMBER1;
+import static javaclasses.mealorder.testdata.TestValues.PHONE_NUMBER2;
+import static javaclasses.mealorder.testdata.TestValues.PO_DAILY_DEADLINE;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_NAME;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.updateVendorInstance;
+
+/**
+ * Compares the aggregate append and replay throughput of the {@link MappedStorageFactory}
+ * and the {@link InMemoryStorageFactory}.
+ *
+ * <p>The append benchmark adds new vendors, so each command is a single synced append.
+ * The replay benchmark loads the vendor having the parameterized number of events.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedStorageBenchmark {
+
+    private static final String IN_MEMORY = "in-memory";
+    private static final String MAPPED = "mmap";
+
+    @Benchmark
+    public void append(StorageState state) {
+        final VendorId vendorId = VendorId.newBuilder()
+                                          .setValue("vendor:" + state.nextVendor++)
+                                          .build();
+        state.post(addVendorInstance(vendorId, USER_ID, VENDOR_NAME, EMAIL, PO_DAILY_DEADLINE,
+                                     PHONE_NUMBER1, PHONE_NUMBER2));
+    }
+
+    @Benchmark
+    public VendorAggregate replay(HistoryState state) {
+        return state.vendorRepository.find(VENDOR_ID)
+                                     .get();
+    }
+
+    /**
+     * The state with the {@code BoundedContext} using the parameterized storage.
+     */
+    @State(Scope.Thread)
+    public static class StorageState {
+
+        @Param({IN_MEMORY, MAPPED})
+        private String storage;
+
+        private final ActorRequestFactory requestFactory =
+                TestActorRequestFactory.newInstance(MappedStorageBenchmark.class);
+
+        final VendorRepository vendorRepository = new VendorRepository();
+
+        private Path directory;
+        private BoundedContext boundedContext;
+        private CommandBus commandBus;
+        private int nextVendor;
+
+        @Setup(Level.Trial)
+        public void setUpContext() throws IOException {
+            final StorageFactory storageFactory;
+            if (MAPPED.equals(storage)) {
+                directory = Files.createTempDirectory(getClass().getSimpleName());
+                storageFactory = MappedStorageFactory.newInstance(
+                        BoundedContext.newName(getClass().getName()), directory);
+            } else {
+                storageFactory = InMemoryStorageFactory.newInstance(
+                        BoundedContext.newName(getClass().getName()), false);
+            }
+            boundedContext = createBoundedContext(storageFactory);
+            boundedContext.register(vendorRepository);
+            commandBus = boundedContext.getCommandBus();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownContext() throws Exception {
+            boundedContext.close();
+            if (directory != null) {
+                delete(directory);
+            }
+        }
+
+        void post(Message commandMessage) {
+            commandBus.post(requestFactory.command()
+                                          .create(commandMessage), noOpObserver());
+        }
+
+        private static void delete(Path directory) throws IOException {
+            final List<Path> paths;
+            try (Stream<Path> stream = Files.walk(directory)) {
+                paths = stream.sorted(Comparator.reverseOrder())
+                              .collect(Collectors.toList());
+            }
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * The state with the vendor having the parameterized number of events.
+     */
+    public static class HistoryState extends StorageState {
+
+        /**
+         * The number of the vendor events, which stays below the snapshot trigger,
+         * so all of them are replayed.
+         */
+        @Param({"1", "10", "90"})
+        private int eventCount;
+
+        @Setup(Level.Trial)
+        public void setUpHistory() {
+            post(addVendorInstance());
+            for (int i = 1; i < eventCount; i++) {
+                post(updateVendorInstance());
+            }
+        }
+    }
+}
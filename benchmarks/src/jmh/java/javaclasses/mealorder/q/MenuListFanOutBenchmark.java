@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.MenuDateRange;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static io.spine.time.LocalDates.addDays;
+import static javaclasses.mealorder.testdata.TestValues.MENU_ID;
+import static javaclasses.mealorder.testdata.TestValues.TOMORROW;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+
+/**
+ * Measures the cost of fanning a menu date range out to the {@link MenuListViewProjection}
+ * views of its dates.
+ *
+ * <p>The date range of the menu is moved between two adjacent ranges of the same length
+ * on each invocation, so each command updates the views of both the ranges. The runs
+ * without the projection show the cost of the command handling alone.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MenuListFanOutBenchmark {
+
+    /** Up to the longest date range of a menu, {@code VendorAggregate.MAX_MENU_DATE_RANGE_DAYS}. */
+    @Param({"1", "7", "31"})
+    private int rangeDays;
+
+    @Param({"true", "false"})
+    private boolean withProjection;
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(MenuListFanOutBenchmark.class);
+
+    private CommandBus commandBus;
+    private MenuDateRange firstRange;
+    private MenuDateRange secondRange;
+    private boolean toggle;
+
+    @Setup
+    public void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new VendorRepository());
+        if (withProjection) {
+            final VendorMenuRangeIndexRepository vendorMenuRanges =
+                    new VendorMenuRangeIndexRepository();
+            boundedContext.register(vendorMenuRanges);
+            boundedContext.register(new MenuListViewRepository(vendorMenuRanges));
+        }
+        commandBus = boundedContext.getCommandBus();
+        firstRange = rangeOf(0);
+        secondRange = rangeOf(rangeDays);
+        post(addVendorInstance());
+        post(importMenuInstance());
+    }
+
+    @Benchmark
+    public void setDateRangeForMenu() {
+        toggle = !toggle;
+        final MenuDateRange range = toggle ? firstRange : secondRange;
+        post(setDateRangeForMenuInstance(VENDOR_ID, MENU_ID, USER_ID, range));
+    }
+
+    private MenuDateRange rangeOf(int firstDay) {
+        return MenuDateRange.newBuilder()
+                            .setRangeStart(addDays(TOMORROW, firstDay))
+                            .setRangeEnd(addDays(TOMORROW, firstDay + rangeDays - 1))
+                            .build();
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.q;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Message;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.net.EmailAddress;
+import io.spine.server.BoundedContext;
+import io.spine.server.commandbus.CommandBus;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.OrderListId;
+import javaclasses.mealorder.UserId;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.order.OrderRepository;
+import javaclasses.mealorder.c.vendor.MenuAvailabilityIndex;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.addDishToOrderInstance;
+import static javaclasses.mealorder.testdata.TestOrderCommandFactory.createOrderInstance;
+import static javaclasses.mealorder.testdata.TestValues.DISH1;
+import static javaclasses.mealorder.testdata.TestValues.DISH2;
+import static javaclasses.mealorder.testdata.TestValues.MENU_ID;
+import static javaclasses.mealorder.testdata.TestValues.ORDER_ID;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+
+/**
+ * Measures the latency of reading the {@link OrderListViewProjection} views
+ * of many users concurrently.
+ *
+ * <p>Each user has an order with two dishes. All the available processors read the order lists
+ * of the randomly chosen users. The sample time mode reports the latency percentiles,
+ * including {@code p0.99}.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class OrderListReadBenchmark {
+
+    @Param({"10000"})
+    private int userCount;
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(OrderListReadBenchmark.class);
+
+    private CommandBus commandBus;
+    private OrderListViewRepository repository;
+    private OrderListId[] listIds;
+
+    @Setup
+    public void setUp() {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        final VendorRepository vendorRepository = new VendorRepository();
+        final MenuAvailabilityIndex menuAvailabilityIndex =
+                new MenuAvailabilityIndex(vendorRepository);
+        boundedContext.register(vendorRepository);
+        boundedContext.register(new OrderRepository(menuAvailabilityIndex));
+        boundedContext.getEventBus()
+                      .register(menuAvailabilityIndex);
+        repository = new OrderListViewRepository();
+        boundedContext.register(repository);
+        commandBus = boundedContext.getCommandBus();
+
+        post(addVendorInstance());
+        post(importMenuInstance());
+        post(setDateRangeForMenuInstance());
+        listIds = new OrderListId[userCount];
+        for (int i = 0; i < userCount; i++) {
+            final OrderId orderId = OrderId.newBuilder(ORDER_ID)
+                                           .setUserId(userId(i))
+                                           .build();
+            post(createOrderInstance(orderId, MENU_ID));
+            post(addDishToOrderInstance(orderId, DISH1));
+            post(addDishToOrderInstance(orderId, DISH2));
+            listIds[i] = OrderListId.newBuilder()
+                                    .setOrderDate(orderId.getOrderDate())
+                                    .setUserId(orderId.getUserId())
+                                    .build();
+        }
+    }
+
+    @Benchmark
+    public Optional<OrderListViewProjection> readOrderList() {
+        final int user = ThreadLocalRandom.current()
+                                          .nextInt(userCount);
+        return repository.find(listIds[user]);
+    }
+
+    private void post(Message commandMessage) {
+        commandBus.post(requestFactory.command()
+                                      .create(commandMessage), noOpObserver());
+    }
+
+    private static UserId userId(int index) {
+        return UserId.newBuilder()
+                     .setEmail(EmailAddress.newBuilder()
+                                           .setValue("user" + index + "@example.com"))
+                     .build();
+    }
+}
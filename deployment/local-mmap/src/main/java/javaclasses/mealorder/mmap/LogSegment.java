@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The memory-mapped file of the fixed capacity holding a part of the {@link SegmentedLog}.
+ *
+ * <p>Each record is written as its length, the CRC32 checksum and the payload.
+ * The unused part of the file is filled with zeros, so the zero length marks
+ * the end of the records.
+ *
+ * <p>The appends are not synchronized. The segment is appended by the {@link SegmentedLog}
+ * holding its lock, while the records already written may be read concurrently.
+ *
+ * @author agent
+ */
+class LogSegment implements AutoCloseable {
+
+    /** The length of the record header: the payload length and the checksum. */
+    static final int HEADER_LENGTH = 2 * Integer.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    /** The position of the next record. */
+    private int position;
+
+    private LogSegment(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Opens the segment file creating it if it does not exist.
+     *
+     * <p>The records of the opened segment are not scanned, so the segment is not ready
+     * for appending until {@link #recover(RecordVisitor)} is called.
+     *
+     * @param file     the segment file
+     * @param capacity the size of the file in bytes
+     * @return the opened segment
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    static LogSegment open(Path file, int capacity) throws IOException {
+        final FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE);
+        try {
+            final MappedByteBuffer buffer = channel.map(READ_WRITE, 0, capacity);
+            return new LogSegment(channel, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Passes the valid records of the segment to the visitor and prepares the segment
+     * for appending after the last of them.
+     *
+     * <p>The scan stops at the first record which is incomplete or has the wrong checksum,
+     * i.e. was torn by a crash. The bytes after the last valid record are cleared,
+     * so the torn record is not mistaken for a valid one after the next appends.
+     *
+     * @param visitor the visitor of the records receiving the record positions
+     */
+    void recover(RecordVisitor visitor) {
+        int current = 0;
+        while (current + HEADER_LENGTH <= capacity) {
+            final int length = buffer.getInt(current);
+            if (length <= 0 || length > capacity - current - HEADER_LENGTH) {
+                break;
+            }
+            final byte[] payload = payloadAt(current, length);
+            if (buffer.getInt(current + Integer.BYTES) != checksum(payload)) {
+                break;
+            }
+            visitor.visit(current, payload);
+            current += HEADER_LENGTH + length;
+        }
+        position = current;
+        clearFrom(current);
+    }
+
+    /**
+     * Tells whether the record with the payload of the specified length fits the segment.
+     */
+    boolean hasRoomFor(int payloadLength) {
+        return payloadLength <= capacity - position - HEADER_LENGTH;
+    }
+
+    /**
+     * Appends the record.
+     *
+     * <p>The record is written to the memory, it becomes durable after {@link #force()}.
+     *
+     * @param payload the record payload
+     * @return the position of the record in the segment
+     */
+    int append(byte[] payload) {
+        final int result = position;
+        final ByteBuffer target = buffer.duplicate();
+        target.position(result + Integer.BYTES);
+        target.putInt(checksum(payload))
+              .put(payload);
+        // The length is written last, so the record is not visible until it is complete.
+        buffer.putInt(result, payload.length);
+        position += HEADER_LENGTH + payload.length;
+        return result;
+    }
+
+    /**
+     * Reads the payload of the record at the specified position.
+     *
+     * @param recordPosition the position returned by {@link #append(byte[])}
+     *                       or passed to the {@link RecordVisitor}
+     * @return the record payload
+     */
+    byte[] read(int recordPosition) {
+        final int length = buffer.getInt(recordPosition);
+        return payloadAt(recordPosition, length);
+    }
+
+    /**
+     * Writes the appended records to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private byte[] payloadAt(int recordPosition, int length) {
+        final byte[] result = new byte[length];
+        final ByteBuffer source = buffer.duplicate();
+        source.position(recordPosition + HEADER_LENGTH);
+        source.get(result);
+        return result;
+    }
+
+    /**
+     * Fills the rest of the segment with zeros writing only the non-zero bytes,
+     * so the pages of the empty tail are not dirtied.
+     */
+    private void clearFrom(int start) {
+        int current = start;
+        for (; current + Long.BYTES <= capacity; current += Long.BYTES) {
+            if (buffer.getLong(current) != 0) {
+                buffer.putLong(current, 0);
+            }
+        }
+        for (; current < capacity; current++) {
+            if (buffer.get(current) != 0) {
+                buffer.put(current, (byte) 0);
+            }
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * The visitor of the records found by the recovery of a segment.
+     */
+    interface RecordVisitor {
+
+        /**
+         * Receives the valid record.
+         *
+         * @param recordPosition the position of the record in the segment
+         * @param payload        the record payload
+         */
+        void visit(int recordPosition, byte[] payload);
+    }
+}
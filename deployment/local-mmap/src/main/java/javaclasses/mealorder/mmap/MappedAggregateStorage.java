@@ -0,0 +1,435 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Parser;
+import io.spine.Identifier;
+import io.spine.server.aggregate.AggregateEventRecord;
+import io.spine.server.aggregate.AggregateReadRequest;
+import io.spine.server.aggregate.AggregateStateRecord;
+import io.spine.server.aggregate.AggregateStorage;
+import io.spine.server.entity.LifecycleFlags;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The single-tenant {@link AggregateStorage} appending the aggregate records
+ * to the {@link SegmentedLog}.
+ *
+ * <p>The log holds the event records, the event counts after the last snapshot and
+ * the lifecycle flags of the aggregates. When the storage is opened, the log is scanned
+ * to build the index of the record offsets of each aggregate, so reading the history
+ * of an aggregate reads only its own records.
+ *
+ * <p>The {@code AggregateRepository} stores an aggregate by reading its event count,
+ * writing its new event records one by one and then writing the new event count.
+ * The event records are kept by the storing thread until the count is written and then
+ * appended together with the count as a single log record. The log discards a torn record
+ * when it is opened, so after a crash either all the events of a command are restored
+ * or none of them. The records left by a store which failed before writing the count are
+ * discarded when the thread starts the next store. The records passed to
+ * a {@link #write(Object, AggregateStateRecord) write} are appended as a single log record
+ * in the same way.
+ *
+ * <p>The lifecycle flags are appended separately, after the events of the command.
+ *
+ * <p>The writes wait until the appended records are {@linkplain SegmentedLog#sync() durable},
+ * so the concurrent writers share the syncs.
+ *
+ * @param <I> the type of the aggregate IDs
+ * @author agent
+ */
+class MappedAggregateStorage<I> extends AggregateStorage<I> {
+
+    /** The single event record appended by the earlier versions of the storage. */
+    private static final byte EVENT_RECORD = 1;
+    private static final byte EVENT_COUNT = 2;
+    private static final byte LIFECYCLE_FLAGS = 3;
+    private static final byte EVENT_RECORDS = 4;
+
+    /** Marks the event records appended without the event count. */
+    private static final int NO_EVENT_COUNT = -1;
+
+    private final SegmentedLog log;
+    private final Map<I, AggregateHistory> index;
+
+    /** The event records of the aggregate being stored by the current thread. */
+    private final ThreadLocal<PendingRecords<I>> pendingRecords = new ThreadLocal<>();
+
+    private MappedAggregateStorage(SegmentedLog log, Map<I, AggregateHistory> index) {
+        super(false);
+        this.log = log;
+        this.index = index;
+    }
+
+    /**
+     * Opens the storage in the specified directory and restores the index of its records.
+     *
+     * @param directory       the directory of the log segments
+     * @param segmentCapacity the size of a log segment in bytes
+     * @param <I>             the type of the aggregate IDs
+     * @return the opened storage
+     * @throws IOException if the log cannot be opened
+     */
+    static <I> MappedAggregateStorage<I> open(Path directory, int segmentCapacity)
+            throws IOException {
+        final Map<I, AggregateHistory> index = new ConcurrentHashMap<>();
+        final SegmentedLog log = SegmentedLog.open(directory, segmentCapacity,
+                                                   (offset, payload) -> restore(index, offset,
+                                                                                payload));
+        return new MappedAggregateStorage<>(log, index);
+    }
+
+    @Override
+    public void write(I id, AggregateStateRecord events) {
+        final PendingRecords<I> records = new PendingRecords<>(id);
+        pendingRecords.set(records);
+        try {
+            super.write(id, events);
+        } finally {
+            pendingRecords.remove();
+        }
+        appendEventRecords(records, NO_EVENT_COUNT);
+        sync();
+    }
+
+    @Override
+    protected void writeRecord(I id, AggregateEventRecord record) {
+        checkNotNull(id);
+        checkNotNull(record);
+        checkNotClosed();
+        PendingRecords<I> pending = pendingRecords.get();
+        if (pending == null || !pending.id.equals(id)) {
+            pending = new PendingRecords<>(id);
+            pendingRecords.set(pending);
+        }
+        pending.records.add(record);
+    }
+
+    @Override
+    protected Iterator<AggregateEventRecord> historyBackward(AggregateReadRequest<I> request) {
+        checkNotNull(request);
+        checkNotClosed();
+        final AggregateHistory history = index.get(request.getRecordId());
+        if (history == null) {
+            return new ArrayList<AggregateEventRecord>().iterator();
+        }
+        return new BackwardIterator(history.eventOffsets());
+    }
+
+    @Override
+    protected int readEventCountAfterLastSnapshot(I id) {
+        checkNotNull(id);
+        checkNotClosed();
+        // A new store begins, the records of the failed one are not written.
+        pendingRecords.remove();
+        final AggregateHistory history = index.get(id);
+        return history == null
+               ? 0
+               : history.getEventCount();
+    }
+
+    @Override
+    protected void writeEventCountAfterLastSnapshot(I id, int eventCount) {
+        checkNotNull(id);
+        checkNotClosed();
+        final PendingRecords<I> pending = pendingRecords.get();
+        pendingRecords.remove();
+        if (pending != null && pending.id.equals(id) && !pending.records.isEmpty()) {
+            appendEventRecords(pending, eventCount);
+        } else {
+            final byte[] body = ByteBuffer.allocate(Integer.BYTES)
+                                          .putInt(eventCount)
+                                          .array();
+            append(EVENT_COUNT, id, body);
+        }
+        historyOf(id).setEventCount(eventCount);
+        sync();
+    }
+
+    @Override
+    protected Optional<LifecycleFlags> readLifecycleFlags(I id) {
+        checkNotNull(id);
+        checkNotClosed();
+        final AggregateHistory history = index.get(id);
+        return history == null
+               ? Optional.absent()
+               : Optional.fromNullable(history.getFlags());
+    }
+
+    @Override
+    protected void writeLifecycleFlags(I id, LifecycleFlags flags) {
+        checkNotNull(id);
+        checkNotNull(flags);
+        checkNotClosed();
+        append(LIFECYCLE_FLAGS, id, flags.toByteArray());
+        historyOf(id).setFlags(flags);
+        sync();
+    }
+
+    @Override
+    public Iterator<I> index() {
+        checkNotClosed();
+        return new ArrayList<>(index.keySet()).iterator();
+    }
+
+    @Override
+    public void close() throws Exception {
+        super.close();
+        log.close();
+    }
+
+    private AggregateHistory historyOf(I id) {
+        return index.computeIfAbsent(id, key -> new AggregateHistory());
+    }
+
+    /**
+     * Appends the event records as a single log record: the event count after the last
+     * snapshot, the number of the records and the length and the bytes of each of them.
+     *
+     * @param pending    the records to append
+     * @param eventCount the event count after the records or {@link #NO_EVENT_COUNT}
+     */
+    private void appendEventRecords(PendingRecords<I> pending, int eventCount) {
+        final List<AggregateEventRecord> records = pending.records;
+        if (records.isEmpty()) {
+            return;
+        }
+        final List<byte[]> serialized = new ArrayList<>(records.size());
+        int length = 2 * Integer.BYTES;
+        for (AggregateEventRecord record : records) {
+            final byte[] bytes = record.toByteArray();
+            serialized.add(bytes);
+            length += Integer.BYTES + bytes.length;
+        }
+        final ByteBuffer body = ByteBuffer.allocate(length)
+                                          .putInt(eventCount)
+                                          .putInt(serialized.size());
+        for (byte[] bytes : serialized) {
+            body.putInt(bytes.length)
+                .put(bytes);
+        }
+        final long offset = append(EVENT_RECORDS, pending.id, body.array());
+        historyOf(pending.id).addEventOffset(offset);
+    }
+
+    private long append(byte kind, I id, byte[] body) {
+        final byte[] packedId = Identifier.pack(id)
+                                          .toByteArray();
+        final byte[] payload = ByteBuffer.allocate(1 + Integer.BYTES + packedId.length
+                                                           + body.length)
+                                         .put(kind)
+                                         .putInt(packedId.length)
+                                         .put(packedId)
+                                         .put(body)
+                                         .array();
+        try {
+            return log.append(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to append the aggregate record.", e);
+        }
+    }
+
+    /**
+     * Waits until the appended records are durable.
+     */
+    void sync() {
+        try {
+            log.sync();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to sync the aggregate records.", e);
+        }
+    }
+
+    /**
+     * Applies the record found in the log to the index.
+     */
+    private static <I> void restore(Map<I, AggregateHistory> index, long offset, byte[] payload) {
+        final ByteBuffer buffer = ByteBuffer.wrap(payload);
+        final byte kind = buffer.get();
+        final byte[] packedId = new byte[buffer.getInt()];
+        buffer.get(packedId);
+        final I id = Identifier.unpack(parse(Any.parser(), packedId));
+        final AggregateHistory history = index.computeIfAbsent(id, key -> new AggregateHistory());
+        switch (kind) {
+            case EVENT_RECORD:
+                history.addEventOffset(offset);
+                break;
+            case EVENT_RECORDS:
+                history.addEventOffset(offset);
+                final int eventCount = buffer.getInt();
+                if (eventCount != NO_EVENT_COUNT) {
+                    history.setEventCount(eventCount);
+                }
+                break;
+            case EVENT_COUNT:
+                history.setEventCount(buffer.getInt());
+                break;
+            case LIFECYCLE_FLAGS:
+                history.setFlags(parse(LifecycleFlags.parser(), remaining(buffer)));
+                break;
+            default:
+                throw new IllegalStateException("Unknown aggregate record kind: " + kind);
+        }
+    }
+
+    /**
+     * Reads the event records held by the log record at the specified offset
+     * in the order of writing.
+     */
+    private List<AggregateEventRecord> readEventRecords(long offset) {
+        final ByteBuffer buffer = ByteBuffer.wrap(log.read(offset));
+        final byte kind = buffer.get();
+        final int idLength = buffer.getInt();
+        buffer.position(buffer.position() + idLength);
+        if (kind == EVENT_RECORD) {
+            return Collections.singletonList(parse(AggregateEventRecord.parser(),
+                                                   remaining(buffer)));
+        }
+        // Skips the event count after the last snapshot.
+        buffer.getInt();
+        final int count = buffer.getInt();
+        final List<AggregateEventRecord> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            result.add(parse(AggregateEventRecord.parser(), bytes));
+        }
+        return result;
+    }
+
+    private static byte[] remaining(ByteBuffer buffer) {
+        final byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+
+    private static <T> T parse(Parser<T> parser, byte[] bytes) {
+        try {
+            return parser.parseFrom(bytes);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Unable to parse the aggregate record.", e);
+        }
+    }
+
+    /**
+     * Reads the event records of an aggregate from the newest to the oldest.
+     *
+     * <p>The log records are read lazily, so the read of the history stops reading the log
+     * at the last snapshot.
+     */
+    private class BackwardIterator implements Iterator<AggregateEventRecord> {
+
+        private final long[] offsets;
+        private int nextOffset;
+        private List<AggregateEventRecord> current = Collections.emptyList();
+        private int next = -1;
+
+        private BackwardIterator(long[] offsets) {
+            this.offsets = offsets;
+            this.nextOffset = offsets.length - 1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next < 0 && nextOffset >= 0) {
+                current = readEventRecords(offsets[nextOffset--]);
+                next = current.size() - 1;
+            }
+            return next >= 0;
+        }
+
+        @Override
+        public AggregateEventRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.get(next--);
+        }
+    }
+
+    /**
+     * The event records of an aggregate which are not appended yet.
+     */
+    private static class PendingRecords<I> {
+
+        private final I id;
+        private final List<AggregateEventRecord> records = new ArrayList<>();
+
+        private PendingRecords(I id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * The index entry of an aggregate.
+     *
+     * <p>The event offsets point to the log records holding one or more event records.
+     */
+    private static class AggregateHistory {
+
+        private final List<Long> eventOffsets = new ArrayList<>();
+        private int eventCount;
+        private LifecycleFlags flags;
+
+        private synchronized void addEventOffset(long offset) {
+            eventOffsets.add(offset);
+        }
+
+        private synchronized long[] eventOffsets() {
+            final long[] result = new long[eventOffsets.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = eventOffsets.get(i);
+            }
+            return result;
+        }
+
+        private synchronized int getEventCount() {
+            return eventCount;
+        }
+
+        private synchronized void setEventCount(int eventCount) {
+            this.eventCount = eventCount;
+        }
+
+        private synchronized LifecycleFlags getFlags() {
+            return flags;
+        }
+
+        private synchronized void setFlags(LifecycleFlags flags) {
+            this.flags = flags;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Any;
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Parser;
+import com.google.protobuf.Timestamp;
+import io.spine.Identifier;
+import io.spine.server.entity.EntityRecord;
+import io.spine.server.entity.storage.EntityQuery;
+import io.spine.server.entity.storage.EntityRecordWithColumns;
+import io.spine.server.projection.ProjectionStorage;
+import io.spine.server.storage.RecordReadRequest;
+import io.spine.server.storage.RecordStorage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The single-tenant {@link ProjectionStorage} keeping the projection records in memory and
+ * appending each change of them to the {@link SegmentedLog}.
+ *
+ * <p>The log holds the written entity records, the deletions and the last handled
+ * event time. When the storage is opened, the log is replayed into the in-memory
+ * {@link RecordStorage}, so the projections survive the restart of the process without
+ * being rebuilt from the events. The writes wait until the appended records are
+ * {@linkplain SegmentedLog#sync() durable}.
+ *
+ * <p>The log keeps every stored state of a projection. If the opened log holds many more
+ * records than the live ones, it is rewritten to hold only the live records. The rewritten log
+ * replaces the old one by renaming the directories, so the compaction interrupted by a crash
+ * is completed or rolled back upon the next opening.
+ *
+ * <p>The entity columns are not logged. The restored records have no column values
+ * until they are stored again.
+ *
+ * @param <I> the type of the projection IDs
+ * @author agent
+ */
+class MappedProjectionStorage<I> extends ProjectionStorage<I> {
+
+    private static final byte ENTITY_RECORD = 1;
+    private static final byte DELETION = 2;
+    private static final byte LAST_HANDLED_EVENT_TIME = 3;
+
+    /** The log is compacted if it holds more records than this number of times the live ones. */
+    private static final int COMPACTION_RATIO = 4;
+
+    /** The minimum number of the log records to compact the log. */
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    private static final String COMPACTED_SUFFIX = ".compacted";
+    private static final String REPLACED_SUFFIX = ".replaced";
+
+    private final RecordStorage<I> delegate;
+    private final SegmentedLog log;
+    private final Records records;
+
+    /** The last handled event time, guarded by the write lock. */
+    private Timestamp lastHandledEventTime;
+
+    /** Orders the appends to the log in the same way as the changes of the delegate. */
+    private final Object writeLock = new Object();
+
+    private MappedProjectionStorage(RecordStorage<I> delegate,
+                                    SegmentedLog log,
+                                    Timestamp lastHandledEventTime) {
+        super(false);
+        this.delegate = delegate;
+        this.log = log;
+        this.lastHandledEventTime = lastHandledEventTime;
+        this.records = new Records();
+    }
+
+    /**
+     * Opens the storage in the specified directory and replays its log into the delegate.
+     *
+     * @param delegate        the empty single-tenant in-memory storage of the projection records
+     * @param directory       the directory of the log segments
+     * @param segmentCapacity the size of a log segment in bytes
+     * @param <I>             the type of the projection IDs
+     * @return the opened storage
+     * @throws IOException if the log cannot be opened or compacted
+     */
+    static <I> MappedProjectionStorage<I> open(RecordStorage<I> delegate,
+                                               Path directory,
+                                               int segmentCapacity) throws IOException {
+        checkNotNull(delegate);
+        checkArgument(!delegate.isMultitenant(), "The delegate must be single-tenant.");
+        recoverCompaction(directory);
+        final Replay<I> replay = new Replay<>(delegate);
+        SegmentedLog log = SegmentedLog.open(directory, segmentCapacity,
+                                             (offset, payload) -> replay.apply(payload));
+        if (replay.needsCompaction()) {
+            log.close();
+            compact(replay, directory, segmentCapacity);
+            log = SegmentedLog.open(directory, segmentCapacity, (offset, payload) -> {
+            });
+        }
+        return new MappedProjectionStorage<>(delegate, log, replay.lastHandledEventTime);
+    }
+
+    @Override
+    protected RecordStorage<I> recordStorage() {
+        return records;
+    }
+
+    @Override
+    public Iterator<I> index() {
+        return records.index();
+    }
+
+    @Override
+    public boolean delete(I id) {
+        return records.delete(id);
+    }
+
+    @Override
+    public void writeLastHandledEventTime(Timestamp time) {
+        checkNotNull(time);
+        checkNotClosed();
+        synchronized (writeLock) {
+            append(log, LAST_HANDLED_EVENT_TIME, time.toByteArray());
+            lastHandledEventTime = time;
+        }
+        sync();
+    }
+
+    @Override
+    public Timestamp readLastHandledEventTime() {
+        checkNotClosed();
+        synchronized (writeLock) {
+            return lastHandledEventTime;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        super.close();
+        records.close();
+        delegate.close();
+        log.close();
+    }
+
+    /**
+     * Waits until the appended records are durable.
+     */
+    private void sync() {
+        try {
+            log.sync();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to sync the projection records.", e);
+        }
+    }
+
+    private static void append(SegmentedLog log, byte kind, byte[] body) {
+        final byte[] payload = ByteBuffer.allocate(1 + body.length)
+                                         .put(kind)
+                                         .put(body)
+                                         .array();
+        try {
+            log.append(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to append the projection record.", e);
+        }
+    }
+
+    /**
+     * Rewrites the log to hold only the live records restored by the replay.
+     *
+     * <p>The live records are written to a new directory, which then replaces the directory
+     * of the log.
+     */
+    private static void compact(Replay<?> replay, Path directory, int segmentCapacity)
+            throws IOException {
+        final Path compacted = sibling(directory, COMPACTED_SUFFIX);
+        deleteIfExists(compacted);
+        try (SegmentedLog log = SegmentedLog.open(compacted, segmentCapacity,
+                                                  (offset, payload) -> {
+                                                  })) {
+            replay.writeLive(log);
+            log.sync();
+        }
+        final Path replaced = sibling(directory, REPLACED_SUFFIX);
+        Files.move(directory, replaced);
+        Files.move(compacted, directory);
+        deleteIfExists(replaced);
+    }
+
+    /**
+     * Completes or rolls back the compaction interrupted by a crash.
+     */
+    private static void recoverCompaction(Path directory) throws IOException {
+        final Path replaced = sibling(directory, REPLACED_SUFFIX);
+        if (Files.exists(replaced)) {
+            if (Files.exists(directory)) {
+                // The compacted log is already in place.
+                deleteIfExists(replaced);
+            } else {
+                Files.move(replaced, directory);
+            }
+        }
+        deleteIfExists(sibling(directory, COMPACTED_SUFFIX));
+    }
+
+    private static Path sibling(Path directory, String suffix) {
+        return directory.resolveSibling(directory.getFileName() + suffix);
+    }
+
+    private static void deleteIfExists(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        final List<Path> paths;
+        try (Stream<Path> stream = Files.walk(directory)) {
+            paths = stream.sorted(Comparator.reverseOrder())
+                          .collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
+    private static byte[] remaining(ByteBuffer buffer) {
+        final byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+
+    private static <T> T parse(Parser<T> parser, byte[] bytes) {
+        try {
+            return parser.parseFrom(bytes);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Unable to parse the projection record.", e);
+        }
+    }
+
+    /**
+     * The record storage of the projections passing the reads to the delegate and
+     * logging the changes before applying them to the delegate.
+     */
+    private class Records extends RecordStorage<I> {
+
+        private Records() {
+            super(false);
+        }
+
+        @Override
+        public Iterator<I> index() {
+            checkNotClosed();
+            return delegate.index();
+        }
+
+        @Override
+        public boolean delete(I id) {
+            checkNotNull(id);
+            checkNotClosed();
+            final boolean result;
+            synchronized (writeLock) {
+                append(log, DELETION, Identifier.pack(id)
+                                                .toByteArray());
+                result = delegate.delete(id);
+            }
+            sync();
+            return result;
+        }
+
+        @Override
+        protected Optional<EntityRecord> readRecord(I id) {
+            return delegate.read(new RecordReadRequest<>(id));
+        }
+
+        @Override
+        protected Iterator<EntityRecord> readMultipleRecords(Iterable<I> ids) {
+            return delegate.readMultiple(ids);
+        }
+
+        @Override
+        protected Iterator<EntityRecord> readMultipleRecords(Iterable<I> ids,
+                                                             FieldMask fieldMask) {
+            return delegate.readMultiple(ids, fieldMask);
+        }
+
+        @Override
+        protected Iterator<EntityRecord> readAllRecords() {
+            return delegate.readAll();
+        }
+
+        @Override
+        protected Iterator<EntityRecord> readAllRecords(FieldMask fieldMask) {
+            return delegate.readAll(fieldMask);
+        }
+
+        @Override
+        protected Iterator<EntityRecord> readAllRecords(EntityQuery<I> query,
+                                                        FieldMask fieldMask) {
+            return delegate.readAll(query, fieldMask);
+        }
+
+        @Override
+        protected void writeRecord(I id, EntityRecordWithColumns record) {
+            synchronized (writeLock) {
+                append(log, ENTITY_RECORD, record.getRecord()
+                                                 .toByteArray());
+                delegate.write(id, record);
+            }
+            sync();
+        }
+
+        @Override
+        protected void writeRecords(Map<I, EntityRecordWithColumns> records) {
+            synchronized (writeLock) {
+                for (Map.Entry<I, EntityRecordWithColumns> entry : records.entrySet()) {
+                    append(log, ENTITY_RECORD, entry.getValue()
+                                                    .getRecord()
+                                                    .toByteArray());
+                    delegate.write(entry.getKey(), entry.getValue());
+                }
+            }
+            sync();
+        }
+    }
+
+    /**
+     * Applies the records of the log to the delegate when the storage is opened.
+     */
+    private static class Replay<I> {
+
+        private final RecordStorage<I> delegate;
+        private Timestamp lastHandledEventTime = Timestamp.getDefaultInstance();
+        private int recordCount;
+
+        private Replay(RecordStorage<I> delegate) {
+            this.delegate = delegate;
+        }
+
+        private void apply(byte[] payload) {
+            recordCount++;
+            final ByteBuffer buffer = ByteBuffer.wrap(payload);
+            final byte kind = buffer.get();
+            final byte[] body = remaining(buffer);
+            switch (kind) {
+                case ENTITY_RECORD:
+                    final EntityRecord record = parse(EntityRecord.parser(), body);
+                    final I recordId = Identifier.unpack(record.getEntityId());
+                    delegate.write(recordId, record);
+                    break;
+                case DELETION:
+                    final I deletedId = Identifier.unpack(parse(Any.parser(), body));
+                    delegate.delete(deletedId);
+                    break;
+                case LAST_HANDLED_EVENT_TIME:
+                    lastHandledEventTime = parse(Timestamp.parser(), body);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown projection record kind: " + kind);
+            }
+        }
+
+        private boolean needsCompaction() {
+            if (recordCount < COMPACTION_THRESHOLD) {
+                return false;
+            }
+            // The last handled event time is a live record as well.
+            int liveCount = 1;
+            final Iterator<I> ids = delegate.index();
+            while (ids.hasNext()) {
+                ids.next();
+                liveCount++;
+            }
+            return recordCount > COMPACTION_RATIO * liveCount;
+        }
+
+        private void writeLive(SegmentedLog log) {
+            final Iterator<I> ids = delegate.index();
+            while (ids.hasNext()) {
+                final Optional<EntityRecord> record =
+                        delegate.read(new RecordReadRequest<>(ids.next()));
+                if (record.isPresent()) {
+                    append(log, ENTITY_RECORD, record.get()
+                                                     .toByteArray());
+                }
+            }
+            append(log, LAST_HANDLED_EVENT_TIME, lastHandledEventTime.toByteArray());
+        }
+    }
+}
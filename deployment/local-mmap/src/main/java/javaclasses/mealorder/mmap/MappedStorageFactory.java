@@ -0,0 +1,333 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import com.google.common.collect.ImmutableSet;
+import io.spine.core.BoundedContextName;
+import io.spine.core.TenantId;
+import io.spine.net.EmailAddress;
+import io.spine.net.InternetDomain;
+import io.spine.server.aggregate.Aggregate;
+import io.spine.server.aggregate.AggregateStorage;
+import io.spine.server.entity.Entity;
+import io.spine.server.entity.storage.ColumnType;
+import io.spine.server.entity.storage.ColumnTypeRegistry;
+import io.spine.server.projection.Projection;
+import io.spine.server.projection.ProjectionStorage;
+import io.spine.server.stand.StandStorage;
+import io.spine.server.storage.RecordStorage;
+import io.spine.server.storage.StorageFactory;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.StoredTenants;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The {@link StorageFactory} keeping the aggregates in the memory-mapped
+ * append-only logs on the local disk.
+ *
+ * <p>Each aggregate class has its own {@linkplain SegmentedLog log} in the subdirectory
+ * named after the class. The logs are scanned when the storages are created, so the aggregates
+ * survive the restart of the process without a database server.
+ *
+ * <p>The projections, including the views and the records of the purchase order outbox,
+ * are kept in memory and each change of them is appended to the log of the projection class
+ * in the subdirectory named after the class. The log is replayed when the storage is created,
+ * so the projections survive the restart as well and are not rebuilt from the events.
+ *
+ * <p>The {@linkplain #newMultitenantInstance(BoundedContextName, Path, int) multitenant} factory
+ * keeps the aggregate and projection logs of each tenant in the separate subdirectory
+ * of {@code tenants}. The logs of a tenant are opened upon the first use and only the bounded
+ * number of the recently used tenants per aggregate or projection class keep their logs open
+ * and their projections in memory, so a single process may serve many small tenants.
+ * The projection storages of the multitenant factory are {@link StoredTenants}, so
+ * the tenants having the projections on the disk are known after the restart, while the tenant
+ * index of the {@code BoundedContext} is in memory.
+ *
+ * <p>The other storages are {@linkplain InMemoryStorageFactory in memory}. These are
+ * the {@linkplain #createStandStorage() stand storage}, which is filled from the repositories,
+ * and the {@linkplain #createRecordStorage(Class) record storages} of the framework,
+ * such as the stores of the commands and the events.
+ *
+ * @author agent
+ */
+public class MappedStorageFactory implements StorageFactory {
+
+    /** The default size of a log segment: 64 MiB. */
+    public static final int DEFAULT_SEGMENT_CAPACITY = 64 * 1024 * 1024;
+
+    /** The segment size of the multitenant factory, which is smaller for the small tenants. */
+    public static final int DEFAULT_TENANT_SEGMENT_CAPACITY = 4 * 1024 * 1024;
+
+    private static final String TENANTS_DIRECTORY = "tenants";
+
+    private final BoundedContextName boundedContextName;
+    private final Path directory;
+    private final int segmentCapacity;
+    private final boolean multitenant;
+    private final int maxOpenTenants;
+    private final StorageFactory inMemoryFactory;
+
+    private MappedStorageFactory(BoundedContextName boundedContextName,
+                                 Path directory,
+                                 int segmentCapacity,
+                                 boolean multitenant,
+                                 int maxOpenTenants) {
+        this.boundedContextName = boundedContextName;
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+        this.multitenant = multitenant;
+        this.maxOpenTenants = maxOpenTenants;
+        this.inMemoryFactory = InMemoryStorageFactory.newInstance(boundedContextName, multitenant);
+    }
+
+    /**
+     * Creates the factory storing the aggregates in the specified directory
+     * in the segments of the {@linkplain #DEFAULT_SEGMENT_CAPACITY default size}.
+     *
+     * @param boundedContextName the name of the bounded context
+     * @param directory          the directory of the logs
+     * @return new instance of the factory
+     */
+    public static MappedStorageFactory newInstance(BoundedContextName boundedContextName,
+                                                   Path directory) {
+        return newInstance(boundedContextName, directory, DEFAULT_SEGMENT_CAPACITY);
+    }
+
+    /**
+     * Creates the factory storing the aggregates in the specified directory.
+     *
+     * @param boundedContextName the name of the bounded context
+     * @param directory          the directory of the logs
+     * @param segmentCapacity    the size of a log segment in bytes
+     * @return new instance of the factory
+     */
+    public static MappedStorageFactory newInstance(BoundedContextName boundedContextName,
+                                                   Path directory,
+                                                   int segmentCapacity) {
+        checkNotNull(boundedContextName);
+        checkNotNull(directory);
+        checkArgument(segmentCapacity > 0, "The segment capacity must be positive.");
+        return new MappedStorageFactory(boundedContextName, directory, segmentCapacity,
+                                        false, 0);
+    }
+
+    /**
+     * Creates the multitenant factory storing the aggregates of each tenant
+     * in the subdirectory of the specified directory.
+     *
+     * <p>The logs are split into the segments
+     * of the {@linkplain #DEFAULT_TENANT_SEGMENT_CAPACITY default tenant size}.
+     *
+     * @param boundedContextName the name of the bounded context
+     * @param directory          the directory of the logs
+     * @param maxOpenTenants     the maximum number of the tenants keeping the logs
+     *                           of an aggregate class open
+     * @return new instance of the factory
+     */
+    public static MappedStorageFactory newMultitenantInstance(
+            BoundedContextName boundedContextName, Path directory, int maxOpenTenants) {
+        checkNotNull(boundedContextName);
+        checkNotNull(directory);
+        checkArgument(maxOpenTenants > 0, "The maximum of the open tenants must be positive.");
+        return new MappedStorageFactory(boundedContextName, directory,
+                                        DEFAULT_TENANT_SEGMENT_CAPACITY, true, maxOpenTenants);
+    }
+
+    @Override
+    public boolean isMultitenant() {
+        return multitenant;
+    }
+
+    @Override
+    public ColumnTypeRegistry<? extends ColumnType> getTypeRegistry() {
+        return inMemoryFactory.getTypeRegistry();
+    }
+
+    @Override
+    public StandStorage createStandStorage() {
+        return inMemoryFactory.createStandStorage();
+    }
+
+    @Override
+    public <I> RecordStorage<I> createRecordStorage(Class<? extends Entity<I, ?>> entityClass) {
+        return inMemoryFactory.createRecordStorage(entityClass);
+    }
+
+    @Override
+    public <I> AggregateStorage<I> createAggregateStorage(
+            Class<? extends Aggregate<I, ?, ?>> aggregateClass) {
+        checkNotNull(aggregateClass);
+        if (multitenant) {
+            final TenantStorages<MappedAggregateStorage<I>> storages = new TenantStorages<>(
+                    tenantId -> MappedAggregateStorage.open(
+                            tenantDirectory(tenantId).resolve(aggregateClass.getName()),
+                            segmentCapacity),
+                    maxOpenTenants);
+            return new MultitenantMappedAggregateStorage<>(storages);
+        }
+        final Path logDirectory = directory.resolve(aggregateClass.getName());
+        try {
+            return MappedAggregateStorage.open(logDirectory, segmentCapacity);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open the log in " + logDirectory, e);
+        }
+    }
+
+    @Override
+    public <I> ProjectionStorage<I> createProjectionStorage(
+            Class<? extends Projection<I, ?, ?>> projectionClass) {
+        checkNotNull(projectionClass);
+        final StorageFactory recordFactory = inMemoryFactory.toSingleTenant();
+        if (multitenant) {
+            final TenantStorages<MappedProjectionStorage<I>> storages = new TenantStorages<>(
+                    tenantId -> MappedProjectionStorage.open(
+                            recordFactory.createRecordStorage(projectionClass),
+                            tenantDirectory(tenantId).resolve(projectionClass.getName()),
+                            segmentCapacity),
+                    maxOpenTenants);
+            return new MultitenantMappedProjectionStorage<>(
+                    storages, () -> storedTenants(projectionClass.getName()));
+        }
+        final RecordStorage<I> records = recordFactory.createRecordStorage(projectionClass);
+        final Path logDirectory = directory.resolve(projectionClass.getName());
+        try {
+            return MappedProjectionStorage.open(records, logDirectory, segmentCapacity);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open the log in " + logDirectory, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The single-tenant copy of the multitenant factory keeps the logs in the same directory
+     * as the logs of a single-tenant factory.
+     */
+    @Override
+    public StorageFactory toSingleTenant() {
+        return multitenant
+               ? newInstance(boundedContextName, directory, segmentCapacity)
+               : this;
+    }
+
+    @Override
+    public void close() throws Exception {
+        inMemoryFactory.close();
+    }
+
+    /**
+     * Obtains the directory of the logs of the tenant.
+     *
+     * <p>The directory is named after the kind and the value of the tenant ID,
+     * e.g. {@code domain-example.com}. The value is URL-encoded to be a valid file name.
+     */
+    private Path tenantDirectory(TenantId tenantId) throws UnsupportedEncodingException {
+        final String value;
+        switch (tenantId.getKindCase()) {
+            case DOMAIN:
+                value = tenantId.getDomain()
+                                .getValue();
+                break;
+            case EMAIL:
+                value = tenantId.getEmail()
+                                .getValue();
+                break;
+            case VALUE:
+                value = tenantId.getValue();
+                break;
+            default:
+                throw new IllegalArgumentException("The tenant ID is not set.");
+        }
+        final String kind = tenantId.getKindCase()
+                                    .name()
+                                    .toLowerCase(Locale.ENGLISH);
+        final String name = kind + '-' + URLEncoder.encode(value, "UTF-8");
+        return directory.resolve(TENANTS_DIRECTORY)
+                        .resolve(name);
+    }
+
+    /**
+     * Obtains the tenants having the log of the specified name on the disk.
+     *
+     * @param logName the name of the log directory of the tenant
+     * @return the IDs of the tenants
+     */
+    private Set<TenantId> storedTenants(String logName) {
+        final Path tenantsDirectory = directory.resolve(TENANTS_DIRECTORY);
+        if (!Files.isDirectory(tenantsDirectory)) {
+            return ImmutableSet.of();
+        }
+        final ImmutableSet.Builder<TenantId> result = ImmutableSet.builder();
+        try (DirectoryStream<Path> tenantDirectories =
+                     Files.newDirectoryStream(tenantsDirectory)) {
+            for (Path tenantDirectory : tenantDirectories) {
+                if (Files.isDirectory(tenantDirectory.resolve(logName))) {
+                    result.add(tenantOf(tenantDirectory.getFileName()
+                                                       .toString()));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to list the tenants in " + tenantsDirectory,
+                                            e);
+        }
+        return result.build();
+    }
+
+    /**
+     * Restores the tenant ID from the name of its {@linkplain #tenantDirectory(TenantId)
+     * directory}.
+     */
+    private static TenantId tenantOf(String directoryName) throws UnsupportedEncodingException {
+        final int separator = directoryName.indexOf('-');
+        checkArgument(separator > 0, "Not a tenant directory: %s.", directoryName);
+        final String kind = directoryName.substring(0, separator);
+        final String value = URLDecoder.decode(directoryName.substring(separator + 1), "UTF-8");
+        final TenantId.Builder result = TenantId.newBuilder();
+        switch (TenantId.KindCase.valueOf(kind.toUpperCase(Locale.ENGLISH))) {
+            case DOMAIN:
+                result.setDomain(InternetDomain.newBuilder()
+                                               .setValue(value));
+                break;
+            case EMAIL:
+                result.setEmail(EmailAddress.newBuilder()
+                                            .setValue(value));
+                break;
+            case VALUE:
+                result.setValue(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Not a tenant directory: " + directoryName);
+        }
+        return result.build();
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import com.google.common.base.Optional;
+import io.spine.server.aggregate.AggregateEventRecord;
+import io.spine.server.aggregate.AggregateReadRequest;
+import io.spine.server.aggregate.AggregateStateRecord;
+import io.spine.server.aggregate.AggregateStorage;
+import io.spine.server.entity.LifecycleFlags;
+import javaclasses.mealorder.mmap.TenantStorages.Lease;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static javaclasses.mealorder.Tenants.currentTenant;
+
+/**
+ * The multitenant {@link AggregateStorage} keeping the records of each tenant
+ * in a separate {@link MappedAggregateStorage}.
+ *
+ * <p>Each call is passed to the storage of the current tenant obtained from
+ * the {@link TenantStorages}, so only the recently used tenants keep their logs open.
+ * The storage of a tenant is opened and its log is scanned upon the first call
+ * for this tenant.
+ *
+ * <p>The storage of the tenant keeps the event records of an aggregate being stored until
+ * its event count is written. So the lease of the tenant storage taken by the first written
+ * record is kept by the storing thread until the event count is written, and the storage
+ * is not closed in between.
+ *
+ * @param <I> the type of the aggregate IDs
+ * @author agent
+ */
+class MultitenantMappedAggregateStorage<I> extends AggregateStorage<I> {
+
+    private final TenantStorages<MappedAggregateStorage<I>> storages;
+
+    /** The lease of the tenant storage keeping the records of the current thread's store. */
+    private final ThreadLocal<Lease<MappedAggregateStorage<I>>> storeLease = new ThreadLocal<>();
+
+    /**
+     * Creates a new storage.
+     *
+     * @param storages the pool of the storages of the tenants
+     */
+    MultitenantMappedAggregateStorage(TenantStorages<MappedAggregateStorage<I>> storages) {
+        super(true);
+        this.storages = storages;
+    }
+
+    @Override
+    public Optional<AggregateStateRecord> read(AggregateReadRequest<I> request) {
+        checkNotClosed();
+        try (Lease<MappedAggregateStorage<I>> lease = leaseCurrent()) {
+            return lease.get()
+                        .read(request);
+        }
+    }
+
+    @Override
+    public void write(I id, AggregateStateRecord events) {
+        checkNotClosed();
+        try (Lease<MappedAggregateStorage<I>> lease = leaseCurrent()) {
+            lease.get()
+                 .write(id, events);
+        }
+    }
+
+    @Override
+    protected void writeRecord(I id, AggregateEventRecord record) {
+        checkNotClosed();
+        Lease<MappedAggregateStorage<I>> lease = storeLease.get();
+        if (lease == null) {
+            lease = leaseCurrent();
+            storeLease.set(lease);
+        }
+        lease.get()
+             .writeRecord(id, record);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The records are read before the storage of the tenant is released, as it may be
+     * closed afterwards. The records older than the last snapshot are not read.
+     */
+    @Override
+    protected Iterator<AggregateEventRecord> historyBackward(AggregateReadRequest<I> request) {
+        checkNotClosed();
+        try (Lease<MappedAggregateStorage<I>> lease = leaseCurrent()) {
+            final Iterator<AggregateEventRecord> history = lease.get()
+                                                                .historyBackward(request);
+            final List<AggregateEventRecord> result = new ArrayList<>();
+            while (history.hasNext()) {
+                final AggregateEventRecord record = history.next();
+                result.add(record);
+                if (record.hasSnapshot()) {
+                    break;
+                }
+            }
+            return result.iterator();
+        }
+    }
+
+    @Override
+    protected int readEventCountAfterLastSnapshot(I id) {
+        checkNotClosed();
+        releaseStoreLease();
+        try (Lease<MappedAggregateStorage<I>> lease = leaseCurrent()) {
+            return lease.get()
+                        .readEventCountAfterLastSnapshot(id);
+        }
+    }
+
+    @Override
+    protected void writeEventCountAfterLastSnapshot(I id, int eventCount) {
+        checkNotClosed();
+        final Lease<MappedAggregateStorage<I>> held = storeLease.get();
+        storeLease.remove();
+        try (Lease<MappedAggregateStorage<I>> lease = held != null
+                                                      ? held
+                                                      : leaseCurrent()) {
+            lease.get()
+                 .writeEventCountAfterLastSnapshot(id, eventCount);
+        }
+    }
+
+    @Override
+    protected Optional<LifecycleFlags> readLifecycleFlags(I id) {
+        checkNotClosed();
+        try (Lease<MappedAggregateStorage<I>> lease = leaseCurrent()) {
+            return lease.get()
+                        .readLifecycleFlags(id);
+        }
+    }
+
+    @Override
+    protected void writeLifecycleFlags(I id, LifecycleFlags flags) {
+        checkNotClosed();
+        try (Lease<MappedAggregateStorage<I>> lease = leaseCurrent()) {
+            lease.get()
+                 .writeLifecycleFlags(id, flags);
+        }
+    }
+
+    @Override
+    public Iterator<I> index() {
+        checkNotClosed();
+        try (Lease<MappedAggregateStorage<I>> lease = leaseCurrent()) {
+            return lease.get()
+                        .index();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        super.close();
+        storages.close();
+    }
+
+    /**
+     * Releases the lease kept by the store of the current thread which failed
+     * before writing the event count.
+     */
+    private void releaseStoreLease() {
+        final Lease<MappedAggregateStorage<I>> held = storeLease.get();
+        if (held != null) {
+            storeLease.remove();
+            held.close();
+        }
+    }
+
+    private Lease<MappedAggregateStorage<I>> leaseCurrent() {
+        return storages.lease(currentTenant(true));
+    }
+}
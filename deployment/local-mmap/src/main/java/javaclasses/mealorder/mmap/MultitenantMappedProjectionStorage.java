@@ -0,0 +1,235 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.Timestamp;
+import io.spine.core.TenantId;
+import io.spine.server.entity.EntityRecord;
+import io.spine.server.entity.storage.EntityQuery;
+import io.spine.server.entity.storage.EntityRecordWithColumns;
+import io.spine.server.projection.ProjectionStorage;
+import io.spine.server.storage.RecordReadRequest;
+import io.spine.server.storage.RecordStorage;
+import javaclasses.mealorder.StoredTenants;
+import javaclasses.mealorder.mmap.TenantStorages.Lease;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static javaclasses.mealorder.Tenants.currentTenant;
+
+/**
+ * The multitenant {@link ProjectionStorage} keeping the records of each tenant
+ * in a separate {@link MappedProjectionStorage}.
+ *
+ * <p>Each call is passed to the storage of the current tenant obtained from
+ * the {@link TenantStorages}, so only the recently used tenants keep their logs open and
+ * their records in memory. The storage of a tenant is opened and its log is replayed upon
+ * the first call for this tenant.
+ *
+ * <p>The records are read before the storage of the tenant is released, as it may be
+ * closed afterwards.
+ *
+ * <p>The {@linkplain #getStoredTenants() stored tenants} are the tenants having the log
+ * on the disk, including the tenants whose storages are not open.
+ *
+ * @param <I> the type of the projection IDs
+ * @author agent
+ */
+class MultitenantMappedProjectionStorage<I> extends ProjectionStorage<I>
+        implements StoredTenants {
+
+    private final TenantStorages<MappedProjectionStorage<I>> storages;
+    private final Supplier<Set<TenantId>> storedTenants;
+    private final Records records;
+
+    /**
+     * Creates a new storage.
+     *
+     * @param storages      the pool of the storages of the tenants
+     * @param storedTenants the supplier of the tenants having the log on the disk
+     */
+    MultitenantMappedProjectionStorage(TenantStorages<MappedProjectionStorage<I>> storages,
+                                       Supplier<Set<TenantId>> storedTenants) {
+        super(true);
+        this.storages = storages;
+        this.storedTenants = storedTenants;
+        this.records = new Records();
+    }
+
+    @Override
+    public Set<TenantId> getStoredTenants() {
+        checkNotClosed();
+        return storedTenants.get();
+    }
+
+    @Override
+    protected RecordStorage<I> recordStorage() {
+        return records;
+    }
+
+    @Override
+    public Iterator<I> index() {
+        return records.index();
+    }
+
+    @Override
+    public boolean delete(I id) {
+        return records.delete(id);
+    }
+
+    @Override
+    public void writeLastHandledEventTime(Timestamp time) {
+        checkNotClosed();
+        try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+            lease.get()
+                 .writeLastHandledEventTime(time);
+        }
+    }
+
+    @Override
+    public Timestamp readLastHandledEventTime() {
+        checkNotClosed();
+        try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+            return lease.get()
+                        .readLastHandledEventTime();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        super.close();
+        records.close();
+        storages.close();
+    }
+
+    private Lease<MappedProjectionStorage<I>> leaseCurrent() {
+        return storages.lease(currentTenant(true));
+    }
+
+    /**
+     * The record storage of the projections passing each call to the storage
+     * of the current tenant.
+     */
+    private class Records extends RecordStorage<I> {
+
+        private Records() {
+            super(true);
+        }
+
+        @Override
+        public Iterator<I> index() {
+            checkNotClosed();
+            try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+                return ImmutableList.copyOf(lease.get()
+                                                 .index())
+                                    .iterator();
+            }
+        }
+
+        @Override
+        public boolean delete(I id) {
+            checkNotClosed();
+            try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+                return lease.get()
+                            .delete(id);
+            }
+        }
+
+        @Override
+        protected Optional<EntityRecord> readRecord(I id) {
+            try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+                return lease.get()
+                            .read(new RecordReadRequest<>(id));
+            }
+        }
+
+        @Override
+        protected Iterator<EntityRecord> readMultipleRecords(Iterable<I> ids) {
+            try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+                return ImmutableList.copyOf(lease.get()
+                                                 .readMultiple(ids))
+                                    .iterator();
+            }
+        }
+
+        @Override
+        protected Iterator<EntityRecord> readMultipleRecords(Iterable<I> ids,
+                                                             FieldMask fieldMask) {
+            try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+                return ImmutableList.copyOf(lease.get()
+                                                 .readMultiple(ids, fieldMask))
+                                    .iterator();
+            }
+        }
+
+        @Override
+        protected Iterator<EntityRecord> readAllRecords() {
+            try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+                return ImmutableList.copyOf(lease.get()
+                                                 .readAll())
+                                    .iterator();
+            }
+        }
+
+        @Override
+        protected Iterator<EntityRecord> readAllRecords(FieldMask fieldMask) {
+            try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+                return ImmutableList.copyOf(lease.get()
+                                                 .readAll(fieldMask))
+                                    .iterator();
+            }
+        }
+
+        @Override
+        protected Iterator<EntityRecord> readAllRecords(EntityQuery<I> query,
+                                                        FieldMask fieldMask) {
+            try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+                return ImmutableList.copyOf(lease.get()
+                                                 .readAll(query, fieldMask))
+                                    .iterator();
+            }
+        }
+
+        @Override
+        protected void writeRecord(I id, EntityRecordWithColumns record) {
+            try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+                lease.get()
+                     .write(id, record);
+            }
+        }
+
+        @Override
+        protected void writeRecords(Map<I, EntityRecordWithColumns> records) {
+            try (Lease<MappedProjectionStorage<I>> lease = leaseCurrent()) {
+                final MappedProjectionStorage<I> storage = lease.get();
+                for (Map.Entry<I, EntityRecordWithColumns> entry : records.entrySet()) {
+                    storage.write(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+
+/**
+ * The append-only log of the records stored in the memory-mapped {@linkplain LogSegment segments}.
+ *
+ * <p>The records are appended to the last segment. When it is full, the segment is forced
+ * to the storage device and a new segment is created.
+ *
+ * <p>An append does not make the record durable. The appending threads call {@link #sync()},
+ * which forces the last segment once for all the records appended so far, so the threads
+ * syncing concurrently share a single {@code fsync} (the group commit).
+ *
+ * <p>The record is addressed by its offset combining the index of the segment
+ * and the position of the record in it.
+ *
+ * @author agent
+ */
+class SegmentedLog implements AutoCloseable {
+
+    private static final String SEGMENT_NAME_FORMAT = "%010d.log";
+    private static final String SEGMENT_GLOB = "*.log";
+
+    private final Path directory;
+    private final int segmentCapacity;
+
+    /** The segments in the order of creation. Guarded by {@code this}. */
+    private final List<LogSegment> segments;
+
+    /** The number of the appended records. Guarded by {@code this}. */
+    private long appendedCount;
+
+    private final Object syncLock = new Object();
+
+    /** The number of the records written to the storage device. Guarded by {@code syncLock}. */
+    private long durableCount;
+
+    /** Tells whether one of the threads is forcing the last segment. Guarded by {@code syncLock}. */
+    private boolean syncInProgress;
+
+    private boolean closed;
+
+    private SegmentedLog(Path directory, int segmentCapacity, List<LogSegment> segments) {
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+        this.segments = segments;
+    }
+
+    /**
+     * Opens the log in the specified directory creating it if it does not exist.
+     *
+     * <p>The records of all the segments are passed to the visitor in the order of appending.
+     * The torn records at the end of the last segment, left by a crash, are discarded.
+     *
+     * @param directory       the directory of the segment files
+     * @param segmentCapacity the size of a segment file in bytes
+     * @param visitor         the visitor of the stored records
+     * @return the opened log
+     * @throws IOException if the segment files cannot be opened
+     */
+    static SegmentedLog open(Path directory, int segmentCapacity, RecordVisitor visitor)
+            throws IOException {
+        checkNotNull(directory);
+        checkNotNull(visitor);
+        checkArgument(segmentCapacity > LogSegment.HEADER_LENGTH,
+                      "The segment capacity is too small.");
+        Files.createDirectories(directory);
+
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_GLOB)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // The zero-padded names are sorted in the order of creation.
+        files.sort(null);
+
+        final List<LogSegment> segments = new ArrayList<>(files.size() + 1);
+        try {
+            for (int index = 0; index < files.size(); index++) {
+                checkState(files.get(index)
+                                .equals(segmentFile(directory, index)),
+                           "The segment %s is missing in %s.", index, directory);
+                final LogSegment segment = LogSegment.open(files.get(index), segmentCapacity);
+                segments.add(segment);
+                final long segmentIndex = index;
+                segment.recover((position, payload) -> visitor.visit(
+                        offsetOf(segmentIndex, position), payload));
+            }
+            if (segments.isEmpty()) {
+                final LogSegment segment = LogSegment.open(segmentFile(directory, 0),
+                                                           segmentCapacity);
+                segments.add(segment);
+                segment.recover((position, payload) -> {
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            for (LogSegment segment : segments) {
+                segment.close();
+            }
+            throw e;
+        }
+        return new SegmentedLog(directory, segmentCapacity, segments);
+    }
+
+    /**
+     * Appends the record to the log.
+     *
+     * @param payload the record payload
+     * @return the offset of the record
+     * @throws IOException if a new segment cannot be created
+     */
+    synchronized long append(byte[] payload) throws IOException {
+        checkNotNull(payload);
+        checkState(!closed, "The log %s is closed.", directory);
+        checkArgument(payload.length > 0, "The payload must not be empty.");
+        checkArgument(payload.length <= segmentCapacity - LogSegment.HEADER_LENGTH,
+                      "The payload of %s bytes does not fit the segment.", payload.length);
+        LogSegment segment = lastSegment();
+        if (!segment.hasRoomFor(payload.length)) {
+            segment.force();
+            segment = LogSegment.open(segmentFile(directory, segments.size()), segmentCapacity);
+            segment.recover((position, ignored) -> {
+            });
+            segments.add(segment);
+        }
+        final int position = segment.append(payload);
+        appendedCount++;
+        return offsetOf(segments.size() - 1, position);
+    }
+
+    /**
+     * Reads the payload of the record.
+     *
+     * @param offset the offset returned by {@link #append(byte[])}
+     *               or passed to the {@link RecordVisitor}
+     * @return the record payload
+     */
+    byte[] read(long offset) {
+        final LogSegment segment;
+        synchronized (this) {
+            checkState(!closed, "The log %s is closed.", directory);
+            segment = segments.get((int) (offset >>> Integer.SIZE));
+        }
+        return segment.read((int) offset);
+    }
+
+    /**
+     * Waits until all the records appended before the call are written
+     * to the storage device.
+     *
+     * <p>If another thread is already forcing the log, waits for it and then forces
+     * the records appended in the meantime, including the ones of the other waiting threads.
+     *
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    void sync() throws InterruptedIOException {
+        final long target;
+        synchronized (this) {
+            target = appendedCount;
+        }
+        while (true) {
+            final long alreadyDurable;
+            synchronized (syncLock) {
+                if (durableCount >= target) {
+                    return;
+                }
+                if (syncInProgress) {
+                    awaitSync();
+                    continue;
+                }
+                syncInProgress = true;
+                alreadyDurable = durableCount;
+            }
+            long covered = alreadyDurable;
+            try {
+                final long appended;
+                final LogSegment segment;
+                synchronized (this) {
+                    appended = appendedCount;
+                    segment = lastSegment();
+                }
+                // The previous segments are forced when the next one is created.
+                segment.force();
+                covered = appended;
+            } finally {
+                synchronized (syncLock) {
+                    durableCount = Math.max(durableCount, covered);
+                    syncInProgress = false;
+                    syncLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (LogSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    private void awaitSync() throws InterruptedIOException {
+        try {
+            syncLock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new InterruptedIOException("Interrupted while syncing " + directory);
+        }
+    }
+
+    private LogSegment lastSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    private static long offsetOf(long segmentIndex, int position) {
+        return (segmentIndex << Integer.SIZE) | position;
+    }
+
+    private static Path segmentFile(Path directory, int index) {
+        return directory.resolve(format(SEGMENT_NAME_FORMAT, index));
+    }
+
+    /**
+     * The visitor of the records found when the log is opened.
+     */
+    interface RecordVisitor {
+
+        /**
+         * Receives the stored record.
+         *
+         * @param offset  the offset of the record in the log
+         * @param payload the record payload
+         */
+        void visit(long offset, byte[] payload);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import io.spine.core.TenantId;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * The bounded pool of the open storages of the tenants.
+ *
+ * <p>The storage of a tenant is opened lazily, upon the first {@linkplain #lease(TenantId) lease}.
+ * The storage is opened outside of the pool lock, so the warm-up of a tenant does not block
+ * the other tenants.
+ *
+ * <p>When the number of the open storages exceeds the maximum, the least recently used
+ * storages which are not leased are closed. A leased storage is never closed, so the pool
+ * may temporarily exceed the maximum when all the storages are in use.
+ *
+ * <p>The evicted storages are removed from the pool under its lock and closed after
+ * the lock is released, so forcing the logs of a closed storage to the disk does not block
+ * the other tenants. If the evicted tenant is leased meanwhile, its storage is opened anew
+ * while the evicted one is being closed. The evicted storage is not leased, so it has nothing
+ * left to append.
+ *
+ * @param <S> the type of the storages
+ * @author agent
+ */
+class TenantStorages<S extends AutoCloseable> implements AutoCloseable {
+
+    private final StorageOpener<S> opener;
+    private final int maxOpenStorages;
+
+    /** The open storages in the order from the least to the most recently used. */
+    private final LinkedHashMap<TenantId, Slot<S>> slots = new LinkedHashMap<>(16, 0.75f, true);
+
+    private boolean closed;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param opener          the function opening the storage of a tenant
+     * @param maxOpenStorages the maximum number of the storages kept open
+     */
+    TenantStorages(StorageOpener<S> opener, int maxOpenStorages) {
+        checkArgument(maxOpenStorages > 0, "The maximum of the open storages must be positive.");
+        this.opener = checkNotNull(opener);
+        this.maxOpenStorages = maxOpenStorages;
+    }
+
+    /**
+     * Obtains the storage of the tenant, opening it if needed.
+     *
+     * <p>The storage is not closed until the returned lease is closed.
+     *
+     * @param tenantId the ID of the tenant
+     * @return the lease of the storage
+     */
+    Lease<S> lease(TenantId tenantId) {
+        checkNotNull(tenantId);
+        final Slot<S> slot;
+        synchronized (this) {
+            checkState(!closed, "The tenant storages are closed.");
+            slot = slots.computeIfAbsent(tenantId, key -> new Slot<>());
+            slot.leaseCount++;
+        }
+        final Lease<S> result = new Lease<>(this, slot);
+        try {
+            slot.open(opener, tenantId);
+        } catch (RuntimeException e) {
+            result.close();
+            throw e;
+        }
+        final List<Slot<S>> evicted;
+        synchronized (this) {
+            evicted = evictIdle();
+        }
+        closeStorages(evicted);
+        return result;
+    }
+
+    /**
+     * Obtains the number of the open storages.
+     */
+    synchronized int openCount() {
+        return slots.size();
+    }
+
+    @Override
+    public void close() throws Exception {
+        final List<Slot<S>> open;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            open = new ArrayList<>(slots.values());
+            slots.clear();
+        }
+        closeStorages(open);
+    }
+
+    private void release(Slot<S> slot) {
+        final List<Slot<S>> evicted;
+        synchronized (this) {
+            slot.leaseCount--;
+            evicted = evictIdle();
+        }
+        closeStorages(evicted);
+    }
+
+    /**
+     * Removes the least recently used storages which are not leased,
+     * until the number of the open storages does not exceed the maximum.
+     *
+     * <p>Must be called holding the lock of the pool.
+     *
+     * @return the removed storages to be closed after the lock is released
+     */
+    private List<Slot<S>> evictIdle() {
+        final List<Slot<S>> result = new ArrayList<>();
+        final Iterator<Slot<S>> iterator = slots.values()
+                                                .iterator();
+        while (slots.size() > maxOpenStorages && iterator.hasNext()) {
+            final Slot<S> slot = iterator.next();
+            if (slot.leaseCount == 0) {
+                iterator.remove();
+                result.add(slot);
+            }
+        }
+        return result;
+    }
+
+    private static void closeStorages(List<? extends Slot<?>> slots) {
+        for (Slot<?> slot : slots) {
+            try {
+                slot.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to close the storage of the tenant.", e);
+            }
+        }
+    }
+
+    /**
+     * The function opening the storage of a tenant.
+     *
+     * @param <S> the type of the storages
+     */
+    interface StorageOpener<S> {
+
+        S open(TenantId tenantId) throws Exception;
+    }
+
+    /**
+     * The use of the tenant storage, which keeps the storage open until the lease is closed.
+     *
+     * @param <S> the type of the storages
+     */
+    static class Lease<S extends AutoCloseable> implements AutoCloseable {
+
+        private final TenantStorages<S> storages;
+        private final Slot<S> slot;
+        private boolean released;
+
+        private Lease(TenantStorages<S> storages, Slot<S> slot) {
+            this.storages = storages;
+            this.slot = slot;
+        }
+
+        S get() {
+            checkState(!released, "The lease is closed.");
+            return slot.get();
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                storages.release(slot);
+            }
+        }
+    }
+
+    /**
+     * The storage of a tenant.
+     *
+     * <p>The lease count is guarded by the {@code TenantStorages}
+     * instance, the storage is guarded by the slot itself.
+     */
+    private static class Slot<S extends AutoCloseable> {
+
+        private S storage;
+        private boolean storageClosed;
+        private int leaseCount;
+
+        private synchronized void open(StorageOpener<S> opener, TenantId tenantId) {
+            if (storage != null) {
+                return;
+            }
+            checkState(!storageClosed, "The storage of the tenant is closed.");
+            try {
+                storage = opener.open(tenantId);
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to open the storage of the tenant.", e);
+            }
+        }
+
+        private synchronized S get() {
+            return storage;
+        }
+
+        private synchronized void close() throws Exception {
+            storageClosed = true;
+            if (storage != null) {
+                storage.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import com.google.common.base.Optional;
+import io.spine.core.Event;
+import io.spine.server.aggregate.AggregateReadRequest;
+import io.spine.server.aggregate.AggregateStateRecord;
+import io.spine.server.command.TestEventFactory;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.c.event.VendorAdded;
+import javaclasses.mealorder.c.event.VendorUpdated;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import static javaclasses.mealorder.mmap.TestDirectories.delete;
+import static javaclasses.mealorder.mmap.TestDirectories.newDirectory;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author agent
+ */
+@DisplayName("`MappedAggregateStorage` should")
+class MappedAggregateStorageTest {
+
+    private static final int SEGMENT_CAPACITY = 64 * 1024;
+
+    private final TestEventFactory eventFactory = TestEventFactory.newInstance(getClass());
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = newDirectory(getClass());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        delete(directory);
+    }
+
+    @Test
+    @DisplayName("restore all the events of a write")
+    void restoreWrittenEvents() throws Exception {
+        try (MappedAggregateStorage<VendorId> storage = open()) {
+            storage.write(VENDOR_ID, stateRecord(vendorAdded(), vendorUpdated()));
+        }
+
+        try (MappedAggregateStorage<VendorId> storage = open()) {
+            assertEquals(2, eventCount(storage));
+        }
+    }
+
+    @Test
+    @DisplayName("discard all the events of a torn write")
+    void discardTornWrite() throws Exception {
+        try (MappedAggregateStorage<VendorId> storage = open()) {
+            storage.write(VENDOR_ID, stateRecord(vendorAdded()));
+            storage.write(VENDOR_ID, stateRecord(vendorUpdated(), vendorUpdated()));
+        }
+        corruptLastRecord();
+
+        try (MappedAggregateStorage<VendorId> storage = open()) {
+            assertEquals(1, eventCount(storage));
+        }
+    }
+
+    private MappedAggregateStorage<VendorId> open() throws IOException {
+        return MappedAggregateStorage.open(directory, SEGMENT_CAPACITY);
+    }
+
+    private static AggregateStateRecord stateRecord(Event... events) {
+        final AggregateStateRecord.Builder result = AggregateStateRecord.newBuilder();
+        for (Event event : events) {
+            result.addEvent(event);
+        }
+        return result.build();
+    }
+
+    private Event vendorAdded() {
+        return eventFactory.createEvent(VendorAdded.newBuilder()
+                                                   .setVendorId(VENDOR_ID)
+                                                   .build());
+    }
+
+    private Event vendorUpdated() {
+        return eventFactory.createEvent(VendorUpdated.newBuilder()
+                                                     .setVendorId(VENDOR_ID)
+                                                     .build());
+    }
+
+    private static int eventCount(MappedAggregateStorage<VendorId> storage) {
+        final Optional<AggregateStateRecord> record =
+                storage.read(new AggregateReadRequest<>(VENDOR_ID, Integer.MAX_VALUE));
+        return record.isPresent()
+               ? record.get()
+                       .getEventCount()
+               : 0;
+    }
+
+    /**
+     * Changes the last non-zero byte of the segment, so the checksum of the last record
+     * does not match as if the record was torn by a crash.
+     */
+    private void corruptLastRecord() throws IOException {
+        final Path segment = directory.resolve("0000000000.log");
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long position = file.length() - 1;
+            file.seek(position);
+            int value = file.read();
+            while (value == 0) {
+                file.seek(--position);
+                value = file.read();
+            }
+            file.seek(position);
+            file.write(~value);
+        }
+    }
+}
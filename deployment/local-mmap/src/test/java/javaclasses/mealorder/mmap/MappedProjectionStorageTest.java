@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Timestamp;
+import io.spine.Identifier;
+import io.spine.server.BoundedContext;
+import io.spine.server.entity.EntityRecord;
+import io.spine.server.storage.RecordReadRequest;
+import io.spine.server.storage.RecordStorage;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.VendorListId;
+import javaclasses.mealorder.q.VendorListViewProjection;
+import javaclasses.mealorder.q.projection.VendorListView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static io.spine.protobuf.AnyPacker.pack;
+import static io.spine.protobuf.AnyPacker.unpack;
+import static javaclasses.mealorder.mmap.TestDirectories.delete;
+import static javaclasses.mealorder.mmap.TestDirectories.newDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`MappedProjectionStorage` should")
+class MappedProjectionStorageTest {
+
+    private static final int SEGMENT_CAPACITY = 16 * 1024;
+    private static final int WRITE_COUNT = 2048;
+
+    private static final VendorListId ID = listId("kept");
+    private static final VendorListId DELETED_ID = listId("deleted");
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = newDirectory(getClass());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        delete(directory);
+    }
+
+    @Test
+    @DisplayName("restore the records, the deletions and the last handled event time")
+    void restoreRecords() throws Exception {
+        final Timestamp time = Timestamp.newBuilder()
+                                        .setSeconds(42)
+                                        .build();
+        try (MappedProjectionStorage<VendorListId> storage = open()) {
+            storage.write(ID, record(ID, 1));
+            storage.write(DELETED_ID, record(DELETED_ID, 2));
+            storage.delete(DELETED_ID);
+            storage.writeLastHandledEventTime(time);
+        }
+
+        try (MappedProjectionStorage<VendorListId> storage = open()) {
+            assertEquals(1, versionOf(storage, ID));
+            assertFalse(storage.read(new RecordReadRequest<>(DELETED_ID))
+                               .isPresent());
+            assertEquals(time, storage.readLastHandledEventTime());
+        }
+    }
+
+    @Test
+    @DisplayName("compact the log of the overwritten records")
+    void compactLog() throws Exception {
+        try (MappedProjectionStorage<VendorListId> storage = open()) {
+            for (int version = 1; version <= WRITE_COUNT; version++) {
+                storage.write(ID, record(ID, version));
+            }
+        }
+        assertTrue(segmentCount() > 1);
+
+        try (MappedProjectionStorage<VendorListId> storage = open()) {
+            assertEquals(WRITE_COUNT, versionOf(storage, ID));
+        }
+        assertEquals(1, segmentCount());
+
+        try (MappedProjectionStorage<VendorListId> storage = open()) {
+            assertEquals(WRITE_COUNT, versionOf(storage, ID));
+        }
+    }
+
+    private MappedProjectionStorage<VendorListId> open() throws IOException {
+        final RecordStorage<VendorListId> delegate =
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false)
+                                      .createRecordStorage(VendorListViewProjection.class);
+        return MappedProjectionStorage.open(delegate, directory.resolve("log"),
+                                            SEGMENT_CAPACITY);
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("log"))) {
+            return files.count();
+        }
+    }
+
+    private static long versionOf(MappedProjectionStorage<VendorListId> storage,
+                                  VendorListId id) {
+        final Optional<EntityRecord> record = storage.read(new RecordReadRequest<>(id));
+        assertTrue(record.isPresent());
+        final VendorListView view = unpack(record.get()
+                                                 .getState());
+        return view.getVersion();
+    }
+
+    private static EntityRecord record(VendorListId id, long version) {
+        final VendorListView view = VendorListView.newBuilder()
+                                                  .setVersion(version)
+                                                  .build();
+        return EntityRecord.newBuilder()
+                           .setEntityId(Identifier.pack(id))
+                           .setState(pack(view))
+                           .build();
+    }
+
+    private static VendorListId listId(String value) {
+        return VendorListId.newBuilder()
+                           .setValue(value)
+                           .build();
+    }
+}
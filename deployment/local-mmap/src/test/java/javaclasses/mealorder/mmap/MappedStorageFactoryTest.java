@@ -0,0 +1,369 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import com.google.common.base.Optional;
+import com.google.protobuf.Message;
+import io.grpc.stub.StreamObserver;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.core.Ack;
+import io.spine.core.Status;
+import io.spine.core.TenantId;
+import io.spine.server.BoundedContext;
+import javaclasses.mealorder.PurchaseOrderStatus;
+import javaclasses.mealorder.ServiceFactory;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.po.PurchaseOrderAggregate;
+import javaclasses.mealorder.c.po.PurchaseOrderOutbox;
+import javaclasses.mealorder.c.po.PurchaseOrderRepository;
+import javaclasses.mealorder.c.vendor.VendorAggregate;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import javaclasses.mealorder.q.VendorListViewProjection;
+import javaclasses.mealorder.q.VendorListViewRepository;
+import javaclasses.mealorder.q.projection.VendorListView;
+import javaclasses.mealorder.testdata.FakeSmtpPurchaseOrderSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static io.spine.grpc.StreamObservers.noOpObserver;
+import static javaclasses.mealorder.Tenants.runAs;
+import static javaclasses.mealorder.c.BoundedContexts.createBoundedContext;
+import static javaclasses.mealorder.mmap.TestDirectories.delete;
+import static javaclasses.mealorder.mmap.TestDirectories.newDirectory;
+import static javaclasses.mealorder.testdata.TestPurchaseOrderCommandFactory.createPurchaseOrderInstance;
+import static javaclasses.mealorder.testdata.TestValues.NEW_VENDOR_NAME;
+import static javaclasses.mealorder.testdata.TestValues.PURCHASE_ORDER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_ID;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.updateVendorInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`MappedStorageFactory` should")
+class MappedStorageFactoryTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final ActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = newDirectory(getClass());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        delete(directory);
+    }
+
+    @Test
+    @DisplayName("not be multitenant")
+    void beSingleTenant() {
+        assertFalse(newFactory().isMultitenant());
+    }
+
+    @Test
+    @DisplayName("be multitenant if created so")
+    void beMultitenant() {
+        assertTrue(newMultitenantFactory().isMultitenant());
+    }
+
+    @Test
+    @DisplayName("isolate the aggregates of the tenants")
+    void isolateTenants() throws Exception {
+        final BoundedContext boundedContext = createBoundedContext(newMultitenantFactory());
+        boundedContext.register(new VendorRepository());
+
+        assertEquals(Status.StatusCase.OK, postAs(boundedContext, tenant("first")));
+        assertEquals(Status.StatusCase.OK, postAs(boundedContext, tenant("second")));
+        // The log of the first tenant was closed and is reopened for this command.
+        assertEquals(Status.StatusCase.REJECTION, postAs(boundedContext, tenant("first")));
+        boundedContext.close();
+    }
+
+    @Test
+    @DisplayName("keep the vendor after the restart")
+    void keepVendorAfterRestart() throws Exception {
+        final BoundedContext before = createVendorContext(new VendorRepository());
+        post(before, addVendorInstance());
+        post(before, updateVendorInstance());
+        before.close();
+
+        final VendorRepository restartedRepository = new VendorRepository();
+        final BoundedContext after = createVendorContext(restartedRepository);
+
+        final Optional<VendorAggregate> vendor = restartedRepository.find(VENDOR_ID);
+        assertTrue(vendor.isPresent());
+        assertEquals(NEW_VENDOR_NAME, vendor.get()
+                                            .getState()
+                                            .getVendorName());
+        after.close();
+    }
+
+    @Test
+    @DisplayName("keep the vendor list after the restart")
+    void keepViewAfterRestart() throws Exception {
+        final BoundedContext before = createVendorContext(new VendorRepository());
+        before.register(new VendorListViewRepository());
+        post(before, addVendorInstance());
+        before.close();
+
+        final VendorListViewRepository restartedRepository = new VendorListViewRepository();
+        final BoundedContext after = createVendorContext(new VendorRepository());
+        after.register(restartedRepository);
+
+        final VendorListView view = restartedRepository.getView();
+        assertEquals(1, view.getVendorCount());
+        assertEquals(VENDOR_ID, view.getVendor(0)
+                                    .getId());
+        after.close();
+    }
+
+    @Test
+    @DisplayName("keep the views of each tenant in its own log")
+    void keepTenantViews() throws Exception {
+        final BoundedContext before = createBoundedContext(newMultitenantFactory());
+        before.register(new VendorRepository());
+        before.register(new VendorListViewRepository());
+        assertEquals(Status.StatusCase.OK, postAs(before, tenant("first")));
+        before.close();
+
+        final VendorListViewRepository restartedRepository = new VendorListViewRepository();
+        final BoundedContext after = createBoundedContext(newMultitenantFactory());
+        after.register(new VendorRepository());
+        after.register(restartedRepository);
+
+        final AtomicInteger firstCount = new AtomicInteger();
+        final AtomicInteger secondCount = new AtomicInteger();
+        runAs(tenant("first"), () -> firstCount.set(restartedRepository.getView()
+                                                                       .getVendorCount()));
+        runAs(tenant("second"), () -> secondCount.set(restartedRepository.getView()
+                                                                         .getVendorCount()));
+        assertEquals(1, firstCount.get());
+        assertEquals(0, secondCount.get());
+        assertTrue(Files.isDirectory(directory.resolve("tenants")
+                                              .resolve("value-first")
+                                              .resolve(VendorListViewProjection.class.getName())));
+        after.close();
+    }
+
+    @Test
+    @DisplayName("resume the pending purchase orders of the tenants after the restart")
+    void resumeTenantPurchaseOrders() throws Exception {
+        final FakeSmtpPurchaseOrderSender unavailable =
+                new FakeSmtpPurchaseOrderSender(0, Integer.MAX_VALUE);
+        ServiceFactory.setPoSenderInstance(unavailable);
+        final PurchaseOrderOutbox stopped =
+                new PurchaseOrderOutbox(1, 2, TimeUnit.HOURS.toMillis(1));
+        final BoundedContext before = BoundedContexts.create(newMultitenantFactory(), stopped);
+        assertEquals(Status.StatusCase.OK,
+                     postAs(before, tenant("first"), createPurchaseOrderInstance()));
+        assertTrue(awaitAttempts(unavailable));
+        before.close();
+
+        final FakeSmtpPurchaseOrderSender sender = new FakeSmtpPurchaseOrderSender(0, 0);
+        ServiceFactory.setPoSenderInstance(sender);
+        final BoundedContext after = BoundedContexts.create(newMultitenantFactory(),
+                                                            new PurchaseOrderOutbox(1, 1, 0));
+
+        assertTrue(sender.awaitSent(1, TIMEOUT_MILLIS));
+        after.close();
+    }
+
+    @Test
+    @DisplayName("keep all the events of a command after the restart")
+    void keepCommandEvents() throws Exception {
+        final BoundedContext before = createPurchaseOrderContext(new PurchaseOrderRepository());
+        post(before, createPurchaseOrderInstance());
+        before.close();
+
+        final PurchaseOrderRepository restartedRepository = new PurchaseOrderRepository();
+        final BoundedContext after = createPurchaseOrderContext(restartedRepository);
+
+        final Optional<PurchaseOrderAggregate> purchaseOrder =
+                restartedRepository.find(PURCHASE_ORDER_ID);
+        assertTrue(purchaseOrder.isPresent());
+        assertEquals(PurchaseOrderStatus.SENT, purchaseOrder.get()
+                                                            .getState()
+                                                            .getStatus());
+        after.close();
+    }
+
+    @Test
+    @DisplayName("discard all the events of a command torn by a crash")
+    void discardTornCommand() throws Exception {
+        final BoundedContext before = createPurchaseOrderContext(new PurchaseOrderRepository());
+        post(before, createPurchaseOrderInstance());
+        before.close();
+        corruptLastRecord(purchaseOrderLog());
+
+        final PurchaseOrderRepository restartedRepository = new PurchaseOrderRepository();
+        final BoundedContext after = createPurchaseOrderContext(restartedRepository);
+
+        assertFalse(restartedRepository.find(PURCHASE_ORDER_ID)
+                                       .isPresent());
+        after.close();
+    }
+
+    private MappedStorageFactory newFactory() {
+        return MappedStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                directory);
+    }
+
+    private MappedStorageFactory newMultitenantFactory() {
+        return MappedStorageFactory.newMultitenantInstance(
+                BoundedContext.newName(getClass().getName()), directory, 1);
+    }
+
+    private BoundedContext createVendorContext(VendorRepository vendorRepository) {
+        final BoundedContext boundedContext = createBoundedContext(newFactory());
+        boundedContext.register(vendorRepository);
+        return boundedContext;
+    }
+
+    private BoundedContext createPurchaseOrderContext(PurchaseOrderRepository repository) {
+        final BoundedContext boundedContext = createBoundedContext(newFactory());
+        boundedContext.register(repository);
+        return boundedContext;
+    }
+
+    /**
+     * Obtains the first segment of the log of the purchase order aggregates.
+     */
+    private Path purchaseOrderLog() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            final Path logDirectory =
+                    files.filter(file -> file.getFileName()
+                                             .toString()
+                                             .endsWith(".PurchaseOrderAggregate"))
+                         .findFirst()
+                         .orElseThrow(IllegalStateException::new);
+            return logDirectory.resolve("0000000000.log");
+        }
+    }
+
+    /**
+     * Changes the last non-zero byte of the segment, so the checksum of the last record
+     * does not match as if the record was torn by a crash.
+     */
+    private static void corruptLastRecord(Path segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long position = file.length() - 1;
+            file.seek(position);
+            int value = file.read();
+            while (value == 0) {
+                file.seek(--position);
+                value = file.read();
+            }
+            file.seek(position);
+            file.write(~value);
+        }
+    }
+
+    private void post(BoundedContext boundedContext, Message commandMessage) {
+        boundedContext.getCommandBus()
+                      .post(requestFactory.command()
+                                          .create(commandMessage), noOpObserver());
+    }
+
+    private static boolean awaitAttempts(FakeSmtpPurchaseOrderSender sender)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (sender.getAttempts() == 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * Posts the {@code AddVendor} command on behalf of the tenant.
+     *
+     * @return the status of the command acknowledgement
+     */
+    private static Status.StatusCase postAs(BoundedContext boundedContext, TenantId tenantId) {
+        return postAs(boundedContext, tenantId, addVendorInstance());
+    }
+
+    /**
+     * Posts the command on behalf of the tenant.
+     *
+     * @return the status of the command acknowledgement
+     */
+    private static Status.StatusCase postAs(BoundedContext boundedContext,
+                                            TenantId tenantId,
+                                            Message commandMessage) {
+        final ActorRequestFactory tenantRequestFactory =
+                TestActorRequestFactory.newInstance(MappedStorageFactoryTest.class, tenantId);
+        final List<Ack> acks = new ArrayList<>();
+        boundedContext.getCommandBus()
+                      .post(tenantRequestFactory.command()
+                                                .create(commandMessage),
+                            new StreamObserver<Ack>() {
+                                @Override
+                                public void onNext(Ack ack) {
+                                    acks.add(ack);
+                                }
+
+                                @Override
+                                public void onError(Throwable t) {
+                                    throw new IllegalStateException(t);
+                                }
+
+                                @Override
+                                public void onCompleted() {
+                                    // Only the acknowledgement is checked.
+                                }
+                            });
+        assertEquals(1, acks.size());
+        return acks.get(0)
+                   .getStatus()
+                   .getStatusCase();
+    }
+
+    private static TenantId tenant(String value) {
+        return TenantId.newBuilder()
+                       .setValue(value)
+                       .build();
+    }
+}
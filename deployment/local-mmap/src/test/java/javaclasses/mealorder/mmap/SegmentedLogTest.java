@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static javaclasses.mealorder.mmap.TestDirectories.delete;
+import static javaclasses.mealorder.mmap.TestDirectories.newDirectory;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author agent
+ */
+@DisplayName("`SegmentedLog` should")
+class SegmentedLogTest {
+
+    private static final int SEGMENT_CAPACITY = 64;
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = newDirectory(getClass());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        delete(directory);
+    }
+
+    @Test
+    @DisplayName("read the appended record")
+    void readAppendedRecord() throws IOException {
+        try (SegmentedLog log = open(new ArrayList<>())) {
+            final long first = log.append(bytes("first"));
+            final long second = log.append(bytes("second"));
+
+            assertArrayEquals(bytes("first"), log.read(first));
+            assertArrayEquals(bytes("second"), log.read(second));
+        }
+    }
+
+    @Test
+    @DisplayName("create a new segment when the last one is full")
+    void rollSegment() throws IOException {
+        try (SegmentedLog log = open(new ArrayList<>())) {
+            final byte[] payload = new byte[SEGMENT_CAPACITY / 2];
+            payload[0] = 1;
+            log.append(payload);
+            final long offset = log.append(payload);
+            log.sync();
+
+            assertEquals(2, segmentCount());
+            assertArrayEquals(payload, log.read(offset));
+        }
+    }
+
+    @Test
+    @DisplayName("not append the record larger than a segment")
+    void notAppendLargeRecord() throws IOException {
+        try (SegmentedLog log = open(new ArrayList<>())) {
+            assertThrows(IllegalArgumentException.class,
+                         () -> log.append(new byte[SEGMENT_CAPACITY]));
+        }
+    }
+
+    @Test
+    @DisplayName("restore the records in the order of appending")
+    void restoreRecords() throws IOException {
+        try (SegmentedLog log = open(new ArrayList<>())) {
+            for (int i = 0; i < 10; i++) {
+                log.append(bytes("record" + i));
+            }
+            log.sync();
+        }
+
+        final List<byte[]> restored = new ArrayList<>();
+        try (SegmentedLog ignored = open(restored)) {
+            assertEquals(10, restored.size());
+            for (int i = 0; i < 10; i++) {
+                assertArrayEquals(bytes("record" + i), restored.get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("discard the torn record at the end of the last segment")
+    void discardTornRecord() throws IOException {
+        final long tornOffset;
+        try (SegmentedLog log = open(new ArrayList<>())) {
+            log.append(bytes("kept"));
+            tornOffset = log.append(bytes("torn"));
+            log.sync();
+        }
+        corruptPayload(tornOffset);
+
+        final List<byte[]> restored = new ArrayList<>();
+        try (SegmentedLog log = open(restored)) {
+            assertEquals(1, restored.size());
+            assertArrayEquals(bytes("kept"), restored.get(0));
+
+            final long offset = log.append(bytes("next"));
+            assertEquals(tornOffset, offset);
+            log.sync();
+        }
+
+        restored.clear();
+        try (SegmentedLog ignored = open(restored)) {
+            assertEquals(2, restored.size());
+            assertArrayEquals(bytes("next"), restored.get(1));
+        }
+    }
+
+    private SegmentedLog open(List<byte[]> restored) throws IOException {
+        return SegmentedLog.open(directory, SEGMENT_CAPACITY,
+                                 (offset, payload) -> restored.add(payload));
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Changes the last byte of the record payload, so the checksum does not match.
+     */
+    private void corruptPayload(long offset) throws IOException {
+        final Path segment = directory.resolve("0000000000.log");
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            final int lastByte = (int) offset + LogSegment.HEADER_LENGTH + bytes("torn").length - 1;
+            file.seek(lastByte);
+            file.write('x');
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
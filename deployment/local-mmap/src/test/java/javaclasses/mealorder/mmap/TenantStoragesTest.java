@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.mmap;
+
+import io.spine.core.TenantId;
+import javaclasses.mealorder.mmap.TenantStorages.Lease;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`TenantStorages` should")
+class TenantStoragesTest {
+
+    private static final TenantId FIRST = tenant("first");
+    private static final TenantId SECOND = tenant("second");
+    private static final TenantId THIRD = tenant("third");
+
+    private final List<TestStorage> opened = new ArrayList<>();
+    private TenantStorages<TestStorage> storages;
+
+    @BeforeEach
+    void setUp() {
+        storages = new TenantStorages<>(tenantId -> {
+            final TestStorage storage = new TestStorage();
+            opened.add(storage);
+            return storage;
+        }, 2);
+    }
+
+    @Test
+    @DisplayName("open the storage of a tenant upon the first lease")
+    void openLazily() {
+        assertEquals(0, storages.openCount());
+
+        final TestStorage first = get(FIRST);
+
+        assertSame(first, get(FIRST));
+        assertEquals(1, opened.size());
+    }
+
+    @Test
+    @DisplayName("close the least recently used storage")
+    void closeLeastRecentlyUsed() {
+        final TestStorage first = get(FIRST);
+        final TestStorage second = get(SECOND);
+        get(FIRST);
+
+        get(THIRD);
+
+        assertEquals(2, storages.openCount());
+        assertFalse(first.closed);
+        assertTrue(second.closed);
+    }
+
+    @Test
+    @DisplayName("close the evicted storage outside of the pool lock")
+    void closeOutsideLock() {
+        final TestStorage first = get(FIRST);
+        get(SECOND);
+
+        get(THIRD);
+
+        assertTrue(first.closed);
+        assertFalse(first.closedHoldingLock);
+    }
+
+    @Test
+    @DisplayName("reopen the closed storage")
+    void reopenStorage() {
+        final TestStorage first = get(FIRST);
+        get(SECOND);
+        get(THIRD);
+
+        assertTrue(first.closed);
+        assertNotSame(first, get(FIRST));
+    }
+
+    @Test
+    @DisplayName("not close the leased storage")
+    void notCloseLeased() {
+        final Lease<TestStorage> firstLease = storages.lease(FIRST);
+        final Lease<TestStorage> secondLease = storages.lease(SECOND);
+        final Lease<TestStorage> thirdLease = storages.lease(THIRD);
+        final TestStorage first = firstLease.get();
+
+        assertEquals(3, storages.openCount());
+        assertFalse(first.closed);
+
+        firstLease.close();
+
+        assertTrue(first.closed);
+        assertEquals(2, storages.openCount());
+        secondLease.close();
+        thirdLease.close();
+    }
+
+    @Test
+    @DisplayName("close all the storages")
+    void closeAll() throws Exception {
+        final TestStorage first = get(FIRST);
+        final TestStorage second = get(SECOND);
+
+        storages.close();
+
+        assertTrue(first.closed);
+        assertTrue(second.closed);
+    }
+
+    private TestStorage get(TenantId tenantId) {
+        try (Lease<TestStorage> lease = storages.lease(tenantId)) {
+            return lease.get();
+        }
+    }
+
+    private static TenantId tenant(String value) {
+        return TenantId.newBuilder()
+                       .setValue(value)
+                       .build();
+    }
+
+    private class TestStorage implements AutoCloseable {
+
+        private boolean closed;
+        private boolean closedHoldingLock;
+
+        @Override
+        public void close() {
+            closed = true;
+            closedHoldingLock = Thread.holdsLock(storages);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.server;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.spine.core.Ack;
+import io.spine.core.Command;
+import io.spine.server.commandbus.CommandBus;
+import javaclasses.mealorder.c.CommandLanes;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The gRPC service posting the streams of the commands to the {@link CommandBus}.
+ *
+ * <p>The commands are dispatched in the {@link CommandLanes}. The commands targeting the same
+ * aggregate always go to the same lane, so they are handled in the order they are streamed.
+ * The commands targeting different aggregates are spread over the lanes.
+ *
+ * <p>Each stream has a bounded number of the commands in progress. The next command is requested
+ * from the client only after a command is handled, so a fast client is slowed down
+ * by the gRPC flow control instead of filling the lane queues.
+ *
+ * <p>A command which the lanes cannot route ends the stream with
+ * the {@code INVALID_ARGUMENT} status.
+ *
+ * @author agent
+ */
+public class BulkCommandService extends BulkCommandServiceGrpc.BulkCommandServiceImplBase {
+
+    private final CommandLanes lanes;
+    private final int maxInFlight;
+
+    /**
+     * Creates a new service.
+     *
+     * @param commandBus  the bus to post the commands to
+     * @param laneCount   the number of the lanes
+     * @param maxInFlight the max number of the commands of a stream in progress
+     */
+    public BulkCommandService(CommandBus commandBus, int laneCount, int maxInFlight) {
+        super();
+        checkArgument(maxInFlight > 0);
+        this.lanes = new CommandLanes(commandBus, laneCount);
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public StreamObserver<Command> post(StreamObserver<Ack> responseObserver) {
+        final ServerCallStreamObserver<Ack> serverObserver =
+                (ServerCallStreamObserver<Ack>) responseObserver;
+        serverObserver.disableAutoInboundFlowControl();
+        serverObserver.request(maxInFlight);
+        return new CommandStreamObserver(serverObserver);
+    }
+
+    /**
+     * Stops the lanes after the commands already queued are handled.
+     */
+    public void shutdown() {
+        lanes.shutdown();
+    }
+
+    /**
+     * Obtains the lanes of the service to report their queue depths.
+     */
+    public CommandLanes getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Dispatches the commands of a single stream.
+     */
+    private class CommandStreamObserver implements StreamObserver<Command> {
+
+        private final ServerCallStreamObserver<Ack> responseObserver;
+
+        /** The number of the received commands not handled yet. */
+        private final AtomicInteger inProgress = new AtomicInteger();
+
+        /** Whether the client completed the stream, is guarded by {@code this}. */
+        private boolean completed;
+
+        /** Whether the stream ended with an error, is guarded by {@code this}. */
+        private boolean failed;
+
+        private CommandStreamObserver(ServerCallStreamObserver<Ack> responseObserver) {
+            this.responseObserver = responseObserver;
+        }
+
+        @Override
+        public void onNext(Command command) {
+            inProgress.incrementAndGet();
+            try {
+                lanes.post(command, new AckObserver());
+            } catch (IllegalArgumentException | RejectedExecutionException e) {
+                inProgress.decrementAndGet();
+                fail(e);
+            }
+        }
+
+        /**
+         * Ends the stream with an error if the command cannot be posted to the lanes.
+         */
+        private synchronized void fail(RuntimeException e) {
+            if (failed) {
+                return;
+            }
+            failed = true;
+            if (!responseObserver.isCancelled()) {
+                final Status status = e instanceof IllegalArgumentException
+                                      ? Status.INVALID_ARGUMENT
+                                      : Status.UNAVAILABLE;
+                responseObserver.onError(status.withDescription(e.getMessage())
+                                               .asRuntimeException());
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // The client cancelled the stream. The commands already received are handled anyway.
+        }
+
+        @Override
+        public synchronized void onCompleted() {
+            completed = true;
+            if (!failed && inProgress.get() == 0) {
+                responseObserver.onCompleted();
+            }
+        }
+
+        private synchronized void acknowledge(Ack ack) {
+            final int left = inProgress.decrementAndGet();
+            if (failed) {
+                return;
+            }
+            if (!responseObserver.isCancelled()) {
+                responseObserver.onNext(ack);
+            }
+            if (completed) {
+                if (left == 0) {
+                    responseObserver.onCompleted();
+                }
+            } else {
+                responseObserver.request(1);
+            }
+        }
+
+        /**
+         * Passes the acknowledgement of a command to the client.
+         */
+        private class AckObserver implements StreamObserver<Ack> {
+
+            @Override
+            public void onNext(Ack ack) {
+                acknowledge(ack);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // The command bus reports all the errors in the acknowledgement.
+            }
+
+            @Override
+            public void onCompleted() {
+                // The acknowledgement is sent upon receiving it.
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.server;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The type of the executor running the gRPC calls of the {@link MealOrderServer}.
+ *
+ * @author agent
+ */
+public enum ExecutorType {
+
+    /**
+     * Runs the calls in the Netty event loop threads.
+     *
+     * <p>Avoids the thread hand-off, but a blocked call blocks all the connections
+     * of its event loop.
+     */
+    DIRECT {
+        @Override
+        Executor newExecutor(int threadCount) {
+            return MoreExecutors.directExecutor();
+        }
+    },
+
+    /**
+     * Runs the calls in a fixed pool of threads.
+     *
+     * <p>Bounds the number of the calls handled at once.
+     */
+    FIXED {
+        @Override
+        Executor newExecutor(int threadCount) {
+            checkArgument(threadCount > 0);
+            return Executors.newFixedThreadPool(threadCount);
+        }
+    },
+
+    /**
+     * Runs the calls in a work-stealing pool.
+     *
+     * <p>Many short calls are spread over the threads with little contention,
+     * which is the closest to the virtual threads available on Java 8.
+     */
+    WORK_STEALING {
+        @Override
+        Executor newExecutor(int threadCount) {
+            checkArgument(threadCount > 0);
+            return Executors.newWorkStealingPool(threadCount);
+        }
+    };
+
+    /**
+     * Creates a new executor of this type.
+     *
+     * @param threadCount the number of the threads, is ignored by the {@link #DIRECT} executor
+     * @return the new executor
+     */
+    abstract Executor newExecutor(int threadCount);
+}
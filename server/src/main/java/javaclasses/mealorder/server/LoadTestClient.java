@@ -0,0 +1,237 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.server;
+
+import com.google.protobuf.Message;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import io.spine.client.ActorRequestFactory;
+import io.spine.client.Query;
+import io.spine.client.QueryResponse;
+import io.spine.client.grpc.CommandServiceGrpc;
+import io.spine.client.grpc.QueryServiceGrpc;
+import io.spine.core.Ack;
+import io.spine.core.Command;
+import io.spine.net.EmailAddress;
+import io.spine.time.LocalTime;
+import javaclasses.mealorder.PhoneNumber;
+import javaclasses.mealorder.UserId;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.VendorName;
+import javaclasses.mealorder.c.command.AddVendor;
+import javaclasses.mealorder.q.projection.VendorListView;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The load-test client of the {@link MealOrderServer}.
+ *
+ * <p>Posts the commands adding the vendors or reads the vendor list and reports the throughput
+ * and the latency percentiles. The requests are sent asynchronously keeping the configured
+ * number of the requests in flight.
+ *
+ * <p>The client is configured with the system properties:
+ * <ul>
+ *     <li>{@code mealorder.host} — the server host, {@code localhost} by default;
+ *     <li>{@code mealorder.port} — the server port, {@code 50051} by default;
+ *     <li>{@code mealorder.loadTest.mode} — {@code command} or {@code query},
+ *         {@code command} by default;
+ *     <li>{@code mealorder.loadTest.requests} — the number of the measured requests,
+ *         {@code 10000} by default;
+ *     <li>{@code mealorder.loadTest.warmUpRequests} — the number of the requests sent before
+ *         the measured ones, {@code 1000} by default;
+ *     <li>{@code mealorder.loadTest.concurrency} — the number of the requests in flight,
+ *         {@code 64} by default.
+ * </ul>
+ *
+ * @author agent
+ */
+public final class LoadTestClient {
+
+    private static final String ACTOR_EMAIL = "load-test@example.com";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final long NANOS_IN_MICRO = 1_000;
+    private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+
+    private final ManagedChannel channel;
+    private final ActorRequestFactory requestFactory;
+    private final boolean queries;
+    private final int concurrency;
+
+    /** The number of the vendors added by this client, makes the vendor identifiers unique. */
+    private final AtomicInteger vendorCount = new AtomicInteger();
+
+    /** The number of the failed requests. */
+    private final AtomicInteger errors = new AtomicInteger();
+
+    private LoadTestClient(ManagedChannel channel, boolean queries, int concurrency) {
+        this.channel = channel;
+        this.queries = queries;
+        this.concurrency = concurrency;
+        final io.spine.core.UserId actor = io.spine.core.UserId.newBuilder()
+                                                               .setValue(ACTOR_EMAIL)
+                                                               .build();
+        this.requestFactory = ActorRequestFactory.newBuilder()
+                                                 .setActor(actor)
+                                                 .build();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final String host = System.getProperty("mealorder.host", "localhost");
+        final int port = Integer.getInteger("mealorder.port", MealOrderServer.DEFAULT_PORT);
+        final boolean queries = "query".equals(System.getProperty("mealorder.loadTest.mode",
+                                                                  "command"));
+        final int requests = Integer.getInteger("mealorder.loadTest.requests", 10_000);
+        final int warmUpRequests = Integer.getInteger("mealorder.loadTest.warmUpRequests", 1_000);
+        final int concurrency = Integer.getInteger("mealorder.loadTest.concurrency", 64);
+        checkArgument(requests > 0 && warmUpRequests >= 0 && concurrency > 0);
+
+        final ManagedChannel channel = NettyChannelBuilder.forAddress(host, port)
+                                                          .usePlaintext(true)
+                                                          .build();
+        try {
+            final LoadTestClient client = new LoadTestClient(channel, queries, concurrency);
+            client.run(warmUpRequests);
+            client.errors.set(0);
+            final long start = System.nanoTime();
+            final long[] latencies = client.run(requests);
+            final long elapsed = System.nanoTime() - start;
+            report(requests, client.errors.get(), elapsed, latencies);
+        } finally {
+            channel.shutdown()
+                   .awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Sends the requests.
+     *
+     * @return the latencies of the requests in nanoseconds
+     */
+    private long[] run(int requests) throws InterruptedException {
+        final long[] latencies = new long[requests];
+        final Semaphore inFlight = new Semaphore(concurrency);
+        final CountDownLatch completed = new CountDownLatch(requests);
+        final CommandServiceGrpc.CommandServiceStub commandService =
+                CommandServiceGrpc.newStub(channel);
+        final QueryServiceGrpc.QueryServiceStub queryService = QueryServiceGrpc.newStub(channel);
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            final int request = i;
+            final long start = System.nanoTime();
+            final Runnable onCompleted = () -> {
+                latencies[request] = System.nanoTime() - start;
+                inFlight.release();
+                completed.countDown();
+            };
+            if (queries) {
+                queryService.read(vendorListQuery(),
+                                  new ResponseObserver<QueryResponse>(onCompleted, errors));
+            } else {
+                commandService.post(addVendorCommand(),
+                                    new ResponseObserver<Ack>(onCompleted, errors));
+            }
+        }
+        completed.await();
+        return latencies;
+    }
+
+    private Command addVendorCommand() {
+        final int number = vendorCount.incrementAndGet();
+        final Message message =
+                AddVendor.newBuilder()
+                         .setVendorId(VendorId.newBuilder()
+                                              .setValue("vendor:load-test-" + number))
+                         .setUserId(UserId.newBuilder()
+                                          .setEmail(email(ACTOR_EMAIL)))
+                         .setVendorName(VendorName.newBuilder()
+                                                  .setValue("Load test vendor " + number))
+                         .setEmail(email("vendor" + number + "@example.com"))
+                         .addPhoneNumber(PhoneNumber.newBuilder()
+                                                    .setValue("1234567890"))
+                         .setPoDailyDeadline(LocalTime.newBuilder()
+                                                      .setHours(10))
+                         .build();
+        return requestFactory.command()
+                             .create(message);
+    }
+
+    private Query vendorListQuery() {
+        return requestFactory.query()
+                             .all(VendorListView.class);
+    }
+
+    private static EmailAddress email(String value) {
+        return EmailAddress.newBuilder()
+                           .setValue(value)
+                           .build();
+    }
+
+    private static void report(int requests, int errors, long elapsedNanos, long[] latencies) {
+        final long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        final double throughput = requests / (elapsedNanos / NANOS_IN_SECOND);
+        System.out.printf("Requests: %d, errors: %d, throughput: %.1f requests/s%n",
+                          requests, errors, throughput);
+        for (double percentile : PERCENTILES) {
+            final int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            final long latency = sorted[Math.max(index, 0)];
+            System.out.printf("p%s latency: %d us%n", percentile, latency / NANOS_IN_MICRO);
+        }
+    }
+
+    /**
+     * Completes the request upon the response or the error.
+     */
+    private static class ResponseObserver<T> implements StreamObserver<T> {
+
+        private final Runnable onCompleted;
+        private final AtomicInteger errors;
+
+        private ResponseObserver(Runnable onCompleted, AtomicInteger errors) {
+            this.onCompleted = onCompleted;
+            this.errors = errors;
+        }
+
+        @Override
+        public void onNext(T value) {
+            // The response content is not checked by the load test.
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            errors.incrementAndGet();
+            onCompleted.run();
+        }
+
+        @Override
+        public void onCompleted() {
+            onCompleted.run();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.server;
+
+import io.grpc.Server;
+import io.grpc.netty.NettyServerBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.spine.server.BoundedContext;
+import io.spine.server.CommandService;
+import io.spine.server.QueryService;
+import io.spine.server.SubscriptionService;
+import javaclasses.mealorder.c.BoundedContexts;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * The gRPC server of the MealOrder bounded context.
+ *
+ * <p>Serves the {@link CommandService}, the {@link QueryService} and
+ * the {@link SubscriptionService} of the bounded context. The streams of the commands
+ * are served by the {@link BulkCommandService}.
+ *
+ * <p>The server is configured with the system properties when started from the command line:
+ * <ul>
+ *     <li>{@code mealorder.port} — the port to listen, {@code 50051} by default;
+ *     <li>{@code mealorder.executor} — the {@link ExecutorType} of the calls,
+ *         {@code FIXED} by default;
+ *     <li>{@code mealorder.threads} — the number of the threads of the executor,
+ *         the number of the processors by default;
+ *     <li>{@code mealorder.eventLoopThreads} — the number of the Netty worker event loop
+ *         threads, the number of the processors by default;
+ *     <li>{@code mealorder.bulkLanes} — the number of the lanes of the {@link BulkCommandService},
+ *         the number of the processors by default.
+ * </ul>
+ *
+ * @author agent
+ */
+public class MealOrderServer {
+
+    /** The default port to listen. */
+    public static final int DEFAULT_PORT = 50051;
+
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    /** The max number of the commands of a bulk stream in progress. */
+    private static final int BULK_MAX_IN_FLIGHT = 256;
+
+    private final BoundedContext boundedContext;
+    private final int port;
+    private final ExecutorType executorType;
+    private final int threadCount;
+    private final int eventLoopThreadCount;
+    private final int bulkLaneCount;
+
+    private Server server;
+    private BulkCommandService bulkCommandService;
+    private Executor executor;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+
+    private MealOrderServer(Builder builder) {
+        this.boundedContext = builder.boundedContext;
+        this.port = builder.port;
+        this.executorType = builder.executorType;
+        this.threadCount = builder.threadCount;
+        this.eventLoopThreadCount = builder.eventLoopThreadCount;
+        this.bulkLaneCount = builder.bulkLaneCount;
+    }
+
+    /**
+     * Starts the server.
+     *
+     * <p>The executor and the event loop groups are released if the server cannot be started,
+     * so the server can be started again.
+     *
+     * @throws IOException if the server cannot bind the port
+     */
+    public synchronized void start() throws IOException {
+        checkState(server == null, "The server is already started.");
+        executor = executorType.newExecutor(threadCount);
+        bossGroup = new NioEventLoopGroup(1);
+        workerGroup = new NioEventLoopGroup(eventLoopThreadCount);
+        try {
+            bulkCommandService = new BulkCommandService(boundedContext.getCommandBus(),
+                                                        bulkLaneCount, BULK_MAX_IN_FLIGHT);
+            server = NettyServerBuilder.forPort(port)
+                                       .channelType(NioServerSocketChannel.class)
+                                       .bossEventLoopGroup(bossGroup)
+                                       .workerEventLoopGroup(workerGroup)
+                                       .executor(executor)
+                                       .addService(CommandService.newBuilder()
+                                                                 .add(boundedContext)
+                                                                 .build())
+                                       .addService(QueryService.newBuilder()
+                                                               .add(boundedContext)
+                                                               .build())
+                                       .addService(SubscriptionService.newBuilder()
+                                                                      .add(boundedContext)
+                                                                      .build())
+                                       .addService(bulkCommandService)
+                                       .build()
+                                       .start();
+        } catch (IOException | RuntimeException e) {
+            releaseResources();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtains the port the server listens.
+     *
+     * <p>Is the actual port if the server was built with the port {@code 0}.
+     */
+    public synchronized int getPort() {
+        checkState(server != null, "The server is not started.");
+        return server.getPort();
+    }
+
+    /**
+     * Stops the server waiting for the calls in progress to complete.
+     */
+    public synchronized void shutdown() throws InterruptedException {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        if (!server.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            server.shutdownNow();
+        }
+        server = null;
+        releaseResources();
+    }
+
+    /**
+     * Shuts down the bulk command service, the executor and the event loop groups
+     * of the server.
+     */
+    private void releaseResources() {
+        if (bulkCommandService != null) {
+            bulkCommandService.shutdown();
+            bulkCommandService = null;
+        }
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+        executor = null;
+        bossGroup.shutdownGracefully();
+        bossGroup = null;
+        workerGroup.shutdownGracefully();
+        workerGroup = null;
+    }
+
+    /**
+     * Waits for the server to stop.
+     */
+    public void awaitTermination() throws InterruptedException {
+        final Server current;
+        synchronized (this) {
+            current = server;
+        }
+        if (current != null) {
+            current.awaitTermination();
+        }
+    }
+
+    /**
+     * Starts the server with the in-memory bounded context configured
+     * by the system properties.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final int processors = Runtime.getRuntime()
+                                      .availableProcessors();
+        final MealOrderServer server =
+                newBuilder().setBoundedContext(BoundedContexts.create())
+                            .setPort(Integer.getInteger("mealorder.port", DEFAULT_PORT))
+                            .setExecutorType(ExecutorType.valueOf(
+                                    System.getProperty("mealorder.executor",
+                                                       ExecutorType.FIXED.name())))
+                            .setThreadCount(Integer.getInteger("mealorder.threads", processors))
+                            .setEventLoopThreadCount(
+                                    Integer.getInteger("mealorder.eventLoopThreads", processors))
+                            .setBulkLaneCount(Integer.getInteger("mealorder.bulkLanes",
+                                                                 processors))
+                            .build();
+        server.start();
+        Runtime.getRuntime()
+               .addShutdownHook(new Thread(() -> {
+                   try {
+                       server.shutdown();
+                   } catch (InterruptedException ignored) {
+                       Thread.currentThread()
+                             .interrupt();
+                   }
+               }));
+        server.awaitTermination();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * The builder of the {@link MealOrderServer}.
+     */
+    public static class Builder {
+
+        private BoundedContext boundedContext;
+        private int port = DEFAULT_PORT;
+        private ExecutorType executorType = ExecutorType.FIXED;
+        private int threadCount = Runtime.getRuntime()
+                                         .availableProcessors();
+        private int eventLoopThreadCount = Runtime.getRuntime()
+                                                  .availableProcessors();
+        private int bulkLaneCount = Runtime.getRuntime()
+                                           .availableProcessors();
+
+        private Builder() {
+        }
+
+        public Builder setBoundedContext(BoundedContext boundedContext) {
+            this.boundedContext = checkNotNull(boundedContext);
+            return this;
+        }
+
+        /**
+         * Sets the port to listen, {@code 0} to pick a free port.
+         */
+        public Builder setPort(int port) {
+            checkArgument(port >= 0);
+            this.port = port;
+            return this;
+        }
+
+        public Builder setExecutorType(ExecutorType executorType) {
+            this.executorType = checkNotNull(executorType);
+            return this;
+        }
+
+        public Builder setThreadCount(int threadCount) {
+            checkArgument(threadCount > 0);
+            this.threadCount = threadCount;
+            return this;
+        }
+
+        public Builder setEventLoopThreadCount(int eventLoopThreadCount) {
+            checkArgument(eventLoopThreadCount > 0);
+            this.eventLoopThreadCount = eventLoopThreadCount;
+            return this;
+        }
+
+        public Builder setBulkLaneCount(int bulkLaneCount) {
+            checkArgument(bulkLaneCount > 0);
+            this.bulkLaneCount = bulkLaneCount;
+            return this;
+        }
+
+        public MealOrderServer build() {
+            checkState(boundedContext != null, "The bounded context is not set.");
+            return new MealOrderServer(this);
+        }
+    }
+}
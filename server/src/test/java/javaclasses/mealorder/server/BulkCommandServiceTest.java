@@ -0,0 +1,169 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.server;
+
+import com.google.protobuf.Message;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.core.Ack;
+import io.spine.core.Command;
+import io.spine.core.Status;
+import io.spine.server.BoundedContext;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.VendorId;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static javaclasses.mealorder.testdata.TestValues.EMAIL;
+import static javaclasses.mealorder.testdata.TestValues.PHONE_NUMBER1;
+import static javaclasses.mealorder.testdata.TestValues.PHONE_NUMBER2;
+import static javaclasses.mealorder.testdata.TestValues.PO_DAILY_DEADLINE;
+import static javaclasses.mealorder.testdata.TestValues.USER_ID;
+import static javaclasses.mealorder.testdata.TestValues.VENDOR_NAME;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.importMenuInstance;
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.setDateRangeForMenuInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ */
+@DisplayName("`BulkCommandService` should")
+class BulkCommandServiceTest {
+
+    private static final int VENDOR_COUNT = 20;
+
+    private final TestActorRequestFactory requestFactory =
+            TestActorRequestFactory.newInstance(getClass());
+
+    private MealOrderServer server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new VendorRepository());
+        server = MealOrderServer.newBuilder()
+                                .setBoundedContext(boundedContext)
+                                .setPort(0)
+                                .setBulkLaneCount(4)
+                                .build();
+        server.start();
+        channel = NettyChannelBuilder.forAddress("localhost", server.getPort())
+                                     .usePlaintext(true)
+                                     .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow()
+               .awaitTermination(1, TimeUnit.SECONDS);
+        server.shutdown();
+    }
+
+    @Test
+    @DisplayName("handle the commands of an aggregate in the stream order")
+    void handleInOrder() throws InterruptedException {
+        final List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < VENDOR_COUNT; i++) {
+            final VendorId vendorId = VendorId.newBuilder()
+                                              .setValue("vendor:bulk-" + i)
+                                              .build();
+            commands.add(command(addVendorInstance(vendorId, USER_ID, VENDOR_NAME, EMAIL,
+                                                   PO_DAILY_DEADLINE,
+                                                   PHONE_NUMBER1, PHONE_NUMBER2)));
+        }
+        commands.add(command(addVendorInstance()));
+        commands.add(command(importMenuInstance()));
+        commands.add(command(setDateRangeForMenuInstance()));
+
+        final List<Ack> acks = post(commands);
+
+        assertEquals(commands.size(), acks.size());
+        for (Ack ack : acks) {
+            assertEquals(Status.StatusCase.OK, ack.getStatus()
+                                                  .getStatusCase());
+        }
+    }
+
+    @Test
+    @DisplayName("acknowledge the rejected command with the rejection")
+    void acknowledgeRejection() throws InterruptedException {
+        final List<Command> commands = new ArrayList<>();
+        commands.add(command(addVendorInstance()));
+        commands.add(command(addVendorInstance()));
+
+        final List<Ack> acks = post(commands);
+
+        assertEquals(2, acks.size());
+        assertTrue(acks.stream()
+                       .anyMatch(ack -> ack.getStatus()
+                                           .getStatusCase() == Status.StatusCase.REJECTION));
+    }
+
+    private List<Ack> post(List<Command> commands) throws InterruptedException {
+        final List<Ack> acks = new ArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final StreamObserver<Command> requestObserver =
+                BulkCommandServiceGrpc.newStub(channel)
+                                      .post(new StreamObserver<Ack>() {
+                                          @Override
+                                          public void onNext(Ack ack) {
+                                              acks.add(ack);
+                                          }
+
+                                          @Override
+                                          public void onError(Throwable t) {
+                                              completed.countDown();
+                                          }
+
+                                          @Override
+                                          public void onCompleted() {
+                                              completed.countDown();
+                                          }
+                                      });
+        for (Command command : commands) {
+            requestObserver.onNext(command);
+        }
+        requestObserver.onCompleted();
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        return acks;
+    }
+
+    private Command command(Message message) {
+        return requestFactory.command()
+                             .create(message);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.server;
+
+import io.grpc.ManagedChannel;
+import io.grpc.netty.NettyChannelBuilder;
+import io.spine.client.TestActorRequestFactory;
+import io.spine.client.grpc.CommandServiceGrpc;
+import io.spine.core.Ack;
+import io.spine.core.Status;
+import io.spine.server.BoundedContext;
+import io.spine.server.storage.memory.InMemoryStorageFactory;
+import javaclasses.mealorder.c.BoundedContexts;
+import javaclasses.mealorder.c.vendor.VendorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static javaclasses.mealorder.testdata.TestVendorCommandFactory.addVendorInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author agent
+ */
+@DisplayName("`MealOrderServer` should")
+class MealOrderServerTest {
+
+    private MealOrderServer server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final BoundedContext boundedContext = BoundedContexts.createBoundedContext(
+                InMemoryStorageFactory.newInstance(BoundedContext.newName(getClass().getName()),
+                                                   false));
+        boundedContext.register(new VendorRepository());
+        server = MealOrderServer.newBuilder()
+                                .setBoundedContext(boundedContext)
+                                .setPort(0)
+                                .setExecutorType(ExecutorType.WORK_STEALING)
+                                .setThreadCount(2)
+                                .setEventLoopThreadCount(1)
+                                .build();
+        server.start();
+        channel = NettyChannelBuilder.forAddress("localhost", server.getPort())
+                                     .usePlaintext(true)
+                                     .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow()
+               .awaitTermination(1, TimeUnit.SECONDS);
+        server.shutdown();
+    }
+
+    @Test
+    @DisplayName("accept the commands")
+    void acceptCommands() {
+        final TestActorRequestFactory requestFactory =
+                TestActorRequestFactory.newInstance(getClass());
+        final Ack ack = CommandServiceGrpc.newBlockingStub(channel)
+                                          .post(requestFactory.command()
+                                                              .create(addVendorInstance()));
+
+        assertEquals(Status.StatusCase.OK, ack.getStatus()
+                                              .getStatusCase());
+    }
+
+    @Test
+    @DisplayName("be started again after the failure to bind the port")
+    void startAfterFailure() {
+        final MealOrderServer busyPortServer =
+                MealOrderServer.newBuilder()
+                               .setBoundedContext(BoundedContexts.create())
+                               .setPort(server.getPort())
+                               .setThreadCount(1)
+                               .setEventLoopThreadCount(1)
+                               .setBulkLaneCount(1)
+                               .build();
+
+        assertThrows(IOException.class, busyPortServer::start);
+        assertThrows(IOException.class, busyPortServer::start);
+    }
+
+    @Test
+    @DisplayName("not be built without the bounded context")
+    void notBuildWithoutBoundedContext() {
+        assertThrows(IllegalStateException.class, () -> MealOrderServer.newBuilder()
+                                                                       .build());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018, TeamDev Ltd. All rights reserved.
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package javaclasses.mealorder.testdata;
+
+import io.spine.net.EmailAddress;
+import javaclasses.mealorder.PurchaseOrder;
+import javaclasses.mealorder.PurchaseOrderSender;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The in-process stand-in of the SMTP relay sending the purchase orders.
+ *
+ * <p>Each sending takes the configured time. The first sendings may be configured to fail
+ * to imitate an unavailable relay.
+ *
+ * @author agent
+ */
+public class FakeSmtpPurchaseOrderSender implements PurchaseOrderSender {
+
+    private final long latencyMillis;
+    private final AtomicInteger failuresLeft;
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final List<PurchaseOrder> sent = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new sender.
+     *
+     * @param latencyMillis the time of each sending in milliseconds
+     * @param failureCount  the number of the first sendings to fail
+     */
+    public FakeSmtpPurchaseOrderSender(long latencyMillis, int failureCount) {
+        checkArgument(latencyMillis >= 0);
+        checkArgument(failureCount >= 0);
+        this.latencyMillis = latencyMillis;
+        this.failuresLeft = new AtomicInteger(failureCount);
+    }
+
+    @Override
+    public void send(PurchaseOrder purchaseOrder, EmailAddress senderEmail,
+                     EmailAddress vendorEmail) {
+        attempts.incrementAndGet();
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new IllegalStateException(e);
+        }
+        if (failuresLeft.get() > 0 && failuresLeft.getAndDecrement() > 0) {
+            throw new IllegalStateException("The SMTP relay is not available.");
+        }
+        sent.add(purchaseOrder);
+    }
+
+    /**
+     * Waits until the specified number of the purchase orders is sent.
+     *
+     * @param count         the expected number of the sent purchase orders
+     * @param timeoutMillis the maximum time to wait in milliseconds
+     * @return {@code true} if the purchase orders were sent before the timeout
+     */
+    public boolean awaitSent(int count, long timeoutMillis) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (sent.size() < count) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * Obtains the successfully sent purchase orders.
+     */
+    public List<PurchaseOrder> getSent() {
+        return sent;
+    }
+
+    /**
+     * Obtains the number of all sending attempts including the failed ones.
+     */
+    public int getAttempts() {
+        return attempts.get();
+    }
+}
@@ -21,9 +21,9 @@
 package javaclasses.mealorder.testdata;
 
 import io.spine.time.LocalDate;
-import javaclasses.mealorder.Dish;
 import javaclasses.mealorder.Order;
 import javaclasses.mealorder.OrderId;
+import javaclasses.mealorder.OrderLine;
 import javaclasses.mealorder.OrderStatus;
 import javaclasses.mealorder.PurchaseOrderId;
 import javaclasses.mealorder.VendorId;
@@ -33,9 +33,7 @@ import javaclasses.mealorder.c.command.MarkPurchaseOrderAsDelivered;
 import javaclasses.mealorder.c.command.MarkPurchaseOrderAsValid;
 import javaclasses.mealorder.c.event.PurchaseOrderValidationFailed;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import static javaclasses.mealorder.OrderLines.lineOf;
 import static javaclasses.mealorder.OrderStatus.ORDER_CANCELED;
 import static javaclasses.mealorder.testdata.TestValues.ORDER;
 import static javaclasses.mealorder.testdata.TestValues.PURCHASE_ORDER_ID;
@@ -172,14 +170,10 @@ public class TestPurchaseOrderCommandFactory {
     public static CreatePurchaseOrder createPurchaseOrderWithInvalidOrdersInstance() {
         final CreatePurchaseOrder validCmd = createPurchaseOrderInstance();
         final Order order = validCmd.getOrder(0);
-        final Dish dish = order.getDish(0);
-
-        List<Dish> dishes = new ArrayList<>();
-        for (int i = 0; i < 100; i++) {
-            dishes.add(dish);
-        }
+        final OrderLine line = order.getLine(0);
         final Order invalidOrder = Order.newBuilder(order)
-                                        .addAllDish(dishes)
+                                        .setLine(0, lineOf(line.getDish(),
+                                                           line.getQuantity() + 100))
                                         .build();
         final CreatePurchaseOrder result = CreatePurchaseOrder.newBuilder(validCmd)
                                                               .addOrder(invalidOrder)
@@ -43,6 +43,7 @@ import static io.spine.time.LocalDates.addYears;
 import static io.spine.time.LocalDates.now;
 import static io.spine.time.LocalDates.subtractYears;
 import static io.spine.time.Time.getCurrentTime;
+import static javaclasses.mealorder.OrderLines.lineOf;
 import static javaclasses.mealorder.OrderStatus.ORDER_ACTIVE;
 
 /**
@@ -207,7 +208,7 @@ public class TestValues {
 
     public static final Order ORDER = Order.newBuilder()
                                            .setId(ORDER_ID)
-                                           .addDish(DISH1)
+                                           .addLine(lineOf(DISH1, 1))
                                            .setStatus(ORDER_ACTIVE)
                                            .build();
 }